@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.worker.testcontainer.TestContainer;
+import com.hazelcast.simulator.worker.testcontainer.TestContextImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+
+import static com.hazelcast.simulator.common.TestPhase.RUN;
+import static com.hazelcast.simulator.common.TestPhase.SETUP;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures the cost per iteration of the generated timestep loop for a timestep method that returns a
+ * {@link CompletableFuture}.
+ *
+ * The futures are already completed, so the completion callback runs on the timestep thread and the result is the overhead of
+ * the async result path: registering the callback, recording the latency and, if maxInFlight is set, counting the in flight
+ * calls and recording the in flight depth.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AsyncResultBenchmark {
+
+    static final int ITERATIONS = 1000000;
+
+    @Param({"0", "64"})
+    int maxInFlight;
+
+    private TestContainer container;
+
+    @Setup
+    public void setup() throws Exception {
+        AsyncTest testInstance = new AsyncTest();
+        TestCase testCase = new TestCase("asyncResultBenchmark")
+                .setProperty("class", testInstance.getClass())
+                .setProperty("threadCount", 1)
+                .setProperty("iterations", ITERATIONS)
+                .setProperty("maxInFlight", maxInFlight);
+
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", null);
+        container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public void run() throws Exception {
+        container.invoke(RUN);
+    }
+
+    public static class AsyncTest {
+
+        private final CompletableFuture<Object> completed = CompletableFuture.completedFuture(null);
+
+        @TimeStep
+        public CompletableFuture<Object> timeStep() {
+            return completed;
+        }
+    }
+}
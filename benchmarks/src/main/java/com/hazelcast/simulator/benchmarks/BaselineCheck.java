@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.hazelcast.simulator.utils.CommandLineExitException;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static java.lang.String.format;
+
+/**
+ * Compares the result of a JMH run with the baseline, so regressions of the overhead of the harness are caught.
+ *
+ * The JMH results need to be written as JSON: {@code java -jar benchmarks.jar -rf json -rff jmh-result.json}. The baseline
+ * file has a line with the benchmark and its score in ns/op for every benchmark, e.g.
+ * {@code MetronomeBenchmark.waitForNext_1thread[metronome=Sleeping] 20.5}. Empty lines and lines starting with '#' are
+ * ignored.
+ *
+ * A benchmark fails if its score is more than the tolerance above its baseline, or if it has no baseline at all; otherwise an
+ * empty or outdated baseline would silently pass every run. With {@code --update} the scores in the baseline file are replaced
+ * by the scores of the JMH run; the comment lines at the start of the file are kept.
+ */
+public final class BaselineCheck {
+
+    static final double DEFAULT_TOLERANCE = 0.25;
+
+    private static final String PACKAGE_PREFIX = BaselineCheck.class.getPackage().getName() + '.';
+    private static final String DEFAULT_HEADER = "# benchmark score in ns/op\n";
+
+    private BaselineCheck() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineCheck <jmh-result.json> <baseline-file> [tolerance|--update]");
+            System.exit(1);
+        }
+
+        try {
+            Map<String, Double> scores = parseJmhResult(fileAsText(args[0]));
+            File baselineFile = new File(args[1]);
+            if (args.length > 2 && args[2].equals("--update")) {
+                String header = baselineFile.exists() ? parseHeader(fileAsText(baselineFile)) : DEFAULT_HEADER;
+                writeText(formatBaseline(header, scores), baselineFile);
+                System.out.println(format("Updated %s with %d benchmarks", baselineFile, scores.size()));
+                return;
+            }
+
+            double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+            Map<String, Double> baseline = parseBaseline(fileAsText(baselineFile));
+            int failures = check(scores, baseline, tolerance);
+            if (failures > 0) {
+                System.err.println(format("%d benchmarks are more than %.0f%% slower than the baseline or have no baseline;"
+                        + " create or update the baseline with --update", failures, tolerance * 100));
+                System.exit(1);
+            }
+        } catch (CommandLineExitException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compares the scores with the baseline.
+     *
+     * @param scores    the scores of the JMH run
+     * @param baseline  the baseline scores
+     * @param tolerance the allowed relative increase of a score, e.g. 0.25 for 25%
+     * @return the number of failed benchmarks: the regressions and the benchmarks without a baseline
+     */
+    static int check(Map<String, Double> scores, Map<String, Double> baseline, double tolerance) {
+        int failures = 0;
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            String benchmark = entry.getKey();
+            double score = entry.getValue();
+            Double baselineScore = baseline.get(benchmark);
+            if (baselineScore == null) {
+                System.out.println(format("MISSING    %-70s %10.2f ns/op (no baseline)", benchmark, score));
+                failures++;
+                continue;
+            }
+
+            double change = (score - baselineScore) / baselineScore;
+            String status = "OK";
+            if (change > tolerance) {
+                status = "REGRESSION";
+                failures++;
+            }
+            System.out.println(format("%-10s %-70s %10.2f ns/op (baseline %.2f ns/op, %+.1f%%)",
+                    status, benchmark, score, baselineScore, change * 100));
+        }
+        return failures;
+    }
+
+    static Map<String, Double> parseJmhResult(String json) {
+        Map<String, Double> scores = new TreeMap<>();
+        for (JsonElement element : new JsonParser().parse(json).getAsJsonArray()) {
+            JsonObject result = element.getAsJsonObject();
+            JsonObject primaryMetric = result.getAsJsonObject("primaryMetric");
+            String unit = primaryMetric.get("scoreUnit").getAsString();
+            if (!unit.equals("ns/op")) {
+                throw new CommandLineExitException(format("Benchmark %s has unit %s, but ns/op is required",
+                        result.get("benchmark").getAsString(), unit));
+            }
+            scores.put(benchmarkName(result), primaryMetric.get("score").getAsDouble());
+        }
+        return scores;
+    }
+
+    private static String benchmarkName(JsonObject result) {
+        String name = result.get("benchmark").getAsString();
+        if (name.startsWith(PACKAGE_PREFIX)) {
+            name = name.substring(PACKAGE_PREFIX.length());
+        }
+
+        JsonObject params = result.getAsJsonObject("params");
+        if (params == null) {
+            return name;
+        }
+
+        Map<String, String> sortedParams = new TreeMap<>();
+        for (Map.Entry<String, JsonElement> param : params.entrySet()) {
+            sortedParams.put(param.getKey(), param.getValue().getAsString());
+        }
+        StringBuilder sb = new StringBuilder(name).append('[');
+        for (Map.Entry<String, String> param : sortedParams.entrySet()) {
+            if (sb.charAt(sb.length() - 1) != '[') {
+                sb.append(',');
+            }
+            sb.append(param.getKey()).append('=').append(param.getValue());
+        }
+        return sb.append(']').toString();
+    }
+
+    static Map<String, Double> parseBaseline(String text) {
+        Map<String, Double> baseline = new TreeMap<>();
+        for (String line : text.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] tokens = line.split("\\s+");
+            if (tokens.length != 2) {
+                throw new CommandLineExitException(format("Invalid line in baseline [%s], expected: benchmark score", line));
+            }
+            try {
+                baseline.put(tokens[0], Double.parseDouble(tokens[1]));
+            } catch (NumberFormatException e) {
+                throw new CommandLineExitException(format("Invalid score in baseline [%s]", line), e);
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * Returns the comment and empty lines at the start of the baseline, so they are kept when the baseline is updated.
+     *
+     * @param text the content of the baseline file
+     * @return the header including the trailing newline, or the default header if the baseline has no comment lines
+     */
+    static String parseHeader(String text) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : text.split("\n")) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                break;
+            }
+            sb.append(line).append('\n');
+        }
+        return sb.toString().trim().isEmpty() ? DEFAULT_HEADER : sb.toString();
+    }
+
+    static String formatBaseline(String header, Map<String, Double> scores) {
+        StringBuilder sb = new StringBuilder(header);
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            sb.append(entry.getKey()).append(' ').append(format(Locale.US, "%.2f", entry.getValue())).append('\n');
+        }
+        return sb.toString();
+    }
+}
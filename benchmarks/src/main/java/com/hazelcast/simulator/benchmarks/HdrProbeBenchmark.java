@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks;
+
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.HdrProbe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures the cost of recording a latency in a {@link HdrProbe}, which is done for every call of a timestep method.
+ *
+ * The shared benchmarks let all threads record into the same probe, like the timestep threads do by default. The singleWriter
+ * benchmarks give every thread its own probe, like the timestep threads do when perThreadLatency is enabled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HdrProbeBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SharedProbe {
+
+        Probe probe;
+
+        @Setup
+        public void setup() {
+            probe = new HdrProbe(true);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadProbe {
+
+        Probe probe;
+
+        @Setup
+        public void setup(SharedProbe sharedProbe) {
+            probe = ((HdrProbe) sharedProbe.probe).newSingleWriterProbe();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Latency {
+
+        // not final, so JMH doesn't treat the value as a constant
+        long latencyNanos = 150000;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void shared_1thread(SharedProbe sharedProbe, Latency latency) {
+        sharedProbe.probe.recordValue(latency.latencyNanos);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void shared_4threads(SharedProbe sharedProbe, Latency latency) {
+        sharedProbe.probe.recordValue(latency.latencyNanos);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void singleWriter_1thread(ThreadProbe threadProbe, Latency latency) {
+        threadProbe.probe.recordValue(latency.latencyNanos);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void singleWriter_4threads(ThreadProbe threadProbe, Latency latency) {
+        threadProbe.probe.recordValue(latency.latencyNanos);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.benchmarks;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.worker.metronome.BusySpinningMetronome;
+import com.hazelcast.simulator.worker.metronome.ConstantCombinedRateMetronome;
+import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
+import com.hazelcast.simulator.worker.metronome.Metronome;
+import com.hazelcast.simulator.worker.metronome.PoissonMetronome;
+import com.hazelcast.simulator.worker.metronome.ScheduledRateMetronome;
+import com.hazelcast.simulator.worker.metronome.SleepingMetronome;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures the overhead of {@link Metronome#waitForNext()} for every metronome.
+ *
+ * The interval is 1 ns, so the metronomes are always behind schedule and never wait; what remains is the bookkeeping that is
+ * done for every call of a timestep method. The 4 threads benchmark shows the contention on the state that is shared by the
+ * metronomes of an execution group, e.g. the next expected start time of the {@link ConstantCombinedRateMetronome}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetronomeBenchmark {
+
+    private static final long INTERVAL_NANOS = 1;
+    private static final int THREAD_COUNT = 4;
+
+    @State(Scope.Benchmark)
+    public static class MasterMetronome {
+
+        @Param({"Empty", "Sleeping", "BusySpinning", "ConstantCombinedRate", "Poisson", "ScheduledRate"})
+        String metronome;
+
+        Class<? extends Metronome> metronomeClass;
+        Metronome master;
+
+        @Setup
+        public void setup() throws Exception {
+            metronomeClass = metronomeClass(metronome);
+            if (metronomeClass == EmptyMetronome.class) {
+                master = EmptyMetronome.INSTANCE;
+                return;
+            }
+
+            // the highest rate of the schedule determines the interval; 1 billion requests per second is 1 ns
+            TestCase testCase = new TestCase("metronomeBenchmark")
+                    .setProperty("rateSchedule", "step:1000000000@0s");
+            master = metronomeClass.getConstructor(Long.TYPE, Integer.TYPE, PropertyBinding.class, String.class)
+                    .newInstance(INTERVAL_NANOS, THREAD_COUNT, new PropertyBinding(testCase), "");
+        }
+
+        private static Class<? extends Metronome> metronomeClass(String metronome) {
+            switch (metronome) {
+                case "Empty":
+                    return EmptyMetronome.class;
+                case "Sleeping":
+                    return SleepingMetronome.class;
+                case "BusySpinning":
+                    return BusySpinningMetronome.class;
+                case "ConstantCombinedRate":
+                    return ConstantCombinedRateMetronome.class;
+                case "Poisson":
+                    return PoissonMetronome.class;
+                case "ScheduledRate":
+                    return ScheduledRateMetronome.class;
+                default:
+                    throw new IllegalArgumentException("Unknown metronome: " + metronome);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadMetronome {
+
+        Metronome metronome;
+
+        @Setup
+        public void setup(MasterMetronome master) throws Exception {
+            if (master.metronomeClass == EmptyMetronome.class) {
+                metronome = EmptyMetronome.INSTANCE;
+            } else {
+                // every timestep thread gets its own copy of the master metronome
+                metronome = master.metronomeClass.getConstructor(Metronome.class).newInstance(master.master);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long waitForNext_1thread(ThreadMetronome threadMetronome) {
+        return threadMetronome.metronome.waitForNext();
+    }
+
+    @Benchmark
+    @Threads(THREAD_COUNT)
+    public long waitForNext_4threads(ThreadMetronome threadMetronome) {
+        return threadMetronome.metronome.waitForNext();
+    }
+}
@@ -0,0 +1,171 @@
+package com.hazelcast.simulator.benchmarks;
+
+import com.hazelcast.simulator.utils.CommandLineExitException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.simulator.benchmarks.BaselineCheck.DEFAULT_TOLERANCE;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BaselineCheckTest {
+
+    private static final String HEADER = "# the baseline\n#\n";
+    private static final String JMH_RESULT = "["
+            + result("com.hazelcast.simulator.benchmarks.HdrProbeBenchmark.recordValue", "ns/op", 10.5, "")
+            + "," + result("com.hazelcast.simulator.benchmarks.MetronomeBenchmark.waitForNext", "ns/op", 20.25,
+            ", \"params\": {\"threadCount\": \"4\", \"metronome\": \"Sleeping\"}")
+            + "]";
+
+    private File dir;
+
+    @Before
+    public void before() throws IOException {
+        dir = File.createTempFile("baseline", "");
+        deleteQuiet(dir);
+        assertTrue(dir.mkdirs());
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(dir);
+    }
+
+    @Test
+    public void testParseJmhResult() {
+        Map<String, Double> scores = BaselineCheck.parseJmhResult(JMH_RESULT);
+
+        assertEquals(2, scores.size());
+        assertEquals(10.5, scores.get("HdrProbeBenchmark.recordValue"), 0);
+        // the package prefix is stripped and the params are sorted by name
+        assertEquals(20.25, scores.get("MetronomeBenchmark.waitForNext[metronome=Sleeping,threadCount=4]"), 0);
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testParseJmhResult_whenNotNanosPerOperation() {
+        BaselineCheck.parseJmhResult("[" + result("HdrProbeBenchmark.recordValue", "ops/s", 10, "") + "]");
+    }
+
+    @Test
+    public void testParseBaseline() {
+        Map<String, Double> baseline = BaselineCheck.parseBaseline(HEADER
+                + "HdrProbeBenchmark.recordValue 10.50\n"
+                + "\n"
+                + "# a comment between the scores\n"
+                + "  MetronomeBenchmark.waitForNext[metronome=Sleeping]   20.25  \n");
+
+        assertEquals(2, baseline.size());
+        assertEquals(10.5, baseline.get("HdrProbeBenchmark.recordValue"), 0);
+        assertEquals(20.25, baseline.get("MetronomeBenchmark.waitForNext[metronome=Sleeping]"), 0);
+    }
+
+    @Test
+    public void testParseBaseline_whenOnlyHeader() {
+        assertTrue(BaselineCheck.parseBaseline(HEADER).isEmpty());
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testParseBaseline_whenScoreMissing() {
+        BaselineCheck.parseBaseline("HdrProbeBenchmark.recordValue\n");
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testParseBaseline_whenScoreInvalid() {
+        BaselineCheck.parseBaseline("HdrProbeBenchmark.recordValue fast\n");
+    }
+
+    @Test
+    public void testCheck_whenWithinTolerance() {
+        Map<String, Double> baseline = scores(10, 20);
+
+        assertEquals(0, BaselineCheck.check(scores(10, 20), baseline, DEFAULT_TOLERANCE));
+        assertEquals(0, BaselineCheck.check(scores(12.5, 10), baseline, DEFAULT_TOLERANCE));
+    }
+
+    @Test
+    public void testCheck_whenRegression() {
+        Map<String, Double> baseline = scores(10, 20);
+
+        assertEquals(1, BaselineCheck.check(scores(12.6, 20), baseline, DEFAULT_TOLERANCE));
+        assertEquals(2, BaselineCheck.check(scores(11, 22), baseline, 0.05));
+    }
+
+    @Test
+    public void testCheck_whenBaselineMissing() {
+        Map<String, Double> baseline = new HashMap<>();
+        baseline.put("a", 10.0);
+
+        assertEquals(1, BaselineCheck.check(scores(10, 20), baseline, DEFAULT_TOLERANCE));
+        assertEquals(2, BaselineCheck.check(scores(10, 20), new HashMap<>(), DEFAULT_TOLERANCE));
+    }
+
+    @Test
+    public void testParseHeader() {
+        assertEquals(HEADER, BaselineCheck.parseHeader(HEADER + "a 10.00\n# not part of the header\n"));
+    }
+
+    @Test
+    public void testParseHeader_whenNoComments() {
+        assertEquals("# benchmark score in ns/op\n", BaselineCheck.parseHeader("a 10.00\n"));
+    }
+
+    @Test
+    public void testFormatBaseline() {
+        String text = BaselineCheck.formatBaseline(HEADER, scores(10.5, 20.256));
+
+        assertEquals(HEADER + "a 10.50\nb 20.26\n", text);
+        assertEquals(HEADER, BaselineCheck.parseHeader(text));
+        assertEquals(scores(10.5, 20.26), BaselineCheck.parseBaseline(text));
+    }
+
+    @Test
+    public void testMain_update() {
+        File jmhResult = new File(dir, "jmh-result.json");
+        File baselineFile = new File(dir, "baseline.txt");
+        writeText(JMH_RESULT, jmhResult);
+        writeText(HEADER + "HdrProbeBenchmark.recordValue 100.00\nRemovedBenchmark.foo 1.00\n", baselineFile);
+
+        BaselineCheck.main(new String[]{jmhResult.getAbsolutePath(), baselineFile.getAbsolutePath(), "--update"});
+
+        String text = fileAsText(baselineFile);
+        assertEquals(HEADER, BaselineCheck.parseHeader(text));
+        assertEquals(BaselineCheck.parseJmhResult(JMH_RESULT), BaselineCheck.parseBaseline(text));
+        // the updated baseline passes the check
+        assertEquals(0, BaselineCheck.check(BaselineCheck.parseJmhResult(JMH_RESULT), BaselineCheck.parseBaseline(text),
+                DEFAULT_TOLERANCE));
+    }
+
+    @Test
+    public void testMain_update_whenBaselineFileMissing() {
+        File jmhResult = new File(dir, "jmh-result.json");
+        File baselineFile = new File(dir, "baseline.txt");
+        writeText(JMH_RESULT, jmhResult);
+
+        BaselineCheck.main(new String[]{jmhResult.getAbsolutePath(), baselineFile.getAbsolutePath(), "--update"});
+
+        String text = fileAsText(baselineFile);
+        assertTrue(text.startsWith("# benchmark score in ns/op\n"));
+        assertEquals(2, BaselineCheck.parseBaseline(text).size());
+    }
+
+    private static Map<String, Double> scores(double a, double b) {
+        Map<String, Double> scores = new HashMap<>();
+        scores.put("a", a);
+        scores.put("b", b);
+        return scores;
+    }
+
+    private static String result(String benchmark, String unit, double score, String params) {
+        return "{\"benchmark\": \"" + benchmark + "\"" + params
+                + ", \"primaryMetric\": {\"score\": " + score + ", \"scoreUnit\": \"" + unit + "\"}}";
+    }
+}
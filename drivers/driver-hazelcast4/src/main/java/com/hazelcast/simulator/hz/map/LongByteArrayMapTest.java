@@ -21,6 +21,7 @@ import com.hazelcast.map.IMap;
 import com.hazelcast.simulator.hz.HazelcastTest;
 import com.hazelcast.simulator.probes.Probe;
 import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.PrepareShard;
 import com.hazelcast.simulator.test.annotations.Prepare;
 import com.hazelcast.simulator.test.annotations.Setup;
 import com.hazelcast.simulator.test.annotations.StartNanos;
@@ -59,13 +60,14 @@ public class LongByteArrayMapTest extends HazelcastTest {
         values = generateByteArrays(valueCount, minValueLength, maxValueLength);
     }
 
-    @Prepare(global = true)
-    public void prepare() {
+    @Prepare(partitioned = true)
+    public void prepare(PrepareShard shard) {
         Random random = new Random();
-        Streamer<Long, byte[]> streamer = StreamerFactory.getInstance(map);
-        for (long key = 0; key < keyDomain; key++) {
+        Streamer<Long, byte[]> streamer = StreamerFactory.getBatchingInstance(map, targetInstance);
+        for (long key = shard.start(keyDomain); key < shard.end(keyDomain); key++) {
             byte[] value = values[random.nextInt(valueCount)];
             streamer.pushEntry(key, value);
+            shard.completed();
         }
         streamer.await();
     }
@@ -61,7 +61,7 @@ public class LongStringMapTest extends HazelcastTest {
     @Prepare(global = true)
     public void prepare() {
         Random random = new Random();
-        Streamer<Long, String> streamer = StreamerFactory.getInstance(map);
+        Streamer<Long, String> streamer = StreamerFactory.getBatchingInstance(map, targetInstance);
         for (long key = 0; key < keyDomain; key++) {
             String value = values[random.nextInt(valueCount)];
             streamer.pushEntry(key, value);
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.helpers;
+
+import com.hazelcast.core.HazelcastInstance;
+
+/**
+ * A {@link KeyPool} of int keys.
+ *
+ * The balanced keys (LOCAL/REMOTE/RANDOM) are non-negative ints; the SHARED keys are 0 up to the keyCount.
+ */
+public final class IntKeyPool extends KeyPool {
+
+    private IntKeyPool(KeyIds ids) {
+        super(ids);
+    }
+
+    /**
+     * Creates an IntKeyPool with a configurable keyLocality.
+     *
+     * If the instance is a client, keyLocality is ignored.
+     *
+     * @param keyCount    the number of keys in the pool
+     * @param keyLocality if the key is local/remote/random
+     * @param hz          the HazelcastInstance that is used for keyLocality
+     * @return the created IntKeyPool
+     */
+    public static IntKeyPool newIntKeyPool(int keyCount, KeyLocality keyLocality, HazelcastInstance hz) {
+        return new IntKeyPool(newKeyIds(hz, keyLocality, keyCount, Integer.MAX_VALUE, Integer::valueOf));
+    }
+
+    /**
+     * Returns the key at the given index.
+     *
+     * @param index the index of the key, from 0 up to {@link #size()}
+     * @return the key
+     */
+    public int get(int index) {
+        return id(index);
+    }
+
+    /**
+     * Creates an array with all keys of this pool.
+     *
+     * @return the created array
+     */
+    public int[] toArray() {
+        int[] keys = new int[size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = get(i);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.helpers;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.SerializationServiceSupport;
+import com.hazelcast.partition.Partition;
+import com.hazelcast.partition.PartitionService;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+import static com.hazelcast.internal.util.HashUtil.hashToIndex;
+import static java.lang.String.format;
+
+/**
+ * A pool of keys where every key is a deterministic function of its index.
+ * <p>
+ * The pool doesn't hold the keys themselves, but an int id per key from which the key is created when it is needed:
+ * <ol>
+ * <li>SHARED: the id is the index, so nothing is stored</li>
+ * <li>SINGLE_PARTITION: the id is always 0, so nothing is stored</li>
+ * <li>LOCAL/REMOTE/RANDOM: the ids are stored in a single int array, grouped by partition. The ids are found by probing
+ * consecutive ids from a random start, so every worker gets its own set of keys.</li>
+ * </ol>
+ * So a pool of 100M int keys costs 400 MB at most instead of the 2 GB of an Integer[], and the SHARED keys cost nothing.
+ * <p>
+ * A KeyPool is immutable once created and can be shared between threads.
+ */
+public abstract class KeyPool {
+
+    private final KeyIds ids;
+
+    KeyPool(KeyIds ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * Returns the number of keys in this pool.
+     *
+     * @return the number of keys
+     */
+    public final int size() {
+        return ids.size();
+    }
+
+    /**
+     * Returns the id the key at the given index is created from.
+     *
+     * @param index the index of the key
+     * @return the id of the key
+     */
+    final int id(int index) {
+        return ids.id(index);
+    }
+
+    static KeyIds newKeyIds(HazelcastInstance hz, KeyLocality keyLocality, int keyCount, int idRange,
+                            IntFunction<Object> keyFactory) {
+        switch (keyLocality) {
+            case LOCAL:
+            case REMOTE:
+            case RANDOM:
+                return new BalancedKeyIds(hz, keyLocality, keyCount, idRange, keyFactory);
+            case SINGLE_PARTITION:
+                return new SinglePartitionKeyIds(keyCount);
+            default:
+                return new SharedKeyIds(keyCount);
+        }
+    }
+
+    abstract static class KeyIds {
+
+        final int keyCount;
+
+        KeyIds(int keyCount) {
+            if (keyCount < 0) {
+                throw new IllegalArgumentException("keyCount can't be smaller than 0, but was " + keyCount);
+            }
+            this.keyCount = keyCount;
+        }
+
+        final int size() {
+            return keyCount;
+        }
+
+        abstract int id(int index);
+    }
+
+    static final class SharedKeyIds extends KeyIds {
+
+        SharedKeyIds(int keyCount) {
+            super(keyCount);
+        }
+
+        @Override
+        int id(int index) {
+            return index;
+        }
+    }
+
+    static final class SinglePartitionKeyIds extends KeyIds {
+
+        SinglePartitionKeyIds(int keyCount) {
+            super(keyCount);
+        }
+
+        @Override
+        int id(int index) {
+            return 0;
+        }
+    }
+
+    /**
+     * Ids of keys that are perfectly balanced over the target partitions of the keyLocality.
+     *
+     * Every partition gets a range of the ids array; the partition of every id is determined once, when the pool is created.
+     * The partition of a candidate id is computed locally from the partition hash of the serialized key, like Hazelcast
+     * does itself, instead of doing a {@link PartitionService#getPartition(Object)} lookup per candidate.
+     */
+    static final class BalancedKeyIds extends KeyIds {
+
+        private final int[] ids;
+
+        BalancedKeyIds(HazelcastInstance hz, KeyLocality keyLocality, int keyCount, int idRange,
+                       IntFunction<Object> keyFactory) {
+            super(keyCount);
+
+            PartitionService partitionService = hz.getPartitionService();
+            int[] slotPerPartition = getSlotPerPartition(hz, partitionService, keyLocality);
+            ToIntFunction<Object> partitionIdFunction = getPartitionIdFunction(hz, partitionService, slotPerPartition.length);
+            int slotCount = 0;
+            for (int slot : slotPerPartition) {
+                if (slot != -1) {
+                    slotCount++;
+                }
+            }
+
+            int maxKeysPerSlot = (int) Math.ceil(keyCount / (double) slotCount);
+            int[] ids = new int[slotCount * maxKeysPerSlot];
+            int[] countPerSlot = new int[slotCount];
+
+            int start = new Random().nextInt(idRange);
+            int found = 0;
+            for (long probe = 0; probe < idRange && found < keyCount; probe++) {
+                int id = (int) ((start + probe) % idRange);
+                int slot = slotPerPartition[partitionIdFunction.applyAsInt(keyFactory.apply(id))];
+                if (slot == -1 || countPerSlot[slot] == maxKeysPerSlot) {
+                    continue;
+                }
+
+                ids[slot * maxKeysPerSlot + countPerSlot[slot]] = id;
+                countPerSlot[slot]++;
+                found++;
+            }
+
+            if (found < keyCount) {
+                throw new IllegalStateException(format("Could only find %d of %d %s keys in a range of %d ids;"
+                        + " increase the key length", found, keyCount, keyLocality, idRange));
+            }
+
+            // the partitions that have less than maxKeysPerSlot keys leave gaps, which are removed
+            int index = countPerSlot[0];
+            for (int slot = 1; slot < slotCount; slot++) {
+                System.arraycopy(ids, slot * maxKeysPerSlot, ids, index, countPerSlot[slot]);
+                index += countPerSlot[slot];
+            }
+            this.ids = ids.length == keyCount ? ids : Arrays.copyOf(ids, keyCount);
+        }
+
+        @Override
+        int id(int index) {
+            return ids[index];
+        }
+
+        private static int[] getSlotPerPartition(HazelcastInstance hz, PartitionService partitionService,
+                                                 KeyLocality keyLocality) {
+            Member localMember = getLocalMember(hz);
+            int[] slotPerPartition = new int[partitionService.getPartitions().size()];
+            Arrays.fill(slotPerPartition, -1);
+
+            int slotCount = 0;
+            for (Partition partition : partitionService.getPartitions()) {
+                boolean target;
+                switch (keyLocality) {
+                    case LOCAL:
+                        target = localMember == null || localMember.equals(partition.getOwner());
+                        break;
+                    case REMOTE:
+                        target = localMember == null || !localMember.equals(partition.getOwner());
+                        break;
+                    case RANDOM:
+                        target = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unsupported keyLocality: " + keyLocality);
+                }
+
+                if (target) {
+                    slotPerPartition[partition.getPartitionId()] = slotCount;
+                    slotCount++;
+                }
+            }
+
+            if (slotCount == 0) {
+                throw new IllegalStateException(format("No partitions found for keyLocality %s", keyLocality));
+            }
+            return slotPerPartition;
+        }
+
+        private static ToIntFunction<Object> getPartitionIdFunction(HazelcastInstance hz, PartitionService partitionService,
+                                                                    int partitionCount) {
+            if (hz instanceof SerializationServiceSupport) {
+                // both member and client instances serialize the key with the global partitioning strategy
+                SerializationService serializationService = ((SerializationServiceSupport) hz).getSerializationService();
+                return key -> hashToIndex(serializationService.toData(key).getPartitionHash(), partitionCount);
+            }
+            return key -> partitionService.getPartition(key).getPartitionId();
+        }
+
+        private static Member getLocalMember(HazelcastInstance hz) {
+            try {
+                return hz.getCluster().getLocalMember();
+            } catch (UnsupportedOperationException ignore) {
+                // clients throw UnsupportedOperationExceptions
+                return null;
+            }
+        }
+    }
+}
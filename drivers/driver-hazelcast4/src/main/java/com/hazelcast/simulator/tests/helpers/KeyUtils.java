@@ -20,15 +20,9 @@ import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.partition.Partition;
 import com.hazelcast.partition.PartitionService;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Random;
-import java.util.Set;
-
+import static com.hazelcast.simulator.tests.helpers.IntKeyPool.newIntKeyPool;
+import static com.hazelcast.simulator.tests.helpers.StringKeyPool.newStringKeyPool;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepSeconds;
-import static com.hazelcast.simulator.utils.GeneratorUtils.generateAsciiString;
-import static java.lang.String.format;
 
 public final class KeyUtils {
 
@@ -56,37 +50,6 @@ public final class KeyUtils {
         return owner.equals(instance.getLocalEndpoint());
     }
 
-    private static KeyGenerator<Integer> newIntKeyGenerator(HazelcastInstance hz, KeyLocality keyLocality, int keyCount) {
-        switch (keyLocality) {
-            case LOCAL:
-                return new BalancedIntKeyGenerator(hz, keyLocality, keyCount);
-            case REMOTE:
-                return new BalancedIntKeyGenerator(hz, keyLocality, keyCount);
-            case RANDOM:
-                return new BalancedIntKeyGenerator(hz, keyLocality, keyCount);
-            case SINGLE_PARTITION:
-                return new SinglePartitionIntKeyGenerator();
-            default:
-                return new SharedIntKeyGenerator();
-        }
-    }
-
-    private static KeyGenerator<String> newStringKeyGenerator(
-            HazelcastInstance hz, KeyLocality keyLocality, int keyCount, int keyLength, String prefix) {
-        switch (keyLocality) {
-            case LOCAL:
-                return new BalancedStringKeyGenerator(hz, keyLocality, keyCount, keyLength, prefix);
-            case REMOTE:
-                return new BalancedStringKeyGenerator(hz, keyLocality, keyCount, keyLength, prefix);
-            case RANDOM:
-                return new BalancedStringKeyGenerator(hz, keyLocality, keyCount, keyLength, prefix);
-            case SINGLE_PARTITION:
-                return new SinglePartitionStringKeyGenerator(keyLength, prefix);
-            default:
-                return new SharedStringKeyGenerator(keyLength, prefix);
-        }
-    }
-
     /**
      * Generates an array of int keys with a configurable keyLocality.
      *
@@ -98,13 +61,7 @@ public final class KeyUtils {
      * @return the created array of keys
      */
     public static int[] generateIntKeys(int keyCount, KeyLocality keyLocality, HazelcastInstance hz) {
-        KeyGenerator<Integer> keyGenerator = newIntKeyGenerator(hz, keyLocality, keyCount);
-
-        int[] keys = new int[keyCount];
-        for (int i = 0; i < keys.length; i++) {
-            keys[i] = keyGenerator.next();
-        }
-        return keys;
+        return newIntKeyPool(keyCount, keyLocality, hz).toArray();
     }
 
     /**
@@ -118,11 +75,11 @@ public final class KeyUtils {
      * @return the created array of keys
      */
     public static Integer[] generateIntegerKeys(int keyCount, KeyLocality keyLocality, HazelcastInstance hz) {
-        KeyGenerator<Integer> keyGenerator = newIntKeyGenerator(hz, keyLocality, keyCount);
+        IntKeyPool keyPool = newIntKeyPool(keyCount, keyLocality, hz);
 
         Integer[] keys = new Integer[keyCount];
         for (int i = 0; i < keys.length; i++) {
-            keys[i] = keyGenerator.next();
+            keys[i] = keyPool.get(i);
         }
         return keys;
     }
@@ -136,8 +93,7 @@ public final class KeyUtils {
      * @return the created key
      */
     public static String generateStringKey(int keyLength, KeyLocality keyLocality, HazelcastInstance hz) {
-        KeyGenerator<String> keyGenerator = newStringKeyGenerator(hz, keyLocality, Integer.MAX_VALUE, keyLength, "");
-        return keyGenerator.next();
+        return newStringKeyPool("", 1, keyLength, keyLocality, hz).get(0);
     }
 
     /**
@@ -185,231 +141,6 @@ public final class KeyUtils {
      */
     public static String[] generateStringKeys(String prefix, int keyCount, int keyLength, KeyLocality keyLocality,
                                               HazelcastInstance hz) {
-
-
-        String[] keys = new String[keyCount];
-        KeyGenerator<String> keyGenerator = newStringKeyGenerator(hz, keyLocality, keyCount, keyLength, prefix);
-        for (int i = 0; i < keys.length; i++) {
-            keys[i] = keyGenerator.next();
-        }
-
-        return keys;
-    }
-
-    interface KeyGenerator<K> {
-        K next();
-    }
-
-    abstract static class BalancedKeyGenerator<K> implements KeyGenerator<K> {
-
-        protected final Random random = new Random();
-        protected final HazelcastInstance hz;
-        protected final int keyCount;
-
-        private final Set<K>[] keysPerPartition;
-        private final PartitionService partitionService;
-        private final int maxKeysPerPartition;
-        private final KeyLocality keyLocality;
-
-        @SuppressWarnings("unchecked")
-        BalancedKeyGenerator(HazelcastInstance hz, KeyLocality keyLocality, int keyCount) {
-            this.hz = hz;
-            this.keyLocality = keyLocality;
-            this.keyCount = keyCount;
-
-            this.partitionService = hz.getPartitionService();
-
-            Set<Integer> targetPartitions = getTargetPartitions();
-            this.maxKeysPerPartition = (int) Math.ceil(keyCount / (float) targetPartitions.size());
-
-            int partitionCount = partitionService.getPartitions().size();
-            this.keysPerPartition = new Set[partitionCount];
-            for (Integer partitionId : targetPartitions) {
-                keysPerPartition[partitionId] = new HashSet<>();
-            }
-        }
-
-        @Override
-        public final K next() {
-            for (; ; ) {
-                K key = generateKey();
-
-                Partition partition = partitionService.getPartition(key);
-
-                Set<K> keys = keysPerPartition[partition.getPartitionId()];
-                if (keys == null) {
-                    continue;
-                }
-
-                if (keys.contains(key)) {
-                    continue;
-                }
-
-                if (keys.size() == maxKeysPerPartition) {
-                    continue;
-                }
-
-                keys.add(key);
-                return key;
-            }
-        }
-
-        protected abstract K generateKey();
-
-        private Set<Integer> getTargetPartitions() {
-            Set<Integer> targetPartitions = new HashSet<>();
-            Member localMember = getLocalMember(hz);
-
-            switch (keyLocality) {
-                case LOCAL:
-                    for (Partition partition : partitionService.getPartitions()) {
-                        if (localMember == null || localMember.equals(partition.getOwner())) {
-                            targetPartitions.add(partition.getPartitionId());
-                        }
-                    }
-                    break;
-                case REMOTE:
-                    for (Partition partition : partitionService.getPartitions()) {
-                        if (localMember == null || !localMember.equals(partition.getOwner())) {
-                            targetPartitions.add(partition.getPartitionId());
-                        }
-                    }
-                    break;
-                case RANDOM:
-                    for (Partition partition : partitionService.getPartitions()) {
-                        targetPartitions.add(partition.getPartitionId());
-                    }
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unsupported keyLocality: " + keyLocality);
-            }
-
-            verifyHasPartitions(targetPartitions);
-
-            return targetPartitions;
-        }
-
-        private void verifyHasPartitions(Set<Integer> targetPartitions) {
-            if (targetPartitions.isEmpty()) {
-                Map<Member, Integer> partitionsPerMember = new HashMap<>();
-                for (Partition partition : partitionService.getPartitions()) {
-                    Member owner = partition.getOwner();
-                    if (owner == null) {
-                        throw new IllegalStateException("Owner is null for partition: " + partition);
-                    }
-                    Integer value = partitionsPerMember.get(owner);
-                    Integer result = value == null ? 1 : value + 1;
-                    partitionsPerMember.put(owner, result);
-                }
-                throw new IllegalStateException("No partitions found, partitionsPerMember: " + partitionsPerMember);
-            }
-        }
-
-        private Member getLocalMember(HazelcastInstance hz) {
-            try {
-                return hz.getCluster().getLocalMember();
-            } catch (UnsupportedOperationException ignore) {
-                // clients throw UnsupportedOperationExceptions
-                return null;
-            }
-        }
-    }
-
-    private static final class SharedIntKeyGenerator implements KeyGenerator<Integer> {
-
-        private int current;
-
-        @Override
-        public Integer next() {
-            int value = current;
-            current++;
-            return value;
-        }
-    }
-
-    private static final class SinglePartitionIntKeyGenerator implements KeyGenerator<Integer> {
-
-        @Override
-        public Integer next() {
-            return 0;
-        }
-    }
-
-    private static final class BalancedIntKeyGenerator extends BalancedKeyGenerator<Integer> {
-
-        private BalancedIntKeyGenerator(HazelcastInstance hz, KeyLocality keyLocality, int keyCount) {
-            super(hz, keyLocality, keyCount);
-        }
-
-        @Override
-        protected Integer generateKey() {
-            return random.nextInt(Integer.MAX_VALUE);
-        }
-    }
-
-    private static final class BalancedStringKeyGenerator extends BalancedKeyGenerator<String> {
-
-        private final int keyLength;
-        private final String prefix;
-
-        private BalancedStringKeyGenerator(
-                HazelcastInstance hz, KeyLocality keyLocality, int keyCount, int keyLength, String prefix) {
-            super(hz, keyLocality, keyCount);
-            this.keyLength = keyLength;
-            this.prefix = prefix;
-        }
-
-        @Override
-        protected String generateKey() {
-            if (prefix.length() == 0) {
-                return generateAsciiString(keyLength);
-            } else {
-                return prefix + generateAsciiString(keyLength - prefix.length());
-            }
-        }
-    }
-
-    private static final class SinglePartitionStringKeyGenerator implements KeyGenerator<String> {
-
-        private final String key;
-
-        SinglePartitionStringKeyGenerator(int keyLength, String prefix) {
-            key = padWithZero(new StringBuilder(prefix), keyLength).toString();
-        }
-
-        @Override
-        public String next() {
-            return key;
-        }
-    }
-
-    private static StringBuilder padWithZero(StringBuilder sb, int length) {
-        int count = length - sb.length();
-
-        for (int i = 0; i < count; i++) {
-            sb.append('0');
-        }
-        return sb;
-    }
-
-    private static final class SharedStringKeyGenerator implements KeyGenerator<String> {
-
-        private int current;
-        private final int keyLength;
-        private final String prefix;
-
-        SharedStringKeyGenerator(int keyLength, String prefix) {
-            this.keyLength = keyLength;
-            this.prefix = prefix;
-        }
-
-        @Override
-        public String next() {
-            int id = current;
-            current++;
-
-            int x = keyLength - prefix.length();
-            return prefix + format("%0" + x + "d", id);
-        }
+        return newStringKeyPool(prefix, keyCount, keyLength, keyLocality, hz).toArray();
     }
 }
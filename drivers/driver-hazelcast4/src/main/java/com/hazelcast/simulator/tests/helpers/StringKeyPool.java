@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.helpers;
+
+import com.hazelcast.core.HazelcastInstance;
+
+/**
+ * A {@link KeyPool} of string keys.
+ *
+ * Every key is the prefix followed by the zero padded id of the key, e.g. 'prefix0042', so the length of the keys is the
+ * keyLength. The strings are created when the key is requested, so a test only holds the keys it touches.
+ */
+public final class StringKeyPool extends KeyPool {
+
+    // the number of digits of Integer.MAX_VALUE
+    private static final int MAX_INT_DIGITS = 10;
+
+    private final String prefix;
+    private final int digits;
+
+    private StringKeyPool(String prefix, int digits, KeyIds ids) {
+        super(ids);
+        this.prefix = prefix;
+        this.digits = digits;
+    }
+
+    /**
+     * Creates a StringKeyPool with a configurable keyLocality.
+     *
+     * If the instance is a client, keyLocality is ignored.
+     *
+     * @param prefix      prefix for the keys
+     * @param keyCount    the number of keys in the pool
+     * @param keyLength   the length of each key, including the prefix
+     * @param keyLocality if the key is local/remote/random
+     * @param hz          the HazelcastInstance that is used for keyLocality
+     * @return the created StringKeyPool
+     */
+    public static StringKeyPool newStringKeyPool(String prefix, int keyCount, int keyLength, KeyLocality keyLocality,
+                                                 HazelcastInstance hz) {
+        int digits = Math.max(0, keyLength - prefix.length());
+        // the balanced keys are searched in the ids that fit in the digits, so the keys don't become longer than keyLength
+        int idRange = digits >= MAX_INT_DIGITS ? Integer.MAX_VALUE : (int) Math.pow(10, Math.max(1, digits));
+
+        KeyIds ids = newKeyIds(hz, keyLocality, keyCount, idRange, id -> toKey(prefix, digits, id));
+        return new StringKeyPool(prefix, digits, ids);
+    }
+
+    /**
+     * Returns the key at the given index.
+     *
+     * @param index the index of the key, from 0 up to {@link #size()}
+     * @return the key
+     */
+    public String get(int index) {
+        return toKey(prefix, digits, id(index));
+    }
+
+    /**
+     * Creates an array with all keys of this pool.
+     *
+     * @return the created array
+     */
+    public String[] toArray() {
+        String[] keys = new String[size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = get(i);
+        }
+        return keys;
+    }
+
+    private static String toKey(String prefix, int digits, int id) {
+        int idDigits = 1;
+        for (int value = id / 10; value != 0; value /= 10) {
+            idDigits++;
+        }
+
+        int prefixLength = prefix.length();
+        char[] chars = new char[prefixLength + Math.max(digits, idDigits)];
+        prefix.getChars(0, prefixLength, chars, 0);
+
+        int index = chars.length;
+        int value = id;
+        do {
+            chars[--index] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+
+        while (index > prefixLength) {
+            chars[--index] = '0';
+        }
+        return new String(chars);
+    }
+}
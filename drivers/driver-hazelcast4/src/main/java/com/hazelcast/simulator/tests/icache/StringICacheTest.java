@@ -22,6 +22,7 @@ import com.hazelcast.simulator.test.annotations.Setup;
 import com.hazelcast.simulator.test.annotations.Teardown;
 import com.hazelcast.simulator.test.annotations.TimeStep;
 import com.hazelcast.simulator.tests.helpers.KeyLocality;
+import com.hazelcast.simulator.tests.helpers.StringKeyPool;
 import com.hazelcast.simulator.worker.loadsupport.Streamer;
 import com.hazelcast.simulator.worker.loadsupport.StreamerFactory;
 
@@ -30,7 +31,7 @@ import javax.cache.CacheManager;
 import java.util.Random;
 
 import static com.hazelcast.simulator.tests.helpers.HazelcastTestUtils.waitClusterSize;
-import static com.hazelcast.simulator.tests.helpers.KeyUtils.generateStringKeys;
+import static com.hazelcast.simulator.tests.helpers.StringKeyPool.newStringKeyPool;
 import static com.hazelcast.simulator.tests.icache.helpers.CacheUtils.createCacheManager;
 import static com.hazelcast.simulator.utils.GeneratorUtils.generateAsciiStrings;
 
@@ -50,7 +51,7 @@ public class StringICacheTest extends HazelcastTest {
     public int minNumberOfMembers = 0;
 
     private Cache<String, String> cache;
-    private String[] keys;
+    private StringKeyPool keys;
     private String[] values;
 
     @Setup
@@ -63,7 +64,7 @@ public class StringICacheTest extends HazelcastTest {
     public void prepare() {
         waitClusterSize(logger, targetInstance, minNumberOfMembers);
 
-        keys = generateStringKeys(keyCount, keyLength, keyLocality, targetInstance);
+        keys = newStringKeyPool("", keyCount, keyLength, keyLocality, targetInstance);
 
         if (valueLength > -1) {
             minValueLength = valueLength;
@@ -74,9 +75,9 @@ public class StringICacheTest extends HazelcastTest {
 
         Random random = new Random();
         Streamer<String, String> streamer = StreamerFactory.getInstance(cache);
-        for (String key : keys) {
+        for (int i = 0; i < keys.size(); i++) {
             String value = values[random.nextInt(valueCount)];
-            streamer.pushEntry(key, value);
+            streamer.pushEntry(keys.get(i), value);
         }
         streamer.await();
     }
@@ -105,8 +106,7 @@ public class StringICacheTest extends HazelcastTest {
         }
 
         private String randomKey() {
-            int length = keys.length;
-            return keys[randomInt(length)];
+            return keys.get(randomInt(keys.size()));
         }
     }
 
@@ -22,13 +22,14 @@ import com.hazelcast.simulator.test.annotations.Prepare;
 import com.hazelcast.simulator.test.annotations.Setup;
 import com.hazelcast.simulator.test.annotations.Teardown;
 import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.tests.helpers.IntKeyPool;
 import com.hazelcast.simulator.tests.helpers.KeyLocality;
 import com.hazelcast.simulator.worker.loadsupport.Streamer;
 import com.hazelcast.simulator.worker.loadsupport.StreamerFactory;
 
 import java.util.Random;
 
-import static com.hazelcast.simulator.tests.helpers.KeyUtils.generateIntKeys;
+import static com.hazelcast.simulator.tests.helpers.IntKeyPool.newIntKeyPool;
 import static com.hazelcast.simulator.utils.GeneratorUtils.generateByteArray;
 
 public class IntByteMapTest extends HazelcastTest {
@@ -46,13 +47,13 @@ public class IntByteMapTest extends HazelcastTest {
     public KeyLocality keyLocality = KeyLocality.SHARED;
 
     private IMap<Integer, Object> map;
-    private int[] keys;
+    private IntKeyPool keys;
     private byte[][] values;
 
     @Setup
     public void setUp() {
         map = targetInstance.getMap(name);
-        keys = generateIntKeys(keyCount, keyLocality, targetInstance);
+        keys = newIntKeyPool(keyCount, keyLocality, targetInstance);
 
         if (minSize > maxSize) {
             throw new IllegalStateException("minSize can't be larger than maxSize");
@@ -74,8 +75,8 @@ public class IntByteMapTest extends HazelcastTest {
         }
 
         Streamer<Integer, Object> streamer = StreamerFactory.getInstance(map);
-        for (int key : keys) {
-            streamer.pushEntry(key, values[random.nextInt(values.length)]);
+        for (int i = 0; i < keys.size(); i++) {
+            streamer.pushEntry(keys.get(i), values[random.nextInt(values.length)]);
         }
         streamer.await();
     }
@@ -98,11 +99,11 @@ public class IntByteMapTest extends HazelcastTest {
     public class ThreadState extends BaseThreadState {
 
         private int randomKey() {
-            return keys[randomInt(keys.length)];
+            return keys.get(randomInt(keys.size()));
         }
 
         private int randomWriteKey() {
-            return keys[randomInt(writeKeyCount)];
+            return keys.get(randomInt(writeKeyCount));
         }
 
         private byte[] randomValue() {
@@ -19,6 +19,8 @@ import com.hazelcast.collection.IList;
 import com.hazelcast.map.IMap;
 import com.hazelcast.simulator.hz.HazelcastTest;
 import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.KeyDistribution;
+import com.hazelcast.simulator.test.KeySelector;
 import com.hazelcast.simulator.test.annotations.AfterRun;
 import com.hazelcast.simulator.test.annotations.Prepare;
 import com.hazelcast.simulator.test.annotations.Setup;
@@ -27,7 +29,6 @@ import com.hazelcast.simulator.test.annotations.TimeStep;
 import com.hazelcast.simulator.test.annotations.Verify;
 import com.hazelcast.simulator.tests.map.helpers.EntryListenerImpl;
 import com.hazelcast.simulator.tests.map.helpers.EventCount;
-import com.hazelcast.simulator.tests.map.helpers.ScrambledZipfianGenerator;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -53,13 +54,15 @@ public class MapEntryListenerTest extends HazelcastTest {
     public int valueLength = 100;
     public int keyCount = 1000;
     public int valueCount = 1000;
+    // see KeyDistribution for the supported distributions
+    public String keyDistribution = "scrambledZipfian:0.99";
+    // overrides the keyDistribution with a uniform distribution; kept for existing test suites
     public boolean randomDistributionUniform = false;
     public int maxEntryListenerDelayMs = 0;
     public int minEntryListenerDelayMs = 0;
     public int threadCount;
 
-    private final ScrambledZipfianGenerator keysZipfian = new ScrambledZipfianGenerator(keyCount);
-
+    private KeyDistribution distribution;
     private String[] values;
     private EntryListenerImpl<Integer, String> listener;
     private IList<EventCount> eventCounts;
@@ -69,6 +72,8 @@ public class MapEntryListenerTest extends HazelcastTest {
 
     @Setup
     public void setUp() {
+        distribution = KeyDistribution.parse("keyDistribution",
+                randomDistributionUniform ? "uniform" : keyDistribution, keyCount);
         values = generateAsciiStrings(valueCount, valueLength);
         listener = new EntryListenerImpl<>(minEntryListenerDelayMs, maxEntryListenerDelayMs);
 
@@ -183,17 +188,14 @@ public class MapEntryListenerTest extends HazelcastTest {
     public class ThreadState extends BaseThreadState {
 
         private final EventCount eventCount = new EventCount();
+        private final KeySelector keySelector = newKeySelector(distribution);
 
         String randomValue() {
             return values[randomInt(values.length)];
         }
 
         int randomKey() {
-            if (randomDistributionUniform) {
-                return randomInt(keyCount);
-            } else {
-                return keysZipfian.nextInt();
-            }
+            return keySelector.nextIndex();
         }
     }
 
@@ -39,7 +39,7 @@ public class MapLongPerformanceTest extends HazelcastTest {
 
     @Prepare(global = true)
     public void prepare() {
-        Streamer<Integer, Long> streamer = StreamerFactory.getInstance(map);
+        Streamer<Integer, Long> streamer = StreamerFactory.getBatchingInstance(map, targetInstance);
         for (int i = 0; i < keyCount; i++) {
             streamer.pushEntry(i, 0L);
         }
@@ -23,13 +23,14 @@ import com.hazelcast.simulator.test.annotations.Setup;
 import com.hazelcast.simulator.test.annotations.Teardown;
 import com.hazelcast.simulator.test.annotations.TimeStep;
 import com.hazelcast.simulator.tests.helpers.KeyLocality;
+import com.hazelcast.simulator.tests.helpers.StringKeyPool;
 import com.hazelcast.simulator.worker.loadsupport.Streamer;
 import com.hazelcast.simulator.worker.loadsupport.StreamerFactory;
 
 import java.util.Random;
 
 import static com.hazelcast.simulator.tests.helpers.HazelcastTestUtils.waitClusterSize;
-import static com.hazelcast.simulator.tests.helpers.KeyUtils.generateStringKeys;
+import static com.hazelcast.simulator.tests.helpers.StringKeyPool.newStringKeyPool;
 import static com.hazelcast.simulator.utils.GeneratorUtils.generateAsciiStrings;
 
 public class StringStringMapTest extends HazelcastTest {
@@ -45,7 +46,7 @@ public class StringStringMapTest extends HazelcastTest {
     public int minNumberOfMembers = 0;
 
     private IMap<String, String> map;
-    private String[] keys;
+    private StringKeyPool keys;
     private String[] values;
 
     @Setup
@@ -56,7 +57,7 @@ public class StringStringMapTest extends HazelcastTest {
     @Prepare
     public void prepare() {
         waitClusterSize(logger, targetInstance, minNumberOfMembers);
-        keys = generateStringKeys(keyCount, keyLength, keyLocality, targetInstance);
+        keys = newStringKeyPool("", keyCount, keyLength, keyLocality, targetInstance);
         values = generateAsciiStrings(valueCount, minValueLength, maxValueLength);
 
         loadInitialData();
@@ -65,9 +66,9 @@ public class StringStringMapTest extends HazelcastTest {
     private void loadInitialData() {
         Random random = new Random();
         Streamer<String, String> streamer = StreamerFactory.getInstance(map);
-        for (String key : keys) {
+        for (int i = 0; i < keys.size(); i++) {
             String value = values[random.nextInt(valueCount)];
-            streamer.pushEntry(key, value);
+            streamer.pushEntry(keys.get(i), value);
         }
         streamer.await();
     }
@@ -95,7 +96,7 @@ public class StringStringMapTest extends HazelcastTest {
     public class ThreadState extends BaseThreadState {
 
         private String randomKey() {
-            return keys[randomInt(keys.length)];
+            return keys.get(randomInt(keys.size()));
         }
 
         private String randomValue() {
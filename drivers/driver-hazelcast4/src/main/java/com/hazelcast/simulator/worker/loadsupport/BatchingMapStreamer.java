@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.loadsupport;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.partition.PartitionService;
+import com.hazelcast.simulator.utils.ExceptionReporter;
+import com.hazelcast.simulator.utils.ThrottlingLogger;
+import org.apache.log4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Batching implementation of {@link Streamer} for {@link IMap}.
+ * <p>
+ * Instead of sending a single setAsync per entry, the entries are grouped per partition and every full batch is written
+ * with a single {@link IMap#putAll(Map)} by one of the pusher threads. So every batch ends up as a single operation on
+ * the partition owner and the load is spread over all members.
+ * <p>
+ * The batch size adapts to the measured latency of the putAll calls: it grows as long as the batches complete quickly,
+ * and shrinks when they get slow.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class BatchingMapStreamer<K, V> implements Streamer<K, V> {
+
+    static final int MIN_BATCH_SIZE = 16;
+    static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+    static final long TARGET_BATCH_LATENCY_NANOS = MILLISECONDS.toNanos(20);
+
+    private static final Logger LOGGER = Logger.getLogger(BatchingMapStreamer.class);
+
+    private static final long DEFAULT_TIMEOUT_MINUTES = 2;
+    private static final int MAXIMUM_LOGGING_RATE_MILLIS = 5000;
+    private static final int IN_FLIGHT_BATCHES_PER_PUSHER = 2;
+
+    private final IMap<K, V> map;
+    private final PartitionService partitionService;
+    private final int pusherCount;
+    private final int maxBatchSize;
+    private final int maxInFlightBatches;
+    private final Map<K, V>[] batches;
+    private final ExecutorService pushers;
+    private final Semaphore semaphore;
+    private final ThrottlingLogger throttlingLogger;
+    private final AtomicReference<Throwable> storedException = new AtomicReference<>();
+    private final AtomicLong counter = new AtomicLong();
+    private final AtomicLong batchCounter = new AtomicLong();
+    private volatile int batchSize = MIN_BATCH_SIZE;
+    private long startNanos;
+
+    @SuppressWarnings("unchecked")
+    BatchingMapStreamer(IMap<K, V> map, HazelcastInstance hz, int pusherCount, int maxBatchSize) {
+        if (pusherCount < 1) {
+            throw new IllegalArgumentException("pusherCount can't be smaller than 1, found " + pusherCount);
+        }
+        if (maxBatchSize < MIN_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                    "maxBatchSize can't be smaller than " + MIN_BATCH_SIZE + ", found " + maxBatchSize);
+        }
+
+        this.map = map;
+        this.partitionService = hz.getPartitionService();
+        this.pusherCount = pusherCount;
+        this.maxBatchSize = maxBatchSize;
+        this.maxInFlightBatches = pusherCount * IN_FLIGHT_BATCHES_PER_PUSHER;
+        this.batches = new Map[partitionService.getPartitions().size()];
+        AtomicInteger pusherIndex = new AtomicInteger();
+        this.pushers = Executors.newFixedThreadPool(pusherCount, r -> {
+            Thread thread = new Thread(r, "BatchingMapStreamer-" + map.getName() + "-" + pusherIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.semaphore = new Semaphore(maxInFlightBatches);
+        this.throttlingLogger = ThrottlingLogger.newLogger(LOGGER, MAXIMUM_LOGGING_RATE_MILLIS);
+    }
+
+    @Override
+    public synchronized void pushEntry(K key, V value) {
+        if (storedException.get() != null) {
+            throw new RuntimeException("Aborting pushEntry; problems are detected. Please check the cause",
+                    storedException.get());
+        }
+
+        if (startNanos == 0) {
+            startNanos = System.nanoTime();
+        }
+
+        int partitionId = partitionService.getPartition(key).getPartitionId();
+        Map<K, V> batch = batches[partitionId];
+        if (batch == null) {
+            batch = new HashMap<>();
+            batches[partitionId] = batch;
+        }
+        batch.put(key, value);
+
+        if (batch.size() >= batchSize) {
+            batches[partitionId] = null;
+            submit(batch);
+        }
+    }
+
+    @Override
+    public synchronized void await() {
+        try {
+            for (int partitionId = 0; partitionId < batches.length; partitionId++) {
+                Map<K, V> batch = batches[partitionId];
+                if (batch != null) {
+                    batches[partitionId] = null;
+                    submit(batch);
+                }
+            }
+
+            acquirePermits(maxInFlightBatches);
+            semaphore.release(maxInFlightBatches);
+        } finally {
+            pushers.shutdown();
+        }
+
+        logThroughput();
+
+        if (storedException.get() != null) {
+            throw rethrow(storedException.get());
+        }
+    }
+
+    private void submit(Map<K, V> batch) {
+        acquirePermits(1);
+        try {
+            pushers.execute(() -> push(batch));
+        } catch (RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    private void push(Map<K, V> batch) {
+        try {
+            long batchStartNanos = System.nanoTime();
+            map.putAll(batch);
+            adaptBatchSize(batch.size(), System.nanoTime() - batchStartNanos);
+            counter.addAndGet(batch.size());
+            batchCounter.incrementAndGet();
+        } catch (Throwable t) {
+            storedException.compareAndSet(null, t);
+            ExceptionReporter.report(null, t);
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    int batchSize() {
+        return batchSize;
+    }
+
+    void adaptBatchSize(int size, long latencyNanos) {
+        // the update isn't atomic; a lost update just means the batch size adapts a bit slower
+        int current = batchSize;
+        if (latencyNanos > TARGET_BATCH_LATENCY_NANOS) {
+            batchSize = max(MIN_BATCH_SIZE, current / 2);
+        } else if (latencyNanos < TARGET_BATCH_LATENCY_NANOS / 2 && size >= current) {
+            batchSize = min(maxBatchSize, current * 2);
+        }
+    }
+
+    private void acquirePermits(int count) {
+        throttlingLogger.info(progress());
+        try {
+            if (!semaphore.tryAcquire(count, DEFAULT_TIMEOUT_MINUTES, MINUTES)) {
+                throw new IllegalStateException("Timeout when trying to acquire a permit! Completed: " + counter.get());
+            }
+        } catch (InterruptedException e) {
+            throw rethrow(e);
+        }
+    }
+
+    private String progress() {
+        return format("At: %d (%.0f entries/s, batch size %d)", counter.get(), throughput(), batchSize);
+    }
+
+    private void logThroughput() {
+        long durationNanos = startNanos == 0 ? 0 : System.nanoTime() - startNanos;
+        LOGGER.info(format("Loaded %d entries into map %s in %d ms using %d batches and %d pushers (%.0f entries/s)",
+                counter.get(), map.getName(), NANOSECONDS.toMillis(durationNanos), batchCounter.get(), pusherCount,
+                throughput()));
+    }
+
+    private double throughput() {
+        long durationNanos = startNanos == 0 ? 0 : System.nanoTime() - startNanos;
+        if (durationNanos == 0) {
+            return 0;
+        }
+        return counter.get() * (double) SECONDS.toNanos(1) / durationNanos;
+    }
+}
@@ -16,10 +16,12 @@
 package com.hazelcast.simulator.worker.loadsupport;
 
 import com.hazelcast.cache.ICache;
+import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.map.IMap;
 
 import javax.cache.Cache;
 
+import static com.hazelcast.simulator.worker.loadsupport.BatchingMapStreamer.DEFAULT_MAX_BATCH_SIZE;
 import static com.hazelcast.simulator.worker.loadsupport.Streamer.DEFAULT_CONCURRENCY_LEVEL;
 
 /**
@@ -29,6 +31,8 @@ import static com.hazelcast.simulator.worker.loadsupport.Streamer.DEFAULT_CONCUR
  */
 public final class StreamerFactory {
 
+    static final int DEFAULT_PUSHERS_PER_MEMBER = 2;
+
     private StreamerFactory() {
     }
 
@@ -40,6 +44,24 @@ public final class StreamerFactory {
         return new AsyncMapStreamer<>(concurrencyLevel, map);
     }
 
+    /**
+     * Returns a {@link Streamer} that groups the entries per partition and writes them in batches from multiple pusher
+     * threads. The number of pusher threads scales with the number of members in the cluster.
+     *
+     * @param map the map to load
+     * @param hz  the HazelcastInstance used to look up the partitions and the cluster size
+     * @return the batching Streamer
+     */
+    public static <K, V> Streamer<K, V> getBatchingInstance(IMap<K, V> map, HazelcastInstance hz) {
+        int memberCount = Math.max(1, hz.getCluster().getMembers().size());
+        return getBatchingInstance(map, hz, memberCount * DEFAULT_PUSHERS_PER_MEMBER, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public static <K, V> Streamer<K, V> getBatchingInstance(IMap<K, V> map, HazelcastInstance hz,
+                                                            int pusherCount, int maxBatchSize) {
+        return new BatchingMapStreamer<>(map, hz, pusherCount, maxBatchSize);
+    }
+
     public static <K, V> Streamer<K, V> getInstance(Cache<K, V> cache) {
         return getInstance(cache, DEFAULT_CONCURRENCY_LEVEL);
     }
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.tests.helpers;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.partition.Partition;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.hazelcast.core.Hazelcast.newHazelcastInstance;
+import static com.hazelcast.simulator.hazelcast4.Hazelcast4Driver.warmupPartitions;
+import static com.hazelcast.simulator.tests.helpers.IntKeyPool.newIntKeyPool;
+import static com.hazelcast.simulator.tests.helpers.KeyUtils.isLocalKey;
+import static com.hazelcast.simulator.tests.helpers.StringKeyPool.newStringKeyPool;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class KeyPoolTest {
+
+    private static final int PARTITION_COUNT = 10;
+
+    private static HazelcastInstance hz;
+
+    @BeforeClass
+    public static void beforeClass() {
+        Config config = new Config();
+        config.setProperty("hazelcast.partition.count", "" + PARTITION_COUNT);
+
+        hz = newHazelcastInstance(config);
+        HazelcastInstance remoteInstance = newHazelcastInstance(config);
+        warmupPartitions(hz);
+        warmupPartitions(remoteInstance);
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testIntKeyPool_whenShared() {
+        IntKeyPool keyPool = newIntKeyPool(100, KeyLocality.SHARED, null);
+
+        assertEquals(100, keyPool.size());
+        for (int i = 0; i < keyPool.size(); i++) {
+            assertEquals(i, keyPool.get(i));
+        }
+    }
+
+    @Test
+    public void testIntKeyPool_whenLocal_keysAreUniqueAndGroupedByPartition() {
+        IntKeyPool keyPool = newIntKeyPool(1000, KeyLocality.LOCAL, hz);
+
+        assertEquals(1000, keyPool.size());
+        Set<Integer> keys = new HashSet<Integer>();
+        Set<Integer> completedPartitions = new HashSet<Integer>();
+        int previousPartitionId = -1;
+        for (int i = 0; i < keyPool.size(); i++) {
+            int key = keyPool.get(i);
+            assertTrue(key >= 0);
+            assertTrue(keys.add(key));
+            assertTrue(isLocalKey(hz, key));
+
+            int partitionId = hz.getPartitionService().getPartition(key).getPartitionId();
+            if (partitionId != previousPartitionId) {
+                assertTrue("partition " + partitionId + " has keys in multiple ranges", completedPartitions.add(partitionId));
+                previousPartitionId = partitionId;
+            }
+        }
+    }
+
+    @Test
+    public void testIntKeyPool_toArray() {
+        IntKeyPool keyPool = newIntKeyPool(100, KeyLocality.RANDOM, hz);
+
+        int[] keys = keyPool.toArray();
+
+        assertEquals(100, keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(keyPool.get(i), keys[i]);
+        }
+    }
+
+    @Test
+    public void testStringKeyPool_whenShared() {
+        StringKeyPool keyPool = newStringKeyPool("prefix", 1001, 10, KeyLocality.SHARED, null);
+
+        assertEquals(1001, keyPool.size());
+        assertEquals("prefix0000", keyPool.get(0));
+        assertEquals("prefix0042", keyPool.get(42));
+        assertEquals("prefix1000", keyPool.get(1000));
+    }
+
+    @Test
+    public void testStringKeyPool_whenShared_keyLengthTooSmall() {
+        StringKeyPool keyPool = newStringKeyPool("prefix", 200, 8, KeyLocality.SHARED, null);
+
+        assertEquals("prefix99", keyPool.get(99));
+        assertEquals("prefix100", keyPool.get(100));
+    }
+
+    @Test
+    public void testStringKeyPool_whenSinglePartition() {
+        StringKeyPool keyPool = newStringKeyPool("", 10, 5, KeyLocality.SINGLE_PARTITION, null);
+
+        assertArrayEquals(new String[]{"00000", "00000", "00000", "00000", "00000", "00000", "00000", "00000", "00000",
+                "00000"}, keyPool.toArray());
+    }
+
+    @Test
+    public void testStringKeyPool_whenRemote_equalDistributionOverPartitions() {
+        int keysPerPartition = 10;
+        int remotePartitionCount = 0;
+        for (Partition partition : hz.getPartitionService().getPartitions()) {
+            if (!partition.getOwner().localMember()) {
+                remotePartitionCount++;
+            }
+        }
+
+        StringKeyPool keyPool = newStringKeyPool("prefix", keysPerPartition * remotePartitionCount, 12,
+                KeyLocality.REMOTE, hz);
+
+        int[] countPerPartition = new int[PARTITION_COUNT];
+        for (int i = 0; i < keyPool.size(); i++) {
+            String key = keyPool.get(i);
+            assertEquals(12, key.length());
+            assertTrue(key.startsWith("prefix"));
+            countPerPartition[hz.getPartitionService().getPartition(key).getPartitionId()]++;
+        }
+
+        for (Partition partition : hz.getPartitionService().getPartitions()) {
+            int expected = partition.getOwner().localMember() ? 0 : keysPerPartition;
+            assertEquals(expected, countPerPartition[partition.getPartitionId()]);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStringKeyPool_whenNotEnoughIds() {
+        // with a single digit there are only 10 ids
+        newStringKeyPool("prefix", 20, 7, KeyLocality.RANDOM, hz);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBalancedKeyIds_withUnsupportedKeyLocality() {
+        new KeyPool.BalancedKeyIds(hz, KeyLocality.SHARED, 10, Integer.MAX_VALUE, Integer::valueOf);
+    }
+}
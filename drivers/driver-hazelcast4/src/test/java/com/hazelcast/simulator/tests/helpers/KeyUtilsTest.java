@@ -476,41 +476,4 @@ public class KeyUtilsTest {
             assertEquals("prefix0000", key);
         }
     }
-
-    // =========================== BalancedKeyGenerator =============================
-
-    @Test(expected = IllegalArgumentException.class)
-    public void testBalancedKeyGenerator_withUnsupportedKeyLocality() {
-        new KeyUtils.BalancedKeyGenerator<Integer>(hz, KeyLocality.SHARED, 0) {
-
-            @Override
-            protected Integer generateKey() {
-                return null;
-            }
-        };
-    }
-
-    @Test
-    public void testBalancedKeyGenerator_willGenerateNewKeyOnDuplicateKey() {
-        GenerateSameKeyOnceGenerator generator = new GenerateSameKeyOnceGenerator(hz);
-
-        assertEquals(0, generator.next().intValue());
-        assertEquals(1, generator.next().intValue());
-    }
-
-    private static class GenerateSameKeyOnceGenerator extends KeyUtils.BalancedKeyGenerator<Integer> {
-
-        private static final Integer[] KEYS = new Integer[]{new Integer(0), new Integer(0), new Integer(1)};
-
-        private int keyIndex;
-
-        private GenerateSameKeyOnceGenerator(HazelcastInstance hz) {
-            super(hz, KeyLocality.RANDOM, 2);
-        }
-
-        @Override
-        protected Integer generateKey() {
-            return KEYS[keyIndex++];
-        }
-    }
 }
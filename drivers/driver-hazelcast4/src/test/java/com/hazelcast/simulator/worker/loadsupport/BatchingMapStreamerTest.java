@@ -0,0 +1,117 @@
+package com.hazelcast.simulator.worker.loadsupport;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.partition.Partition;
+import com.hazelcast.partition.PartitionService;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.simulator.worker.loadsupport.BatchingMapStreamer.MIN_BATCH_SIZE;
+import static com.hazelcast.simulator.worker.loadsupport.BatchingMapStreamer.TARGET_BATCH_LATENCY_NANOS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BatchingMapStreamerTest {
+
+    private static final int PARTITION_COUNT = 4;
+    private static final int MAX_BATCH_SIZE = 64;
+
+    private final List<Map<Integer, Integer>> batches = new ArrayList<Map<Integer, Integer>>();
+    private IMap<Integer, Integer> map;
+    private HazelcastInstance hz;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() {
+        Set<Partition> partitions = new HashSet<Partition>();
+        List<Partition> partitionById = new ArrayList<Partition>();
+        for (int partitionId = 0; partitionId < PARTITION_COUNT; partitionId++) {
+            Partition partition = mock(Partition.class);
+            when(partition.getPartitionId()).thenReturn(partitionId);
+            partitions.add(partition);
+            partitionById.add(partition);
+        }
+
+        PartitionService partitionService = mock(PartitionService.class);
+        when(partitionService.getPartitions()).thenReturn(partitions);
+        when(partitionService.getPartition(any())).thenAnswer(
+                invocation -> partitionById.get((Integer) invocation.getArguments()[0] % PARTITION_COUNT));
+
+        hz = mock(HazelcastInstance.class);
+        when(hz.getPartitionService()).thenReturn(partitionService);
+
+        map = mock(IMap.class);
+        when(map.getName()).thenReturn("map");
+        doAnswer(invocation -> {
+            synchronized (batches) {
+                batches.add(new HashMap<Integer, Integer>((Map<Integer, Integer>) invocation.getArguments()[0]));
+            }
+            return null;
+        }).when(map).putAll(any(Map.class));
+    }
+
+    @Test
+    public void testPushEntry_groupsEntriesPerPartition() {
+        BatchingMapStreamer<Integer, Integer> streamer = new BatchingMapStreamer<Integer, Integer>(map, hz, 2, MAX_BATCH_SIZE);
+
+        int entryCount = 1000;
+        for (int key = 0; key < entryCount; key++) {
+            streamer.pushEntry(key, key);
+        }
+        streamer.await();
+
+        Set<Integer> keys = new HashSet<Integer>();
+        for (Map<Integer, Integer> batch : batches) {
+            assertTrue(batch.size() <= MAX_BATCH_SIZE);
+            int partitionId = batch.keySet().iterator().next() % PARTITION_COUNT;
+            for (Integer key : batch.keySet()) {
+                assertEquals("batch contains keys of different partitions", partitionId, key % PARTITION_COUNT);
+            }
+            keys.addAll(batch.keySet());
+        }
+        assertEquals(entryCount, keys.size());
+    }
+
+    @Test
+    public void testAdaptBatchSize() {
+        BatchingMapStreamer<Integer, Integer> streamer = new BatchingMapStreamer<Integer, Integer>(map, hz, 1, MAX_BATCH_SIZE);
+        assertEquals(MIN_BATCH_SIZE, streamer.batchSize());
+
+        // fast full batches grow the batch size up to the maximum
+        streamer.adaptBatchSize(MIN_BATCH_SIZE, 0);
+        assertEquals(2 * MIN_BATCH_SIZE, streamer.batchSize());
+        streamer.adaptBatchSize(2 * MIN_BATCH_SIZE, 0);
+        streamer.adaptBatchSize(MAX_BATCH_SIZE, 0);
+        assertEquals(MAX_BATCH_SIZE, streamer.batchSize());
+
+        // a fast batch that wasn't full, e.g. flushed by await, doesn't grow the batch size
+        streamer.adaptBatchSize(1, 0);
+        assertEquals(MAX_BATCH_SIZE, streamer.batchSize());
+
+        // a batch within the target latency keeps the batch size
+        streamer.adaptBatchSize(MAX_BATCH_SIZE, TARGET_BATCH_LATENCY_NANOS);
+        assertEquals(MAX_BATCH_SIZE, streamer.batchSize());
+
+        // slow batches shrink the batch size down to the minimum
+        streamer.adaptBatchSize(MAX_BATCH_SIZE, TARGET_BATCH_LATENCY_NANOS + 1);
+        assertEquals(MAX_BATCH_SIZE / 2, streamer.batchSize());
+        for (int i = 0; i < 10; i++) {
+            streamer.adaptBatchSize(MAX_BATCH_SIZE, TARGET_BATCH_LATENCY_NANOS + 1);
+        }
+        assertEquals(MIN_BATCH_SIZE, streamer.batchSize());
+
+        streamer.await();
+    }
+}
@@ -53,9 +53,8 @@ public class ByteByteTest extends JedisTest {
             values[i] = generateByteArray(random, valueSize);
         }
 
-        for (byte[] key : keys) {
-            client.set(key, values[random.nextInt(values.length)]);
-        }
+        // the keys are random, so every worker loads its own keys
+        loadPipelined(keys, values);
     }
 
     @TimeStep(prob = 0.1)
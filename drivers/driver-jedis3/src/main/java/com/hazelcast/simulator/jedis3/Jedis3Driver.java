@@ -19,7 +19,6 @@ import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.vendors.VendorDriver;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import redis.clients.jedis.HostAndPort;
-import redis.clients.jedis.JedisCluster;
 
 import java.io.IOException;
 import java.util.HashSet;
@@ -28,11 +27,12 @@ import java.util.Set;
 import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static java.lang.String.format;
 
-public class Jedis3Driver extends VendorDriver<JedisCluster> {
+public class Jedis3Driver extends VendorDriver<SlotAwareJedisCluster> {
 
     private static final int DEFAULT_REDIS_PORT = 6378;
+    private static final String DEFAULT_POOL_SIZE = "100";
 
-    private JedisCluster client;
+    private SlotAwareJedisCluster client;
 
     @Override
     public WorkerParameters loadWorkerParameters(String workerType, int agentIndex) {
@@ -57,19 +57,23 @@ public class Jedis3Driver extends VendorDriver<JedisCluster> {
     }
 
     @Override
-    public JedisCluster getVendorInstance() {
+    public SlotAwareJedisCluster getVendorInstance() {
         return client;
     }
 
     @Override
     public void startVendorInstance() throws Exception {
         Set<HostAndPort> addresses = getAddresses();
+        // the maximum number of connections per node
+        int poolSize = Integer.parseInt(get("POOL_SIZE", DEFAULT_POOL_SIZE));
         GenericObjectPoolConfig poolConfig = new GenericObjectPoolConfig();
-        poolConfig.setMaxTotal(100);
+        poolConfig.setMaxTotal(poolSize);
+        // idle connections are not closed, otherwise the connections are recreated under load
+        poolConfig.setMaxIdle(poolSize);
         if (get("REDIS_CLUSTER_PASSWORD") != null) {
-            this.client = new JedisCluster(addresses, 30000, 30000, 3, get("REDIS_CLUSTER_PASSWORD"), poolConfig);
+            this.client = new SlotAwareJedisCluster(addresses, 30000, 30000, 3, get("REDIS_CLUSTER_PASSWORD"), poolConfig);
         } else {
-            this.client = new JedisCluster(addresses, poolConfig);
+            this.client = new SlotAwareJedisCluster(addresses, poolConfig);
         }
     }
 
@@ -15,12 +15,17 @@
  */
 package com.hazelcast.simulator.jedis3;
 
+import com.hazelcast.simulator.probes.impl.EmptyProbe;
+import com.hazelcast.simulator.test.PrepareShard;
 import com.hazelcast.simulator.test.TestContext;
 import com.hazelcast.simulator.test.annotations.InjectTestContext;
 import com.hazelcast.simulator.test.annotations.InjectVendor;
 import edu.umd.cs.findbugs.annotations.SuppressWarnings;
 import org.apache.log4j.Logger;
-import redis.clients.jedis.JedisCluster;
+
+import java.util.Random;
+
+import static java.lang.Math.min;
 
 public abstract class JedisTest {
 
@@ -32,11 +37,56 @@ public abstract class JedisTest {
     @SuppressWarnings("checkstyle:visibilitymodifier")
     public String name = getClass().getSimpleName();
 
+    // the number of keys which are loaded using a single pipeline per node
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public int loadBatchSize = 1000;
+
     protected final Logger logger = Logger.getLogger(getClass());
 
     @InjectVendor
-    protected JedisCluster client;
+    protected SlotAwareJedisCluster client;
 
     @InjectTestContext
     protected TestContext testContext;
+
+    /**
+     * Loads all keys using a pipeline per node for every {@link #loadBatchSize} keys.
+     *
+     * @param keys   the keys to load
+     * @param values the values to pick from
+     */
+    protected void loadPipelined(byte[][] keys, byte[][] values) {
+        Random random = new Random();
+        for (int batchStart = 0; batchStart < keys.length; batchStart += loadBatchSize) {
+            loadBatch(random, keys, values, batchStart, min(batchStart + loadBatchSize, keys.length));
+        }
+    }
+
+    /**
+     * Loads the keys of the given shard using a pipeline per node for every {@link #loadBatchSize} keys.
+     *
+     * The keys need to be the same on every worker.
+     *
+     * @param shard  the shard to load
+     * @param keys   all the keys
+     * @param values the values to pick from
+     */
+    protected void loadPipelined(PrepareShard shard, byte[][] keys, byte[][] values) {
+        Random random = new Random();
+        int end = (int) shard.end(keys.length);
+        for (int batchStart = (int) shard.start(keys.length); batchStart < end; batchStart += loadBatchSize) {
+            int batchEnd = min(batchStart + loadBatchSize, end);
+            loadBatch(random, keys, values, batchStart, batchEnd);
+            shard.completed(batchEnd - batchStart);
+        }
+    }
+
+    private void loadBatch(Random random, byte[][] keys, byte[][] values, int batchStart, int batchEnd) {
+        try (NodePipelines pipelines = new NodePipelines(client, EmptyProbe.INSTANCE)) {
+            for (int k = batchStart; k < batchEnd; k++) {
+                pipelines.forKey(keys[k]).set(keys[k], values[random.nextInt(values.length)]);
+            }
+            pipelines.sync();
+        }
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.jedis3;
+
+import com.hazelcast.simulator.probes.Probe;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.simulator.jedis3.SlotAwareJedisCluster.slot;
+
+/**
+ * Groups the commands of a batch into a single pipeline per cluster node, so the batch costs a single round trip per node
+ * instead of a round trip per command.
+ * <p>
+ * The node of a slot is resolved using the slot cache of the cluster, so a connection is only borrowed from the pool of a
+ * node when the first command for that node is added. The time it takes to borrow the connections is recorded in the borrow
+ * probe. The connections are returned to the pools by {@link #close()}.
+ * <p>
+ * This class isn't thread-safe; it should only be used for a single batch by a single thread.
+ */
+final class NodePipelines implements Closeable {
+
+    private final SlotAwareJedisCluster cluster;
+    private final Probe borrowProbe;
+    private final Map<Integer, Pipeline> slotPipelines = new HashMap<>();
+    private final Map<JedisPool, Pipeline> nodePipelines = new HashMap<>();
+    private final List<Pipeline> pipelines = new ArrayList<>();
+    private final List<Jedis> connections = new ArrayList<>();
+
+    NodePipelines(SlotAwareJedisCluster cluster, Probe borrowProbe) {
+        this.cluster = cluster;
+        this.borrowProbe = borrowProbe;
+    }
+
+    Pipeline forKey(byte[] key) {
+        return forSlot(slot(key));
+    }
+
+    Pipeline forSlot(int slot) {
+        Pipeline pipeline = slotPipelines.get(slot);
+        if (pipeline == null) {
+            pipeline = forNode(slot);
+            slotPipelines.put(slot, pipeline);
+        }
+        return pipeline;
+    }
+
+    private Pipeline forNode(int slot) {
+        JedisPool pool = cluster.getSlotPool(slot);
+        Pipeline pipeline = pool == null ? null : nodePipelines.get(pool);
+        if (pipeline != null) {
+            // another slot of this node has already borrowed a connection
+            return pipeline;
+        }
+
+        long startNanos = System.nanoTime();
+        // a slot which isn't in the slot cache is borrowed via the cluster, which renews the slot cache
+        Jedis connection = pool == null ? cluster.getConnectionFromSlot(slot) : pool.getResource();
+        borrowProbe.done(startNanos);
+
+        connections.add(connection);
+        pipeline = connection.pipelined();
+        pipelines.add(pipeline);
+        if (pool != null) {
+            nodePipelines.put(pool, pipeline);
+        }
+        return pipeline;
+    }
+
+    /**
+     * Sends the pipelined commands and waits for their responses.
+     *
+     * @return the number of responses
+     */
+    int sync() {
+        int responses = 0;
+        for (Pipeline pipeline : pipelines) {
+            // syncAndReturnAll throws the first error response instead of silently dropping it
+            responses += pipeline.syncAndReturnAll().size();
+        }
+        return responses;
+    }
+
+    @Override
+    public void close() {
+        for (Jedis connection : connections) {
+            connection.close();
+        }
+        connections.clear();
+        pipelines.clear();
+        nodePipelines.clear();
+        slotPipelines.clear();
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.jedis3;
+
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.PrepareShard;
+import com.hazelcast.simulator.test.annotations.Prepare;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.hazelcast.simulator.jedis3.SlotAwareJedisCluster.slot;
+import static com.hazelcast.simulator.utils.GeneratorUtils.generateByteArray;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Executes batches of {@link #batchSize} keys; GET and SET pipeline a command per key, MGET and MSET send a single command
+ * per slot. All commands for the same node are sent using a single pipeline, so a batch costs a round trip per node.
+ * <p>
+ * The keys are spread over {@link #hashTagCount} hash tags and a batch picks all its keys from the same hash tag. Since the
+ * keys with the same hash tag belong to the same slot, a batch is sent to a single node. If the hashTagCount is 0, the keys
+ * don't have a hash tag and a batch is spread over the cluster.
+ * <p>
+ * The time to borrow a connection from the connection pool of a node is recorded in the 'poolBorrow' probe.
+ */
+public class PipelineTest extends JedisTest {
+
+    // properties
+    public int keyCount = 100000;
+    public int hashTagCount = 1000;
+    public int batchSize = 10;
+    public int valueCount = 1000;
+    public int valueSize = 1000;
+
+    private byte[][] keys;
+    private byte[][] values;
+    private Probe borrowProbe;
+
+    @Setup
+    public void setUp() {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize can't be smaller than 1, found " + batchSize);
+        }
+        if (hashTagCount < 0 || hashTagCount > keyCount) {
+            throw new IllegalArgumentException("hashTagCount should be between 0 and keyCount, found " + hashTagCount);
+        }
+
+        // the keys need to be the same on every worker, since every worker only loads a part of them
+        keys = new byte[keyCount][];
+        for (int k = 0; k < keys.length; k++) {
+            String hashTag = hashTagCount == 0 ? "" : "{" + k % hashTagCount + "}";
+            keys[k] = (hashTag + k).getBytes(UTF_8);
+        }
+
+        Random random = new Random();
+        values = new byte[valueCount][];
+        for (int k = 0; k < values.length; k++) {
+            values[k] = generateByteArray(random, valueSize);
+        }
+
+        borrowProbe = testContext.getProbe("poolBorrow");
+    }
+
+    @Prepare(partitioned = true)
+    public void prepare(PrepareShard shard) {
+        loadPipelined(shard, keys, values);
+    }
+
+    @TimeStep(prob = -1)
+    public int get(ThreadState state) {
+        state.nextBatch();
+        try (NodePipelines pipelines = new NodePipelines(client, borrowProbe)) {
+            for (int k = 0; k < batchSize; k++) {
+                byte[] key = state.randomKey();
+                pipelines.forKey(key).get(key);
+            }
+            return pipelines.sync();
+        }
+    }
+
+    @TimeStep(prob = 0)
+    public int set(ThreadState state) {
+        state.nextBatch();
+        try (NodePipelines pipelines = new NodePipelines(client, borrowProbe)) {
+            for (int k = 0; k < batchSize; k++) {
+                byte[] key = state.randomKey();
+                pipelines.forKey(key).set(key, state.randomValue());
+            }
+            return pipelines.sync();
+        }
+    }
+
+    @TimeStep(prob = 0)
+    public int mget(ThreadState state) {
+        try (NodePipelines pipelines = new NodePipelines(client, borrowProbe)) {
+            for (Map.Entry<Integer, List<byte[]>> entry : state.randomBatchBySlot().entrySet()) {
+                List<byte[]> slotKeys = entry.getValue();
+                pipelines.forSlot(entry.getKey()).mget(slotKeys.toArray(new byte[0][]));
+            }
+            return pipelines.sync();
+        }
+    }
+
+    @TimeStep(prob = 0)
+    public int mset(ThreadState state) {
+        try (NodePipelines pipelines = new NodePipelines(client, borrowProbe)) {
+            for (Map.Entry<Integer, List<byte[]>> entry : state.randomBatchBySlot().entrySet()) {
+                List<byte[]> slotKeys = entry.getValue();
+                byte[][] keysValues = new byte[slotKeys.size() * 2][];
+                for (int k = 0; k < slotKeys.size(); k++) {
+                    keysValues[2 * k] = slotKeys.get(k);
+                    keysValues[2 * k + 1] = state.randomValue();
+                }
+                pipelines.forSlot(entry.getKey()).mset(keysValues);
+            }
+            return pipelines.sync();
+        }
+    }
+
+    public class ThreadState extends BaseThreadState {
+
+        private int hashTag;
+
+        private void nextBatch() {
+            if (hashTagCount > 0) {
+                hashTag = randomInt(hashTagCount);
+            }
+        }
+
+        private byte[] randomKey() {
+            if (hashTagCount == 0) {
+                return keys[randomInt(keys.length)];
+            }
+            // the keys with index hashTag + n * hashTagCount have the same hash tag
+            return keys[hashTag + hashTagCount * randomInt(keys.length / hashTagCount)];
+        }
+
+        private byte[] randomValue() {
+            return values[randomInt(values.length)];
+        }
+
+        private Map<Integer, List<byte[]>> randomBatchBySlot() {
+            nextBatch();
+            Map<Integer, List<byte[]>> batch = new HashMap<>();
+            for (int k = 0; k < batchSize; k++) {
+                byte[] key = randomKey();
+                int slot = slot(key);
+                List<byte[]> slotKeys = batch.get(slot);
+                if (slotKeys == null) {
+                    slotKeys = new ArrayList<>();
+                    batch.put(slot, slotKeys);
+                }
+                slotKeys.add(key);
+            }
+            return batch;
+        }
+    }
+}
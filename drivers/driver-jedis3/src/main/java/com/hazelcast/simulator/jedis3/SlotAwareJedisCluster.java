@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.jedis3;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisClusterConnectionHandler;
+import redis.clients.jedis.JedisClusterInfoCache;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisSlotBasedConnectionHandler;
+import redis.clients.jedis.util.JedisClusterCRC16;
+
+import java.lang.reflect.Field;
+import java.util.Set;
+
+import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+
+/**
+ * A {@link JedisCluster} which gives access to the pooled connection of the node owning a slot. This makes it possible to
+ * pipeline the commands for the same node and to batch the keys of the same slot in a single MGET or MSET.
+ */
+public class SlotAwareJedisCluster extends JedisCluster {
+
+    private final JedisSlotBasedConnectionHandler slotConnectionHandler;
+    private final JedisClusterInfoCache slotCache;
+
+    public SlotAwareJedisCluster(Set<HostAndPort> nodes, GenericObjectPoolConfig poolConfig) {
+        super(nodes, poolConfig);
+        this.slotConnectionHandler = (JedisSlotBasedConnectionHandler) connectionHandler;
+        this.slotCache = getSlotCache(slotConnectionHandler);
+    }
+
+    public SlotAwareJedisCluster(Set<HostAndPort> nodes, int connectionTimeout, int soTimeout, int maxAttempts,
+                                 String password, GenericObjectPoolConfig poolConfig) {
+        super(nodes, connectionTimeout, soTimeout, maxAttempts, password, poolConfig);
+        this.slotConnectionHandler = (JedisSlotBasedConnectionHandler) connectionHandler;
+        this.slotCache = getSlotCache(slotConnectionHandler);
+    }
+
+    // the slot cache isn't exposed by the connection handler, but it is the only way to find the node of a slot without
+    // borrowing a connection
+    private static JedisClusterInfoCache getSlotCache(JedisClusterConnectionHandler connectionHandler) {
+        try {
+            Field field = JedisClusterConnectionHandler.class.getDeclaredField("cache");
+            field.setAccessible(true);
+            return (JedisClusterInfoCache) field.get(connectionHandler);
+        } catch (ReflectiveOperationException e) {
+            throw rethrow(e);
+        }
+    }
+
+    public static int slot(byte[] key) {
+        return JedisClusterCRC16.getSlot(key);
+    }
+
+    /**
+     * Borrows a connection to the node owning the given slot from the pool of that node. The connection is returned to the
+     * pool by closing it.
+     *
+     * @param slot the slot
+     * @return the borrowed connection
+     */
+    public Jedis getConnectionFromSlot(int slot) {
+        return slotConnectionHandler.getConnectionFromSlot(slot);
+    }
+
+    /**
+     * Returns the connection pool of the node owning the given slot, according to the slot cache of the cluster. No
+     * connection is borrowed, so this can be used to find the slots that are owned by the same node.
+     *
+     * @param slot the slot
+     * @return the pool of the node or {@code null} if the slot isn't in the slot cache
+     */
+    public JedisPool getSlotPool(int slot) {
+        return slotCache.getSlotPool(slot);
+    }
+}
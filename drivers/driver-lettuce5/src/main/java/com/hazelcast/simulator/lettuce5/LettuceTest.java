@@ -15,17 +15,37 @@
  */
 package com.hazelcast.simulator.lettuce5;
 
+import com.hazelcast.simulator.test.PrepareShard;
 import com.hazelcast.simulator.test.TestContext;
+import com.hazelcast.simulator.test.TestException;
 import com.hazelcast.simulator.test.annotations.InjectTestContext;
 import com.hazelcast.simulator.test.annotations.InjectVendor;
 import edu.umd.cs.findbugs.annotations.SuppressWarnings;
+import io.lettuce.core.LettuceFutures;
 import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
 import org.apache.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+@SuppressWarnings("checkstyle:visibilitymodifier")
 public abstract class LettuceTest   {
 
-    @SuppressWarnings("checkstyle:visibilitymodifier")
+    private static final int LOAD_TIMEOUT_SECONDS = 60;
+
     public String name = getClass().getSimpleName();
+    // the number of keys written by a single MSET while loading the data
+    public int loadBatchSize = 100;
+    // the number of MSET commands that are written to the connection before they are flushed and awaited
+    public int loadPipelineSize = 10;
 
     protected final Logger logger = Logger.getLogger(getClass());
 
@@ -34,4 +54,52 @@ public abstract class LettuceTest   {
 
     @InjectTestContext
     protected TestContext testContext;
+
+    /**
+     * Loads the keys of the given shard using pipelined MSET commands on a connection of its own.
+     *
+     * @param shard     the shard to load
+     * @param keyDomain the total number of keys
+     * @param values    the values to pick from
+     */
+    protected void loadStrings(PrepareShard shard, long keyDomain, String[] values) {
+        Random random = new Random();
+        StatefulRedisConnection<String, String> connection = redisClient.connect();
+        try {
+            connection.setAutoFlushCommands(false);
+            RedisAsyncCommands<String, String> async = connection.async();
+            List<RedisFuture<String>> pipeline = new ArrayList<>(loadPipelineSize);
+            Map<String, String> batch = new HashMap<>();
+            long pendingKeys = 0;
+            for (long key = shard.start(keyDomain); key < shard.end(keyDomain); key++) {
+                batch.put(Long.toString(key), values[random.nextInt(values.length)]);
+                pendingKeys++;
+                if (batch.size() == loadBatchSize) {
+                    pipeline.add(async.mset(batch));
+                    batch = new HashMap<>();
+                    if (pipeline.size() == loadPipelineSize) {
+                        flush(connection, pipeline);
+                        shard.completed(pendingKeys);
+                        pendingKeys = 0;
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                pipeline.add(async.mset(batch));
+            }
+            flush(connection, pipeline);
+            shard.completed(pendingKeys);
+        } finally {
+            connection.close();
+        }
+    }
+
+    private static void flush(StatefulRedisConnection<String, String> connection, List<RedisFuture<String>> pipeline) {
+        connection.flushCommands();
+        RedisFuture[] futures = pipeline.toArray(new RedisFuture[0]);
+        if (!LettuceFutures.awaitAll(LOAD_TIMEOUT_SECONDS, SECONDS, futures)) {
+            throw new TestException("Pipelined MSET did not complete within %s seconds", LOAD_TIMEOUT_SECONDS);
+        }
+        pipeline.clear();
+    }
 }
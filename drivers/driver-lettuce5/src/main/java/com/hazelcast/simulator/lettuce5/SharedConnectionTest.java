@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.lettuce5;
+
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.Teardown;
+import edu.umd.cs.findbugs.annotations.SuppressWarnings;
+import io.lettuce.core.api.StatefulRedisConnection;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+
+/**
+ * A {@link LettuceTest} where the timestep threads multiplex their commands over a fixed number of shared connections,
+ * instead of every timestep thread using a connection of its own.
+ * <p>
+ * If the {@link #pipelineSize} is larger than 1, the connections don't flush every command, but each timestep thread
+ * flushes its connection after writing {@link #pipelineSize} commands. Because the commands are only sent when they are
+ * flushed, a maxInFlight smaller than the pipelineSize would block the timestep thread before it flushes; such a
+ * configuration is rejected.
+ */
+@SuppressWarnings("checkstyle:visibilitymodifier")
+public abstract class SharedConnectionTest extends LettuceTest {
+
+    // the number of connections shared by the timestep threads of this test instance
+    public int connectionCount = 1;
+    // the number of commands a timestep thread writes before it flushes the connection
+    public int pipelineSize = 1;
+    // the maxInFlight of the timestep threads; it is bound to the test as well, so it can be checked against the pipelineSize
+    public long maxInFlight;
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private StatefulRedisConnection<String, String>[] connections;
+
+    @Setup
+    public void setupConnections() {
+        if (connectionCount < 1) {
+            throw new IllegalArgumentException("connectionCount can't be smaller than 1, found " + connectionCount);
+        }
+        if (pipelineSize < 1) {
+            throw new IllegalArgumentException("pipelineSize can't be smaller than 1, found " + pipelineSize);
+        }
+        if (pipelineSize > 1 && maxInFlight > 0 && maxInFlight < pipelineSize) {
+            throw new IllegalArgumentException(format("maxInFlight can't be smaller than the pipelineSize %d, found %d",
+                    pipelineSize, maxInFlight));
+        }
+
+        connections = new StatefulRedisConnection[connectionCount];
+        for (int k = 0; k < connectionCount; k++) {
+            connections[k] = redisClient.connect();
+            connections[k].setAutoFlushCommands(pipelineSize == 1);
+        }
+    }
+
+    @Teardown
+    public void closeConnections() {
+        if (connections == null) {
+            return;
+        }
+        for (StatefulRedisConnection<String, String> connection : connections) {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    public abstract class SharedConnectionThreadState extends BaseThreadState {
+
+        protected final StatefulRedisConnection<String, String> connection
+                = connections[threadCount.getAndIncrement() % connections.length];
+        private int unflushed;
+
+        /**
+         * Signals that a command has been written to the connection and flushes the connection when the pipeline is full.
+         */
+        public void written() {
+            if (pipelineSize == 1) {
+                return;
+            }
+            if (++unflushed == pipelineSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Flushes the commands which have been written to the connection, including those of other timestep threads.
+         */
+        public void flush() {
+            unflushed = 0;
+            connection.flushCommands();
+        }
+    }
+}
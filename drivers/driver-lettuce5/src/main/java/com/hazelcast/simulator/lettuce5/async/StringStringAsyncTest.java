@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.lettuce5.async;
+
+import com.hazelcast.simulator.lettuce5.SharedConnectionTest;
+import com.hazelcast.simulator.test.PrepareShard;
+import com.hazelcast.simulator.test.annotations.AfterRun;
+import com.hazelcast.simulator.test.annotations.Prepare;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+
+import static com.hazelcast.simulator.utils.GeneratorUtils.generateAsciiStrings;
+
+/**
+ * The async counterpart of the {@link com.hazelcast.simulator.lettuce5.sync.StringStringSyncTest}, where the timestep
+ * threads share the connections and return the {@link RedisFuture} of the command, so that a single timestep thread can
+ * have multiple commands in flight.
+ */
+public class StringStringAsyncTest extends SharedConnectionTest {
+
+    // properties
+    public int keyDomain = 10000;
+    public int valueCount = 10000;
+    public int minValueLength = 10;
+    public int maxValueLength = 10;
+
+    private String[] values;
+
+    @Setup
+    public void setup() {
+        values = generateAsciiStrings(valueCount, minValueLength, maxValueLength);
+    }
+
+    @Prepare(partitioned = true)
+    public void loadInitialData(PrepareShard shard) {
+        loadStrings(shard, keyDomain, values);
+    }
+
+    @TimeStep(prob = -1)
+    public RedisFuture<String> get(ThreadState state) {
+        RedisFuture<String> future = state.async.get(state.randomKey());
+        state.written();
+        return future;
+    }
+
+    @TimeStep(prob = 1)
+    public RedisFuture<String> put(ThreadState state) {
+        RedisFuture<String> future = state.async.set(state.randomKey(), state.randomValue());
+        state.written();
+        return future;
+    }
+
+    @AfterRun
+    public void afterRun(ThreadState state) {
+        state.flush();
+    }
+
+    public class ThreadState extends SharedConnectionThreadState {
+        final RedisAsyncCommands<String, String> async = connection.async();
+
+        private String randomKey() {
+            return Long.toString(randomLong(keyDomain));
+        }
+
+        private String randomValue() {
+            return values[randomInt(values.length)];
+        }
+    }
+}
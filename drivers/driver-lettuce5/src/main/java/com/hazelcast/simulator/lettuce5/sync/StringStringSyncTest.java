@@ -17,14 +17,13 @@ package com.hazelcast.simulator.lettuce5.sync;
 
 import com.hazelcast.simulator.lettuce5.LettuceTest;
 import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.PrepareShard;
 import com.hazelcast.simulator.test.annotations.Prepare;
 import com.hazelcast.simulator.test.annotations.Setup;
 import com.hazelcast.simulator.test.annotations.TimeStep;
 import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.api.sync.RedisCommands;
 
-import java.util.Random;
-
 import static com.hazelcast.simulator.utils.GeneratorUtils.generateAsciiStrings;
 
 public class StringStringSyncTest extends LettuceTest {
@@ -42,16 +41,9 @@ public class StringStringSyncTest extends LettuceTest {
         values = generateAsciiStrings(valueCount, minValueLength, maxValueLength);
     }
 
-    // loading the data is very inefficient. Needs some work in the future
-    @Prepare(global = true)
-    public void loadInitialData() {
-        Random random = new Random();
-        StatefulRedisConnection<String, String> connection = redisClient.connect();
-        RedisCommands sync = connection.sync();
-        for (int k = 0; k < keyDomain; k++) {
-            int r = random.nextInt(valueCount);
-            sync.set(Long.toString(k), values[r]);
-        }
+    @Prepare(partitioned = true)
+    public void loadInitialData(PrepareShard shard) {
+        loadStrings(shard, keyDomain, values);
     }
 
     @TimeStep(prob = -1)
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.memcached;
+
+import net.spy.memcached.MemcachedClient;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The clients of a worker. Every {@link MemcachedClient} has a single connection per node, so a worker with multiple clients
+ * has multiple connections per node.
+ */
+public class MemcachedClients {
+
+    private final MemcachedClient[] clients;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    public MemcachedClients(MemcachedClient[] clients) {
+        if (clients.length == 0) {
+            throw new IllegalArgumentException("There should be at least 1 client");
+        }
+        this.clients = clients;
+    }
+
+    public int size() {
+        return clients.length;
+    }
+
+    public MemcachedClient get(int index) {
+        return clients[index];
+    }
+
+    /**
+     * Returns the clients in a round robin fashion, so the threads calling this method are spread over the clients.
+     *
+     * @return the next client
+     */
+    public MemcachedClient next() {
+        return clients[(nextIndex.getAndIncrement() & Integer.MAX_VALUE) % clients.length];
+    }
+
+    public void shutdown() {
+        for (MemcachedClient client : clients) {
+            client.shutdown();
+        }
+    }
+}
@@ -17,7 +17,10 @@ package com.hazelcast.simulator.memcached;
 
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.vendors.VendorDriver;
+import com.hazelcast.simulator.worker.async.AsyncResultAdapters;
+import net.spy.memcached.ConnectionFactory;
 import net.spy.memcached.ConnectionFactoryBuilder;
+import net.spy.memcached.ConnectionFactoryBuilder.Protocol;
 import net.spy.memcached.MemcachedClient;
 import net.spy.memcached.auth.AuthDescriptor;
 import net.spy.memcached.auth.PlainCallbackHandler;
@@ -30,9 +33,9 @@ import java.util.List;
 import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static java.lang.String.format;
 
-public class MemcachedDriver extends VendorDriver<MemcachedClient> {
+public class MemcachedDriver extends VendorDriver<MemcachedClients> {
 
-    private MemcachedClient client;
+    private MemcachedClients clients;
 
     @Override
     public WorkerParameters loadWorkerParameters(String workerType, int agentIndex) {
@@ -57,12 +60,16 @@ public class MemcachedDriver extends VendorDriver<MemcachedClient> {
     }
 
     @Override
-    public MemcachedClient getVendorInstance() {
-        return client;
+    public MemcachedClients getVendorInstance() {
+        return clients;
     }
 
     @Override
     public void startVendorInstance() throws Exception {
+        AsyncResultAdapters.register(new OperationFutureAdapter());
+        AsyncResultAdapters.register(new GetFutureAdapter());
+        AsyncResultAdapters.register(new BulkFutureAdapter());
+
         String[] nodes = get("nodes").split(",");
         List<InetSocketAddress> addresses = new ArrayList<>();
         for (String node : nodes) {
@@ -78,21 +85,37 @@ public class MemcachedDriver extends VendorDriver<MemcachedClient> {
             addresses.add(new InetSocketAddress(addressParts[0], port));
         }
 
-        if (get("MEMCACHED_USERNAME") != null && get("MEMCACHED_PASSWORD") != null) {
+        // every client has a single connection per node
+        int clientCount = Integer.parseInt(get("MEMCACHED_CLIENT_COUNT", "1"));
+        MemcachedClient[] clientArray = new MemcachedClient[clientCount];
+        for (int k = 0; k < clientCount; k++) {
+            // the factory isn't shared, since a client shuts down the listener executor of its factory
+            clientArray[k] = new MemcachedClient(newConnectionFactory(), addresses);
+        }
+        this.clients = new MemcachedClients(clientArray);
+    }
+
+    private ConnectionFactory newConnectionFactory() {
+        boolean authenticate = get("MEMCACHED_USERNAME") != null && get("MEMCACHED_PASSWORD") != null;
+        // SASL authentication is only supported by the binary protocol
+        Protocol protocol = Protocol.valueOf(get("MEMCACHED_PROTOCOL", authenticate ? "binary" : "text").toUpperCase());
+        ConnectionFactoryBuilder builder = new ConnectionFactoryBuilder().setProtocol(protocol);
+        if (authenticate) {
+            if (protocol != Protocol.BINARY) {
+                throw new IllegalArgumentException("Authentication requires MEMCACHED_PROTOCOL=binary");
+            }
             AuthDescriptor authDescriptor =
                     new AuthDescriptor(new String[]{"PLAIN"},
                             new PlainCallbackHandler(get("MEMCACHED_USERNAME"), get("MEMCACHED_PASSWORD")));
-            this.client = new MemcachedClient(new ConnectionFactoryBuilder()
-                    .setProtocol(ConnectionFactoryBuilder.Protocol.BINARY).setAuthDescriptor(authDescriptor).build(), addresses);
-        } else {
-            this.client = new MemcachedClient(addresses);
+            builder.setAuthDescriptor(authDescriptor);
         }
+        return builder.build();
     }
 
     @Override
     public void close() throws IOException {
-        if (client != null) {
-            client.shutdown();
+        if (clients != null) {
+            clients.shutdown();
         }
     }
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.memcached;
+
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.worker.async.AsyncCompletion;
+import com.hazelcast.simulator.worker.async.AsyncResultAdapter;
+import net.spy.memcached.internal.OperationCompletionListener;
+import net.spy.memcached.internal.OperationFuture;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Makes timestep methods returning an {@link OperationFuture}, e.g. the result of {@code MemcachedClient.set}, async; so
+ * their latency is measured until the operation has completed.
+ */
+public final class OperationFutureAdapter implements AsyncResultAdapter<OperationFuture> {
+
+    @Override
+    public Class<OperationFuture> resultType() {
+        return OperationFuture.class;
+    }
+
+    @Override
+    public void onCompletion(OperationFuture result, AsyncCompletion completion) {
+        result.addListener((Completion) completion);
+    }
+
+    @Override
+    public AsyncCompletion newCompletion(Probe probe, long startNanos, AtomicLong completions) {
+        return new Completion(probe, startNanos, completions);
+    }
+
+    private static final class Completion extends AsyncCompletion implements OperationCompletionListener {
+
+        private Completion(Probe probe, long startNanos, AtomicLong completions) {
+            super(probe, startNanos, completions);
+        }
+
+        @Override
+        public void onComplete(OperationFuture<?> future) {
+            complete();
+        }
+    }
+}
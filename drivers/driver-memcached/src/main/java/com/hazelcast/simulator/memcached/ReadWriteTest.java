@@ -20,9 +20,13 @@ import com.hazelcast.simulator.test.annotations.Prepare;
 import com.hazelcast.simulator.test.annotations.Setup;
 import com.hazelcast.simulator.test.annotations.Teardown;
 import com.hazelcast.simulator.test.annotations.TimeStep;
+import net.spy.memcached.MemcachedClient;
+import net.spy.memcached.internal.BulkFuture;
+import net.spy.memcached.internal.GetFuture;
 import net.spy.memcached.internal.OperationFuture;
 import net.spy.memcached.transcoders.SerializingTranscoder;
 
+import java.util.Map;
 import java.util.Random;
 
 import static com.hazelcast.simulator.utils.GeneratorUtils.generateByteArray;
@@ -42,6 +46,8 @@ public class ReadWriteTest extends MemcachedTest {
     // gc. If they writeKeyCount is very small, only a small group of objects get updated frequently and helps to prevent
     // getting them tenured. If writeKeyCount is -1, it will automatically be set to keyCount
     public int writeKeyCount = -1;
+    // the number of keys fetched by a single getBulk
+    public int batchSize = 10;
 
     private String[] keys;
     private byte[][] values;
@@ -57,6 +63,10 @@ public class ReadWriteTest extends MemcachedTest {
         if (writeKeyCount == -1) {
             writeKeyCount = keyCount;
         }
+
+        if (batchSize < 1) {
+            throw new IllegalStateException("batchSize can't be smaller than 1");
+        }
     }
 
     @Prepare
@@ -69,6 +79,7 @@ public class ReadWriteTest extends MemcachedTest {
             values[i] = generateByteArray(random, length);
         }
 
+        MemcachedClient client = clients.get(0);
         for (String key : keys) {
             client.add(key, ttl, values[random.nextInt(values.length)]);
         }
@@ -76,31 +87,48 @@ public class ReadWriteTest extends MemcachedTest {
 
     @TimeStep(prob = 0.1)
     public OperationFuture<Boolean> put(ThreadState state) {
-        return client.add(state.randomKey(), ttl, state.randomValue(), state.transcoder());
+        return state.client.add(state.randomKey(), ttl, state.randomValue(), state.transcoder());
     }
 
     @TimeStep(prob = 0.0)
     public boolean putWithCheck(ThreadState state) throws Exception {
-        return client.add(state.randomKey(), ttl, state.randomValue(), state.transcoder()).get();
+        return state.client.add(state.randomKey(), ttl, state.randomValue(), state.transcoder()).get();
     }
 
     @TimeStep(prob = 0.0)
     public OperationFuture<Boolean> set(ThreadState state) {
-        return client.set(state.randomWriteKey(), ttl, state.randomValue(), state.transcoder());
+        return state.client.set(state.randomWriteKey(), ttl, state.randomValue(), state.transcoder());
     }
 
     @TimeStep(prob = 0.0)
     public boolean setWithCheck(ThreadState state) throws Exception {
-        return client.set(state.randomWriteKey(), ttl, state.randomValue(), state.transcoder()).get();
+        return state.client.set(state.randomWriteKey(), ttl, state.randomValue(), state.transcoder()).get();
     }
 
     @TimeStep(prob = -1)
     public Object get(ThreadState state) {
-        return client.get(state.randomKey());
+        return state.client.get(state.randomKey());
+    }
+
+    @TimeStep(prob = 0.0)
+    public GetFuture<Object> asyncGet(ThreadState state) {
+        return state.client.asyncGet(state.randomKey());
+    }
+
+    @TimeStep(prob = 0.0)
+    public Map<String, Object> getBulk(ThreadState state) {
+        return state.client.getBulk(state.randomKeys());
+    }
+
+    @TimeStep(prob = 0.0)
+    public BulkFuture<Map<String, Object>> asyncGetBulk(ThreadState state) {
+        return state.client.asyncGetBulk(state.randomKeys());
     }
 
     public class ThreadState extends BaseThreadState {
 
+        // the timestep threads are spread over the clients
+        private final MemcachedClient client = clients.next();
         private SerializingTranscoder transcoder;
 
         private SerializingTranscoder transcoder() {
@@ -116,6 +144,14 @@ public class ReadWriteTest extends MemcachedTest {
             return keys[randomInt(keys.length)];
         }
 
+        private String[] randomKeys() {
+            String[] result = new String[batchSize];
+            for (int k = 0; k < batchSize; k++) {
+                result[k] = randomKey();
+            }
+            return result;
+        }
+
         private String randomWriteKey() {
             return keys[randomInt(writeKeyCount)];
         }
@@ -127,6 +163,6 @@ public class ReadWriteTest extends MemcachedTest {
 
     @Teardown
     public void tearDown() {
-        client.shutdown();
+        clients.shutdown();
     }
 }
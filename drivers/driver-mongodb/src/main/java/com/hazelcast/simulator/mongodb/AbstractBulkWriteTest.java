@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.mongodb;
+
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.simulator.utils.GeneratorUtils.generateAsciiStrings;
+
+/**
+ * Base class for the tests which write batches of {@link #batchSize} documents: insertMany inserts new documents and
+ * bulkWrite upserts the documents with a random id in [0, {@link #itemCount}).
+ * <p>
+ * The latency of a batch is recorded in the probe of the timestep method. The latency of every document in a batch is
+ * recorded in the 'document' probe.
+ */
+@SuppressWarnings("checkstyle:visibilitymodifier")
+public abstract class AbstractBulkWriteTest extends MongodbTest {
+
+    // properties
+    public int itemCount = 100000;
+    public int valueSize = 7;
+    public int valueCount = 1000;
+    public int batchSize = 100;
+    // ordered writes are executed one after the other and stop at the first error, unordered writes can be executed in
+    // parallel and continue after an error
+    public boolean ordered;
+    public String writeConcern = "ACKNOWLEDGED";
+    public String databaseName = "test";
+    public String collectionName = getClass().getSimpleName();
+
+    protected InsertManyOptions insertManyOptions;
+    protected BulkWriteOptions bulkWriteOptions;
+    protected Probe documentProbe;
+    private String[] values;
+
+    @Setup
+    public void setupBulkWrite() {
+        if (itemCount <= 0) {
+            throw new IllegalArgumentException("itemCount must be larger than 0, found " + itemCount);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be larger than 0, found " + batchSize);
+        }
+
+        insertManyOptions = new InsertManyOptions().ordered(ordered);
+        bulkWriteOptions = new BulkWriteOptions().ordered(ordered);
+        documentProbe = testContext.getProbe("document");
+        values = generateAsciiStrings(valueCount, valueSize, valueSize);
+    }
+
+    protected Document[] newItems() {
+        Document[] items = new Document[itemCount];
+        for (int id = 0; id < itemCount; id++) {
+            items[id] = new Document("_id", id).append("stringVal", values[id % values.length]);
+        }
+        return items;
+    }
+
+    /**
+     * Creates a batch of new documents; the ids are generated by the driver.
+     *
+     * @param state the state of the calling timestep thread
+     * @return the documents
+     */
+    protected List<Document> newDocuments(BaseThreadState state) {
+        List<Document> documents = new ArrayList<>(batchSize);
+        for (int k = 0; k < batchSize; k++) {
+            documents.add(new Document("stringVal", values[state.randomInt(values.length)]));
+        }
+        return documents;
+    }
+
+    /**
+     * Creates a batch of upserts of documents with a random id.
+     *
+     * @param state the state of the calling timestep thread
+     * @return the upserts
+     */
+    protected List<WriteModel<Document>> newUpserts(BaseThreadState state) {
+        ReplaceOptions options = new ReplaceOptions().upsert(true);
+        List<WriteModel<Document>> upserts = new ArrayList<>(batchSize);
+        for (int k = 0; k < batchSize; k++) {
+            int id = state.randomInt(itemCount);
+            Document document = new Document("_id", id).append("stringVal", values[state.randomInt(values.length)]);
+            upserts.add(new ReplaceOneModel<>(Filters.eq("_id", id), document, options));
+        }
+        return upserts;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.mongodb;
+
+import com.hazelcast.simulator.probes.Probe;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Subscribes to the publisher of a batch and completes with its (last) result. When the batch completes successfully, its
+ * latency is recorded once for every document in the batch.
+ *
+ * @param <T> the type of the result
+ */
+final class BatchSubscriber<T> extends CompletableFuture<T> implements Subscriber<T> {
+
+    private final long startNanos = System.nanoTime();
+    private final Probe documentProbe;
+    private final int documentCount;
+    private T result;
+
+    BatchSubscriber(Probe documentProbe, int documentCount) {
+        this.documentProbe = documentProbe;
+        this.documentCount = documentCount;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(T item) {
+        result = item;
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        MongodbTest.recordPerDocument(documentProbe, startNanos, documentCount);
+        complete(result);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.mongodb;
+
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.PrepareShard;
+import com.hazelcast.simulator.test.annotations.Prepare;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.Teardown;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+
+import java.util.List;
+
+/**
+ * Writes batches of documents using the synchronous driver.
+ */
+public class BulkWriteTest extends AbstractBulkWriteTest {
+
+    private MongoCollection<Document> col;
+    private MongoCollection<Document> writeCol;
+
+    @Setup
+    public void setUp() {
+        col = clients.sync().getDatabase(databaseName).getCollection(collectionName);
+        writeCol = col.withWriteConcern(parseWriteConcern(writeConcern));
+    }
+
+    @Prepare(partitioned = true)
+    public void prepare(PrepareShard shard) {
+        loadDocuments(shard, col, newItems());
+    }
+
+    @TimeStep(prob = -1)
+    public void insertMany(BaseThreadState state) {
+        List<Document> documents = newDocuments(state);
+        long startNanos = System.nanoTime();
+        writeCol.insertMany(documents, insertManyOptions);
+        recordPerDocument(documentProbe, startNanos, documents.size());
+    }
+
+    @TimeStep(prob = 0)
+    public void bulkWrite(BaseThreadState state) {
+        List<WriteModel<Document>> upserts = newUpserts(state);
+        long startNanos = System.nanoTime();
+        writeCol.bulkWrite(upserts, bulkWriteOptions);
+        recordPerDocument(documentProbe, startNanos, upserts.size());
+    }
+
+    @Teardown(global = true)
+    public void tearDown() {
+        col.drop();
+    }
+}
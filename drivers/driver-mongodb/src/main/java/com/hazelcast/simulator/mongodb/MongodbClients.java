@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.mongodb;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import java.io.Closeable;
+
+/**
+ * The clients of the MongoDB driver. The synchronous client is created when the worker starts, the reactive streams client
+ * is only created when a test uses it.
+ */
+public class MongodbClients implements Closeable {
+
+    private final String connectionString;
+    private final MongoClient sync;
+    private com.mongodb.reactivestreams.client.MongoClient reactive;
+
+    public MongodbClients(String connectionString) {
+        this.connectionString = connectionString;
+        this.sync = MongoClients.create(connectionString);
+    }
+
+    public MongoClient sync() {
+        return sync;
+    }
+
+    public synchronized com.mongodb.reactivestreams.client.MongoClient reactive() {
+        if (reactive == null) {
+            reactive = com.mongodb.reactivestreams.client.MongoClients.create(connectionString);
+        }
+        return reactive;
+    }
+
+    @Override
+    public synchronized void close() {
+        sync.close();
+        if (reactive != null) {
+            reactive.close();
+        }
+    }
+}
@@ -17,16 +17,14 @@ package com.hazelcast.simulator.mongodb;
 
 import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.vendors.VendorDriver;
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 import java.io.IOException;
 
 import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static java.lang.String.format;
 
-public class MongodbDriver extends VendorDriver<MongoClient> {
+public class MongodbDriver extends VendorDriver<MongodbClients> {
 
-    private MongoClient client;
+    private MongodbClients clients;
 
     @Override
     public WorkerParameters loadWorkerParameters(String workerType, int agentIndex) {
@@ -52,8 +50,8 @@ public class MongodbDriver extends VendorDriver<MongoClient> {
     }
 
     @Override
-    public MongoClient getVendorInstance() {
-        return client;
+    public MongodbClients getVendorInstance() {
+        return clients;
     }
 
     @Override
@@ -67,14 +65,14 @@ public class MongodbDriver extends VendorDriver<MongoClient> {
         if (addressParts.length == 1) {
             sb.append(":27017"); //default MongoDB port
         }
-        this.client = MongoClients.create(sb.toString());
+        this.clients = new MongodbClients(sb.toString());
     }
 
 
     @Override
     public void close() throws IOException {
-        if (client != null) {
-            client.close();
+        if (clients != null) {
+            clients.close();
         }
     }
 }
@@ -15,11 +15,20 @@
  */
 package com.hazelcast.simulator.mongodb;
 
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.test.PrepareShard;
 import com.hazelcast.simulator.test.TestContext;
 import com.hazelcast.simulator.test.annotations.InjectTestContext;
 import com.hazelcast.simulator.test.annotations.InjectVendor;
-import com.mongodb.client.MongoClient;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
 import org.apache.log4j.Logger;
+import org.bson.Document;
+
+import java.util.Arrays;
+
+import static java.lang.Math.min;
 
 public abstract class MongodbTest {
 
@@ -31,11 +40,56 @@ public abstract class MongodbTest {
     @SuppressWarnings("checkstyle:visibilitymodifier")
     public String name = getClass().getSimpleName();
 
+    // the number of documents inserted by a single insertMany while loading the data
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    public int loadBatchSize = 1000;
+
     protected final Logger logger = Logger.getLogger(getClass());
 
     @InjectVendor
-    protected MongoClient client;
+    protected MongodbClients clients;
 
     @InjectTestContext
     protected TestContext testContext;
+
+    /**
+     * Inserts the documents of the given shard using an unordered insertMany per {@link #loadBatchSize} documents.
+     *
+     * @param shard      the shard to load
+     * @param collection the collection to insert the documents in
+     * @param documents  all the documents
+     */
+    protected void loadDocuments(PrepareShard shard, MongoCollection<Document> collection, Document[] documents) {
+        InsertManyOptions options = new InsertManyOptions().ordered(false);
+        int end = (int) shard.end(documents.length);
+        for (int batchStart = (int) shard.start(documents.length); batchStart < end; batchStart += loadBatchSize) {
+            int batchEnd = min(batchStart + loadBatchSize, end);
+            collection.insertMany(Arrays.asList(documents).subList(batchStart, batchEnd), options);
+            shard.completed(batchEnd - batchStart);
+        }
+    }
+
+    /**
+     * Records the latency of a batch once for every document in the batch, so the probe shows the per document throughput
+     * and the latency distribution over the documents.
+     *
+     * @param probe         the per document probe
+     * @param startNanos    the start of the batch
+     * @param documentCount the number of documents in the batch
+     */
+    protected static void recordPerDocument(Probe probe, long startNanos, int documentCount) {
+        long latencyNanos = System.nanoTime() - startNanos;
+        for (int k = 0; k < documentCount; k++) {
+            probe.recordValue(latencyNanos);
+        }
+    }
+
+    protected static WriteConcern parseWriteConcern(String writeConcern) {
+        WriteConcern result = WriteConcern.valueOf(writeConcern);
+        if (result == null) {
+            throw new IllegalArgumentException("Unknown writeConcern [" + writeConcern + "], "
+                    + "use e.g. ACKNOWLEDGED, UNACKNOWLEDGED, W1, W2, JOURNALED or MAJORITY");
+        }
+        return result;
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.mongodb;
+
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.PrepareShard;
+import com.hazelcast.simulator.test.annotations.Prepare;
+import com.hazelcast.simulator.test.annotations.Setup;
+import com.hazelcast.simulator.test.annotations.Teardown;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.Success;
+import org.bson.Document;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes batches of documents using the reactive streams driver.
+ * <p>
+ * A timestep returns as soon as the batch has been sent, so the number of batches in flight per timestep thread should be
+ * bounded using the maxInFlight property.
+ */
+public class ReactiveBulkWriteTest extends AbstractBulkWriteTest {
+
+    private MongoCollection<Document> writeCol;
+
+    @Setup
+    public void setUp() {
+        writeCol = clients.reactive().getDatabase(databaseName).getCollection(collectionName)
+                .withWriteConcern(parseWriteConcern(writeConcern));
+    }
+
+    @Prepare(partitioned = true)
+    public void prepare(PrepareShard shard) {
+        // the data is loaded using the synchronous driver
+        loadDocuments(shard, clients.sync().getDatabase(databaseName).getCollection(collectionName), newItems());
+    }
+
+    @TimeStep(prob = -1)
+    public CompletableFuture<Success> insertMany(BaseThreadState state) {
+        List<Document> documents = newDocuments(state);
+        BatchSubscriber<Success> subscriber = new BatchSubscriber<>(documentProbe, documents.size());
+        writeCol.insertMany(documents, insertManyOptions).subscribe(subscriber);
+        return subscriber;
+    }
+
+    @TimeStep(prob = 0)
+    public CompletableFuture<BulkWriteResult> bulkWrite(BaseThreadState state) {
+        List<WriteModel<Document>> upserts = newUpserts(state);
+        BatchSubscriber<BulkWriteResult> subscriber = new BatchSubscriber<>(documentProbe, upserts.size());
+        writeCol.bulkWrite(upserts, bulkWriteOptions).subscribe(subscriber);
+        return subscriber;
+    }
+
+    @Teardown(global = true)
+    public void tearDown() {
+        clients.sync().getDatabase(databaseName).getCollection(collectionName).drop();
+    }
+}
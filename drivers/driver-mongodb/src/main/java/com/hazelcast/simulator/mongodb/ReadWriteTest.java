@@ -16,6 +16,7 @@
 package com.hazelcast.simulator.mongodb;
 
 import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.PrepareShard;
 import com.hazelcast.simulator.test.annotations.Prepare;
 import com.hazelcast.simulator.test.annotations.Setup;
 import com.hazelcast.simulator.test.annotations.Teardown;
@@ -47,7 +48,7 @@ public class ReadWriteTest extends MongodbTest {
             throw new IllegalStateException("size must be larger than 0");
         }
 
-        MongoDatabase database = client.getDatabase(databaseName);
+        MongoDatabase database = clients.sync().getDatabase(databaseName);
         col = database.getCollection(collectionName);
 
         values = new Document[idArraySize][itemCount];
@@ -58,11 +59,9 @@ public class ReadWriteTest extends MongodbTest {
         }
     }
 
-    @Prepare(global = true)
-    public void prepare() {
-        for (int i = 0; i < itemCount; i++) {
-            col.insertOne(values[0][i]);
-        }
+    @Prepare(partitioned = true)
+    public void prepare(PrepareShard shard) {
+        loadDocuments(shard, col, values[0]);
     }
 
     @TimeStep(prob = 0.1)
@@ -22,7 +22,9 @@ import com.hazelcast.simulator.common.ProcessSuicideThread;
 import com.hazelcast.simulator.common.ShutdownThread;
 import com.hazelcast.simulator.protocol.Broker;
 import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.protocol.Transport;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.protocol.nio.Relay;
 import com.hazelcast.simulator.worker.ExitingExceptionListener;
 import org.apache.log4j.Logger;
 
@@ -48,6 +50,7 @@ public class Agent implements Closeable {
     private final WorkerProcessFailureMonitor workerProcessFailureMonitor;
     private final Server server;
     private final Broker broker;
+    private final Relay relay;
     private final WorkerSniffer workerSniffer;
     private final String parentPid;
 
@@ -55,16 +58,24 @@ public class Agent implements Closeable {
                  String publicAddress,
                  int port,
                  int workerLastSeenTimeoutSeconds,
-                 String parentPid) {
+                 String parentPid,
+                 Transport transport) {
         SimulatorAddress agentAddress = agentAddress(addressIndex);
 
         this.publicAddress = publicAddress;
         this.parentPid = parentPid;
-        this.broker = new Broker()
-                .setBrokerAddress("0.0.0.0", port);
+        if (transport == Transport.NIO) {
+            this.broker = null;
+            this.relay = new Relay("0.0.0.0", port);
+        } else {
+            this.broker = new Broker()
+                    .setBrokerAddress("0.0.0.0", port);
+            this.relay = null;
+        }
 
         // this server will listen to requests on the 'agents' topic
         this.server = new Server("agents")
+                .setTransport(transport)
                 .setExceptionListener(new ExitingExceptionListener())
                 .setSelfAddress(agentAddress);
 
@@ -92,10 +103,14 @@ public class Agent implements Closeable {
     public void start() {
         LOGGER.info("Agent starting...");
 
-        broker.start();
-
-        server.setBrokerURL(broker.getBrokerURL())
-                .start();
+        if (relay != null) {
+            relay.start();
+            server.setBrokerURL(relay.getURL());
+        } else {
+            broker.start();
+            server.setBrokerURL(broker.getBrokerURL());
+        }
+        server.start();
 
         workerSniffer.setConnection(server.getConnection())
                 .start();
@@ -133,6 +148,7 @@ public class Agent implements Closeable {
             workerSniffer.stop();
             closeQuietly(server);
             closeQuietly(broker);
+            closeQuietly(relay);
 
             LOGGER.info("Removing PID file...");
             deleteQuiet(pidFile);
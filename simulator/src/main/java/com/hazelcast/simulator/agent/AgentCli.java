@@ -15,6 +15,7 @@
  */
 package com.hazelcast.simulator.agent;
 
+import com.hazelcast.simulator.protocol.Transport;
 import com.hazelcast.simulator.utils.CliUtils;
 import com.hazelcast.simulator.utils.CommandLineExitException;
 import joptsimple.OptionParser;
@@ -59,6 +60,10 @@ public final class AgentCli {
                     + "Only makes sense to be used for local instance.")
             .withRequiredArg().ofType(String.class);
 
+    private final OptionSpec<String> transportSpec = parser.accepts("transport",
+            "The transport used for the communication with the Coordinator and Workers (activemq or nio).")
+            .withRequiredArg().ofType(String.class).defaultsTo("activemq");
+
     private final OptionSet options;
 
     AgentCli(String[] args) {
@@ -82,7 +87,13 @@ public final class AgentCli {
         int port = options.valueOf(portSpec);
         int workerLastSeenTimeoutSeconds = options.valueOf(workerLastSeenTimeoutSecondsSpec);
         String parentPid = options.valueOf(parentPidSpec);
-        this.agent = new Agent(addressIndex, publicAddress, port, workerLastSeenTimeoutSeconds, parentPid);
+        Transport transport;
+        try {
+            transport = Transport.fromString(options.valueOf(transportSpec));
+        } catch (IllegalArgumentException e) {
+            throw new CommandLineExitException(e.getMessage());
+        }
+        this.agent = new Agent(addressIndex, publicAddress, port, workerLastSeenTimeoutSeconds, parentPid, transport);
     }
 
     private static void logHeader() {
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.agent.workerprocess;
+
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+import static com.hazelcast.simulator.utils.FileUtils.copy;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static com.hazelcast.simulator.utils.FileUtils.rename;
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.DAYS;
+
+/**
+ * Manages the dynamic class data sharing (CDS) archives which reduce the startup time of the worker JVMs.
+ *
+ * There is an archive for every combination of JVM and expanded classpath, so for every version spec and driver. If there is
+ * no archive yet, the first worker with that classpath is the training run: it writes the archive when it exits and the
+ * archive is used by all workers which are launched afterwards. Workers which are launched while the training run is still
+ * running, are launched without CDS.
+ *
+ * The JVM only uses an archive if the classpath has the same paths as in the training run, and the jars have the same size and
+ * modification time. So the jars of the session directory, which differs for every session and worker, are replaced by copies
+ * which are named after the digest of their contents, see {@link #sharedClasspath(String, File)}. The archive is keyed on the
+ * path, size and modification time of every jar; if a jar changes, the archive is stale and a new archive is created by a new
+ * training run. Archives and jar copies which haven't been used for {@link #MAX_UNUSED_DAYS} days are deleted.
+ *
+ * Dynamic archives require Java 13 or newer. If an archive doesn't match the JVM, it is ignored by the JVM.
+ */
+final class ClassDataSharing {
+
+    static final int MIN_JAVA_VERSION = 13;
+    static final int MAX_UNUSED_DAYS = 7;
+
+    private static final String JARS_DIR_NAME = "jars";
+    private static final String ARCHIVE_SUFFIX = ".jsa";
+    private static final String TRAINING_ARCHIVE_SUFFIX = ".jsa.training";
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+
+    private static final Logger LOGGER = Logger.getLogger(ClassDataSharing.class);
+
+    private final File archiveDir;
+    private final int javaVersion;
+    private final Map<String, WorkerProcess> trainingRuns = new HashMap<>();
+    // the digest of the contents of a jar, keyed on its path, size and modification time
+    private final Map<String, String> jarDigests = new HashMap<>();
+
+    ClassDataSharing(File archiveDir) {
+        this(archiveDir, javaVersion(System.getProperty("java.specification.version")));
+    }
+
+    ClassDataSharing(File archiveDir, int javaVersion) {
+        this.archiveDir = archiveDir;
+        this.javaVersion = javaVersion;
+    }
+
+    boolean isSupported() {
+        return javaVersion >= MIN_JAVA_VERSION;
+    }
+
+    /**
+     * Returns the JVM options to use the CDS archive for the given classpath or to create it.
+     *
+     * The worker needs to be launched with the given classpath, since the JVM only uses an archive when the classpath
+     * matches the classpath of the training run.
+     *
+     * @param sharedClasspath the classpath as returned by {@link #sharedClasspath(String, File)}
+     * @param workerProcess   the worker to launch
+     * @return the JVM options, or an empty string if the worker should be launched without CDS
+     */
+    synchronized String jvmOptions(String sharedClasspath, WorkerProcess workerProcess) {
+        String key = archiveKey(sharedClasspath);
+        File archive = new File(archiveDir, key + ARCHIVE_SUFFIX);
+        File trainingArchive = new File(archiveDir, key + TRAINING_ARCHIVE_SUFFIX);
+
+        WorkerProcess trainingRun = trainingRuns.get(key);
+        if (trainingRun != null) {
+            if (isRunning(trainingRun)) {
+                return "";
+            }
+            trainingRuns.remove(key);
+            if (trainingArchive.length() > 0 && trainingArchive.renameTo(archive)) {
+                LOGGER.info(format("Created CDS archive %s by training run of Worker %s", archive, trainingRun.getId()));
+            }
+        }
+
+        if (archive.exists()) {
+            archive.setLastModified(currentTimeMillis());
+            return "-XX:SharedArchiveFile=" + archive.getAbsolutePath();
+        }
+
+        cleanup(currentTimeMillis());
+        ensureExistingDirectory(archiveDir);
+        deleteQuiet(trainingArchive);
+        trainingRuns.put(key, workerProcess);
+        LOGGER.info(format("Worker %s is the training run for CDS archive %s", workerProcess.getId(), archive));
+        return "-XX:ArchiveClassesAtExit=" + trainingArchive.getAbsolutePath();
+    }
+
+    /**
+     * Cancels the training run of a worker which failed to launch.
+     *
+     * @param workerProcess the worker that failed to launch
+     */
+    synchronized void cancel(WorkerProcess workerProcess) {
+        trainingRuns.values().remove(workerProcess);
+    }
+
+    /**
+     * Returns the classpath to launch a worker with CDS.
+     *
+     * The jars in the session directory are replaced by copies in the archive directory, which are named after the digest of
+     * their contents. So the classpath doesn't depend on the session or the worker, and a changed jar results in a different
+     * classpath.
+     *
+     * @param expandedClasspath the classpath as returned by {@link #expandClasspath(String)}
+     * @param sessionDirectory  the session directory on the agent
+     * @return the classpath to launch the worker with
+     */
+    synchronized String sharedClasspath(String expandedClasspath, File sessionDirectory) {
+        String sessionPath = sessionDirectory.getAbsolutePath() + File.separator;
+        List<String> entries = new ArrayList<>();
+        for (String entry : expandedClasspath.split(File.pathSeparator)) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            File file = new File(entry).getAbsoluteFile();
+            entries.add(file.getPath().startsWith(sessionPath) ? sharedCopy(file).getPath() : entry);
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private File sharedCopy(File jar) {
+        File jarDir = new File(new File(archiveDir, JARS_DIR_NAME), digest(jar));
+        File sharedJar = new File(jarDir, jar.getName());
+        if (!sharedJar.exists()) {
+            ensureExistingDirectory(jarDir);
+            File tmpJar = new File(jarDir, jar.getName() + ".tmp");
+            copy(jar, tmpJar);
+            rename(tmpJar, sharedJar);
+        }
+        // the directory is touched instead of the jar, since the JVM checks the modification time of the jar
+        jarDir.setLastModified(currentTimeMillis());
+        return sharedJar;
+    }
+
+    private String digest(File jar) {
+        String cacheKey = jar.getPath() + '\n' + jar.length() + '\n' + jar.lastModified();
+        String digest = jarDigests.get(cacheKey);
+        if (digest == null) {
+            InputStream in = null;
+            try {
+                MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+                in = new FileInputStream(jar);
+                byte[] buffer = new byte[DIGEST_BUFFER_SIZE];
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                    messageDigest.update(buffer, 0, read);
+                }
+                digest = toHex(messageDigest.digest());
+            } catch (Exception e) {
+                throw rethrow(e);
+            } finally {
+                closeQuietly(in);
+            }
+            jarDigests.put(cacheKey, digest);
+        }
+        return digest;
+    }
+
+    /**
+     * Deletes the archives and jar copies which haven't been used for {@link #MAX_UNUSED_DAYS} days, and the training archives
+     * of training runs which are no longer known, e.g. since the agent was restarted.
+     *
+     * @param nowMillis the current time in milliseconds
+     */
+    synchronized void cleanup(long nowMillis) {
+        long unusedSinceMillis = nowMillis - DAYS.toMillis(MAX_UNUSED_DAYS);
+        File[] files = archiveDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.endsWith(ARCHIVE_SUFFIX) && file.lastModified() < unusedSinceMillis) {
+                    LOGGER.info("Deleting unused CDS archive " + file);
+                    deleteQuiet(file);
+                } else if (name.endsWith(TRAINING_ARCHIVE_SUFFIX)
+                        && !trainingRuns.containsKey(name.substring(0, name.length() - TRAINING_ARCHIVE_SUFFIX.length()))) {
+                    deleteQuiet(file);
+                }
+            }
+        }
+
+        File[] jarDirs = new File(archiveDir, JARS_DIR_NAME).listFiles();
+        if (jarDirs != null) {
+            for (File jarDir : jarDirs) {
+                if (jarDir.lastModified() < unusedSinceMillis) {
+                    deleteQuiet(jarDir);
+                }
+            }
+        }
+
+        // the digests of jars of sessions which have been removed are no longer needed
+        Iterator<String> iterator = jarDigests.keySet().iterator();
+        while (iterator.hasNext()) {
+            String cacheKey = iterator.next();
+            if (!new File(cacheKey.substring(0, cacheKey.indexOf('\n'))).exists()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static boolean isRunning(WorkerProcess workerProcess) {
+        Process process = workerProcess.getProcess();
+        if (process == null) {
+            // the worker is still being launched
+            return true;
+        }
+
+        try {
+            process.exitValue();
+            return false;
+        } catch (IllegalThreadStateException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Expands the wildcards in a classpath the same way as the java launcher does.
+     *
+     * The jars of a directory are sorted, so the expanded classpath is the same for every launch. Entries which don't exist
+     * are removed.
+     *
+     * @param classpath the classpath to expand
+     * @return the expanded classpath, or {@code null} if the classpath contains a non-empty directory, which can't be used
+     * with CDS
+     */
+    static String expandClasspath(String classpath) {
+        List<String> entries = new ArrayList<>();
+        for (String entry : classpath.split(File.pathSeparator)) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+
+            if (entry.equals("*") || entry.endsWith(File.separator + "*")) {
+                File[] jars = new File(entry.substring(0, entry.length() - 1))
+                        .listFiles((dir, name) -> name.endsWith(".jar") || name.endsWith(".JAR"));
+                if (jars != null) {
+                    Arrays.sort(jars);
+                    for (File jar : jars) {
+                        entries.add(jar.getPath());
+                    }
+                }
+                continue;
+            }
+
+            File file = new File(entry);
+            if (file.isDirectory()) {
+                String[] children = file.list();
+                if (children != null && children.length > 0) {
+                    return null;
+                }
+            } else if (file.exists()) {
+                entries.add(entry);
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    // a changed jar has a different size or modification time, which results in a new archive
+    private static String archiveKey(String sharedClasspath) {
+        StringBuilder sb = new StringBuilder()
+                .append(System.getProperty("java.home")).append('\n')
+                .append(System.getProperty("java.vm.version")).append('\n');
+        for (String entry : sharedClasspath.split(File.pathSeparator)) {
+            File file = new File(entry);
+            sb.append(entry).append('\n').append(file.length()).append('\n').append(file.lastModified()).append('\n');
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return toHex(digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    static int javaVersion(String specificationVersion) {
+        // Java 8 and older use the 1.x scheme
+        String version = specificationVersion.startsWith("1.") ? specificationVersion.substring(2) : specificationVersion;
+        try {
+            return Integer.parseInt(version);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
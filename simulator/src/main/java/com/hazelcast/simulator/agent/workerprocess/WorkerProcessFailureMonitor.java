@@ -16,31 +16,63 @@
 package com.hazelcast.simulator.agent.workerprocess;
 
 import com.hazelcast.simulator.common.FailureType;
+import com.hazelcast.simulator.utils.EmptyStatement;
 import com.hazelcast.simulator.utils.FileUtils;
 import com.hazelcast.simulator.utils.UncheckedIOException;
 import org.apache.log4j.Logger;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import static com.hazelcast.simulator.common.FailureType.WORKER_ABNORMAL_EXIT;
 import static com.hazelcast.simulator.common.FailureType.WORKER_EXCEPTION;
 import static com.hazelcast.simulator.common.FailureType.WORKER_NORMAL_EXIT;
 import static com.hazelcast.simulator.common.FailureType.WORKER_OOME;
 import static com.hazelcast.simulator.common.FailureType.WORKER_TIMEOUT;
-import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static com.hazelcast.simulator.utils.FormatUtils.NEW_LINE;
+import static com.hazelcast.simulator.worker.WorkerHeartbeat.HEARTBEAT_FILE;
 import static java.lang.String.format;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+/**
+ * Detects failures of the worker processes.
+ *
+ * Instead of polling the worker homes, the failures are pushed to the monitor: the worker homes are watched for created
+ * exception, OOME and heartbeat files and the exit of a worker process is signalled by the process itself. All events are
+ * handled by a single monitor thread, which also checks for inactive workers when the timeout detection is enabled.
+ */
 public class WorkerProcessFailureMonitor {
 
     private static final int DEFAULT_CHECK_INTERVAL_MILLIS = (int) SECONDS.toMillis(1);
+    private static final String OOME_FILE = "worker.oome";
 
     private static final Logger LOGGER = Logger.getLogger(WorkerProcessFailureMonitor.class);
 
+    // Process.onExit() is available since Java 9; on older JVMs a thread waits for the exit of the process
+    private static final Method ON_EXIT = findOnExit();
+
     private final MonitorThread monitorThread;
 
     public WorkerProcessFailureMonitor(WorkerProcessFailureHandler failureHandler,
@@ -57,12 +89,14 @@ public class WorkerProcessFailureMonitor {
     }
 
     public void start() {
+        monitorThread.watchThread.start();
         monitorThread.start();
     }
 
     public void shutdown() {
         monitorThread.running = false;
         monitorThread.interrupt();
+        closeQuietly(monitorThread.watchService);
     }
 
     public void startTimeoutDetection() {
@@ -80,12 +114,39 @@ public class WorkerProcessFailureMonitor {
         }
     }
 
+    private static Method findOnExit() {
+        try {
+            return Process.class.getMethod("onExit");
+        } catch (NoSuchMethodException e) {
+            EmptyStatement.ignore(e);
+            return null;
+        }
+    }
+
+    private static CompletableFuture<?> onExit(Process process) {
+        if (ON_EXIT == null) {
+            return null;
+        }
+        try {
+            return (CompletableFuture<?>) ON_EXIT.invoke(process);
+        } catch (Exception e) {
+            EmptyStatement.ignore(e);
+            return null;
+        }
+    }
+
     private final class MonitorThread extends Thread {
 
         private final WorkerProcessFailureHandler failureHandler;
         private final WorkerProcessManager workerProcessManager;
         private final int lastSeenTimeoutSeconds;
         private final int checkIntervalMillis;
+        private final WatchService watchService;
+        private final WatchThread watchThread;
+        private final BlockingQueue<Runnable> events = new LinkedBlockingQueue<>();
+        // the watched worker processes; only accessed by the monitor thread
+        private final Map<WorkerProcess, WatchKey> watchKeys = new HashMap<>();
+        private final Map<WatchKey, WorkerProcess> watchedWorkerProcesses = new HashMap<>();
 
         private volatile boolean running = true;
         private volatile boolean detectTimeouts;
@@ -100,24 +161,30 @@ public class WorkerProcessFailureMonitor {
             this.workerProcessManager = workerProcessManager;
             this.lastSeenTimeoutSeconds = lastSeenTimeoutSeconds;
             this.checkIntervalMillis = checkIntervalMillis;
+            try {
+                this.watchService = FileSystems.getDefault().newWatchService();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.watchThread = new WatchThread();
         }
 
         @Override
         public void run() {
             while (running) {
                 try {
-                    for (WorkerProcess workerProcess : workerProcessManager.getWorkerProcesses()) {
-
-                        detectFailures(workerProcess);
-
-                        if (workerProcess.isFinished()) {
-                            workerProcessManager.remove(workerProcess);
-                        }
+                    Runnable event = events.poll(checkIntervalMillis, MILLISECONDS);
+                    if (event != null) {
+                        event.run();
                     }
+
+                    watchWorkerProcesses();
+                    detectInactivity();
+                } catch (InterruptedException e) {
+                    EmptyStatement.ignore(e);
                 } catch (Exception e) {
                     LOGGER.fatal("Failed to scan for failures", e);
                 }
-                sleepMillis(checkIntervalMillis);
             }
         }
 
@@ -127,18 +194,126 @@ public class WorkerProcessFailureMonitor {
             }
         }
 
-        private void detectFailures(WorkerProcess workerProcess) {
-            detectExceptions(workerProcess);
+        private void watchWorkerProcesses() {
+            Collection<WorkerProcess> workerProcesses = workerProcessManager.getWorkerProcesses();
+            for (WorkerProcess workerProcess : workerProcesses) {
+                if (!watchKeys.containsKey(workerProcess)) {
+                    watch(workerProcess);
+                }
+            }
 
-            if (workerProcess.isOomeDetected()) {
+            if (watchKeys.size() > workerProcesses.size()) {
+                // worker processes have been removed from the manager, e.g. because they have been shut down
+                Set<WorkerProcess> current = new HashSet<>(workerProcesses);
+                Iterator<Map.Entry<WorkerProcess, WatchKey>> iterator = watchKeys.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<WorkerProcess, WatchKey> entry = iterator.next();
+                    if (!current.contains(entry.getKey())) {
+                        entry.getValue().cancel();
+                        watchedWorkerProcesses.remove(entry.getValue());
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+
+        private void watch(WorkerProcess workerProcess) {
+            File workerHome = workerProcess.getWorkerHome();
+            if (!workerHome.exists()) {
+                // the worker home is watched as soon as it has been created
+                return;
+            }
+
+            WatchKey watchKey;
+            try {
+                watchKey = workerHome.toPath().register(watchService, ENTRY_CREATE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            watchKeys.put(workerProcess, watchKey);
+            watchedWorkerProcesses.put(watchKey, workerProcess);
+
+            // files which have been created before the worker home was watched
+            detectFailures(workerProcess);
+
+            Process process = workerProcess.getProcess();
+            if (process != null) {
+                watchExit(workerProcess, process);
+            }
+        }
+
+        private void unwatch(WorkerProcess workerProcess) {
+            WatchKey watchKey = watchKeys.remove(workerProcess);
+            if (watchKey != null) {
+                watchKey.cancel();
+                watchedWorkerProcesses.remove(watchKey);
+            }
+        }
+
+        private void watchExit(final WorkerProcess workerProcess, final Process process) {
+            final Runnable exitEvent = () -> detectExit(workerProcess);
+
+            CompletableFuture<?> exitFuture = onExit(process);
+            if (exitFuture != null) {
+                exitFuture.thenRun(() -> events.add(exitEvent));
                 return;
             }
 
-            detectOomeFailure(workerProcess);
+            Thread exitThread = new Thread("WorkerExitWatcher-" + workerProcess.getId()) {
+                @Override
+                public void run() {
+                    try {
+                        process.waitFor();
+                    } catch (InterruptedException e) {
+                        EmptyStatement.ignore(e);
+                        return;
+                    }
+                    events.add(exitEvent);
+                }
+            };
+            exitThread.setDaemon(true);
+            exitThread.start();
+        }
+
+        private void processWatchKey(WatchKey watchKey) {
+            WorkerProcess workerProcess = watchedWorkerProcesses.get(watchKey);
+            for (WatchEvent<?> event : watchKey.pollEvents()) {
+                if (workerProcess == null) {
+                    // the worker process isn't watched anymore
+                    continue;
+                }
+
+                if (event.kind() == OVERFLOW) {
+                    detectFailures(workerProcess);
+                } else {
+                    fileCreated(workerProcess, ((Path) event.context()).toString());
+                }
+            }
+            watchKey.reset();
+        }
+
+        private void fileCreated(WorkerProcess workerProcess, String fileName) {
+            if (HEARTBEAT_FILE.equals(fileName)) {
+                workerProcess.updateLastSeen();
+            } else if (fileName.endsWith(".exception")) {
+                File exceptionFile = new File(workerProcess.getWorkerHome(), fileName);
+                if (exceptionFile.exists()) {
+                    reportException(workerProcess, exceptionFile);
+                }
+            } else if (OOME_FILE.equals(fileName) || fileName.endsWith(".hprof")) {
+                // if we find the hprof file, we also know there is an OOME. The problem with the worker.oome file is that it
+                // is created after the heap dump is done, and creating the heap dump can take a lot of time. And then the
+                // system could think there is another problem (e.g. lack of inactivity; or timeouts). This hides the OOME.
+                reportOome(workerProcess);
+            }
+        }
 
-            //detectInactivity(workerProcess);
+        private void detectFailures(WorkerProcess workerProcess) {
+            detectExceptions(workerProcess);
 
-            detectUnexpectedExit(workerProcess);
+            if (!workerProcess.isOomeDetected() && isOomeFound(workerProcess.getWorkerHome())) {
+                reportOome(workerProcess);
+            }
         }
 
         private void detectExceptions(WorkerProcess workerProcess) {
@@ -149,21 +324,25 @@ public class WorkerProcessFailureMonitor {
 
             File[] exceptionFiles = ExceptionExtensionFilter.listFiles(workerHome);
             for (File exceptionFile : exceptionFiles) {
-                String content = fileAsText(exceptionFile);
-
-                int indexOf = content.indexOf(NEW_LINE);
-                String testId = content.substring(0, indexOf);
-                String cause = content.substring(indexOf + 1);
+                reportException(workerProcess, exceptionFile);
+            }
+        }
 
-                if (testId.isEmpty() || "null".equals(testId)) {
-                    testId = null;
-                }
+        private void reportException(WorkerProcess workerProcess, File exceptionFile) {
+            String content = fileAsText(exceptionFile);
 
-                failureHandler.handle("Worked ran into an unhandled exception", WORKER_EXCEPTION, workerProcess,
-                        testId, cause);
+            int indexOf = content.indexOf(NEW_LINE);
+            String testId = content.substring(0, indexOf);
+            String cause = content.substring(indexOf + 1);
 
-                move(exceptionFile);
+            if (testId.isEmpty() || "null".equals(testId)) {
+                testId = null;
             }
+
+            failureHandler.handle("Worked ran into an unhandled exception", WORKER_EXCEPTION, workerProcess,
+                    testId, cause);
+
+            move(exceptionFile);
         }
 
         // we rename the exception file so that we don't detect the same exception again
@@ -184,8 +363,8 @@ public class WorkerProcessFailureMonitor {
             }
         }
 
-        private void detectOomeFailure(WorkerProcess workerProcess) {
-            if (!isOomeFound(workerProcess.getWorkerHome())) {
+        private void reportOome(WorkerProcess workerProcess) {
+            if (workerProcess.isOomeDetected()) {
                 return;
             }
             workerProcess.setOomeDetected();
@@ -194,43 +373,60 @@ public class WorkerProcessFailureMonitor {
         }
 
         private boolean isOomeFound(File workerHome) {
-            File oomeFile = new File(workerHome, "worker.oome");
-            if (oomeFile.exists()) {
+            if (new File(workerHome, OOME_FILE).exists()) {
                 return true;
             }
-
-            // if we find the hprof file, we also know there is an OOME. The problem with the worker.oome file is that it is
-            // created after the heap dump is done, and creating the heap dump can take a lot of time. And then the system could
-            // think there is another problem (e.g. lack of inactivity; or timeouts). This hides the OOME.
-            File[] hprofFiles = HProfExtensionFilter.listFiles(workerHome);
-            return (hprofFiles.length > 0);
+            return HProfExtensionFilter.listFiles(workerHome).length > 0;
         }
 
-        private void detectInactivity(WorkerProcess workerProcess) {
+        private void detectInactivity() {
             if (!detectTimeouts) {
                 return;
             }
 
-            long elapsed = MILLISECONDS.toSeconds(System.currentTimeMillis() - workerProcess.getLastSeen());
-            if (elapsed > 0 && elapsed % lastSeenTimeoutSeconds == 0) {
-                sendFailureOperation(format("Worker has not sent a message for %d seconds", elapsed), WORKER_TIMEOUT,
-                        workerProcess);
+            long now = System.currentTimeMillis();
+            for (WorkerProcess workerProcess : watchKeys.keySet()) {
+                if (workerProcess.isOomeDetected()) {
+                    continue;
+                }
+
+                long elapsed = MILLISECONDS.toSeconds(now - workerProcess.getLastSeen());
+                if (elapsed >= lastSeenTimeoutSeconds) {
+                    sendFailureOperation(format("Worker has not sent a heartbeat for %d seconds", elapsed), WORKER_TIMEOUT,
+                            workerProcess);
+                    // the timeout is reported again if the worker stays inactive for another timeout period
+                    workerProcess.updateLastSeen();
+                }
             }
         }
 
-        private void detectUnexpectedExit(WorkerProcess workerProcess) {
-            Process process = workerProcess.getProcess();
+        private void detectExit(WorkerProcess workerProcess) {
+            if (!watchKeys.containsKey(workerProcess)) {
+                return;
+            }
+
             int exitCode;
             try {
-                exitCode = process.exitValue();
+                exitCode = workerProcess.getProcess().exitValue();
             } catch (IllegalThreadStateException ignore) {
                 // process is still running
                 return;
             }
 
+            // the failures which have been written just before the exit are reported first
+            detectFailures(workerProcess);
+            unwatch(workerProcess);
+
+            if (workerProcess.isOomeDetected()) {
+                // the exit is the consequence of the OOME, which has already been reported
+                workerProcessManager.remove(workerProcess);
+                return;
+            }
+
             if (exitCode == 0) {
                 workerProcess.setFinished();
                 sendFailureOperation("Worker terminated normally", WORKER_NORMAL_EXIT, workerProcess);
+                workerProcessManager.remove(workerProcess);
                 return;
             }
 
@@ -243,6 +439,26 @@ public class WorkerProcessFailureMonitor {
         private void sendFailureOperation(String message, FailureType type, WorkerProcess workerProcess) {
             failureHandler.handle(message, type, workerProcess, null, null);
         }
+
+        private final class WatchThread extends Thread {
+
+            private WatchThread() {
+                super("WorkerHomeWatchThread");
+                setDaemon(true);
+            }
+
+            @Override
+            public void run() {
+                try {
+                    for (; ; ) {
+                        final WatchKey watchKey = watchService.take();
+                        events.add(() -> processWatchKey(watchKey));
+                    }
+                } catch (ClosedWatchServiceException | InterruptedException e) {
+                    EmptyStatement.ignore(e);
+                }
+            }
+        }
     }
 
     static class ExceptionExtensionFilter implements FilenameFilter {
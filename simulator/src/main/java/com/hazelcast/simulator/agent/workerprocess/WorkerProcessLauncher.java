@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.hazelcast.simulator.agent.workerprocess.ClassDataSharing.expandClasspath;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
 import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
 import static com.hazelcast.simulator.utils.FileUtils.ensureFreshDirectory;
@@ -33,6 +34,7 @@ import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
 import static com.hazelcast.simulator.utils.FileUtils.getSimulatorHome;
 import static com.hazelcast.simulator.utils.FileUtils.writeText;
 import static com.hazelcast.simulator.utils.NativeUtils.execute;
+import static java.lang.Boolean.parseBoolean;
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -130,8 +132,15 @@ public class WorkerProcessLauncher {
         environment.put("JAVA_HOME", javaHome);
         environment.put("CLASSPATH", getClasspath(workerHome));
         environment.put("SIMULATOR_HOME", getSimulatorHome().getAbsolutePath());
+        configureClassDataSharing(workerProcess, environment);
 
-        Process process = processBuilder.start();
+        Process process;
+        try {
+            process = processBuilder.start();
+        } catch (IOException e) {
+            processManager.getClassDataSharing().cancel(workerProcess);
+            throw e;
+        }
 
         workerProcess.setProcess(process);
         processManager.add(workerAddress, workerProcess);
@@ -139,6 +148,29 @@ public class WorkerProcessLauncher {
         return workerProcess;
     }
 
+    private void configureClassDataSharing(WorkerProcess workerProcess, Map<String, String> environment) {
+        ClassDataSharing classDataSharing = processManager.getClassDataSharing();
+        if (!parseBoolean(parameters.get("WORKER_CDS")) || !classDataSharing.isSupported()) {
+            return;
+        }
+
+        String classpath = expandClasspath(environment.get("CLASSPATH"));
+        if (classpath == null) {
+            LOGGER.info("Launching Worker without CDS since the classpath contains a directory with classes");
+            return;
+        }
+        classpath = classDataSharing.sharedClasspath(classpath, sessionDir);
+
+        String cdsOptions = classDataSharing.jvmOptions(classpath, workerProcess);
+        if (cdsOptions.isEmpty()) {
+            return;
+        }
+
+        String jvmOptions = environment.get("JVM_OPTIONS");
+        environment.put("JVM_OPTIONS", jvmOptions == null ? cdsOptions : cdsOptions + " " + jvmOptions);
+        environment.put("CLASSPATH", classpath);
+    }
+
     private void waitForWorkersStartup(WorkerProcess worker) {
         int timeout = parameters.intGet("WORKER_STARTUP_TIMEOUT_SECONDS");
 
@@ -24,6 +24,7 @@ import com.hazelcast.simulator.protocol.operation.LogOperation;
 import com.hazelcast.simulator.utils.ThreadSpawner;
 import org.apache.log4j.Logger;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
@@ -33,6 +34,7 @@ import java.util.concurrent.ScheduledExecutorService;
 
 import static com.hazelcast.simulator.common.FailureType.WORKER_CREATE_ERROR;
 import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static com.hazelcast.simulator.utils.FileUtils.getSimulatorHome;
 import static com.hazelcast.simulator.utils.NativeUtils.getPID;
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -50,6 +52,7 @@ public class WorkerProcessManager {
     private final Server server;
     private final SimulatorAddress agentAddress;
     private final String publicAddress;
+    private final ClassDataSharing classDataSharing = new ClassDataSharing(new File(getSimulatorHome(), "cds"));
 
     public WorkerProcessManager(Server server, SimulatorAddress agentAddress, String publicAddress) {
         this.server = server;
@@ -65,6 +68,10 @@ public class WorkerProcessManager {
         return agentAddress;
     }
 
+    ClassDataSharing getClassDataSharing() {
+        return classDataSharing;
+    }
+
     // launching is done asynchronous so we don't block the calling thread (messaging thread)
     public void launch(CreateWorkerOperation op, Promise promise) {
         WorkerParameters workerParameters = op.getWorkerParameters();
@@ -219,6 +219,10 @@ public class SimulatorProperties {
         return parseInt(get("AGENT_PORT", "9000"));
     }
 
+    public String getTransport() {
+        return get("TRANSPORT", "activemq");
+    }
+
     public String getCloudProvider() {
         return get(CLOUD_PROVIDER);
     }
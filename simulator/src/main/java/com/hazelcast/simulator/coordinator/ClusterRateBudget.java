@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.hazelcast.simulator.utils.FormatUtils.formatDouble;
+import static java.lang.String.format;
+
+/**
+ * The rate budget of an execution group of a test for the whole cluster, configured with the clusterRatePerSecond property,
+ * or the &lt;group&gt;ClusterRatePerSecond property for a named execution group.
+ * <p>
+ * The budget is split evenly over the workers of the test. After every performance interval the budget is rebalanced: a worker
+ * that didn't achieve its rate is lowered to the throughput it achieved, and the budget it freed is moved to the workers that
+ * achieved their rate, in proportion to their rate. So the sum of the rates of the workers stays the same, and the cluster
+ * reaches the target rate as long as there are workers with spare capacity. If no worker achieved its rate, the cluster is
+ * saturated and the rates are left as they are.
+ * <p>
+ * The interval after a rebalance is skipped, since it is partially measured at the previous rates.
+ */
+public final class ClusterRateBudget {
+
+    public static final String CLUSTER_RATE_PROPERTY = "clusterRatePerSecond";
+    public static final String GROUP_CLUSTER_RATE_SUFFIX = "ClusterRatePerSecond";
+
+    // a worker lags if it achieved less than this fraction of its rate
+    private static final double MIN_ACHIEVED_RATE = 0.95;
+    // a lagging worker keeps at least this fraction of the even share, so it can show it has recovered
+    private static final double MIN_SHARE = 0.1;
+
+    private final Map<SimulatorAddress, Double> rates = new LinkedHashMap<>();
+    private double totalRate;
+    private boolean skipInterval;
+
+    /**
+     * Creates a ClusterRateBudget.
+     *
+     * @param totalRate the rate of all workers combined
+     * @param workers   the workers of the test
+     * @throws IllegalArgumentException if totalRate isn't larger than 0 or if there are no workers
+     */
+    public ClusterRateBudget(double totalRate, Collection<SimulatorAddress> workers) {
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("There are no workers to split the cluster rate over");
+        }
+        for (SimulatorAddress worker : workers) {
+            rates.put(worker, 0d);
+        }
+        setTotalRate(totalRate);
+    }
+
+    public synchronized double getTotalRate() {
+        return totalRate;
+    }
+
+    /**
+     * Returns the rate of a single worker when the budget is split evenly.
+     *
+     * @return the even share of the total rate
+     */
+    public synchronized double getEvenShare() {
+        return totalRate / rates.size();
+    }
+
+    /**
+     * Returns the current rate per worker.
+     *
+     * @return map with the worker address as key and its rate as value
+     */
+    public synchronized Map<SimulatorAddress, Double> getRates() {
+        return new LinkedHashMap<>(rates);
+    }
+
+    /**
+     * Changes the total rate, the budget is split evenly over the workers again.
+     *
+     * @param totalRate the new rate of all workers combined
+     * @return the new rate per worker
+     * @throws IllegalArgumentException if totalRate isn't larger than 0
+     */
+    public synchronized Map<SimulatorAddress, Double> setTotalRate(double totalRate) {
+        if (totalRate <= 0) {
+            throw new IllegalArgumentException(CLUSTER_RATE_PROPERTY + " must be larger than 0, but was " + totalRate);
+        }
+
+        this.totalRate = totalRate;
+        double evenShare = totalRate / rates.size();
+        for (Map.Entry<SimulatorAddress, Double> entry : rates.entrySet()) {
+            entry.setValue(evenShare);
+        }
+        skipInterval = true;
+        return getRates();
+    }
+
+    /**
+     * Rebalances the budget based on the throughput the workers achieved in the latest performance interval.
+     *
+     * @param throughputs the interval throughput per worker
+     * @return the rates of the workers that need to be changed; empty if nothing needs to be changed
+     */
+    public synchronized Map<SimulatorAddress, Double> rebalance(Map<SimulatorAddress, Double> throughputs) {
+        Map<SimulatorAddress, Double> changed = new HashMap<>();
+        if (skipInterval) {
+            skipInterval = false;
+            return changed;
+        }
+
+        if (!throughputs.keySet().containsAll(rates.keySet())) {
+            // not all workers have reported yet
+            return changed;
+        }
+
+        double minRate = MIN_SHARE * getEvenShare();
+        double freedRate = 0;
+        double healthyRateSum = 0;
+        for (Map.Entry<SimulatorAddress, Double> entry : rates.entrySet()) {
+            double rate = entry.getValue();
+            double throughput = throughputs.get(entry.getKey());
+            double loweredRate = Math.max(throughput, minRate);
+            if (throughput < rate * MIN_ACHIEVED_RATE && loweredRate < rate) {
+                changed.put(entry.getKey(), loweredRate);
+                freedRate += rate - loweredRate;
+            } else {
+                healthyRateSum += rate;
+            }
+        }
+
+        if (changed.isEmpty() || healthyRateSum == 0) {
+            // either all workers achieved their rate, or none did and there is no spare capacity to move the budget to
+            changed.clear();
+            return changed;
+        }
+
+        for (Map.Entry<SimulatorAddress, Double> entry : rates.entrySet()) {
+            if (!changed.containsKey(entry.getKey())) {
+                double rate = entry.getValue();
+                changed.put(entry.getKey(), rate + freedRate * rate / healthyRateSum);
+            }
+        }
+
+        rates.putAll(changed);
+        skipInterval = true;
+        return changed;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<SimulatorAddress, Double> entry : rates.entrySet()) {
+            sb.append(sb.length() == 0 ? "" : ", ")
+                    .append(entry.getKey())
+                    .append('=')
+                    .append(formatDouble(entry.getValue(), 0));
+        }
+        return format("%s ops/s [%s]", formatDouble(totalRate, 0), sb);
+    }
+}
@@ -20,6 +20,7 @@ import com.hazelcast.simulator.common.SimulatorProperties;
 import com.hazelcast.simulator.coordinator.operations.RcTestRunOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStatusOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStopOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestUpdateOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerKillOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerScriptOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerStartOperation;
@@ -35,11 +36,15 @@ import com.hazelcast.simulator.coordinator.tasks.RunTestSuiteTask;
 import com.hazelcast.simulator.coordinator.tasks.StartWorkersTask;
 import com.hazelcast.simulator.coordinator.tasks.TerminateWorkersTask;
 import com.hazelcast.simulator.protocol.CoordinatorClient;
+import com.hazelcast.simulator.protocol.Transport;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
 import com.hazelcast.simulator.utils.CommandLineExitException;
 import com.hazelcast.simulator.utils.CommonUtils;
 import com.hazelcast.simulator.vendors.VendorDriver;
 import com.hazelcast.simulator.worker.operations.ExecuteScriptOperation;
+import com.hazelcast.simulator.worker.operations.UpdateRateOperation;
+import com.hazelcast.simulator.worker.operations.UpdateThreadCountOperation;
 import org.apache.log4j.Logger;
 
 import java.io.Closeable;
@@ -58,6 +63,7 @@ import java.util.concurrent.Future;
 
 import static com.hazelcast.simulator.coordinator.AgentUtils.startAgents;
 import static com.hazelcast.simulator.coordinator.AgentUtils.stopAgents;
+import static com.hazelcast.simulator.common.TestPhase.RUN;
 import static com.hazelcast.simulator.coordinator.registry.AgentData.publicAddresses;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepSeconds;
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
@@ -71,7 +77,7 @@ public class Coordinator implements Closeable {
 
     private static final Logger LOGGER = Logger.getLogger(Coordinator.class);
 
-    private final PerformanceStatsCollector performanceStatsCollector = new PerformanceStatsCollector();
+    private final PerformanceStatsCollector performanceStatsCollector;
 
     private final Registry registry;
     private final CoordinatorParameters parameters;
@@ -85,10 +91,12 @@ public class Coordinator implements Closeable {
         this.registry = registry;
         this.parameters = parameters;
         this.failureCollector = new FailureCollector(parameters.getOutputDirectory(), registry);
+        this.performanceStatsCollector = new PerformanceStatsCollector(parameters.getOutputDirectory());
         this.properties = parameters.getSimulatorProperties();
         this.testCompletionTimeoutSeconds = properties.getTestCompletionTimeoutSeconds();
 
         this.client = new CoordinatorClient()
+                .setTransport(Transport.fromString(properties.getTransport()))
                 .setAgentBrokerPort(properties.getAgentPort())
                 .setProcessor(new CoordinatorOperationProcessor(failureCollector, performanceStatsCollector))
                 .setFailureCollector(failureCollector);
@@ -309,6 +317,81 @@ public class Coordinator implements Closeable {
                 + " seconds, current status: " + test.getStatusString());
     }
 
+    public String testUpdate(RcTestUpdateOperation op) throws Exception {
+        TestData test = registry.getTest(op.getTestId());
+        if (test == null) {
+            throw new IllegalStateException(format("no test with id [%s] found", op.getTestId()));
+        }
+
+        if (test.isCompleted() || test.getTestPhase() != RUN) {
+            throw new IllegalStateException(format("test [%s] can only be updated in the %s phase, current status: %s",
+                    op.getTestId(), RUN.desc(), test.getStatusString()));
+        }
+
+        if (op.getRatePerSecond() == null && op.getThreadCount() == null) {
+            throw new IllegalArgumentException("ratePerSecond and/or threadCount need to be set");
+        }
+
+        List<WorkerData> workers = test.getTargets();
+        LOGGER.info(format("Test [%s] updating executionGroup [%s] on %s workers to ratePerSecond=%s threadCount=%s ...",
+                op.getTestId(), op.getExecutionGroup() == null ? "*" : op.getExecutionGroup(), workers.size(),
+                op.getRatePerSecond(), op.getThreadCount()));
+
+        // the thread count is changed first so the new rate is spread over the new threads immediately
+        if (op.getThreadCount() != null) {
+            invokeOnWorkers(workers,
+                    new UpdateThreadCountOperation(op.getTestId(), op.getExecutionGroup(), op.getThreadCount()));
+        }
+
+        if (op.getRatePerSecond() != null) {
+            updateRate(op.getTestId(), op.getExecutionGroup(), op.getRatePerSecond(), test.getClusterRateBudgets(), workers);
+        }
+
+        LOGGER.info(format("Test [%s] update complete", op.getTestId()));
+        return test.getStatusString();
+    }
+
+    // an execution group with a cluster rate gets a new rate for the whole cluster; without an execution group the rate of
+    // every execution group with a cluster rate is changed, or else the rate of every worker
+    private void updateRate(String testId, String executionGroup, double ratePerSecond,
+                            Map<String, ClusterRateBudget> clusterRateBudgets, List<WorkerData> workers) throws Exception {
+        if (executionGroup == null && !clusterRateBudgets.isEmpty()) {
+            for (Map.Entry<String, ClusterRateBudget> entry : clusterRateBudgets.entrySet()) {
+                updateClusterRate(testId, entry.getKey(), workers, entry.getValue(), ratePerSecond);
+            }
+        } else if (executionGroup != null && clusterRateBudgets.containsKey(executionGroup)) {
+            updateClusterRate(testId, executionGroup, workers, clusterRateBudgets.get(executionGroup), ratePerSecond);
+        } else {
+            invokeOnWorkers(workers, new UpdateRateOperation(testId, executionGroup, ratePerSecond));
+        }
+    }
+
+    // the rate is the new rate of the whole cluster, so it is split evenly over the workers again
+    private void updateClusterRate(String testId, String executionGroup, List<WorkerData> workers,
+                                   ClusterRateBudget clusterRateBudget, double ratePerSecond) throws Exception {
+        Map<SimulatorAddress, Double> rates = clusterRateBudget.setTotalRate(ratePerSecond);
+        Map<WorkerData, Future<String>> futures = new HashMap<>();
+        for (WorkerData worker : workers) {
+            futures.put(worker, client.submit(worker.getAddress(),
+                    new UpdateRateOperation(testId, executionGroup, rates.get(worker.getAddress()))));
+        }
+
+        for (Future<String> future : futures.values()) {
+            future.get();
+        }
+    }
+
+    private void invokeOnWorkers(List<WorkerData> workers, SimulatorOperation op) throws Exception {
+        Map<WorkerData, Future<String>> futures = new HashMap<>();
+        for (WorkerData worker : workers) {
+            futures.put(worker, client.submit(worker.getAddress(), op));
+        }
+
+        for (Future<String> future : futures.values()) {
+            future.get();
+        }
+    }
+
     public String testStatus(RcTestStatusOperation op) {
         TestData test = registry.getTest(op.getTestId());
         return test == null ? "null" : test.getStatusString();
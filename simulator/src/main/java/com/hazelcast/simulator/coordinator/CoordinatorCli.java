@@ -37,6 +37,7 @@ import static com.hazelcast.simulator.common.AgentsFile.preferredAgentsFile;
 import static com.hazelcast.simulator.common.GitInfo.getBuildTime;
 import static com.hazelcast.simulator.common.GitInfo.getCommitIdAbbrev;
 import static com.hazelcast.simulator.coordinator.AgentUtils.onlineCheckAgents;
+import static com.hazelcast.simulator.coordinator.TestSuite.DEFAULT_SATURATION_STEP_SECONDS;
 import static com.hazelcast.simulator.coordinator.registry.AgentData.publicAddresses;
 import static com.hazelcast.simulator.utils.CliUtils.initOptionsWithHelp;
 import static com.hazelcast.simulator.utils.CloudProviderUtils.isLocal;
@@ -80,6 +81,16 @@ final class CoordinatorCli {
                     + "the test will run until the test decides to stop.")
             .withRequiredArg().ofType(String.class).defaultsTo(format("%ds", DEFAULT_DURATION_SECONDS));
 
+    private final OptionSpec<String> saturationSlaSpec = parser.accepts("saturationSla",
+            "Searches the highest rate per worker at which the test still meets the given latency SLA, e.g. p99<2ms."
+                    + " The test needs a ratePerSecond property, which is used as the first rate. The rate is doubled until the"
+                    + " SLA is violated and then a binary search is done. The search ends the RUN phase when it has completed.")
+            .withRequiredArg().ofType(String.class);
+
+    private final OptionSpec<String> saturationStepSpec = parser.accepts("saturationStep",
+            "Amount of time every rate of the saturation search is run, e.g. 30s or 2m.")
+            .withRequiredArg().ofType(String.class).defaultsTo(format("%ds", DEFAULT_SATURATION_STEP_SECONDS));
+
     private final OptionSpec<Integer> membersSpec = parser.accepts("members",
             "Number of cluster member Worker JVMs. If no value is specified and no mixed members are specified,"
                     + " then the number of cluster members will be equal to the number of machines in the agents file.")
@@ -249,6 +260,11 @@ final class CoordinatorCli {
                 .setParallel(options.has(parallelSpec))
                 .setWorkerQuery(workerQuery);
 
+        if (options.has(saturationSlaSpec)) {
+            testSuite.setSaturationSla(options.valueOf(saturationSlaSpec))
+                    .setSaturationStepSeconds(getDurationSeconds(options, saturationStepSpec));
+        }
+
         // if the coordinator is not monitoring performance, we don't care for measuring latencies
         if (coordinatorParameters.getSimulatorProperties().getInt("WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS") == 0) {
             for (TestCase testCase : testSuite.getTestCaseList()) {
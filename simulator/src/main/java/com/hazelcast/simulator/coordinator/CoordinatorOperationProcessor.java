@@ -25,6 +25,12 @@ import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
 import com.hazelcast.simulator.worker.operations.PerformanceStatsOperation;
 import org.apache.log4j.Logger;
 
+/**
+ * Processes the operations send by the agents and workers to the coordinator.
+ *
+ * The {@link com.hazelcast.simulator.protocol.CoordinatorClient} calls this processor from a single thread, so the
+ * {@link FailureCollector} and {@link PerformanceStatsCollector} are not updated concurrently by different agents.
+ */
 public class CoordinatorOperationProcessor implements OperationProcessor {
     private static final Logger LOGGER = Logger.getLogger(CoordinatorOperationProcessor.class);
 
@@ -42,7 +48,9 @@ public class CoordinatorOperationProcessor implements OperationProcessor {
         if (op instanceof FailureOperation) {
             failureCollector.notify((FailureOperation) op);
         } else if (op instanceof PerformanceStatsOperation) {
-            performanceStatsCollector.update(source, ((PerformanceStatsOperation) op).getPerformanceStats());
+            PerformanceStatsOperation performanceStatsOperation = (PerformanceStatsOperation) op;
+            performanceStatsCollector.update(source, performanceStatsOperation.getPerformanceStats(),
+                    performanceStatsOperation.getIntervalHistograms(), performanceStatsOperation.getIntervalGroupThroughputs());
         } else if (op instanceof LogOperation) {
             LogOperation logOperation = (LogOperation) op;
             LOGGER.log(logOperation.getLevel(), logOperation.getMessage());
@@ -23,6 +23,7 @@ import com.hazelcast.simulator.coordinator.operations.RcStopCoordinatorOperation
 import com.hazelcast.simulator.coordinator.operations.RcTestRunOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStatusOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStopOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestUpdateOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerKillOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerScriptOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerStartOperation;
@@ -112,6 +113,8 @@ public final class CoordinatorRemoteCli implements Closeable {
             new TestStatusCli().run(subArgs);
         } else if (TestStopCli.NAME.equals(cmd)) {
             new TestStopCli().run(subArgs);
+        } else if (TestUpdateCli.NAME.equals(cmd)) {
+            new TestUpdateCli().run(subArgs);
         } else if (WorkerKillCli.NAME.equals(cmd)) {
             new WorkerKillCli().run(subArgs);
         } else if (WorkerScriptCli.NAME.equals(cmd)) {
@@ -138,6 +141,7 @@ public final class CoordinatorRemoteCli implements Closeable {
                         + "test-start      Starts a test asynchronously                                                \n"
                         + "test-stop       Stops a test                                                                \n"
                         + "test-status     Checks the status of a test                                                 \n"
+                        + "test-update     Changes the rate and/or thread count of a running test                      \n"
                         + "stop            Stops the Coordinator remote session                                        \n"
                         + "worker-kill     Kills one or more workers                                                   \n"
                         + "worker-script   Executes a script on workers                                                \n"
@@ -333,6 +337,74 @@ public final class CoordinatorRemoteCli implements Closeable {
         }
     }
 
+    private class TestUpdateCli extends AbstractCli {
+
+        static final String NAME = "test-update";
+
+        private final String help =
+                "Changes the rate and/or the number of threads of a test in the run phase, without restarting the\n"
+                        + "workers. This makes it possible to probe different load levels in a single session.\n"
+                        + "The rate and thread count are per worker, just like the ratePerSecond and threadCount properties.\n"
+                        + "The rate can only be changed if the test was started with an interval or ratePerSecond.\n"
+                        + "If the test was started with a clusterRatePerSecond, the rate is the rate of the whole cluster.\n"
+                        + "\n"
+                        + "Examples\n"
+                        + "# Changes the rate of every execution group of a test to 5000 requests per second per worker.\n"
+                        + "coordinator-remote test-update --ratePerSecond 5000 mytest\n\n"
+                        + "# Changes the number of threads of the 'get' execution group to 20 per worker.\n"
+                        + "coordinator-remote test-update --executionGroup get --threadCount 20 mytest\n";
+
+        private final OptionSpec<Double> ratePerSecondSpec = parser.accepts("ratePerSecond",
+                "The new number of requests per second per worker.")
+                .withRequiredArg().ofType(Double.class);
+
+        private final OptionSpec<Integer> threadCountSpec = parser.accepts("threadCount",
+                "The new number of threads per worker.")
+                .withRequiredArg().ofType(Integer.class);
+
+        private final OptionSpec<String> executionGroupSpec = parser.accepts("executionGroup",
+                "The execution group to update. If not set, all execution groups are updated.")
+                .withRequiredArg().ofType(String.class);
+
+        private final NonOptionArgumentSpec<String> argumentSpec = parser
+                .nonOptions("test address").ofType(String.class);
+
+        @Override
+        protected String name() {
+            return NAME;
+        }
+
+        @Override
+        protected OptionSet newOptions(String[] args) {
+            return initOptionsWithHelp(parser, help, args);
+        }
+
+        @Override
+        protected SimulatorOperation newOperation() {
+            List<String> nonOptionArguments = options.valuesOf(argumentSpec);
+            if (nonOptionArguments.size() != 1) {
+                throw new CommandLineExitException("Too many arguments");
+            }
+
+            Double ratePerSecond = options.valueOf(ratePerSecondSpec);
+            if (ratePerSecond != null && ratePerSecond <= 0) {
+                throw new CommandLineExitException("--ratePerSecond must be larger than 0");
+            }
+
+            Integer threadCount = options.valueOf(threadCountSpec);
+            if (threadCount != null && threadCount < 1) {
+                throw new CommandLineExitException("--threadCount can't be smaller than 1");
+            }
+
+            if (ratePerSecond == null && threadCount == null) {
+                throw new CommandLineExitException("--ratePerSecond and/or --threadCount needs to be set");
+            }
+
+            String testId = nonOptionArguments.get(0);
+            return new RcTestUpdateOperation(testId, options.valueOf(executionGroupSpec), ratePerSecond, threadCount);
+        }
+    }
+
     private class DownloadCli extends AbstractCli {
 
         static final String NAME = "download";
@@ -732,6 +804,15 @@ public final class CoordinatorRemoteCli implements Closeable {
                 "Defines if the TestSuite should fail immediately when a test from a TestSuite fails instead of continuing.")
                 .withRequiredArg().ofType(Boolean.class).defaultsTo(true);
 
+        final OptionSpec<String> saturationSlaSpec = parser.accepts("saturationSla",
+                "Searches the highest rate per worker at which the test still meets the given latency SLA, e.g. p99<2ms."
+                        + " The test needs a ratePerSecond property, which is used as the first rate.")
+                .withRequiredArg().ofType(String.class);
+
+        final OptionSpec<String> saturationStepSpec = parser.accepts("saturationStep",
+                "Amount of time every rate of the saturation search is run, e.g. 30s or 2m.")
+                .withRequiredArg().ofType(String.class).defaultsTo(format("%ds", TestSuite.DEFAULT_SATURATION_STEP_SECONDS));
+
         @Override
         WorkerQuery newQuery() {
             WorkerQuery query = super.newQuery();
@@ -763,6 +844,11 @@ public final class CoordinatorRemoteCli implements Closeable {
                     .setVerifyEnabled(options.valueOf(verifyEnabledSpec))
                     .setFailFast(options.valueOf(failFastSpec));
 
+            if (options.has(saturationSlaSpec)) {
+                suite.setSaturationSla(options.valueOf(saturationSlaSpec))
+                        .setSaturationStepSeconds(getDurationSeconds(options, saturationStepSpec));
+            }
+
             LOGGER.info("Running testSuite: " + testSuiteFile.getAbsolutePath());
             return new RcTestRunOperation(suite, isAsync(), newQuery());
         }
@@ -23,6 +23,7 @@ import com.hazelcast.simulator.coordinator.operations.RcStopCoordinatorOperation
 import com.hazelcast.simulator.coordinator.operations.RcTestRunOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStatusOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStopOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestUpdateOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerKillOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerScriptOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerStartOperation;
@@ -57,6 +58,8 @@ public class CoordinatorRemoteImpl implements CoordinatorRemote {
             return coordinator.testStatus((RcTestStatusOperation) op);
         } else if (op instanceof RcTestStopOperation) {
             return coordinator.testStop((RcTestStopOperation) op);
+        } else if (op instanceof RcTestUpdateOperation) {
+            return coordinator.testUpdate((RcTestUpdateOperation) op);
         } else if (op instanceof RcWorkerKillOperation) {
             return coordinator.workerKill((RcWorkerKillOperation) op);
         } else if (op instanceof RcWorkerScriptOperation) {
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.utils.CommandLineExitException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * A latency service level agreement like 'p99<2ms': the latency at the given percentile needs to be below the threshold.
+ */
+public final class LatencySla {
+
+    private static final Pattern PATTERN = Pattern.compile("p(\\d+(?:\\.\\d+)?)\\s*<\\s*(\\d+)\\s*(ns|us|ms|s)");
+
+    private final String value;
+    private final double percentile;
+    private final long thresholdNanos;
+
+    private LatencySla(String value, double percentile, long thresholdNanos) {
+        this.value = value;
+        this.percentile = percentile;
+        this.thresholdNanos = thresholdNanos;
+    }
+
+    /**
+     * Parses a latency SLA, e.g. 'p99<2ms' or 'p99.9<500us'.
+     *
+     * @param value the SLA to parse
+     * @return the parsed LatencySla
+     * @throws CommandLineExitException if the value is not a valid SLA
+     */
+    public static LatencySla parse(String value) {
+        Matcher matcher = PATTERN.matcher(value.trim());
+        if (!matcher.matches()) {
+            throw new CommandLineExitException(format("Invalid latency SLA [%s], expected e.g. p99<2ms or p99.9<500us",
+                    value));
+        }
+
+        double percentile = Double.parseDouble(matcher.group(1));
+        if (percentile <= 0 || percentile > 100) {
+            throw new CommandLineExitException(format("Invalid latency SLA [%s], the percentile should be in (0, 100]",
+                    value));
+        }
+
+        long threshold = Long.parseLong(matcher.group(2));
+        return new LatencySla(value.trim(), percentile, toTimeUnit(matcher.group(3)).toNanos(threshold));
+    }
+
+    private static TimeUnit toTimeUnit(String unit) {
+        if ("ns".equals(unit)) {
+            return NANOSECONDS;
+        } else if ("us".equals(unit)) {
+            return MICROSECONDS;
+        } else if ("ms".equals(unit)) {
+            return MILLISECONDS;
+        } else {
+            return SECONDS;
+        }
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    /**
+     * Checks if the latency at the percentile of this SLA is below the threshold.
+     *
+     * @param percentileNanos the measured latency at the percentile of this SLA
+     * @return true if the SLA is met, false otherwise
+     */
+    public boolean isMet(long percentileNanos) {
+        return percentileNanos < thresholdNanos;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -17,22 +17,37 @@ package com.hazelcast.simulator.coordinator;
 
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
 
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
+import static com.hazelcast.simulator.utils.FileUtils.appendText;
 import static com.hazelcast.simulator.utils.FormatUtils.formatDouble;
 import static com.hazelcast.simulator.utils.FormatUtils.formatLong;
 import static com.hazelcast.simulator.utils.FormatUtils.formatPercentage;
 import static com.hazelcast.simulator.utils.FormatUtils.secondsToHuman;
+import static com.hazelcast.simulator.utils.HistogramUtils.decodeCompressed;
 import static com.hazelcast.simulator.worker.performance.PerformanceStats.INTERVAL_LATENCY_PERCENTILE;
 import static java.lang.Math.round;
+import static java.lang.System.currentTimeMillis;
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -41,20 +56,74 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Responsible for storing and formatting performance metrics from Simulator workers.
+ *
+ * The interval histograms of the latency probes of all workers are merged per test and per probe. So the percentiles are
+ * calculated over the recorded values of the whole cluster, instead of aggregating the percentiles of the individual workers.
+ * The workers are not aligned on the clock of the coordinator, so the n-th interval histogram of every worker forms the n-th
+ * interval of the test. Once every target worker of the test (see {@link #setIntervalTargets(String, Collection)}) has
+ * reported an interval, the merged histograms of that interval are completed, and if an output directory is configured,
+ * written to a 'latency-[testId].csv' file. A worker that falls more than {@link #MAX_PENDING_INTERVALS} intervals behind is
+ * considered stale and is left out of the interval. The intervals which haven't been reported by all workers are completed
+ * with {@link #completeInterval(String, long)}, e.g. at the end of the run.
+ *
+ * The interval throughput per execution group is aligned the same way, but it is only made available for intervals reported by
+ * all target workers, see {@link #getIntervalGroupThroughputs(String)}.
  */
 public class PerformanceStatsCollector {
 
     public static final int OPERATION_COUNT_FORMAT_LENGTH = 14;
     public static final int THROUGHPUT_FORMAT_LENGTH = 12;
     public static final int LATENCY_FORMAT_LENGTH = 10;
+    public static final int ALLOCATION_FORMAT_LENGTH = 10;
+    public static final int MAX_PENDING_INTERVALS = 3;
 
     private static final long DISPLAY_LATENCY_AS_MICROS_MAX_VALUE = MILLISECONDS.toMicros(10);
+    private static final double[] PERCENTILES = {50, 99, 99.9, 99.99};
+    private static final String[] PERCENTILE_NAMES = {"50th", "99th", "99.9th", "99.99th"};
 
     // holds a map per Worker SimulatorAddress which contains the lastDelta PerformanceStats per testCaseId
     private final ConcurrentMap<SimulatorAddress, WorkerPerformance> workerPerformanceInfoMap
             = new ConcurrentHashMap<>();
+    // holds the aligned intervals of all workers per testCaseId
+    private final ConcurrentMap<String, TestIntervals> testIntervalsMap = new ConcurrentHashMap<>();
+    private final File outputDirectory;
+
+    public PerformanceStatsCollector() {
+        this(null);
+    }
+
+    /**
+     * Creates a PerformanceStatsCollector.
+     *
+     * @param outputDirectory the directory to write the merged latency information to, or {@code null} if it should
+     *                        not be written
+     */
+    public PerformanceStatsCollector(File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
 
     public void update(SimulatorAddress workerAddress, Map<String, PerformanceStats> performanceStatsMap) {
+        update(workerAddress, performanceStatsMap, Collections.<String, Map<String, String>>emptyMap());
+    }
+
+    public void update(SimulatorAddress workerAddress,
+                       Map<String, PerformanceStats> performanceStatsMap,
+                       Map<String, Map<String, String>> intervalHistogramMap) {
+        update(workerAddress, performanceStatsMap, intervalHistogramMap, Collections.<String, Map<String, Double>>emptyMap());
+    }
+
+    /**
+     * Processes a performance update of a worker. Every test in the update counts as an interval reported by the worker.
+     *
+     * @param workerAddress            the address of the worker
+     * @param performanceStatsMap      the PerformanceStats per test
+     * @param intervalHistogramMap     the encoded interval histograms of the latency probes per test
+     * @param intervalGroupThroughputs the interval throughput per execution group per test
+     */
+    public void update(SimulatorAddress workerAddress,
+                       Map<String, PerformanceStats> performanceStatsMap,
+                       Map<String, Map<String, String>> intervalHistogramMap,
+                       Map<String, Map<String, Double>> intervalGroupThroughputs) {
         WorkerPerformance workerPerformance = workerPerformanceInfoMap.get(workerAddress);
         if (workerPerformance == null) {
             WorkerPerformance newInfo = new WorkerPerformance();
@@ -63,6 +132,90 @@ public class PerformanceStatsCollector {
         }
 
         workerPerformance.updateAll(performanceStatsMap);
+
+        Set<String> testIds = new HashSet<>(performanceStatsMap.keySet());
+        testIds.addAll(intervalHistogramMap.keySet());
+        for (String testId : testIds) {
+            Map<String, String> histograms = intervalHistogramMap.get(testId);
+            Map<String, Double> groupThroughputs = intervalGroupThroughputs.get(testId);
+            getTestIntervals(testId).add(workerAddress,
+                    histograms == null ? Collections.<String, String>emptyMap() : histograms,
+                    groupThroughputs == null ? Collections.<String, Double>emptyMap() : groupThroughputs);
+        }
+    }
+
+    private TestIntervals getTestIntervals(String testId) {
+        TestIntervals testIntervals = testIntervalsMap.get(testId);
+        if (testIntervals == null) {
+            TestIntervals newTestIntervals = new TestIntervals(testId);
+            TestIntervals foundTestIntervals = testIntervalsMap.putIfAbsent(testId, newTestIntervals);
+            testIntervals = foundTestIntervals == null ? newTestIntervals : foundTestIntervals;
+        }
+        return testIntervals;
+    }
+
+    /**
+     * Sets the workers which run the given test. An interval of the test is completed as soon as all these workers have
+     * reported it.
+     *
+     * @param testId          the id of the test
+     * @param workerAddresses the addresses of the workers running the test
+     */
+    public void setIntervalTargets(String testId, Collection<SimulatorAddress> workerAddresses) {
+        getTestIntervals(testId).setTargets(workerAddresses);
+    }
+
+    /**
+     * Completes all pending intervals of the given test, including the ones which haven't been reported by all target
+     * workers, by making the merged histograms available for {@link #formatIntervalPerformanceNumbers(String)} and writing
+     * them to the latency file.
+     *
+     * If no targets have been set for the test, this is the only way the intervals get completed.
+     *
+     * @param testId            the id of the test
+     * @param currentTimeMillis the end time of the interval
+     */
+    public void completeInterval(String testId, long currentTimeMillis) {
+        TestIntervals testIntervals = testIntervalsMap.get(testId);
+        if (testIntervals != null) {
+            testIntervals.completePending(currentTimeMillis);
+        }
+    }
+
+    /**
+     * Returns the merged histograms of the latest completed interval of the given test.
+     *
+     * @param testId the id of the test
+     * @return map with the probe name as key and the merged histogram as value
+     */
+    Map<String, Histogram> getIntervalHistograms(String testId) {
+        TestIntervals testIntervals = testIntervalsMap.get(testId);
+        return testIntervals == null ? Collections.<String, Histogram>emptyMap() : testIntervals.completedHistograms;
+    }
+
+    /**
+     * Returns the interval throughput per execution group of the latest interval which has been reported by all target workers
+     * of the given test.
+     *
+     * @param testId the id of the test
+     * @return map with the execution group as key and the interval throughput per worker as value
+     */
+    Map<String, Map<SimulatorAddress, Double>> getIntervalGroupThroughputs(String testId) {
+        TestIntervals testIntervals = testIntervalsMap.get(testId);
+        return testIntervals == null
+                ? Collections.<String, Map<SimulatorAddress, Double>>emptyMap() : testIntervals.completedGroupThroughputs;
+    }
+
+    /**
+     * Returns the number of intervals of the given test which have been reported by all target workers. Can be used to detect
+     * if {@link #getIntervalGroupThroughputs(String)} has a new interval.
+     *
+     * @param testId the id of the test
+     * @return the number of intervals reported by all target workers
+     */
+    long getCompleteIntervalCount(String testId) {
+        TestIntervals testIntervals = testIntervalsMap.get(testId);
+        return testIntervals == null ? 0 : testIntervals.completeIntervalCount;
     }
 
     public String formatIntervalPerformanceNumbers(String testId) {
@@ -71,6 +224,11 @@ public class PerformanceStatsCollector {
             return "";
         }
 
+        Map<String, Histogram> histograms = getIntervalHistograms(testId);
+        if (!histograms.isEmpty()) {
+            return formatIntervalPerformanceNumbers(latest, histograms);
+        }
+
         String latencyUnit = "µs";
         long latencyAvg = NANOSECONDS.toMicros(round(latest.getIntervalLatencyAvgNanos()));
         long latency999Percentile = NANOSECONDS.toMicros(latest.getIntervalLatency999PercentileNanos());
@@ -92,7 +250,58 @@ public class PerformanceStatsCollector {
                 latencyUnit,
                 INTERVAL_LATENCY_PERCENTILE,
                 formatLong(latencyMax, LATENCY_FORMAT_LENGTH),
-                latencyUnit);
+                latencyUnit) + formatAllocation(latest);
+    }
+
+    // the allocated bytes per operation are shown per execution group, the name of the default execution group is omitted
+    private static String formatAllocation(PerformanceStats latest) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Double> entry : new TreeMap<>(latest.getIntervalAllocatedBytesPerOperation()).entrySet()) {
+            if (entry.getValue() < 0) {
+                continue;
+            }
+            sb.append(format(" %s B/op", formatDouble(entry.getValue(), ALLOCATION_FORMAT_LENGTH)));
+            if (!entry.getKey().isEmpty()) {
+                sb.append(" (").append(entry.getKey()).append(')');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String formatIntervalPerformanceNumbers(PerformanceStats latest, Map<String, Histogram> histograms) {
+        // for every percentile the worst probe is shown, just like the PerformanceStats do
+        double latencyAvgNanos = 0;
+        long[] percentileNanos = new long[PERCENTILES.length];
+        long latencyMaxNanos = 0;
+        for (Histogram histogram : histograms.values()) {
+            latencyAvgNanos = Math.max(latencyAvgNanos, histogram.getMean());
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                percentileNanos[i] = Math.max(percentileNanos[i], histogram.getValueAtPercentile(PERCENTILES[i]));
+            }
+            latencyMaxNanos = Math.max(latencyMaxNanos, histogram.getMaxValue());
+        }
+
+        TimeUnit latencyUnit = NANOSECONDS.toMicros(round(latencyAvgNanos)) > DISPLAY_LATENCY_AS_MICROS_MAX_VALUE
+                ? MILLISECONDS : MICROSECONDS;
+        String latencyUnitName = latencyUnit == MILLISECONDS ? "ms" : "µs";
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(format("%s ops %s ops/s %s %s (avg)",
+                formatLong(latest.getOperationCount(), OPERATION_COUNT_FORMAT_LENGTH),
+                formatDouble(latest.getIntervalThroughput(), THROUGHPUT_FORMAT_LENGTH),
+                formatLong(latencyUnit.convert(round(latencyAvgNanos), NANOSECONDS), LATENCY_FORMAT_LENGTH),
+                latencyUnitName));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            sb.append(format(" %s %s (%s)",
+                    formatLong(latencyUnit.convert(percentileNanos[i], NANOSECONDS), LATENCY_FORMAT_LENGTH),
+                    latencyUnitName,
+                    PERCENTILE_NAMES[i]));
+        }
+        sb.append(format(" %s %s (max)",
+                formatLong(latencyUnit.convert(latencyMaxNanos, NANOSECONDS), LATENCY_FORMAT_LENGTH),
+                latencyUnitName));
+        sb.append(formatAllocation(latest));
+        return sb.toString();
     }
 
     PerformanceStats get(String testCaseId, boolean aggregated) {
@@ -229,4 +438,168 @@ public class PerformanceStatsCollector {
             return new TestPerformance(newAggregated, delta);
         }
     }
+
+    /**
+     * The interval reported by a single worker for a given test.
+     */
+    private static final class WorkerInterval {
+        private final Map<String, Histogram> histograms;
+        private final Map<String, Double> groupThroughputs;
+
+        private WorkerInterval(Map<String, Histogram> histograms, Map<String, Double> groupThroughputs) {
+            this.histograms = histograms;
+            this.groupThroughputs = groupThroughputs;
+        }
+    }
+
+    /**
+     * Contains the aligned intervals of all workers for a given test.
+     */
+    private final class TestIntervals {
+        private final String testId;
+        private final SimpleDateFormat simpleDateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
+        // the reported intervals which are not completed yet, per worker and in the order they have been reported
+        private final Map<SimulatorAddress, Deque<WorkerInterval>> pending = new LinkedHashMap<>();
+        private Set<SimulatorAddress> targets;
+        private volatile Map<String, Histogram> completedHistograms = Collections.emptyMap();
+        private volatile Map<String, Map<SimulatorAddress, Double>> completedGroupThroughputs = Collections.emptyMap();
+        private volatile long completeIntervalCount;
+        private File latencyFile;
+
+        private TestIntervals(String testId) {
+            this.testId = testId;
+        }
+
+        private synchronized void setTargets(Collection<SimulatorAddress> workerAddresses) {
+            targets = new HashSet<>(workerAddresses);
+        }
+
+        private synchronized void add(SimulatorAddress workerAddress, Map<String, String> encodedHistograms,
+                                      Map<String, Double> groupThroughputs) {
+            Map<String, Histogram> histograms = new HashMap<>();
+            for (Map.Entry<String, String> entry : encodedHistograms.entrySet()) {
+                histograms.put(entry.getKey(), decodeCompressed(entry.getValue()));
+            }
+
+            Deque<WorkerInterval> reported = pending.get(workerAddress);
+            if (reported == null) {
+                reported = new ArrayDeque<>();
+                pending.put(workerAddress, reported);
+            }
+            reported.add(new WorkerInterval(histograms, groupThroughputs));
+
+            for (; ; ) {
+                boolean reportedByAllTargets = isReportedByAllTargets();
+                if (!reportedByAllTargets && reported.size() <= MAX_PENDING_INTERVALS) {
+                    return;
+                }
+                if (!complete(currentTimeMillis(), reportedByAllTargets)) {
+                    return;
+                }
+            }
+        }
+
+        private boolean isReportedByAllTargets() {
+            if (targets == null || targets.isEmpty()) {
+                return false;
+            }
+            for (SimulatorAddress target : targets) {
+                Deque<WorkerInterval> reported = pending.get(target);
+                if (reported == null || reported.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private synchronized void completePending(long currentTimeMillis) {
+            for (; ; ) {
+                if (!complete(currentTimeMillis, isReportedByAllTargets())) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Completes the oldest pending interval, by merging the oldest reported interval of every worker.
+         *
+         * @param reportedByAllTargets if the interval has been reported by all target workers
+         * @return true if an interval was completed, false if there was nothing pending
+         */
+        private boolean complete(long currentTimeMillis, boolean reportedByAllTargets) {
+            boolean found = false;
+            Map<String, Histogram> histograms = new HashMap<>();
+            Map<String, Map<SimulatorAddress, Double>> groupThroughputs = new HashMap<>();
+            for (Map.Entry<SimulatorAddress, Deque<WorkerInterval>> entry : pending.entrySet()) {
+                WorkerInterval workerInterval = entry.getValue().poll();
+                if (workerInterval != null) {
+                    found = true;
+                    mergeHistograms(histograms, workerInterval.histograms);
+                    addGroupThroughputs(groupThroughputs, entry.getKey(), workerInterval.groupThroughputs);
+                }
+            }
+
+            if (reportedByAllTargets) {
+                completedGroupThroughputs = groupThroughputs;
+                completeIntervalCount++;
+            }
+            if (!histograms.isEmpty()) {
+                completedHistograms = histograms;
+                persist(currentTimeMillis, histograms);
+            }
+            return found;
+        }
+
+        private void mergeHistograms(Map<String, Histogram> histograms, Map<String, Histogram> workerHistograms) {
+            for (Map.Entry<String, Histogram> entry : workerHistograms.entrySet()) {
+                Histogram merged = histograms.get(entry.getKey());
+                if (merged == null) {
+                    histograms.put(entry.getKey(), entry.getValue());
+                } else {
+                    merged.add(entry.getValue());
+                }
+            }
+        }
+
+        private void addGroupThroughputs(Map<String, Map<SimulatorAddress, Double>> groupThroughputs,
+                                         SimulatorAddress workerAddress, Map<String, Double> workerGroupThroughputs) {
+            for (Map.Entry<String, Double> entry : workerGroupThroughputs.entrySet()) {
+                Map<SimulatorAddress, Double> throughputs = groupThroughputs.get(entry.getKey());
+                if (throughputs == null) {
+                    throughputs = new HashMap<>();
+                    groupThroughputs.put(entry.getKey(), throughputs);
+                }
+                throughputs.put(workerAddress, entry.getValue());
+            }
+        }
+
+        private void persist(long currentTimeMillis, Map<String, Histogram> histograms) {
+            if (outputDirectory == null) {
+                return;
+            }
+
+            if (latencyFile == null) {
+                latencyFile = new File(outputDirectory, "latency-" + testId + ".csv");
+                appendText("epoch,timestamp,probe,count,avg(us),p50(us),p99(us),p99.9(us),p99.99(us),max(us)\n",
+                        latencyFile);
+            }
+
+            String timestamp = simpleDateFormat.format(new Date(currentTimeMillis));
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+                Histogram histogram = entry.getValue();
+                sb.append(currentTimeMillis)
+                        .append(',').append(timestamp)
+                        .append(',').append(entry.getKey())
+                        .append(',').append(histogram.getTotalCount())
+                        .append(',').append(NANOSECONDS.toMicros(round(histogram.getMean())));
+                for (double percentile : PERCENTILES) {
+                    sb.append(',').append(NANOSECONDS.toMicros(histogram.getValueAtPercentile(percentile)));
+                }
+                sb.append(',').append(NANOSECONDS.toMicros(histogram.getMaxValue()))
+                        .append('\n');
+            }
+            appendText(sb.toString(), latencyFile);
+        }
+    }
 }
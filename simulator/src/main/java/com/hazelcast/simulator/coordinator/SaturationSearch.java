@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.simulator.utils.FileUtils.appendText;
+import static com.hazelcast.simulator.utils.FormatUtils.formatDouble;
+import static com.hazelcast.simulator.utils.FormatUtils.formatLong;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Searches the saturation point of a test: the highest rate at which the test still meets a {@link LatencySla}.
+ * <p>
+ * The search doubles the rate until the SLA is violated, and then does a binary search between the highest rate that met
+ * the SLA and the lowest rate that violated it. Every rate is run for a step. The first completed performance interval of a
+ * step is skipped, since it is partially measured at the previous rate. A rate only meets the SLA if the latency at the
+ * percentile of the SLA is below the threshold, and the workers actually achieved the rate.
+ * <p>
+ * The rate is the rate per worker, just like the ratePerSecond property of a test.
+ */
+final class SaturationSearch {
+
+    // the search completes if the rates that met and violated the SLA differ less than this fraction
+    private static final double PRECISION = 0.05;
+    // the fraction of the target rate the workers need to achieve
+    private static final double MIN_ACHIEVED_RATE = 0.95;
+    private static final int MAX_STEPS = 30;
+
+    private final LatencySla sla;
+    private final long stepMillis;
+    private final int workerCount;
+    private final File curveFile;
+    private final List<Step> steps = new ArrayList<>();
+
+    private double rate;
+    private double highestMetRate;
+    private double lowestViolatedRate;
+    private boolean completed;
+
+    private long stepStartMillis;
+    private boolean skipInterval;
+    private Map<String, Histogram> lastIntervalHistograms;
+    private final Map<String, Histogram> stepHistograms = new HashMap<>();
+    private double stepThroughputSum;
+    private int stepIntervalCount;
+
+    /**
+     * Creates a SaturationSearch.
+     *
+     * @param sla         the SLA to meet
+     * @param initialRate the rate per worker to start the search with
+     * @param stepMillis  the time to run every rate
+     * @param workerCount the number of workers that generate the load
+     * @param curveFile   the file to write the latency curve to, or {@code null} if it should not be written
+     */
+    SaturationSearch(LatencySla sla, double initialRate, long stepMillis, int workerCount, File curveFile) {
+        if (initialRate <= 0) {
+            throw new IllegalArgumentException("initialRate must be larger than 0, but was " + initialRate);
+        }
+        this.sla = sla;
+        this.rate = initialRate;
+        this.stepMillis = stepMillis;
+        this.workerCount = workerCount;
+        this.curveFile = curveFile;
+        if (curveFile != null) {
+            appendText(format("step,rate_per_worker,target_throughput,throughput,p%s(us),sla_met%n", sla.getPercentile()),
+                    curveFile);
+        }
+    }
+
+    /**
+     * Starts the first step.
+     *
+     * @param currentTimeMillis the current time
+     */
+    void start(long currentTimeMillis) {
+        startStep(currentTimeMillis);
+    }
+
+    /**
+     * Processes the latest completed performance interval.
+     *
+     * @param currentTimeMillis  the current time
+     * @param intervalHistograms the merged latency histograms of the latest completed interval per probe
+     * @param throughput         the throughput of all workers combined in the latest interval
+     * @return true if a step has completed, false otherwise. If the search has not completed yet, the rate needs to be
+     * changed to {@link #getRate()}.
+     */
+    boolean onInterval(long currentTimeMillis, Map<String, Histogram> intervalHistograms, double throughput) {
+        if (completed) {
+            return false;
+        }
+
+        // the same interval is offered until the next one completes
+        if (intervalHistograms != lastIntervalHistograms && !intervalHistograms.isEmpty()) {
+            lastIntervalHistograms = intervalHistograms;
+            if (skipInterval) {
+                skipInterval = false;
+            } else {
+                addInterval(intervalHistograms, throughput);
+            }
+        }
+
+        if (currentTimeMillis - stepStartMillis < stepMillis || stepIntervalCount == 0) {
+            return false;
+        }
+
+        completeStep();
+        startStep(currentTimeMillis);
+        return true;
+    }
+
+    private void addInterval(Map<String, Histogram> intervalHistograms, double throughput) {
+        for (Map.Entry<String, Histogram> entry : intervalHistograms.entrySet()) {
+            Histogram histogram = stepHistograms.get(entry.getKey());
+            if (histogram == null) {
+                stepHistograms.put(entry.getKey(), entry.getValue().copy());
+            } else {
+                histogram.add(entry.getValue());
+            }
+        }
+        stepThroughputSum += throughput;
+        stepIntervalCount++;
+    }
+
+    private void startStep(long currentTimeMillis) {
+        stepStartMillis = currentTimeMillis;
+        skipInterval = true;
+        stepHistograms.clear();
+        stepThroughputSum = 0;
+        stepIntervalCount = 0;
+    }
+
+    private void completeStep() {
+        // just like the performance numbers, the worst probe determines the latency
+        long percentileNanos = 0;
+        for (Histogram histogram : stepHistograms.values()) {
+            percentileNanos = Math.max(percentileNanos, histogram.getValueAtPercentile(sla.getPercentile()));
+        }
+        double throughput = stepThroughputSum / stepIntervalCount;
+        double targetThroughput = rate * workerCount;
+        boolean met = sla.isMet(percentileNanos) && throughput >= MIN_ACHIEVED_RATE * targetThroughput;
+
+        Step step = new Step(rate, targetThroughput, throughput, percentileNanos, met);
+        steps.add(step);
+        persist(step);
+
+        if (met) {
+            highestMetRate = rate;
+        } else {
+            lowestViolatedRate = rate;
+        }
+
+        if (lowestViolatedRate == 0) {
+            rate = rate * 2;
+        } else if (lowestViolatedRate - highestMetRate <= PRECISION * lowestViolatedRate || steps.size() >= MAX_STEPS) {
+            completed = true;
+        } else {
+            rate = (highestMetRate + lowestViolatedRate) / 2;
+        }
+    }
+
+    private void persist(Step step) {
+        if (curveFile == null) {
+            return;
+        }
+        appendText(format("%d,%.2f,%.2f,%.2f,%d,%s%n",
+                steps.size(),
+                step.rate,
+                step.targetThroughput,
+                step.throughput,
+                NANOSECONDS.toMicros(step.percentileNanos),
+                step.met), curveFile);
+    }
+
+    double getRate() {
+        return rate;
+    }
+
+    boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Returns the highest rate per worker that met the SLA.
+     *
+     * @return the highest rate, or 0 if no rate met the SLA
+     */
+    double getHighestMetRate() {
+        return highestMetRate;
+    }
+
+    String formatStep() {
+        Step step = steps.get(steps.size() - 1);
+        return format("Saturation step %d: %s ops/s per worker, %s ops/s achieved, p%s %s µs, SLA %s",
+                steps.size(),
+                formatDouble(step.rate, PerformanceStatsCollector.THROUGHPUT_FORMAT_LENGTH),
+                formatDouble(step.throughput, PerformanceStatsCollector.THROUGHPUT_FORMAT_LENGTH),
+                sla.getPercentile(),
+                formatLong(NANOSECONDS.toMicros(step.percentileNanos), PerformanceStatsCollector.LATENCY_FORMAT_LENGTH),
+                step.met ? "met" : "violated");
+    }
+
+    String formatResult() {
+        StringBuilder sb = new StringBuilder();
+        if (!completed) {
+            sb.append("Saturation search did not complete before the test stopped. ");
+        }
+        if (highestMetRate == 0) {
+            sb.append(format("No rate met the SLA %s", sla));
+        } else {
+            sb.append(format("Saturation point for SLA %s: %.2f ops/s per worker, %.2f ops/s for %d workers",
+                    sla, highestMetRate, highestMetRate * workerCount, workerCount));
+        }
+        return sb.toString();
+    }
+
+    private static final class Step {
+        private final double rate;
+        private final double targetThroughput;
+        private final double throughput;
+        private final long percentileNanos;
+        private final boolean met;
+
+        private Step(double rate, double targetThroughput, double throughput, long percentileNanos, boolean met) {
+            this.rate = rate;
+            this.targetThroughput = targetThroughput;
+            this.throughput = throughput;
+            this.percentileNanos = percentileNanos;
+            this.met = met;
+        }
+    }
+}
@@ -26,10 +26,16 @@ import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
 import com.hazelcast.simulator.worker.operations.CreateTestOperation;
 import com.hazelcast.simulator.worker.operations.StartPhaseOperation;
 import com.hazelcast.simulator.worker.operations.StopRunOperation;
+import com.hazelcast.simulator.worker.operations.UpdateRateOperation;
+import org.HdrHistogram.Histogram;
 import org.apache.log4j.Logger;
 
+import java.io.File;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
@@ -44,6 +50,8 @@ import static com.hazelcast.simulator.common.TestPhase.LOCAL_TEARDOWN;
 import static com.hazelcast.simulator.common.TestPhase.LOCAL_VERIFY;
 import static com.hazelcast.simulator.common.TestPhase.RUN;
 import static com.hazelcast.simulator.common.TestPhase.SETUP;
+import static com.hazelcast.simulator.coordinator.ClusterRateBudget.CLUSTER_RATE_PROPERTY;
+import static com.hazelcast.simulator.coordinator.ClusterRateBudget.GROUP_CLUSTER_RATE_SUFFIX;
 import static com.hazelcast.simulator.coordinator.registry.TestData.CompletedStatus.FAILED;
 import static com.hazelcast.simulator.coordinator.registry.TestData.CompletedStatus.SUCCESS;
 import static com.hazelcast.simulator.utils.CommonUtils.await;
@@ -51,12 +59,17 @@ import static com.hazelcast.simulator.utils.CommonUtils.getElapsedSeconds;
 import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepSeconds;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepUntilMs;
+import static com.hazelcast.simulator.utils.EmptyStatement.ignore;
 import static com.hazelcast.simulator.utils.FormatUtils.formatPercentage;
 import static com.hazelcast.simulator.utils.FormatUtils.padRight;
 import static com.hazelcast.simulator.utils.FormatUtils.secondsToHuman;
+import static com.hazelcast.simulator.utils.PropertyBindingSupport.removeUnderscores;
+import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
+import static java.util.Arrays.asList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -75,6 +88,7 @@ public final class TestCaseRunner {
     private final TestData test;
     private final TestCase testCase;
     private final TestSuite testSuite;
+    private final CoordinatorParameters coordinatorParameters;
     private final CoordinatorClient client;
     private final FailureCollector failureCollector;
     private final PerformanceStatsCollector performanceStatsCollector;
@@ -87,6 +101,9 @@ public final class TestCaseRunner {
     private final int logRunPhaseIntervalSeconds;
     private final List<WorkerData> targets;
     private final WorkerData globalTarget;
+    // the cluster rate budget per execution group
+    private final Map<String, ClusterRateBudget> clusterRateBudgets = new LinkedHashMap<>();
+    private long rebalancedIntervalCount;
 
     @SuppressWarnings("checkstyle:parameternumber")
     public TestCaseRunner(TestData test,
@@ -100,6 +117,7 @@ public final class TestCaseRunner {
         this.test = test;
         this.testCase = test.getTestCase();
         this.testSuite = test.getTestSuite();
+        this.coordinatorParameters = coordinatorParameters;
         this.client = client;
         this.failureCollector = failureCollector;
         this.performanceStatsCollector = performanceStatsCollector;
@@ -123,6 +141,7 @@ public final class TestCaseRunner {
         logDetails();
 
         test.initStartTime();
+        test.setTargets(targets);
         try {
             run0();
         } catch (TestCaseAbortedException e) {
@@ -169,10 +188,73 @@ public final class TestCaseRunner {
 
     private void createTest() {
         log("Starting Test initialization");
-        invokeOnTargets(new CreateTestOperation(testCase));
+        invokeOnTargets(new CreateTestOperation(newWorkerTestCase()));
         log("Completed Test initialization");
     }
 
+    /**
+     * Returns the TestCase to create on the workers. A clusterRatePerSecond is replaced by the ratePerSecond of a single
+     * worker, since the workers only know about their own rate. The same goes for the &lt;group&gt;ClusterRatePerSecond of an
+     * execution group.
+     */
+    private TestCase newWorkerTestCase() {
+        Map<String, String> properties = new HashMap<>(testCase.getProperties());
+        for (Map.Entry<String, String> entry : testCase.getProperties().entrySet()) {
+            String executionGroup = toExecutionGroup(entry.getKey());
+            if (executionGroup != null) {
+                ClusterRateBudget budget = newClusterRateBudget(executionGroup, entry.getKey(), entry.getValue());
+                properties.remove(entry.getKey());
+                properties.put(toPropertyName(executionGroup, "ratePerSecond"), Double.toString(budget.getEvenShare()));
+            }
+        }
+        if (clusterRateBudgets.isEmpty()) {
+            return testCase;
+        }
+
+        test.setClusterRateBudgets(clusterRateBudgets);
+        return new TestCase(testCase.getId(), properties);
+    }
+
+    // returns the execution group of a clusterRatePerSecond property, or null if the property isn't a cluster rate
+    private static String toExecutionGroup(String property) {
+        if (property.equals(CLUSTER_RATE_PROPERTY)) {
+            return "";
+        }
+        if (property.endsWith(GROUP_CLUSTER_RATE_SUFFIX) && property.length() > GROUP_CLUSTER_RATE_SUFFIX.length()) {
+            return property.substring(0, property.length() - GROUP_CLUSTER_RATE_SUFFIX.length());
+        }
+        return null;
+    }
+
+    private ClusterRateBudget newClusterRateBudget(String executionGroup, String property, String clusterRate) {
+        for (String name : asList("ratePerSecond", "interval", "rateSchedule")) {
+            String groupProperty = toPropertyName(executionGroup, name);
+            if (testCase.getProperty(groupProperty) != null) {
+                throw new IllegalArgumentException(format("Test [%s] can't combine %s with %s",
+                        testCase.getId(), property, groupProperty));
+            }
+        }
+
+        if (testSuite.getSaturationSla() != null) {
+            throw new IllegalArgumentException(format("Test [%s] can't combine %s with the saturation search",
+                    testCase.getId(), property));
+        }
+
+        List<SimulatorAddress> addresses = new ArrayList<>(targets.size());
+        for (WorkerData worker : targets) {
+            addresses.add(worker.getAddress());
+        }
+        ClusterRateBudget budget = new ClusterRateBudget(Double.parseDouble(removeUnderscores(clusterRate)), addresses);
+        clusterRateBudgets.put(executionGroup, budget);
+
+        log(format("Splitting %s of %s ops/s over %s workers", property, clusterRate, targets.size()));
+        if (performanceMonitorIntervalSeconds <= 0) {
+            LOGGER.warn(format("Test [%s] %s won't be rebalanced, since WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS is 0",
+                    testCase.getId(), property));
+        }
+        return budget;
+    }
+
     private void invokeOnTargets(SimulatorOperation op) {
         Map<WorkerData, Future> futures = submitToTargets(false, op);
         awaitCompletion(futures);
@@ -194,6 +276,48 @@ public final class TestCaseRunner {
         return futures;
     }
 
+    /**
+     * Submits the phase to all targets, where every worker gets its index within the targets. This makes it possible to
+     * split a partitioned prepare over all workers.
+     */
+    private Map<WorkerData, Future> submitPhaseToTargets(TestPhase phase) {
+        Map<WorkerData, Future> futures = new HashMap<>();
+        int workerIndex = 0;
+        for (WorkerData worker : targets) {
+            Future f = client.submit(worker.getAddress(),
+                    new StartPhaseOperation(phase, testCase.getId(), workerIndex, targetCount));
+            futures.put(worker, f);
+            workerIndex++;
+        }
+        return futures;
+    }
+
+    /**
+     * Logs the total number of items loaded by a partitioned prepare and the load throughput over all workers. The workers
+     * answer the local prepare with their number of prepared items; tests without a partitioned prepare answer "ok".
+     */
+    private void logPreparedItems(Map<WorkerData, Future> futures, long startMs) {
+        long preparedItems = 0;
+        boolean partitioned = false;
+        for (Future f : futures.values()) {
+            try {
+                preparedItems += Long.parseLong(String.valueOf(f.get()));
+                partitioned = true;
+            } catch (NumberFormatException | InterruptedException | ExecutionException e) {
+                // no partitioned prepare on this worker, or the worker failed; which is reported by the failure collector
+                ignore(e);
+            }
+        }
+
+        if (!partitioned) {
+            return;
+        }
+
+        long durationMs = max(1, currentTimeMillis() - startMs);
+        log(format("Prepared %d items over %d workers in %s (%.0f items/s)", preparedItems, futures.size(),
+                secondsToHuman(MILLISECONDS.toSeconds(durationMs)), preparedItems * 1000d / durationMs));
+    }
+
     private void awaitCompletion(Map<WorkerData, Future> futures) {
         for (Map.Entry<WorkerData, Future> entry : futures.entrySet()) {
             Future f = entry.getValue();
@@ -215,11 +339,16 @@ public final class TestCaseRunner {
         log("Starting Test " + phase.desc());
         test.setTestPhase(phase);
 
-        Map<WorkerData, Future> futures = submitToTargets(
-                phase.isGlobal(), new StartPhaseOperation(phase, testCase.getId()));
+        long startMs = currentTimeMillis();
+        Map<WorkerData, Future> futures = phase.isGlobal()
+                ? submitToTargets(true, new StartPhaseOperation(phase, testCase.getId()))
+                : submitPhaseToTargets(phase);
 
         waitForPhaseCompletion(phase, futures);
         log("Completed Test " + phase.desc());
+        if (phase == LOCAL_PREPARE) {
+            logPreparedItems(futures, startMs);
+        }
         waitForGlobalTestPhaseCompletion(phase);
     }
 
@@ -230,10 +359,15 @@ public final class TestCaseRunner {
             return;
         }
 
+        SaturationSearch saturationSearch = newSaturationSearch();
+
         test.setTestPhase(RUN);
         Map<WorkerData, Future> futures = startRun();
 
         long startMs = currentTimeMillis();
+        if (saturationSearch != null) {
+            saturationSearch.start(startMs);
+        }
 
         long durationSeconds = testSuite.getDurationSeconds();
         long durationMs;
@@ -266,9 +400,17 @@ public final class TestCaseRunner {
             }
 
             iteration++;
+            if (!clusterRateBudgets.isEmpty() && performanceMonitorIntervalSeconds > 0) {
+                rebalanceClusterRate();
+            }
             if (iteration % logRunPhaseIntervalSeconds == 0) {
                 logProgress(nowMs - startMs, durationMs);
             }
+
+            if (saturationSearch != null && searchSaturation(saturationSearch, nowMs)) {
+                log("Saturation search completed");
+                break;
+            }
         }
 
         stopRun();
@@ -277,9 +419,98 @@ public final class TestCaseRunner {
 
         logFinalPerformanceInfo(startMs);
 
+        if (saturationSearch != null) {
+            log(saturationSearch.formatResult());
+        }
+
         waitForGlobalTestPhaseCompletion(RUN);
     }
 
+    private SaturationSearch newSaturationSearch() {
+        String sla = testSuite.getSaturationSla();
+        if (sla == null) {
+            return null;
+        }
+
+        if (performanceMonitorIntervalSeconds <= 0) {
+            throw new IllegalStateException("The saturation search needs the performance monitor,"
+                    + " set WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS to a value larger than 0");
+        }
+
+        String ratePerSecond = testCase.getProperty("ratePerSecond");
+        if (ratePerSecond == null) {
+            throw new IllegalArgumentException(format("Test [%s] needs a ratePerSecond property for the saturation search",
+                    testCase.getId()));
+        }
+
+        File curveFile = new File(coordinatorParameters.getOutputDirectory(), "saturation-" + testCase.getId() + ".csv");
+        log(format("Searching the saturation point for SLA %s with steps of %s", sla,
+                secondsToHuman(testSuite.getSaturationStepSeconds())));
+        return new SaturationSearch(
+                LatencySla.parse(sla),
+                Double.parseDouble(removeUnderscores(ratePerSecond)),
+                SECONDS.toMillis(testSuite.getSaturationStepSeconds()),
+                targetCount,
+                curveFile);
+    }
+
+    /**
+     * Feeds the latest performance interval to the saturation search, and changes the rate on the workers if needed.
+     *
+     * @return true if the saturation search has completed, false otherwise
+     */
+    private boolean searchSaturation(SaturationSearch saturationSearch, long nowMs) {
+        String testId = testCase.getId();
+        Map<String, Histogram> histograms = performanceStatsCollector.getIntervalHistograms(testId);
+        double throughput = performanceStatsCollector.get(testId, false).getIntervalThroughput();
+        if (!saturationSearch.onInterval(nowMs, histograms, throughput)) {
+            return false;
+        }
+
+        log(saturationSearch.formatStep());
+        if (saturationSearch.isCompleted()) {
+            return true;
+        }
+
+        log(format("Changing rate to %.2f ops/s per worker", saturationSearch.getRate()));
+        invokeOnTargets(new UpdateRateOperation(testId, saturationSearch.getRate()));
+        return false;
+    }
+
+    // only intervals that all workers have reported are used, so every worker is judged on the same interval
+    private void rebalanceClusterRate() {
+        long completeIntervalCount = performanceStatsCollector.getCompleteIntervalCount(testCase.getId());
+        if (completeIntervalCount == rebalancedIntervalCount) {
+            return;
+        }
+        rebalancedIntervalCount = completeIntervalCount;
+
+        Map<String, Map<SimulatorAddress, Double>> groupThroughputs
+                = performanceStatsCollector.getIntervalGroupThroughputs(testCase.getId());
+        for (Map.Entry<String, ClusterRateBudget> entry : clusterRateBudgets.entrySet()) {
+            String executionGroup = entry.getKey();
+            ClusterRateBudget budget = entry.getValue();
+            Map<SimulatorAddress, Double> throughputs = groupThroughputs.get(executionGroup);
+            Map<SimulatorAddress, Double> rates = budget.rebalance(
+                    throughputs == null ? Collections.<SimulatorAddress, Double>emptyMap() : throughputs);
+            if (rates.isEmpty()) {
+                continue;
+            }
+
+            log(format("Rebalancing %s to %s",
+                    toPropertyName(executionGroup, CLUSTER_RATE_PROPERTY), budget));
+            Map<WorkerData, Future> futures = new HashMap<>();
+            for (WorkerData worker : targets) {
+                Double rate = rates.get(worker.getAddress());
+                if (rate != null) {
+                    futures.put(worker, client.submit(worker.getAddress(),
+                            new UpdateRateOperation(testCase.getId(), executionGroup, rate)));
+                }
+            }
+            awaitCompletion(futures);
+        }
+    }
+
     private boolean isAllDone(Map<WorkerData, Future> futures) {
         for (Future f : futures.values()) {
             if (!f.isDone()) {
@@ -301,6 +532,7 @@ public final class TestCaseRunner {
         if (performanceMonitorIntervalSeconds > 0) {
             LOGGER.info(testCase.getId() + " Waiting for all performance info");
             sleepSeconds(performanceMonitorIntervalSeconds);
+            performanceStatsCollector.completeInterval(testCase.getId(), currentTimeMillis());
 
             String performanceInfo = performanceStatsCollector.detailedPerformanceInfo(testCase.getId(), durationMillis);
             LOGGER.info("Performance " + testCase.getId() + "\n"
@@ -315,6 +547,11 @@ public final class TestCaseRunner {
     private Map<WorkerData, Future> startRun() {
         log(format("Starting run on %s workers", targetType.toString(targetCount)));
         log(format("Test run using workers %s", WorkerData.toAddressString(targets)));
+        List<SimulatorAddress> targetAddresses = new ArrayList<>(targets.size());
+        for (WorkerData worker : targets) {
+            targetAddresses.add(worker.getAddress());
+        }
+        performanceStatsCollector.setIntervalTargets(testCase.getId(), targetAddresses);
         return submitToTargets(false, new StartPhaseOperation(RUN, testCase.getId()));
     }
 
@@ -42,6 +42,8 @@ import static java.util.Collections.singletonMap;
 @SuppressWarnings(value = "checkstyle:methodcount")
 public class TestSuite implements Serializable {
 
+    public static final long DEFAULT_SATURATION_STEP_SECONDS = 60;
+
     private static final Pattern VALID_FILE_NAME_PATTERN = Pattern.compile("^[a-zA-Z0-9-]+$");
 
     private final List<TestCase> testCaseList = new LinkedList<>();
@@ -51,6 +53,9 @@ public class TestSuite implements Serializable {
     // a 'select all' workerQuery by default
     private WorkerQuery workerQuery = new WorkerQuery();
     private boolean verifyEnabled;
+    // the latency SLA for the saturation search, null if there is no saturation search
+    private String saturationSla;
+    private long saturationStepSeconds = DEFAULT_SATURATION_STEP_SECONDS;
 
     public TestSuite() {
     }
@@ -156,6 +161,37 @@ public class TestSuite implements Serializable {
         return durationSeconds;
     }
 
+    /**
+     * Sets the latency SLA for the saturation search, e.g. 'p99<2ms'. If set, the rate of every test is changed while
+     * it is running, to find the highest rate that meets the SLA. See {@link LatencySla}.
+     *
+     * @param saturationSla the SLA or {@code null} to disable the saturation search
+     * @return this
+     */
+    public TestSuite setSaturationSla(String saturationSla) {
+        if (saturationSla != null) {
+            LatencySla.parse(saturationSla);
+        }
+        this.saturationSla = saturationSla;
+        return this;
+    }
+
+    public String getSaturationSla() {
+        return saturationSla;
+    }
+
+    public TestSuite setSaturationStepSeconds(long saturationStepSeconds) {
+        if (saturationStepSeconds < 1) {
+            throw new IllegalArgumentException("saturationStepSeconds must be at least 1, but was " + saturationStepSeconds);
+        }
+        this.saturationStepSeconds = saturationStepSeconds;
+        return this;
+    }
+
+    public long getSaturationStepSeconds() {
+        return saturationStepSeconds;
+    }
+
     public TestSuite setFailFast(boolean failFast) {
         this.failFast = failFast;
         return this;
@@ -205,6 +241,8 @@ public class TestSuite implements Serializable {
                 + ", failFast=" + failFast
                 + ", parallel=" + parallel
                 + ", verifyEnabled=" + verifyEnabled
+                + ", saturationSla=" + saturationSla
+                + ", saturationStepSeconds=" + saturationStepSeconds
                 + ", workerQuery=" + workerQuery
                 + ", testCaseList=" + testCaseList
                 + '}';
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.coordinator.operations;
+
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
+
+/**
+ * Changes the rate and/or the number of threads of a running test, without restarting the workers.
+ */
+public class RcTestUpdateOperation implements SimulatorOperation {
+
+    private final String testId;
+    private final String executionGroup;
+    private final Double ratePerSecond;
+    private final Integer threadCount;
+
+    public RcTestUpdateOperation(String testId, String executionGroup, Double ratePerSecond, Integer threadCount) {
+        this.testId = testId;
+        this.executionGroup = executionGroup;
+        this.ratePerSecond = ratePerSecond;
+        this.threadCount = threadCount;
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    /**
+     * Returns the execution group to update.
+     *
+     * @return the execution group or {@code null} if all execution groups should be updated
+     */
+    public String getExecutionGroup() {
+        return executionGroup;
+    }
+
+    /**
+     * Returns the new rate per worker.
+     *
+     * @return the number of requests per second of a single worker or {@code null} if the rate should not be changed
+     */
+    public Double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    /**
+     * Returns the new number of threads per worker.
+     *
+     * @return the number of threads or {@code null} if the number of threads should not be changed
+     */
+    public Integer getThreadCount() {
+        return threadCount;
+    }
+}
@@ -17,8 +17,13 @@ package com.hazelcast.simulator.coordinator.registry;
 
 import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.coordinator.ClusterRateBudget;
 import com.hazelcast.simulator.coordinator.TestSuite;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 import static com.hazelcast.simulator.coordinator.registry.TestData.CompletedStatus.FAILED;
 import static com.hazelcast.simulator.coordinator.registry.TestData.CompletedStatus.IN_PROGRESS;
 import static com.hazelcast.simulator.coordinator.registry.TestData.CompletedStatus.SUCCESS;
@@ -38,6 +43,8 @@ public class TestData {
     private volatile TestPhase testPhase;
     private volatile boolean stopRequested;
     private volatile CompletedStatus completedStatus = IN_PROGRESS;
+    private volatile List<WorkerData> targets = Collections.emptyList();
+    private volatile Map<String, ClusterRateBudget> clusterRateBudgets = Collections.emptyMap();
 
     TestData(int testIndex,  TestCase testCase, TestSuite testSuite) {
         this.testIndex = testIndex;
@@ -69,6 +76,36 @@ public class TestData {
         this.testPhase = testPhase;
     }
 
+    public TestPhase getTestPhase() {
+        return testPhase;
+    }
+
+    public void setTargets(List<WorkerData> targets) {
+        this.targets = targets;
+    }
+
+    /**
+     * Returns the workers running this test.
+     *
+     * @return the workers; empty if the test hasn't started yet
+     */
+    public List<WorkerData> getTargets() {
+        return targets;
+    }
+
+    public void setClusterRateBudgets(Map<String, ClusterRateBudget> clusterRateBudgets) {
+        this.clusterRateBudgets = clusterRateBudgets;
+    }
+
+    /**
+     * Returns the rate budgets of this test for the whole cluster.
+     *
+     * @return map with the execution group as key and its budget as value; empty if the test has no clusterRatePerSecond
+     */
+    public Map<String, ClusterRateBudget> getClusterRateBudgets() {
+        return clusterRateBudgets;
+    }
+
     public int getTestIndex() {
         return testIndex;
     }
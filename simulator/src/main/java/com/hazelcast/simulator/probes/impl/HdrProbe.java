@@ -16,13 +16,22 @@
 package com.hazelcast.simulator.probes.impl;
 
 import com.hazelcast.simulator.probes.Probe;
+import org.HdrHistogram.Histogram;
 import org.HdrHistogram.Recorder;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import static java.util.concurrent.TimeUnit.HOURS;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 
 /**
  * HDR-Histogram implementation of the {@link Probe}.
+ *
+ * All threads recording into a HdrProbe share the same {@link Recorder}. To prevent contention, a thread that records many
+ * values can get its own {@link SingleWriterHdrProbe} using {@link #newSingleWriterProbe()}. The values of these probes are
+ * merged when the {@link #getIntervalHistogram() interval histogram} is taken; at that moment the closed single writer probes
+ * are removed, so the probes of stopped threads don't accumulate.
  */
 public class HdrProbe implements Probe {
     // we want to track up to an hour.
@@ -34,17 +43,28 @@ public class HdrProbe implements Probe {
     // since we care about us, the value should be 1000 according to the javadoc of Recorder.
     private static final int NUMBER_OF_SIGNIFICANT_VALUE_DIGITS = 3;
 
-    // these settings come the website; just above the following link
-    //https://github.com/HdrHistogram/HdrHistogram#histogram-variants-and-internal-representation
-    private final Recorder recorder = new Recorder(
-            LOWEST_DISCERNIBLE_VALUE,
-            HIGHEST_TRACKABLE_VALUE,
-            NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
-
+    private final Recorder recorder;
+    private final long lowestDiscernibleValue;
+    private final long highestTrackableValue;
+    private final int numberOfSignificantValueDigits;
     private final boolean partOfTotalThroughput;
+    private final List<SingleWriterHdrProbe> singleWriterProbes = new CopyOnWriteArrayList<>();
 
     public HdrProbe(boolean partOfTotalThroughput) {
+        // these settings come the website; just above the following link
+        //https://github.com/HdrHistogram/HdrHistogram#histogram-variants-and-internal-representation
+        this(partOfTotalThroughput, LOWEST_DISCERNIBLE_VALUE, HIGHEST_TRACKABLE_VALUE, NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+    }
+
+    protected HdrProbe(boolean partOfTotalThroughput,
+                       long lowestDiscernibleValue,
+                       long highestTrackableValue,
+                       int numberOfSignificantValueDigits) {
         this.partOfTotalThroughput = partOfTotalThroughput;
+        this.lowestDiscernibleValue = lowestDiscernibleValue;
+        this.highestTrackableValue = highestTrackableValue;
+        this.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+        this.recorder = new Recorder(lowestDiscernibleValue, highestTrackableValue, numberOfSignificantValueDigits);
     }
 
     @Override
@@ -52,6 +72,18 @@ public class HdrProbe implements Probe {
         return partOfTotalThroughput;
     }
 
+    /**
+     * Checks if the recorded values are latencies in nanoseconds.
+     *
+     * Only latency probes are taken into account when the latency of a test is summarized; other probes, e.g. the
+     * {@link InFlightProbe}, are only written to their own histogram files.
+     *
+     * @return {@code true} if this probe records latencies, {@code false} otherwise
+     */
+    public boolean isLatencyProbe() {
+        return true;
+    }
+
     @Override
     public void done(long startNanos) {
         if (startNanos <= 0) {
@@ -64,8 +96,8 @@ public class HdrProbe implements Probe {
 
     @Override
     public void recordValue(long latencyNanos) {
-        if (latencyNanos > HIGHEST_TRACKABLE_VALUE) {
-            latencyNanos = HIGHEST_TRACKABLE_VALUE;
+        if (latencyNanos > highestTrackableValue) {
+            latencyNanos = highestTrackableValue;
         }
         recorder.recordValue(latencyNanos);
     }
@@ -74,8 +106,54 @@ public class HdrProbe implements Probe {
         return recorder;
     }
 
+    /**
+     * Creates a {@link SingleWriterHdrProbe} which values are merged into this probe.
+     *
+     * The returned probe must only be used by a single thread.
+     *
+     * @return the created probe
+     */
+    public SingleWriterHdrProbe newSingleWriterProbe() {
+        SingleWriterHdrProbe probe = new SingleWriterHdrProbe(
+                partOfTotalThroughput, lowestDiscernibleValue, highestTrackableValue, numberOfSignificantValueDigits);
+        singleWriterProbes.add(probe);
+        return probe;
+    }
+
+    /**
+     * Gets the histogram of all values recorded since the previous call, including the values of all
+     * {@link SingleWriterHdrProbe} instances created by this probe.
+     *
+     * @return the interval histogram
+     */
+    public Histogram getIntervalHistogram() {
+        Histogram intervalHistogram = recorder.getIntervalHistogram();
+        drainSingleWriterProbes(intervalHistogram);
+        return intervalHistogram;
+    }
+
     @Override
     public void reset() {
         recorder.reset();
+        drainSingleWriterProbes(null);
+    }
+
+    private void drainSingleWriterProbes(Histogram target) {
+        for (SingleWriterHdrProbe probe : singleWriterProbes) {
+            // closed is read before draining, so the last values of a closed probe are drained before it is removed
+            boolean closed = probe.isClosed();
+            if (target == null) {
+                probe.reset();
+            } else {
+                probe.addIntervalHistogramTo(target);
+            }
+            if (closed) {
+                singleWriterProbes.remove(probe);
+            }
+        }
+    }
+
+    int singleWriterProbeCount() {
+        return singleWriterProbes.size();
     }
 }
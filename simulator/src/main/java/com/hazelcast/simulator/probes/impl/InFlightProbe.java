@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes.impl;
+
+/**
+ * A {@link HdrProbe} that records the number of in flight asynchronous calls instead of a latency.
+ *
+ * The depth is recorded by the timestep thread every time it issues an asynchronous call, so the histogram shows how many
+ * calls were outstanding when new calls were made. Unlike the latency probes, every value is tracked with full precision.
+ */
+public class InFlightProbe extends HdrProbe {
+
+    static final long HIGHEST_TRACKABLE_DEPTH = Integer.MAX_VALUE;
+
+    private static final long LOWEST_DISCERNIBLE_DEPTH = 1;
+    private static final int NUMBER_OF_SIGNIFICANT_VALUE_DIGITS = 3;
+
+    public InFlightProbe() {
+        super(false, LOWEST_DISCERNIBLE_DEPTH, HIGHEST_TRACKABLE_DEPTH, NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+    }
+
+    @Override
+    public boolean isLatencyProbe() {
+        return false;
+    }
+}
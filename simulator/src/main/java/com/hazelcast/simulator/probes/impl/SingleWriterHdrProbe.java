@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.probes.impl;
+
+import com.hazelcast.simulator.probes.Probe;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+
+/**
+ * A {@link Probe} that is owned by a single thread, created using {@link HdrProbe#newSingleWriterProbe()}.
+ *
+ * Recording a value only touches the {@link SingleWriterRecorder} of the owning thread, so there are no writes to cache lines
+ * that are shared with other threads. The values are merged into the owning {@link HdrProbe} when its interval histogram is
+ * taken.
+ *
+ * Once the owning thread stops recording, it should {@link #close()} the probe; the owning HdrProbe removes a closed probe
+ * after it has taken its remaining values.
+ */
+public final class SingleWriterHdrProbe implements Probe {
+
+    private final SingleWriterRecorder recorder;
+    private final long highestTrackableValue;
+    private final boolean partOfTotalThroughput;
+    private volatile boolean closed;
+    // only accessed by the thread that takes the interval histograms
+    private Histogram intervalHistogram;
+
+    SingleWriterHdrProbe(boolean partOfTotalThroughput,
+                         long lowestDiscernibleValue,
+                         long highestTrackableValue,
+                         int numberOfSignificantValueDigits) {
+        this.partOfTotalThroughput = partOfTotalThroughput;
+        this.highestTrackableValue = highestTrackableValue;
+        this.recorder = new SingleWriterRecorder(
+                lowestDiscernibleValue, highestTrackableValue, numberOfSignificantValueDigits);
+    }
+
+    @Override
+    public boolean isPartOfTotalThroughput() {
+        return partOfTotalThroughput;
+    }
+
+    @Override
+    public void done(long startNanos) {
+        if (startNanos <= 0) {
+            throw new IllegalArgumentException("startedNanos has to be a positive number");
+        }
+
+        long nowNanos = System.nanoTime();
+        recordValue(nowNanos - startNanos);
+    }
+
+    @Override
+    public void recordValue(long latencyNanos) {
+        if (latencyNanos > highestTrackableValue) {
+            latencyNanos = highestTrackableValue;
+        }
+        recorder.recordValue(latencyNanos);
+    }
+
+    void addIntervalHistogramTo(Histogram target) {
+        intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+        target.add(intervalHistogram);
+    }
+
+    /**
+     * Signals that the owning thread will not record any more values.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Discards the values recorded so far.
+     *
+     * The {@link SingleWriterRecorder#reset()} may only be called by the writer, so the values are discarded by taking the
+     * interval histogram; just like the owning HdrProbe does when its interval histogram is taken.
+     */
+    @Override
+    public void reset() {
+        intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+    }
+}
@@ -39,6 +39,10 @@ public class ConnectionFactory {
         this.maxReconnectAttempts = maxReconnectAttempts;
     }
 
+    public int getMaxReconnectAttempts() {
+        return maxReconnectAttempts;
+    }
+
     public Connection newConnection(String brokerURL, ExceptionListener exceptionListener) throws JMSException {
         String finalBrokerURL = toUrl(brokerURL);
 
@@ -19,8 +19,9 @@ import com.hazelcast.simulator.common.FailureType;
 import com.hazelcast.simulator.coordinator.FailureCollector;
 import com.hazelcast.simulator.coordinator.operations.FailureOperation;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.protocol.nio.Frame;
+import com.hazelcast.simulator.protocol.nio.FrameChannel;
 import com.hazelcast.simulator.protocol.operation.OperationCodec;
-import com.hazelcast.simulator.protocol.operation.OperationType;
 import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
 import com.hazelcast.simulator.utils.SimulatorUtils;
 import org.apache.log4j.Logger;
@@ -34,6 +35,7 @@ import javax.jms.MessageProducer;
 import javax.jms.Queue;
 import javax.jms.Session;
 import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -49,7 +51,6 @@ import java.util.concurrent.TimeoutException;
 
 import static com.hazelcast.simulator.common.SimulatorProperties.DEFAULT_AGENT_PORT;
 import static com.hazelcast.simulator.protocol.core.SimulatorAddress.coordinatorAddress;
-import static com.hazelcast.simulator.protocol.operation.OperationType.getOperationType;
 import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static com.hazelcast.simulator.utils.UuidUtil.newUnsecureUuidString;
 import static java.lang.String.format;
@@ -59,6 +60,12 @@ import static javax.jms.DeliveryMode.NON_PERSISTENT;
 
 /**
  * Responsible for connecting to the agents and sending operations or invoking operations.
+ *
+ * Depending on the {@link Transport} the connection to an agent is a {@link RemoteBroker} for ActiveMQ or a
+ * {@link RelayConnection} for NIO.
+ *
+ * For both transports the received operations are processed by a single thread, the response handler thread, so the
+ * {@link OperationProcessor} doesn't need to be thread-safe.
  */
 public class CoordinatorClient implements Closeable {
 
@@ -66,7 +73,7 @@ public class CoordinatorClient implements Closeable {
 
     private final BlockingQueue<SendTask> taskQueue = new LinkedBlockingQueue<>();
     // the key is the agent-index
-    private final ConcurrentMap<Integer, RemoteBroker> remoteBrokers
+    private final ConcurrentMap<Integer, AgentConnection> remoteBrokers
             = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, FutureImpl> futures = new ConcurrentHashMap<>();
     private final SendThread sendThread;
@@ -75,6 +82,7 @@ public class CoordinatorClient implements Closeable {
     private OperationProcessor processor;
     private int remoteBrokerPort = DEFAULT_AGENT_PORT;
     private FailureCollector failureCollector;
+    private Transport transport = Transport.ACTIVEMQ;
     private volatile boolean stop;
 
     public CoordinatorClient() {
@@ -91,16 +99,25 @@ public class CoordinatorClient implements Closeable {
         return this;
     }
 
+    public CoordinatorClient setTransport(Transport transport) {
+        this.transport = transport;
+        return this;
+    }
+
     public CoordinatorClient setAgentBrokerPort(int port) {
         this.remoteBrokerPort = port;
         return this;
     }
 
-    public CoordinatorClient connectToAgentBroker(SimulatorAddress agentAddress, String agentIp) throws JMSException {
+    public CoordinatorClient connectToAgentBroker(SimulatorAddress agentAddress, String agentIp)
+            throws JMSException, IOException {
         if (agentIp.equals("localhost")) {
             agentIp = SimulatorUtils.localIp();
         }
-        remoteBrokers.put(agentAddress.getAgentIndex(), new RemoteBroker(agentIp, agentAddress));
+        AgentConnection connection = transport == Transport.NIO
+                ? new RelayConnection(agentIp, agentAddress)
+                : new RemoteBroker(agentIp, agentAddress);
+        remoteBrokers.put(agentAddress.getAgentIndex(), connection);
         return this;
     }
 
@@ -127,7 +144,7 @@ public class CoordinatorClient implements Closeable {
             LOGGER.debug("sending " + op + " to " + target);
         }
 
-        RemoteBroker remoteBroker = getRemoteBroker(target);
+        AgentConnection remoteBroker = getRemoteBroker(target);
 
         FutureImpl future = new FutureImpl(remoteBroker);
         futures.put(future.messageId, future);
@@ -140,7 +157,7 @@ public class CoordinatorClient implements Closeable {
     public List<String> invokeOnAllAgents(SimulatorOperation op, long timeoutMillis)
             throws TimeoutException, InterruptedException, ExecutionException {
         Map<SimulatorAddress, Future<String>> futures = new HashMap<>();
-        for (RemoteBroker broker : remoteBrokers.values()) {
+        for (AgentConnection broker : remoteBrokers.values()) {
             SimulatorAddress agent = broker.agentAddress;
             futures.put(agent, submit(agent, op));
         }
@@ -162,8 +179,8 @@ public class CoordinatorClient implements Closeable {
         return responses;
     }
 
-    private RemoteBroker getRemoteBroker(SimulatorAddress target) {
-        RemoteBroker broker = remoteBrokers.get(target.getAgentIndex());
+    private AgentConnection getRemoteBroker(SimulatorAddress target) {
+        AgentConnection broker = remoteBrokers.get(target.getAgentIndex());
 
         if (broker == null) {
             throw new IllegalArgumentException("Could not find a broker for [" + target + "]");
@@ -182,12 +199,56 @@ public class CoordinatorClient implements Closeable {
         remoteBrokers.clear();
     }
 
+    private void complete(String correlationId, boolean error, String payload, Object message) {
+        FutureImpl future = futures.remove(correlationId);
+        if (future == null) {
+            LOGGER.debug("No future for " + correlationId + "\n" + message);
+        } else if (error) {
+            future.complete(new Exception(payload));
+        } else {
+            future.complete(payload);
+        }
+    }
+
+    private void process(SimulatorOperation op, SimulatorAddress source) throws Exception {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Received " + op);
+        }
+
+        processor.process(op, source, EmptyPromise.INSTANCE);
+    }
+
+    private void connectionLost(AgentConnection connection, boolean connected, Exception e) {
+        SimulatorAddress agentAddress = connection.agentAddress;
+        connection.close();
+
+        if (connected) {
+            LOGGER.fatal("Lost connection to agent [" + agentAddress + "], cause [" + e.getMessage() + "]");
+        } else {
+            LOGGER.fatal("Failed to connect to agent [" + agentAddress + "], cause [" + e.getMessage() + "]");
+        }
+        LOGGER.debug(e.getMessage(), e);
+
+        remoteBrokers.remove(agentAddress.getAgentIndex());
+
+        FailureOperation failureOperation = new FailureOperation(
+                "Lost connection to " + agentAddress,
+                FailureType.MESSAGING_EXCEPTION,
+                null,
+                agentAddress.toString(),
+                e);
+
+        if (failureCollector != null) {
+            failureCollector.notify(failureOperation);
+        }
+    }
+
     static class FutureImpl implements Future<String> {
-        private final RemoteBroker agentBroker;
+        private final AgentConnection agentBroker;
         private final String messageId = newUnsecureUuidString();
         private volatile Object result;
 
-        public FutureImpl(RemoteBroker agentBroker) {
+        public FutureImpl(AgentConnection agentBroker) {
             this.agentBroker = agentBroker;
         }
 
@@ -256,41 +317,20 @@ public class CoordinatorClient implements Closeable {
 
     class SendTask {
 
-        private final RemoteBroker remoteBroker;
+        private final AgentConnection remoteBroker;
         private final SimulatorOperation op;
         private final String requestId;
         private final SimulatorAddress target;
 
-        SendTask(SimulatorAddress target, RemoteBroker remoteBroker, SimulatorOperation op, String requestId) {
+        SendTask(SimulatorAddress target, AgentConnection remoteBroker, SimulatorOperation op, String requestId) {
             this.target = target;
             this.remoteBroker = remoteBroker;
             this.op = op;
             this.requestId = requestId;
         }
 
-        private void run() throws JMSException {
-            Message message = remoteBroker.session.createMessage();
-
-            if (requestId != null) {
-                message.setJMSReplyTo(remoteBroker.replyQueue);
-                message.setJMSCorrelationID(requestId);
-            }
-
-            message.setStringProperty("source", coordinatorAddress().toString());
-            message.setStringProperty("target", target.toString());
-            message.setStringProperty("payload", OperationCodec.toJson(op));
-            message.setIntProperty("operationType", getOperationType(op).toInt());
-
-            switch (target.getAddressLevel()) {
-                case AGENT:
-                    remoteBroker.agentProducer.send(message);
-                    break;
-                case WORKER:
-                    remoteBroker.workerProducer.send(message);
-                    break;
-                default:
-                    throw new RuntimeException("unhandled target:" + target);
-            }
+        private void run() throws Exception {
+            remoteBroker.send(target, op, requestId);
         }
     }
 
@@ -309,8 +349,33 @@ public class CoordinatorClient implements Closeable {
         }
     }
 
-    final class RemoteBroker implements Closeable, ExceptionListener {
-        private volatile boolean closed;
+    /**
+     * The connection to a single agent.
+     */
+    abstract static class AgentConnection implements Closeable {
+        protected final SimulatorAddress agentAddress;
+        protected volatile boolean closed;
+
+        AgentConnection(SimulatorAddress agentAddress) {
+            this.agentAddress = agentAddress;
+        }
+
+        abstract void send(SimulatorAddress target, SimulatorOperation op, String requestId) throws Exception;
+
+        /**
+         * Processes the received replies and messages if the connection doesn't have its own thread to do so.
+         *
+         * @return {@code true} if anything was processed, {@code false} otherwise
+         */
+        boolean poll() {
+            return false;
+        }
+
+        @Override
+        public abstract void close();
+    }
+
+    final class RemoteBroker extends AgentConnection implements ExceptionListener {
         private final Session session;
         private final Connection connection;
         private final MessageProducer agentProducer;
@@ -319,11 +384,10 @@ public class CoordinatorClient implements Closeable {
         private final Queue replyQueue;
         private final MessageConsumer replyQueueConsumer;
         private final MessageConsumer coordinatorConsumer;
-        private final SimulatorAddress agentAddress;
         private boolean connected;
 
         private RemoteBroker(String ip, SimulatorAddress agentAddress) throws JMSException {
-            this.agentAddress = agentAddress;
+            super(agentAddress);
 
             connection = connectionFactory.newConnection("tcp://" + ip + ":" + remoteBrokerPort, this);
             connected = true;
@@ -344,30 +408,83 @@ public class CoordinatorClient implements Closeable {
         }
 
         @Override
-        public void onException(JMSException e) {
-            close();
+        void send(SimulatorAddress target, SimulatorOperation op, String requestId) throws JMSException {
+            Message message = OperationCodec.toMessage(session, op);
 
-            if (connected) {
-                LOGGER.fatal("Lost connection to agent [" + agentAddress + "], cause [" + e.getMessage() + "]");
-            } else {
-                LOGGER.fatal("Failed to connect to agent [" + agentAddress + "], cause [" + e.getMessage() + "]");
+            if (requestId != null) {
+                message.setJMSReplyTo(replyQueue);
+                message.setJMSCorrelationID(requestId);
+            }
+
+            message.setStringProperty("source", coordinatorAddress().toString());
+            message.setStringProperty("target", target.toString());
+
+            switch (target.getAddressLevel()) {
+                case AGENT:
+                    agentProducer.send(message);
+                    break;
+                case WORKER:
+                    workerProducer.send(message);
+                    break;
+                default:
+                    throw new RuntimeException("unhandled target:" + target);
+            }
+        }
+
+        @Override
+        boolean poll() {
+            boolean hasResponse = processResponses();
+            if (processMessages()) {
+                hasResponse = true;
             }
-            LOGGER.debug(e.getMessage(), e);
+            return hasResponse;
+        }
 
-            remoteBrokers.remove(agentAddress.getAgentIndex());
+        private boolean processMessages() {
+            try {
+                Message message = coordinatorConsumer.receiveNoWait();
+                if (message == null) {
+                    return false;
+                }
+
+                SimulatorOperation op = OperationCodec.fromMessage(message);
+                SimulatorAddress source = SimulatorAddress.fromString(message.getStringProperty("source"));
+                process(op, source);
+                return true;
+            } catch (Exception e) {
+                if (!stop) {
+                    //todo: feed into failure collector
+                    LOGGER.fatal(e.getMessage(), e);
+                }
+                return false;
+            }
+        }
 
-            FailureOperation failureOperation = new FailureOperation(
-                    "Lost connection to " + agentAddress,
-                    FailureType.MESSAGING_EXCEPTION,
-                    null,
-                    agentAddress.toString(),
-                    e);
+        private boolean processResponses() {
+            try {
+                Message replyMessage = replyQueueConsumer.receiveNoWait();
+                if (replyMessage == null) {
+                    return false;
+                }
 
-            if (failureCollector != null) {
-                failureCollector.notify(failureOperation);
+                boolean error = replyMessage.getBooleanProperty("error");
+                String payload = replyMessage.getStringProperty(error ? "message" : "payload");
+                complete(replyMessage.getJMSCorrelationID(), error, payload, replyMessage);
+                return true;
+            } catch (Exception e) {
+                if (!stop) {
+                    //todo: feed into failure collector
+                    LOGGER.fatal(e);
+                }
+                return false;
             }
         }
 
+        @Override
+        public void onException(JMSException e) {
+            connectionLost(this, connected, e);
+        }
+
         @Override
         public void close() {
             closed = true;
@@ -381,6 +498,75 @@ public class CoordinatorClient implements Closeable {
         }
     }
 
+    /**
+     * The connection to the {@link com.hazelcast.simulator.protocol.nio.Relay} of an agent. The replies are completed by the
+     * reader thread of the {@link FrameChannel}. The operations are queued and processed by the response handler thread,
+     * just like the messages of the {@link RemoteBroker}. If the queue is full, the reader thread blocks, so the relay
+     * stops sending to the coordinator instead of the coordinator running out of memory.
+     */
+    final class RelayConnection extends AgentConnection implements FrameChannel.FrameHandler {
+        private static final int MAX_PENDING_OPERATIONS = 1024;
+
+        private final String source = coordinatorAddress().toString();
+        private final BlockingQueue<Frame> operationQueue = new LinkedBlockingQueue<>(MAX_PENDING_OPERATIONS);
+        private final FrameChannel channel;
+
+        private RelayConnection(String ip, SimulatorAddress agentAddress) throws IOException {
+            super(agentAddress);
+            this.channel = new FrameChannel(source, ip, remoteBrokerPort, this)
+                    .connect(connectionFactory.getMaxReconnectAttempts());
+
+            LOGGER.info(format("Successfully connected to agent [%s]", agentAddress));
+        }
+
+        @Override
+        void send(SimulatorAddress target, SimulatorOperation op, String requestId) throws IOException {
+            channel.send(Frame.operation(source, target.toString(), requestId, op));
+        }
+
+        @Override
+        public void onFrame(Frame frame) throws Exception {
+            switch (frame.getType()) {
+                case Frame.REPLY:
+                    complete(frame.getCorrelationId(), frame.isError(), frame.getReply(), frame);
+                    break;
+                case Frame.OPERATION:
+                    operationQueue.put(frame);
+                    break;
+                default:
+                    LOGGER.warn("Ignoring unexpected " + frame);
+            }
+        }
+
+        @Override
+        boolean poll() {
+            Frame frame = operationQueue.poll();
+            if (frame == null) {
+                return false;
+            }
+
+            try {
+                process(frame.getOperation(), SimulatorAddress.fromString(frame.getSource()));
+            } catch (Exception e) {
+                if (!stop) {
+                    LOGGER.fatal(e.getMessage(), e);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void onConnectionLost(IOException cause) {
+            connectionLost(this, true, cause);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            channel.close();
+        }
+    }
+
     private class ResponseHandlerThread extends Thread {
 
         private static final int DELAY_MILLIS = 100;
@@ -394,11 +580,8 @@ public class CoordinatorClient implements Closeable {
                         checkDeadFutures();
 
                         hasResponse = false;
-                        for (RemoteBroker remoteBroker : remoteBrokers.values()) {
-                            if (processResponses(remoteBroker)) {
-                                hasResponse = true;
-                            }
-                            if (processMessages(remoteBroker)) {
+                        for (AgentConnection connection : remoteBrokers.values()) {
+                            if (connection.poll()) {
                                 hasResponse = true;
                             }
                         }
@@ -423,63 +606,5 @@ public class CoordinatorClient implements Closeable {
                 }
             }
         }
-
-        private boolean processMessages(RemoteBroker remoteBroker) {
-            try {
-                Message message = remoteBroker.coordinatorConsumer.receiveNoWait();
-                if (message == null) {
-                    return false;
-                }
-
-                OperationType operationType = OperationType.fromInt(message.getIntProperty("operationType"));
-                String operationData = message.getStringProperty("payload");
-
-                SimulatorOperation op = OperationCodec.fromJson(operationData, operationType.getClassType());
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("Received " + op);
-                }
-
-                SimulatorAddress source = SimulatorAddress.fromString(message.getStringProperty("source"));
-
-                processor.process(op, source, EmptyPromise.INSTANCE);
-                return true;
-            } catch (Exception e) {
-                if (!stop) {
-                    //todo: feed into failure collector
-                    LOGGER.fatal(e.getMessage(), e);
-                }
-                return false;
-            }
-        }
-
-        private boolean processResponses(RemoteBroker remoteBroker) {
-            try {
-                Message replyMessage = remoteBroker.replyQueueConsumer.receiveNoWait();
-                if (replyMessage == null) {
-                    return false;
-                }
-
-                String correlationId = replyMessage.getJMSCorrelationID();
-                FutureImpl future = futures.remove(correlationId);
-                if (future == null) {
-                    LOGGER.debug("No future for " + correlationId + "\n" + replyMessage);
-                } else {
-                    boolean error = replyMessage.getBooleanProperty("error");
-                    if (error) {
-                        String message = replyMessage.getStringProperty("message");
-                        future.complete(new Exception(message));
-                    } else {
-                        future.complete(replyMessage.getStringProperty("payload"));
-                    }
-                }
-                return true;
-            } catch (Exception e) {
-                if (!stop) {
-                    //todo: feed into failure collector
-                    LOGGER.fatal(e);
-                }
-                return false;
-            }
-        }
     }
 }
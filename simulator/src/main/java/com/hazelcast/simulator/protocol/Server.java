@@ -16,8 +16,9 @@
 package com.hazelcast.simulator.protocol;
 
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.protocol.nio.Frame;
+import com.hazelcast.simulator.protocol.nio.FrameChannel;
 import com.hazelcast.simulator.protocol.operation.OperationCodec;
-import com.hazelcast.simulator.protocol.operation.OperationType;
 import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
 import org.apache.log4j.Logger;
 
@@ -31,9 +32,13 @@ import javax.jms.MessageProducer;
 import javax.jms.Session;
 import javax.jms.Topic;
 import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
 
 import static com.hazelcast.simulator.common.SimulatorProperties.DEFAULT_AGENT_PORT;
-import static com.hazelcast.simulator.protocol.operation.OperationType.getOperationType;
+import static com.hazelcast.simulator.protocol.core.SimulatorAddress.coordinatorAddress;
 import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
 import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
 import static com.hazelcast.simulator.utils.SimulatorUtils.localIp;
@@ -48,6 +53,9 @@ import static javax.jms.DeliveryMode.NON_PERSISTENT;
  *
  * If you are a client, this is the class you want to study thoroughly. It contains most of the logic needed for understanding
  * how to integrate your client.
+ *
+ * With the {@link Transport#NIO} transport the server doesn't use JMS, but connects with a {@link FrameChannel} to the
+ * {@link com.hazelcast.simulator.protocol.nio.Relay} of the agent; the brokerURL is then the address of the relay.
  */
 public class Server implements Closeable {
     private static final Logger LOGGER = Logger.getLogger(Server.class);
@@ -59,11 +67,19 @@ public class Server implements Closeable {
     private OperationProcessor processor;
     private MessageConsumer consumer;
     private Session session;
+    // a JMS session may only be used by a single thread; the session above belongs to the ServerThread. So messages are
+    // send using their own session and producers, which are created once and guarded by the sendLock.
+    private final Object sendLock = new Object();
+    private final Map<Destination, MessageProducer> replyProducers = new HashMap<>();
+    private Session sendSession;
+    private MessageProducer coordinatorProducer;
     private Topic destination;
     private Connection connection;
     private String brokerURL;
     private String selfAddressString;
     private ExceptionListener exceptionListener = e -> LOGGER.error("JMS Exception occurred", e);
+    private Transport transport = Transport.ACTIVEMQ;
+    private FrameChannel frameChannel;
 
     private volatile boolean stop;
 
@@ -105,6 +121,11 @@ public class Server implements Closeable {
         return this;
     }
 
+    public Server setTransport(Transport transport) {
+        this.transport = checkNotNull(transport, "transport can't be null");
+        return this;
+    }
+
     public Server setBrokerURL(String brokerURL) {
         this.brokerURL = brokerURL;
         return this;
@@ -118,11 +139,20 @@ public class Server implements Closeable {
         return connectionFactory;
     }
 
+    /**
+     * Returns the JMS connection of this server.
+     *
+     * @return the connection or {@code null} if the {@link Transport#NIO} transport is used
+     */
     public Connection getConnection() {
         return connection;
     }
 
     public Server start() {
+        if (transport == Transport.NIO) {
+            return startNio();
+        }
+
         LOGGER.info("Starting server [" + brokerURL + "] on topic [" + topic + "]");
 
         try {
@@ -135,6 +165,11 @@ public class Server implements Closeable {
             String selector = "target='" + selfAddress + "'";
             LOGGER.info(format("Using messageSelector [%s]", selector));
             this.consumer = session.createConsumer(destination, selector);
+
+            this.sendSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            this.coordinatorProducer = sendSession.createProducer(sendSession.createTopic("coordinator"));
+            coordinatorProducer.setDeliveryMode(NON_PERSISTENT);
+
             serverThread.start();
 
             LOGGER.info("Successfully started server for " + selfAddressString);
@@ -146,11 +181,27 @@ public class Server implements Closeable {
         }
     }
 
+    private Server startNio() {
+        LOGGER.info("Starting server [" + brokerURL + "] using the NIO transport");
+
+        try {
+            URI uri = URI.create(brokerURL);
+            this.frameChannel = new FrameChannel(selfAddressString, uri.getHost(), uri.getPort(), new ServerFrameHandler())
+                    .connect(connectionFactory.getMaxReconnectAttempts());
+
+            LOGGER.info("Successfully started server for " + selfAddressString);
+            return this;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public void close() {
         stop = true;
         serverThread.interrupt();
         closeQuietly(connection);
+        closeQuietly(frameChannel);
         LOGGER.info("Server Stopped");
     }
 
@@ -160,19 +211,35 @@ public class Server implements Closeable {
                 LOGGER.debug("sending [" + op + "]");
             }
 
-            Destination topic = session.createTopic("coordinator");
-            MessageProducer producer = session.createProducer(topic);
-            producer.setDeliveryMode(NON_PERSISTENT);
+            if (frameChannel != null) {
+                frameChannel.send(Frame.operation(selfAddressString, coordinatorAddress().toString(), null, op));
+                return;
+            }
 
-            Message message = session.createMessage();
+            synchronized (sendLock) {
+                Message message = OperationCodec.toMessage(sendSession, op);
+                message.setStringProperty("source", selfAddressString);
+                coordinatorProducer.send(message);
+            }
+        } catch (JMSException | IOException e) {
+            LOGGER.error(e);
+        }
+    }
 
-            message.setStringProperty("source", selfAddressString);
-            message.setStringProperty("payload", OperationCodec.toJson(op));
-            message.setIntProperty("operationType", getOperationType(op).toInt());
+    private void process(SimulatorOperation op, SimulatorAddress source, Promise promise) throws Exception {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Received operation:" + op);
+        }
 
-            producer.send(message);
-        } catch (JMSException e) {
-            LOGGER.error(e);
+        try {
+            processor.process(op, source, promise);
+        } catch (Exception e) {
+            if (stop) {
+                throw e;
+            } else {
+                LOGGER.warn(e.getMessage(), e);
+                promise.answer(e);
+            }
         }
     }
 
@@ -191,31 +258,99 @@ public class Server implements Closeable {
                 LOGGER.debug(format("Sending reply [%s] for [%s] to %s", o, op, replyTo));
             }
 
-            try {
-                Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-                Message message = session.createMessage();
-                message.setJMSCorrelationID(correlationId);
-                message.setStringProperty("source", selfAddressString);
-
-                if (o instanceof Throwable) {
-                    Throwable throwable = (Throwable) o;
-                    message.setBooleanProperty("error", true);
-                    message.setStringProperty("message", throwable.getMessage());
-                } else {
-                    message.setBooleanProperty("error", false);
-                    // hack
-                    message.setStringProperty("payload", "" + o);
+            synchronized (sendLock) {
+                try {
+                    sendReply(o);
+                } catch (JMSException e) {
+                    LOGGER.error(e);
                 }
+            }
+        }
+
+        private void sendReply(Object o) throws JMSException {
+            Message message = sendSession.createMessage();
+            message.setJMSCorrelationID(correlationId);
+            message.setStringProperty("source", selfAddressString);
 
-                MessageProducer producer = session.createProducer(replyTo);
-                producer.send(message);
-                session.close();
-            } catch (JMSException e) {
+            if (o instanceof Throwable) {
+                Throwable throwable = (Throwable) o;
+                message.setBooleanProperty("error", true);
+                message.setStringProperty("message", throwable.getMessage());
+            } else {
+                message.setBooleanProperty("error", false);
+                // hack
+                message.setStringProperty("payload", "" + o);
+            }
+
+            // the coordinator has a single reply queue per agent, so there are only a few reply producers
+            MessageProducer producer = replyProducers.get(replyTo);
+            if (producer == null) {
+                producer = sendSession.createProducer(replyTo);
+                replyProducers.put(replyTo, producer);
+            }
+            producer.send(message);
+        }
+    }
+
+    private final class FramePromise implements Promise {
+        private final String replyTo;
+        private final String correlationId;
+        private final SimulatorOperation op;
+
+        private FramePromise(String replyTo, String correlationId, SimulatorOperation op) {
+            this.replyTo = replyTo;
+            this.correlationId = correlationId;
+            this.op = op;
+        }
+
+        @Override
+        public void answer(Object o) {
+            if (correlationId == null) {
+                return;
+            }
+
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(format("Sending reply [%s] for [%s] to %s", o, op, replyTo));
+            }
+
+            Frame reply = o instanceof Throwable
+                    ? Frame.reply(selfAddressString, replyTo, correlationId, true, ((Throwable) o).getMessage())
+                    : Frame.reply(selfAddressString, replyTo, correlationId, false, "" + o);
+            try {
+                frameChannel.send(reply);
+            } catch (IOException e) {
                 LOGGER.error(e);
             }
         }
     }
 
+    private final class ServerFrameHandler implements FrameChannel.FrameHandler {
+
+        @Override
+        public void onFrame(Frame frame) throws Exception {
+            if (frame.getType() != Frame.OPERATION) {
+                LOGGER.warn("Ignoring unexpected " + frame);
+                return;
+            }
+
+            SimulatorOperation op = frame.getOperation();
+            FramePromise promise = new FramePromise(frame.getSource(), frame.getCorrelationId(), op);
+            process(op, SimulatorAddress.fromString(frame.getSource()), promise);
+        }
+
+        @Override
+        public void onConnectionLost(IOException cause) {
+            if (stop) {
+                return;
+            }
+
+            // the same listener as for JMS, so a lost connection is handled the same way for both transports
+            JMSException exception = new JMSException("Lost connection to the relay: " + cause.getMessage());
+            exception.setLinkedException(cause);
+            exceptionListener.onException(exception);
+        }
+    }
+
     private class ServerThread extends Thread {
 
         @Override
@@ -236,29 +371,14 @@ public class Server implements Closeable {
         private void handle() throws Exception {
             Message message = consumer.receive();
 
-            OperationType operationType = OperationType.fromInt(message.getIntProperty("operationType"));
-            String operationData = message.getStringProperty("payload");
-            SimulatorOperation op = OperationCodec.fromJson(operationData, operationType.getClassType());
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Received operation:" + op);
-            }
+            SimulatorOperation op = OperationCodec.fromMessage(message);
             PromiseImpl promise = new PromiseImpl();
             promise.replyTo = message.getJMSReplyTo();
             promise.correlationId = message.getJMSCorrelationID();
             promise.op = op;
 
             SimulatorAddress source = SimulatorAddress.fromString(message.getStringProperty("source"));
-
-            try {
-                processor.process(op, source, promise);
-            } catch (Exception e) {
-                if (stop) {
-                    throw e;
-                } else {
-                    LOGGER.warn(e.getMessage(), e);
-                    promise.answer(e);
-                }
-            }
+            process(op, source, promise);
         }
     }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.protocol;
+
+import java.util.Arrays;
+
+import static java.lang.String.format;
+
+/**
+ * The transport used for the communication between the coordinator, agents and workers. It is configured with the
+ * 'TRANSPORT' property in the simulator.properties.
+ */
+public enum Transport {
+
+    /**
+     * Each agent runs an embedded ActiveMQ {@link Broker}. This is the default.
+     */
+    ACTIVEMQ,
+
+    /**
+     * Each agent runs a {@link com.hazelcast.simulator.protocol.nio.Relay}, which forwards length-prefixed frames between
+     * non-blocking TCP connections.
+     */
+    NIO;
+
+    public static Transport fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return ACTIVEMQ;
+        }
+
+        for (Transport transport : values()) {
+            if (transport.name().equalsIgnoreCase(value.trim())) {
+                return transport;
+            }
+        }
+        throw new IllegalArgumentException(format("Unknown transport [%s], valid values are %s",
+                value, Arrays.toString(values()).toLowerCase()));
+    }
+}
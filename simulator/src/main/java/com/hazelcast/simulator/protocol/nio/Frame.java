@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.protocol.nio;
+
+import com.hazelcast.simulator.protocol.operation.OperationCodec;
+import com.hazelcast.simulator.protocol.operation.OperationType;
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
+
+import java.nio.ByteBuffer;
+
+import static com.hazelcast.simulator.protocol.operation.OperationType.getOperationType;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A frame of the NIO transport.
+ *
+ * A frame is send as an int with the length of the frame, followed by:
+ * <ol>
+ * <li>the type: {@link #HELLO}, {@link #OPERATION} or {@link #REPLY}</li>
+ * <li>the source and target address</li>
+ * <li>the correlation id, which is only set for operations that expect a reply and for the reply itself</li>
+ * <li>the {@link OperationType} of an operation</li>
+ * <li>the error flag of a reply</li>
+ * <li>the payload: the encoded operation or the reply</li>
+ * </ol>
+ * The {@link Relay} only looks at the header to forward a frame; the payload is only decoded by the receiver.
+ */
+public final class Frame {
+
+    /**
+     * The first frame send on a connection; it registers the source address of the connection at the {@link Relay}.
+     */
+    public static final byte HELLO = 0;
+    public static final byte OPERATION = 1;
+    public static final byte REPLY = 2;
+
+    static final int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+
+    private static final int NULL_LENGTH = -1;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final byte type;
+    private final String source;
+    private final String target;
+    private final String correlationId;
+    private final int operationType;
+    private final boolean error;
+    private final byte[] payload;
+
+    private Frame(byte type, String source, String target, String correlationId, int operationType, boolean error,
+                  byte[] payload) {
+        this.type = type;
+        this.source = source;
+        this.target = target;
+        this.correlationId = correlationId;
+        this.operationType = operationType;
+        this.error = error;
+        this.payload = payload;
+    }
+
+    public static Frame hello(String source) {
+        return new Frame(HELLO, source, null, null, 0, false, EMPTY);
+    }
+
+    public static Frame operation(String source, String target, String correlationId, SimulatorOperation op) {
+        return new Frame(OPERATION, source, target, correlationId, getOperationType(op).toInt(), false,
+                OperationCodec.toBytes(op));
+    }
+
+    public static Frame reply(String source, String target, String correlationId, boolean error, String reply) {
+        return new Frame(REPLY, source, target, correlationId, 0, error, reply == null ? null : reply.getBytes(UTF_8));
+    }
+
+    public byte getType() {
+        return type;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public boolean isError() {
+        return error;
+    }
+
+    public SimulatorOperation getOperation() {
+        OperationType classType = OperationType.fromInt(operationType);
+        return OperationCodec.fromBytes(payload, classType.getClassType());
+    }
+
+    public String getReply() {
+        return payload == null ? null : new String(payload, UTF_8);
+    }
+
+    /**
+     * Encodes this frame including the length prefix.
+     *
+     * @return the buffer, ready to be written
+     */
+    public ByteBuffer toByteBuffer() {
+        byte[] sourceBytes = toBytes(source);
+        byte[] targetBytes = toBytes(target);
+        byte[] correlationIdBytes = toBytes(correlationId);
+
+        int length = 1 + length(sourceBytes) + length(targetBytes) + length(correlationIdBytes) + 4 + 1 + length(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + length);
+        buffer.putInt(length);
+        buffer.put(type);
+        putBytes(buffer, sourceBytes);
+        putBytes(buffer, targetBytes);
+        putBytes(buffer, correlationIdBytes);
+        buffer.putInt(operationType);
+        buffer.put((byte) (error ? 1 : 0));
+        putBytes(buffer, payload);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Decodes a frame.
+     *
+     * @param buffer the buffer containing a single frame without the length prefix
+     * @return the decoded frame
+     * @throws IllegalArgumentException if the buffer doesn't contain a valid frame
+     */
+    public static Frame fromByteBuffer(ByteBuffer buffer) {
+        try {
+            byte type = buffer.get();
+            String source = toString(getBytes(buffer));
+            String target = toString(getBytes(buffer));
+            String correlationId = toString(getBytes(buffer));
+            int operationType = buffer.getInt();
+            boolean error = buffer.get() == 1;
+            byte[] payload = getBytes(buffer);
+            return new Frame(type, source, target, correlationId, operationType, error, payload);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid frame: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] toBytes(String s) {
+        return s == null ? null : s.getBytes(UTF_8);
+    }
+
+    private static String toString(byte[] bytes) {
+        return bytes == null ? null : new String(bytes, UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 4 : 4 + bytes.length;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(NULL_LENGTH);
+        } else {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return format("Frame{type=%d, source=%s, target=%s, correlationId=%s}", type, source, target, correlationId);
+    }
+}
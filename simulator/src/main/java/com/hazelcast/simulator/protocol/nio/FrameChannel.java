@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.protocol.nio;
+
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.CommonUtils.sleepMillis;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+
+/**
+ * The connection of a coordinator, agent or worker to the {@link Relay} of an agent.
+ *
+ * Frames are written by the sending thread and read by a dedicated reader thread, which passes them to the
+ * {@link FrameHandler}. So the handler should not block for a long time, since that blocks all received frames.
+ */
+public final class FrameChannel implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(FrameChannel.class);
+    private static final int INITIAL_RECONNECT_DELAY_MILLIS = 100;
+    private static final int MAX_RECONNECT_DELAY_MILLIS = 1000;
+
+    private final String address;
+    private final String host;
+    private final int port;
+    private final FrameHandler handler;
+    private final Object writeLock = new Object();
+    private final ReaderThread readerThread = new ReaderThread();
+    private SocketChannel channel;
+    private volatile boolean closed;
+
+    /**
+     * Handles the frames received by a {@link FrameChannel}.
+     */
+    public interface FrameHandler {
+
+        void onFrame(Frame frame) throws Exception;
+
+        /**
+         * Is called when the connection is lost. It isn't called when the {@link FrameChannel} is closed.
+         *
+         * @param cause the cause of the connection loss
+         */
+        void onConnectionLost(IOException cause);
+    }
+
+    /**
+     * Creates a FrameChannel.
+     *
+     * @param address the address of the owner of this channel, e.g. 'C' or 'A1_W2'. Frames with this address as target
+     *                are send to this channel by the {@link Relay}.
+     * @param host    the host of the relay
+     * @param port    the port of the relay
+     * @param handler the handler of the received frames
+     */
+    public FrameChannel(String address, String host, int port, FrameHandler handler) {
+        this.address = address;
+        this.host = host;
+        this.port = port;
+        this.handler = handler;
+    }
+
+    /**
+     * Connects to the relay and starts reading frames.
+     *
+     * @param maxConnectAttempts the maximum number of connect attempts. Just like the failover of ActiveMQ, the delay between
+     *                           the attempts starts with 100 ms and doubles up to 1 second.
+     * @return this
+     * @throws IOException if the connection could not be made
+     */
+    public FrameChannel connect(int maxConnectAttempts) throws IOException {
+        long delayMillis = INITIAL_RECONNECT_DELAY_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                channel = SocketChannel.open(new InetSocketAddress(host, port));
+                break;
+            } catch (IOException e) {
+                if (attempt >= maxConnectAttempts) {
+                    throw new IOException(format("Failed to connect to [%s:%d] after %d attempts", host, port, attempt), e);
+                }
+                LOGGER.debug(format("Failed to connect to [%s:%d], retrying in %d ms", host, port, delayMillis));
+                sleepMillis(delayMillis);
+                delayMillis = min(2 * delayMillis, MAX_RECONNECT_DELAY_MILLIS);
+            }
+        }
+
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        send(Frame.hello(address));
+        readerThread.start();
+        return this;
+    }
+
+    public void send(Frame frame) throws IOException {
+        ByteBuffer buffer = frame.toByteBuffer();
+        synchronized (writeLock) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        closeQuietly(channel);
+    }
+
+    private final class ReaderThread extends Thread {
+
+        private final ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+
+        private ReaderThread() {
+            super("FrameChannelReader-" + address);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    Frame frame = readFrame();
+                    try {
+                        handler.onFrame(frame);
+                    } catch (Exception e) {
+                        LOGGER.error(format("Failed to handle %s", frame), e);
+                    }
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    closed = true;
+                    closeQuietly(channel);
+                    handler.onConnectionLost(e);
+                }
+            }
+        }
+
+        private Frame readFrame() throws IOException {
+            lengthBuffer.clear();
+            readFully(lengthBuffer);
+            int length = lengthBuffer.getInt(0);
+            if (length < 0 || length > Frame.MAX_FRAME_LENGTH) {
+                throw new IOException(format("Invalid frame length %d received from [%s:%d]", length, host, port));
+            }
+
+            ByteBuffer frameBuffer = ByteBuffer.allocate(length);
+            readFully(frameBuffer);
+            frameBuffer.flip();
+            return Frame.fromByteBuffer(frameBuffer);
+        }
+
+        private void readFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) == -1) {
+                    throw new EOFException(format("Connection to [%s:%d] closed", host, port));
+                }
+            }
+        }
+    }
+}
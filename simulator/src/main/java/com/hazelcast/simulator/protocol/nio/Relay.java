@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.protocol.nio;
+
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static java.lang.String.format;
+import static java.nio.channels.SelectionKey.OP_ACCEPT;
+import static java.nio.channels.SelectionKey.OP_READ;
+import static java.nio.channels.SelectionKey.OP_WRITE;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * The counterpart of the {@link com.hazelcast.simulator.protocol.Broker} for the NIO transport. Each agent runs a relay, the
+ * coordinator, the agent itself and its workers connect to it using a {@link FrameChannel}.
+ *
+ * The relay is a single non-blocking selector thread which forwards frames to the connection that registered the target
+ * address of the frame; it doesn't decode operations and doesn't store anything. If there is no connection for the target,
+ * the frame is dropped and if the sender is waiting for a reply, an error reply is send back.
+ *
+ * The frames for a connection which doesn't keep up are queued up to a maximum number of bytes. If a connection falls further
+ * behind, it is closed, so a slow or hanging peer can't make the relay run out of memory.
+ */
+public final class Relay implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(Relay.class);
+    private static final int INITIAL_READ_BUFFER_SIZE = 8 * 1024;
+    private static final int DEFAULT_MAX_PENDING_WRITE_BYTES = 16 * 1024 * 1024;
+
+    private final String host;
+    private final int port;
+    private final long maxPendingWriteBytes;
+    private final RelayThread relayThread = new RelayThread();
+    // only accessed by the relay thread
+    private final Map<String, Peer> peers = new HashMap<>();
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private volatile boolean stop;
+
+    public Relay(String host, int port) {
+        this(host, port, DEFAULT_MAX_PENDING_WRITE_BYTES);
+    }
+
+    /**
+     * Creates a Relay.
+     *
+     * @param host                 the host to bind to
+     * @param port                 the port to bind to
+     * @param maxPendingWriteBytes the maximum number of bytes queued for a connection before it is closed. A single frame
+     *                             is always queued if nothing else is pending.
+     */
+    public Relay(String host, int port, long maxPendingWriteBytes) {
+        this.host = host;
+        this.port = port;
+        this.maxPendingWriteBytes = maxPendingWriteBytes;
+    }
+
+    public String getURL() {
+        return "tcp://" + host + ":" + port;
+    }
+
+    public Relay start() {
+        LOGGER.info("Starting relay on [" + host + ":" + port + "]");
+
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(host, port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, OP_ACCEPT);
+        } catch (IOException e) {
+            closeQuietly(serverChannel);
+            closeQuietly(selector);
+            throw new RuntimeException(e);
+        }
+        relayThread.start();
+
+        LOGGER.info("Successfully started relay");
+        return this;
+    }
+
+    @Override
+    public void close() {
+        LOGGER.info("Stopping relay");
+        stop = true;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        try {
+            relayThread.join(SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.info("Relay stopped");
+    }
+
+    private final class RelayThread extends Thread {
+
+        private RelayThread() {
+            super("Relay");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!stop) {
+                    selector.select();
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        handle(key);
+                    }
+                }
+            } catch (Throwable e) {
+                if (!stop) {
+                    LOGGER.fatal(e.getMessage(), e);
+                }
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    closeQuietly(key.channel());
+                }
+                closeQuietly(selector);
+            }
+        }
+
+        private void handle(SelectionKey key) throws IOException {
+            if (!key.isValid()) {
+                return;
+            }
+
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+
+            Peer peer = (Peer) key.attachment();
+            try {
+                if (key.isReadable()) {
+                    peer.read();
+                }
+                if (key.isValid() && key.isWritable()) {
+                    peer.flush();
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.info(format("Closing connection of [%s]: %s", peer.address, e.getMessage()));
+                peer.close();
+            }
+        }
+
+        private void accept() throws IOException {
+            SocketChannel channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Peer peer = new Peer(channel);
+            peer.key = channel.register(selector, OP_READ, peer);
+        }
+    }
+
+    private final class Peer {
+
+        private final SocketChannel channel;
+        private final Queue<ByteBuffer> writeQueue = new ArrayDeque<>();
+        private long pendingWriteBytes;
+        private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+        private SelectionKey key;
+        private String address;
+
+        private Peer(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private void read() throws IOException {
+            if (channel.read(readBuffer) == -1) {
+                close();
+                return;
+            }
+
+            readBuffer.flip();
+            int required = 0;
+            while (readBuffer.remaining() >= 4) {
+                int length = readBuffer.getInt(readBuffer.position());
+                if (length < 0 || length > Frame.MAX_FRAME_LENGTH) {
+                    throw new IOException("Invalid frame length " + length);
+                }
+                if (readBuffer.remaining() < 4 + length) {
+                    required = 4 + length;
+                    break;
+                }
+
+                byte[] bytes = new byte[4 + length];
+                readBuffer.get(bytes);
+                route(bytes);
+            }
+            readBuffer.compact();
+
+            if (required > readBuffer.capacity()) {
+                ByteBuffer newBuffer = ByteBuffer.allocate(required);
+                readBuffer.flip();
+                newBuffer.put(readBuffer);
+                readBuffer = newBuffer;
+            }
+        }
+
+        private void route(byte[] bytes) {
+            Frame frame = Frame.fromByteBuffer(ByteBuffer.wrap(bytes, 4, bytes.length - 4));
+            if (frame.getType() == Frame.HELLO) {
+                address = frame.getSource();
+                Peer old = peers.put(address, this);
+                if (old != null && old != this) {
+                    LOGGER.warn(format("[%s] reconnected, closing its old connection", address));
+                    old.address = null;
+                    old.close();
+                }
+                LOGGER.info(format("[%s] connected", address));
+                return;
+            }
+
+            Peer target = peers.get(frame.getTarget());
+            if (target != null) {
+                target.send(ByteBuffer.wrap(bytes));
+                return;
+            }
+
+            String message = format("No connection for [%s], dropping %s", frame.getTarget(), frame);
+            LOGGER.warn(message);
+            if (frame.getType() == Frame.OPERATION && frame.getCorrelationId() != null) {
+                send(Frame.reply(frame.getTarget(), frame.getSource(), frame.getCorrelationId(), true, message)
+                        .toByteBuffer());
+            }
+        }
+
+        private void send(ByteBuffer buffer) {
+            if (!key.isValid()) {
+                return;
+            }
+            if (!writeQueue.isEmpty() && pendingWriteBytes + buffer.remaining() > maxPendingWriteBytes) {
+                LOGGER.warn(format("[%s] doesn't keep up, %d bytes are pending; closing its connection",
+                        address, pendingWriteBytes));
+                close();
+                return;
+            }
+            writeQueue.add(buffer);
+            pendingWriteBytes += buffer.remaining();
+            try {
+                flush();
+            } catch (IOException e) {
+                LOGGER.info(format("Closing connection of [%s]: %s", address, e.getMessage()));
+                close();
+            }
+        }
+
+        private void flush() throws IOException {
+            ByteBuffer buffer;
+            while ((buffer = writeQueue.peek()) != null) {
+                pendingWriteBytes -= channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    // the socket buffer is full; we continue when the channel is writable again
+                    key.interestOps(OP_READ | OP_WRITE);
+                    return;
+                }
+                writeQueue.poll();
+            }
+            key.interestOps(OP_READ);
+        }
+
+        private void close() {
+            if (address != null && peers.get(address) == this) {
+                peers.remove(address);
+                LOGGER.info(format("[%s] disconnected", address));
+            }
+            key.cancel();
+            closeQuietly(channel);
+            writeQueue.clear();
+            pendingWriteBytes = 0;
+        }
+    }
+}
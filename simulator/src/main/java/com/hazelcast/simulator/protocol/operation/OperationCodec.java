@@ -15,23 +15,105 @@
  */
 package com.hazelcast.simulator.protocol.operation;
 
-import com.google.gson.Gson;
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import static com.hazelcast.simulator.protocol.operation.OperationType.getOperationType;
+import static java.lang.String.format;
 
 /**
  * Encodes and decodes a {@link SimulatorOperation}.
+ *
+ * An operation is encoded as the fingerprint of its schema followed by its field values, see {@link OperationSchema}. The
+ * {@link OperationType} isn't part of the encoded bytes; it is send as the 'operationType' property of the JMS message, so
+ * the receiver knows which class to decode.
  */
 public final class OperationCodec {
 
-    private static final Gson GSON = new Gson();
+    private static final String OPERATION_TYPE = "operationType";
+    private static final int INITIAL_BUFFER_SIZE = 256;
 
     private OperationCodec() {
     }
 
-    public static String toJson(SimulatorOperation op) {
-        return GSON.toJson(op);
+    public static byte[] toBytes(SimulatorOperation op) {
+        OperationSchema schema = OperationSchema.of(op.getClass());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(schema.fingerprint());
+            schema.write(out, op);
+            out.flush();
+        } catch (IOException e) {
+            // can't happen since we write to a byte array
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static SimulatorOperation fromBytes(byte[] bytes, Class<? extends SimulatorOperation> classType) {
+        OperationSchema schema = OperationSchema.of(classType);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        try {
+            int fingerprint = in.readInt();
+            if (fingerprint != schema.fingerprint()) {
+                throw new IllegalArgumentException(format("Can't decode %s, the fingerprint of the schema doesn't match"
+                                + " (expected %d, found %d). Are the coordinator and workers using the same Simulator version?",
+                        classType.getSimpleName(), schema.fingerprint(), fingerprint));
+            }
+            SimulatorOperation op = (SimulatorOperation) schema.read(in);
+            if (in.available() > 0) {
+                throw new IllegalArgumentException(format("Can't decode %s, %d trailing bytes found",
+                        classType.getSimpleName(), in.available()));
+            }
+            return op;
+        } catch (EOFException e) {
+            throw new IllegalArgumentException(format("Can't decode %s, the message is truncated", classType.getSimpleName()), e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(format("Can't decode %s", classType.getSimpleName()), e);
+        }
     }
 
-    public static SimulatorOperation fromJson(String json, Class<? extends SimulatorOperation> classType) {
-        return GSON.fromJson(json, classType);
+    /**
+     * Creates a message containing the encoded operation and its {@link OperationType}.
+     *
+     * @param session the session to create the message with
+     * @param op      the operation to encode
+     * @return the created message
+     * @throws JMSException if the message can't be created
+     */
+    public static BytesMessage toMessage(Session session, SimulatorOperation op) throws JMSException {
+        BytesMessage message = session.createBytesMessage();
+        message.setIntProperty(OPERATION_TYPE, getOperationType(op).toInt());
+        message.writeBytes(toBytes(op));
+        return message;
+    }
+
+    /**
+     * Decodes the operation of a message created by {@link #toMessage(Session, SimulatorOperation)}.
+     *
+     * @param message the received message
+     * @return the decoded operation
+     * @throws JMSException if the message can't be read
+     */
+    public static SimulatorOperation fromMessage(Message message) throws JMSException {
+        OperationType operationType = OperationType.fromInt(message.getIntProperty(OPERATION_TYPE));
+        if (!(message instanceof BytesMessage)) {
+            throw new IllegalArgumentException(format("Can't decode %s, expected a BytesMessage but found %s",
+                    operationType, message.getClass().getName()));
+        }
+
+        BytesMessage bytesMessage = (BytesMessage) message;
+        byte[] bytes = new byte[(int) bytesMessage.getBodyLength()];
+        bytesMessage.readBytes(bytes);
+        return fromBytes(bytes, operationType.getClassType());
     }
 }
@@ -0,0 +1,582 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.protocol.operation;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The binary schema of a class which is send as (part of) a {@link SimulatorOperation}.
+ *
+ * The schema is derived once from the fields of the class, the same fields Gson would serialize: all fields including the
+ * fields of the super classes, except static and transient fields. The fields are ordered by name and the value types are
+ * known from the declared field types, so the encoded form only contains the values; no field names and no type information.
+ *
+ * The fingerprint of the schema is send with every operation, so a coordinator and worker using a different version of an
+ * operation are detected instead of silently decoding garbage. It covers the field names and types of the operation, and
+ * recursively those of the nested objects, the element types of arrays, collections and maps, and the constant names of
+ * enums, since enums are encoded by ordinal.
+ *
+ * Instances are created with the no-arg constructor of the class. Most operations don't have one, so just like before the
+ * binary encoding, those instances are created by the public {@link TypeAdapter} API of Gson from an empty JSON object.
+ */
+final class OperationSchema {
+
+    private static final ConcurrentMap<Class<?>, OperationSchema> SCHEMAS = new ConcurrentHashMap<>();
+    private static final Gson GSON = new Gson();
+    private static final JsonObject EMPTY_JSON_OBJECT = new JsonObject();
+
+    private final Class<?> classType;
+    private final Field[] fields;
+    private final ValueCodec[] codecs;
+    private final Constructor<?> constructor;
+    private final TypeAdapter<?> typeAdapter;
+    private final int fingerprint;
+
+    private OperationSchema(Class<?> classType) {
+        this.classType = classType;
+        this.fields = loadFields(classType);
+        this.codecs = new ValueCodec[fields.length];
+
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            field.setAccessible(true);
+            try {
+                codecs[i] = codecFor(field.getGenericType());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(format("Field [%s] of [%s] can't be encoded: %s",
+                        field.getName(), classType.getName(), e.getMessage()), e);
+            }
+        }
+        this.fingerprint = fingerprint(classType, new HashSet<>());
+        this.constructor = loadConstructor(classType);
+        this.typeAdapter = constructor == null ? GSON.getAdapter(classType) : null;
+    }
+
+    static OperationSchema of(Class<?> classType) {
+        OperationSchema schema = SCHEMAS.get(classType);
+        if (schema == null) {
+            schema = new OperationSchema(classType);
+            OperationSchema found = SCHEMAS.putIfAbsent(classType, schema);
+            schema = found == null ? schema : found;
+        }
+        return schema;
+    }
+
+    int fingerprint() {
+        return fingerprint;
+    }
+
+    void write(DataOutput out, Object object) throws IOException {
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                codecs[i].write(out, fields[i].get(object));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    Object read(DataInput in) throws IOException {
+        Object object = newInstance();
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                fields[i].set(object, codecs[i].read(in));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        return object;
+    }
+
+    Object newInstance() {
+        try {
+            if (constructor != null) {
+                return constructor.newInstance();
+            }
+            // the fields are set afterwards, so Gson only needs to create the instance
+            return typeAdapter.fromJsonTree(EMPTY_JSON_OBJECT);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create an instance of " + classType.getName(), e);
+        }
+    }
+
+    private static Field[] loadFields(Class<?> classType) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = classType; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                    fields.add(field);
+                }
+            }
+        }
+        fields.sort(Comparator.comparing(Field::getName).thenComparing(f -> f.getDeclaringClass().getName()));
+        return fields.toArray(new Field[0]);
+    }
+
+    private static int fingerprint(Class<?> classType, Set<Class<?>> visiting) {
+        int fingerprint = classType.getName().hashCode();
+        if (!visiting.add(classType)) {
+            // a class referring to itself; its fields are already part of the fingerprint
+            return fingerprint;
+        }
+        for (Field field : loadFields(classType)) {
+            fingerprint = 31 * fingerprint + field.getName().hashCode();
+            fingerprint = 31 * fingerprint + typeFingerprint(field.getGenericType(), visiting);
+        }
+        visiting.remove(classType);
+        return fingerprint;
+    }
+
+    private static int typeFingerprint(Type type, Set<Class<?>> visiting) {
+        Class<?> rawType = rawType(type);
+        int fingerprint = rawType.getName().hashCode();
+        if (rawType.isEnum()) {
+            // enums are encoded by ordinal, so the order of the constants matters
+            for (Object constant : rawType.getEnumConstants()) {
+                fingerprint = 31 * fingerprint + ((Enum<?>) constant).name().hashCode();
+            }
+        } else if (rawType.isArray()) {
+            Type componentType = type instanceof GenericArrayType
+                    ? ((GenericArrayType) type).getGenericComponentType() : rawType.getComponentType();
+            fingerprint = 31 * fingerprint + typeFingerprint(componentType, visiting);
+        } else if (Map.class.isAssignableFrom(rawType)) {
+            fingerprint = 31 * fingerprint + typeFingerprint(typeArgument(type, 0), visiting);
+            fingerprint = 31 * fingerprint + typeFingerprint(typeArgument(type, 1), visiting);
+        } else if (Collection.class.isAssignableFrom(rawType)) {
+            fingerprint = 31 * fingerprint + typeFingerprint(typeArgument(type, 0), visiting);
+        } else if (!rawType.isPrimitive() && !rawType.getName().startsWith("java.lang.")) {
+            fingerprint = 31 * fingerprint + fingerprint(rawType, visiting);
+        }
+        return fingerprint;
+    }
+
+    private static Constructor<?> loadConstructor(Class<?> classType) {
+        try {
+            Constructor<?> constructor = classType.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("checkstyle:cyclomaticcomplexity")
+    private static ValueCodec codecFor(Type type) {
+        Class<?> rawType = rawType(type);
+        if (rawType == boolean.class) {
+            return BOOLEAN;
+        } else if (rawType == byte.class) {
+            return BYTE;
+        } else if (rawType == short.class) {
+            return SHORT;
+        } else if (rawType == char.class) {
+            return CHAR;
+        } else if (rawType == int.class) {
+            return INT;
+        } else if (rawType == long.class) {
+            return LONG;
+        } else if (rawType == float.class) {
+            return FLOAT;
+        } else if (rawType == double.class) {
+            return DOUBLE;
+        } else if (rawType == Boolean.class) {
+            return new NullableCodec(BOOLEAN);
+        } else if (rawType == Byte.class) {
+            return new NullableCodec(BYTE);
+        } else if (rawType == Short.class) {
+            return new NullableCodec(SHORT);
+        } else if (rawType == Character.class) {
+            return new NullableCodec(CHAR);
+        } else if (rawType == Integer.class) {
+            return new NullableCodec(INT);
+        } else if (rawType == Long.class) {
+            return new NullableCodec(LONG);
+        } else if (rawType == Float.class) {
+            return new NullableCodec(FLOAT);
+        } else if (rawType == Double.class) {
+            return new NullableCodec(DOUBLE);
+        } else if (rawType == String.class) {
+            return new NullableCodec(STRING);
+        } else if (rawType.isEnum()) {
+            return new NullableCodec(new EnumCodec(rawType));
+        } else if (rawType.isArray()) {
+            Type componentType = type instanceof GenericArrayType
+                    ? ((GenericArrayType) type).getGenericComponentType() : rawType.getComponentType();
+            return new NullableCodec(new ArrayCodec(rawType.getComponentType(), codecFor(componentType)));
+        } else if (Map.class.isAssignableFrom(rawType)) {
+            return new NullableCodec(new MapCodec(rawType, codecFor(typeArgument(type, 0)), codecFor(typeArgument(type, 1))));
+        } else if (Collection.class.isAssignableFrom(rawType)) {
+            return new NullableCodec(new CollectionCodec(rawType, codecFor(typeArgument(type, 0))));
+        } else if (rawType == Object.class || rawType.isInterface() || Modifier.isAbstract(rawType.getModifiers())) {
+            throw new IllegalArgumentException(format("type [%s] is not concrete", type.getTypeName()));
+        }
+        return new NullableCodec(new ObjectCodec(rawType));
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        } else if (type instanceof GenericArrayType) {
+            Class<?> componentType = rawType(((GenericArrayType) type).getGenericComponentType());
+            return Array.newInstance(componentType, 0).getClass();
+        } else if (type instanceof WildcardType) {
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+        throw new IllegalArgumentException(format("type [%s] is not supported", type.getTypeName()));
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        if (!(type instanceof ParameterizedType)) {
+            throw new IllegalArgumentException(format("type [%s] has no type arguments", type.getTypeName()));
+        }
+        return ((ParameterizedType) type).getActualTypeArguments()[index];
+    }
+
+    private static Object newContainer(Class<?> rawType, Class<?> defaultType) {
+        Class<?> type = rawType.isInterface() || Modifier.isAbstract(rawType.getModifiers()) ? defaultType : rawType;
+        try {
+            return type.newInstance();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create an instance of " + type.getName(), e);
+        }
+    }
+
+    private static final ValueCodec BOOLEAN = new ValueCodec() {
+        @Override
+        void write(DataOutput out, Object value) throws IOException {
+            out.writeBoolean((Boolean) value);
+        }
+
+        @Override
+        Object read(DataInput in) throws IOException {
+            return in.readBoolean();
+        }
+    };
+
+    private static final ValueCodec BYTE = new ValueCodec() {
+        @Override
+        void write(DataOutput out, Object value) throws IOException {
+            out.writeByte((Byte) value);
+        }
+
+        @Override
+        Object read(DataInput in) throws IOException {
+            return in.readByte();
+        }
+    };
+
+    private static final ValueCodec SHORT = new ValueCodec() {
+        @Override
+        void write(DataOutput out, Object value) throws IOException {
+            out.writeShort((Short) value);
+        }
+
+        @Override
+        Object read(DataInput in) throws IOException {
+            return in.readShort();
+        }
+    };
+
+    private static final ValueCodec CHAR = new ValueCodec() {
+        @Override
+        void write(DataOutput out, Object value) throws IOException {
+            out.writeChar((Character) value);
+        }
+
+        @Override
+        Object read(DataInput in) throws IOException {
+            return in.readChar();
+        }
+    };
+
+    private static final ValueCodec INT = new ValueCodec() {
+        @Override
+        void write(DataOutput out, Object value) throws IOException {
+            out.writeInt((Integer) value);
+        }
+
+        @Override
+        Object read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    private static final ValueCodec LONG = new ValueCodec() {
+        @Override
+        void write(DataOutput out, Object value) throws IOException {
+            out.writeLong((Long) value);
+        }
+
+        @Override
+        Object read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    private static final ValueCodec FLOAT = new ValueCodec() {
+        @Override
+        void write(DataOutput out, Object value) throws IOException {
+            out.writeFloat((Float) value);
+        }
+
+        @Override
+        Object read(DataInput in) throws IOException {
+            return in.readFloat();
+        }
+    };
+
+    private static final ValueCodec DOUBLE = new ValueCodec() {
+        @Override
+        void write(DataOutput out, Object value) throws IOException {
+            out.writeDouble((Double) value);
+        }
+
+        @Override
+        Object read(DataInput in) throws IOException {
+            return in.readDouble();
+        }
+    };
+
+    // DataOutput.writeUTF is limited to 64KB, so the length is written as an int
+    private static final ValueCodec STRING = new ValueCodec() {
+        @Override
+        void write(DataOutput out, Object value) throws IOException {
+            byte[] bytes = ((String) value).getBytes(UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        Object read(DataInput in) throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, UTF_8);
+        }
+    };
+
+    private abstract static class ValueCodec {
+
+        abstract void write(DataOutput out, Object value) throws IOException;
+
+        abstract Object read(DataInput in) throws IOException;
+    }
+
+    private static final class NullableCodec extends ValueCodec {
+
+        private final ValueCodec codec;
+
+        NullableCodec(ValueCodec codec) {
+            this.codec = codec;
+        }
+
+        @Override
+        void write(DataOutput out, Object value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                codec.write(out, value);
+            }
+        }
+
+        @Override
+        Object read(DataInput in) throws IOException {
+            return in.readBoolean() ? codec.read(in) : null;
+        }
+    }
+
+    private static final class EnumCodec extends ValueCodec {
+
+        private final Object[] constants;
+
+        EnumCodec(Class<?> enumType) {
+            this.constants = enumType.getEnumConstants();
+        }
+
+        @Override
+        void write(DataOutput out, Object value) throws IOException {
+            out.writeShort(((Enum) value).ordinal());
+        }
+
+        @Override
+        Object read(DataInput in) throws IOException {
+            return constants[in.readShort()];
+        }
+    }
+
+    private static final class ArrayCodec extends ValueCodec {
+
+        private final Class<?> componentType;
+        private final ValueCodec componentCodec;
+
+        ArrayCodec(Class<?> componentType, ValueCodec componentCodec) {
+            this.componentType = componentType;
+            this.componentCodec = componentCodec;
+        }
+
+        @Override
+        void write(DataOutput out, Object value) throws IOException {
+            int length = Array.getLength(value);
+            out.writeInt(length);
+            for (int i = 0; i < length; i++) {
+                componentCodec.write(out, Array.get(value, i));
+            }
+        }
+
+        @Override
+        Object read(DataInput in) throws IOException {
+            int length = in.readInt();
+            Object array = Array.newInstance(componentType, length);
+            for (int i = 0; i < length; i++) {
+                Array.set(array, i, componentCodec.read(in));
+            }
+            return array;
+        }
+    }
+
+    private static final class CollectionCodec extends ValueCodec {
+
+        private final Class<?> rawType;
+        private final ValueCodec elementCodec;
+
+        CollectionCodec(Class<?> rawType, ValueCodec elementCodec) {
+            this.rawType = rawType;
+            this.elementCodec = elementCodec;
+        }
+
+        @Override
+        void write(DataOutput out, Object value) throws IOException {
+            Collection<?> collection = (Collection<?>) value;
+            out.writeInt(collection.size());
+            for (Object element : collection) {
+                elementCodec.write(out, element);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Object read(DataInput in) throws IOException {
+            Class<?> defaultType = SortedSet.class.isAssignableFrom(rawType) ? TreeSet.class
+                    : Set.class.isAssignableFrom(rawType) ? LinkedHashSet.class : ArrayList.class;
+            Collection<Object> collection = (Collection<Object>) newContainer(rawType, defaultType);
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                collection.add(elementCodec.read(in));
+            }
+            return collection;
+        }
+    }
+
+    private static final class MapCodec extends ValueCodec {
+
+        private final Class<?> rawType;
+        private final ValueCodec keyCodec;
+        private final ValueCodec valueCodec;
+
+        MapCodec(Class<?> rawType, ValueCodec keyCodec, ValueCodec valueCodec) {
+            this.rawType = rawType;
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+        }
+
+        @Override
+        void write(DataOutput out, Object value) throws IOException {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                keyCodec.write(out, entry.getKey());
+                valueCodec.write(out, entry.getValue());
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        Object read(DataInput in) throws IOException {
+            Class<?> defaultType = ConcurrentMap.class.isAssignableFrom(rawType) ? ConcurrentHashMap.class
+                    : SortedMap.class.isAssignableFrom(rawType) ? TreeMap.class : LinkedHashMap.class;
+            Map<Object, Object> map = (Map<Object, Object>) newContainer(rawType, defaultType);
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                Object key = keyCodec.read(in);
+                map.put(key, valueCodec.read(in));
+            }
+            return map;
+        }
+    }
+
+    private static final class ObjectCodec extends ValueCodec {
+
+        private final Class<?> classType;
+        // resolved on first use, so classes referring to themselves don't recurse while creating the schema
+        private volatile OperationSchema schema;
+
+        ObjectCodec(Class<?> classType) {
+            this.classType = classType;
+        }
+
+        @Override
+        void write(DataOutput out, Object value) throws IOException {
+            schema().write(out, value);
+        }
+
+        @Override
+        Object read(DataInput in) throws IOException {
+            return schema().read(in);
+        }
+
+        private OperationSchema schema() {
+            OperationSchema schema = this.schema;
+            if (schema == null) {
+                schema = of(classType);
+                this.schema = schema;
+            }
+            return schema;
+        }
+    }
+}
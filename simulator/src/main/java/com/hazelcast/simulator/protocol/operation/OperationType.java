@@ -26,6 +26,7 @@ import com.hazelcast.simulator.coordinator.operations.RcStopCoordinatorOperation
 import com.hazelcast.simulator.coordinator.operations.RcTestRunOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStatusOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStopOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestUpdateOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerKillOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerScriptOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerStartOperation;
@@ -35,6 +36,8 @@ import com.hazelcast.simulator.worker.operations.PerformanceStatsOperation;
 import com.hazelcast.simulator.worker.operations.StartPhaseOperation;
 import com.hazelcast.simulator.worker.operations.StopRunOperation;
 import com.hazelcast.simulator.worker.operations.TerminateWorkerOperation;
+import com.hazelcast.simulator.worker.operations.UpdateRateOperation;
+import com.hazelcast.simulator.worker.operations.UpdateThreadCountOperation;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -64,6 +67,7 @@ public enum OperationType {
     RC_WORKER_START(RcWorkerStartOperation.class, 2007),
     RC_PRINT_LAYOUT(RcPrintLayoutOperation.class, 2008),
     RC_DOWNLOAD(RcDownloadOperation.class, 2009),
+    RC_TEST_UPDATE(RcTestUpdateOperation.class, 2010),
 
     // Agent-Operations
     CREATE_WORKER(CreateWorkerOperation.class, 3000),
@@ -75,7 +79,9 @@ public enum OperationType {
     CREATE_TEST(CreateTestOperation.class, 4002),
     EXECUTE_SCRIPT(ExecuteScriptOperation.class, 4003),
     START_TEST_PHASE(StartPhaseOperation.class, 4004),
-    STOP_TEST(StopRunOperation.class, 4005);
+    STOP_TEST(StopRunOperation.class, 4005),
+    UPDATE_RATE(UpdateRateOperation.class, 4006),
+    UPDATE_THREAD_COUNT(UpdateThreadCountOperation.class, 4007);
 
     private final Class<? extends SimulatorOperation> classType;
     private final int classId;
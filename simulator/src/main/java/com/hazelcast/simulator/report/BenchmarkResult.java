@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The loaded results of a single benchmark, so of a single session directory.
+ * <p>
+ * All times in the series are in seconds since the start of the {@link Period} of the benchmark, so the series of
+ * different benchmarks can be compared in the same chart.
+ */
+final class BenchmarkResult {
+
+    private final String name;
+    private final File dir;
+    private final List<String> workers;
+    private final Period period;
+    private final Map<String, TimeSeries> throughput;
+    private final Map<String, Map<String, TimeSeries>> workerThroughput;
+    private final List<ProbeResult> probes;
+    private final Map<String, Map<String, TimeSeries>> dstat;
+
+    @SuppressWarnings("checkstyle:parameternumber")
+    BenchmarkResult(String name,
+                    File dir,
+                    List<String> workers,
+                    Period period,
+                    Map<String, TimeSeries> throughput,
+                    Map<String, Map<String, TimeSeries>> workerThroughput,
+                    List<ProbeResult> probes,
+                    Map<String, Map<String, TimeSeries>> dstat) {
+        this.name = name;
+        this.dir = dir;
+        this.workers = workers;
+        this.period = period;
+        this.throughput = throughput;
+        this.workerThroughput = workerThroughput;
+        this.probes = probes;
+        this.dstat = dstat;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    File getDir() {
+        return dir;
+    }
+
+    List<String> getWorkers() {
+        return workers;
+    }
+
+    Period getPeriod() {
+        return period;
+    }
+
+    /**
+     * Returns the throughput per test, summed over all workers.
+     *
+     * @return map with the test id as key and the throughput as value
+     */
+    Map<String, TimeSeries> getThroughput() {
+        return throughput;
+    }
+
+    /**
+     * Returns the throughput per test per worker; only filled when the report includes the worker details.
+     *
+     * @return map with the test id as key and a map with the throughput per worker as value
+     */
+    Map<String, Map<String, TimeSeries>> getWorkerThroughput() {
+        return workerThroughput;
+    }
+
+    List<ProbeResult> getProbes() {
+        return probes;
+    }
+
+    ProbeResult getProbe(String probeName) {
+        for (ProbeResult probe : probes) {
+            if (probe.getName().equals(probeName)) {
+                return probe;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the resource utilization per metric per agent.
+     *
+     * @return map with the metric as key and a map with the series per agent as value
+     */
+    Map<String, Map<String, TimeSeries>> getDstat() {
+        return dstat;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import com.hazelcast.simulator.utils.CommandLineExitException;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import static com.hazelcast.simulator.utils.FileUtils.stripExtension;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Loads a single benchmark.
+ * <p>
+ * The performance files of all workers, the HDR files of every probe and the dstat files of every agent are processed by
+ * separate tasks, so they are processed in parallel by the {@link java.util.concurrent.ForkJoinPool}.
+ */
+final class BenchmarkTask extends RecursiveTask<BenchmarkResult> {
+
+    private static final String HDR_EXTENSION = ".hdr";
+
+    private final String name;
+    private final File dir;
+    private final int warmupSeconds;
+    private final int cooldownSeconds;
+    private final boolean includeWorkers;
+
+    BenchmarkTask(String name, File dir, int warmupSeconds, int cooldownSeconds, boolean includeWorkers) {
+        this.name = name;
+        this.dir = dir;
+        this.warmupSeconds = warmupSeconds;
+        this.cooldownSeconds = cooldownSeconds;
+        this.includeWorkers = includeWorkers;
+    }
+
+    @Override
+    protected BenchmarkResult compute() {
+        List<File> workerDirs = workerDirs();
+        if (workerDirs.isEmpty()) {
+            throw new CommandLineExitException(format("Invalid benchmark %s from directory [%s]; no workers found",
+                    name, dir.getAbsolutePath()));
+        }
+
+        List<DstatTask> dstatTasks = new ArrayList<>();
+        for (File file : listFiles(dir)) {
+            if (file.getName().endsWith(DstatTask.DSTAT_FILE_SUFFIX)) {
+                dstatTasks.add(new DstatTask(file));
+            }
+        }
+        ForkJoinTask.invokeAll(dstatTasks);
+
+        Map<String, WorkerThroughputTask> throughputTasks = new LinkedHashMap<>();
+        for (File workerDir : workerDirs) {
+            throughputTasks.put(workerDir.getName(), new WorkerThroughputTask(workerDir));
+        }
+        ForkJoinTask.invokeAll(throughputTasks.values());
+
+        Map<String, Map<String, TimeSeries>> workerThroughput = new LinkedHashMap<>();
+        for (Map.Entry<String, WorkerThroughputTask> entry : throughputTasks.entrySet()) {
+            workerThroughput.put(entry.getKey(), entry.getValue().join());
+        }
+
+        Period period = period(workerThroughput);
+        double originSeconds = period == Period.ALL ? Double.NaN : period.getStartMillis() / (double) SECONDS.toMillis(1);
+
+        List<ProbeTask> probeTasks = new ArrayList<>();
+        for (Map.Entry<String, Map<String, File>> entry : hdrFilesPerProbe(workerDirs).entrySet()) {
+            probeTasks.add(new ProbeTask(entry.getKey(), entry.getValue(), period, originSeconds, includeWorkers));
+        }
+        ForkJoinTask.invokeAll(probeTasks);
+
+        List<ProbeResult> probes = new ArrayList<>(probeTasks.size());
+        for (ProbeTask task : probeTasks) {
+            probes.add(task.join());
+        }
+
+        List<String> workers = new ArrayList<>(workerThroughput.keySet());
+        return new BenchmarkResult(name, dir, workers, period,
+                sumThroughput(workerThroughput, period, originSeconds),
+                includeWorkers ? throughputPerWorker(workerThroughput, period, originSeconds) : new TreeMap<>(),
+                probes,
+                dstat(dstatTasks, period, originSeconds));
+    }
+
+    private List<File> workerDirs() {
+        List<File> workerDirs = new ArrayList<>();
+        for (File file : listFiles(dir)) {
+            // the worker directories start with the agent address, e.g. A1_W1-192.168.1.1-member
+            if (file.isDirectory() && file.getName().startsWith("A")) {
+                workerDirs.add(file);
+            }
+        }
+        return workerDirs;
+    }
+
+    private static List<File> listFiles(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    /**
+     * The period starts at the first measurement plus the warmup, and ends at the last measurement minus the cooldown.
+     */
+    private Period period(Map<String, Map<String, TimeSeries>> workerThroughput) {
+        double first = Double.MAX_VALUE;
+        double last = -Double.MAX_VALUE;
+        for (Map<String, TimeSeries> seriesPerTest : workerThroughput.values()) {
+            for (TimeSeries series : seriesPerTest.values()) {
+                if (!series.isEmpty()) {
+                    first = Math.min(first, series.time(0));
+                    last = Math.max(last, series.time(series.size() - 1));
+                }
+            }
+        }
+
+        if (first == Double.MAX_VALUE) {
+            return Period.ALL;
+        }
+
+        long millisPerSecond = SECONDS.toMillis(1);
+        // the first measurement is the end of the first interval, so one interval before that the test started
+        long startMillis = Math.round(first * millisPerSecond) - millisPerSecond + warmupSeconds * millisPerSecond;
+        long endMillis = Math.round(last * millisPerSecond) - cooldownSeconds * millisPerSecond;
+        if (endMillis <= startMillis) {
+            throw new CommandLineExitException(format("Benchmark %s has no measurements left after %d seconds warmup"
+                    + " and %d seconds cooldown", name, warmupSeconds, cooldownSeconds));
+        }
+        return new Period(startMillis, endMillis);
+    }
+
+    private static Map<String, TimeSeries> sumThroughput(Map<String, Map<String, TimeSeries>> workerThroughput,
+                                                         Period period, double originSeconds) {
+        Map<String, TreeMap<Long, Double>> sums = new TreeMap<>();
+        for (Map<String, TimeSeries> seriesPerTest : workerThroughput.values()) {
+            for (Map.Entry<String, TimeSeries> entry : seriesPerTest.entrySet()) {
+                TreeMap<Long, Double> sum = sums.computeIfAbsent(entry.getKey(), k -> new TreeMap<>());
+                TimeSeries series = entry.getValue();
+                for (int i = 0; i < series.size(); i++) {
+                    if (period.containsSeconds(series.time(i))) {
+                        sum.merge(Math.round(series.time(i)), series.value(i), Double::sum);
+                    }
+                }
+            }
+        }
+
+        Map<String, TimeSeries> result = new TreeMap<>();
+        for (Map.Entry<String, TreeMap<Long, Double>> entry : sums.entrySet()) {
+            TimeSeries series = new TimeSeries(entry.getKey());
+            for (Map.Entry<Long, Double> point : entry.getValue().entrySet()) {
+                series.add(point.getKey() - origin(originSeconds, entry.getValue()), point.getValue());
+            }
+            result.put(entry.getKey(), series);
+        }
+        return result;
+    }
+
+    private static double origin(double originSeconds, TreeMap<Long, Double> points) {
+        return Double.isNaN(originSeconds) ? points.firstKey() : originSeconds;
+    }
+
+    private static Map<String, Map<String, TimeSeries>> throughputPerWorker(
+            Map<String, Map<String, TimeSeries>> workerThroughput, Period period, double originSeconds) {
+        Map<String, Map<String, TimeSeries>> result = new TreeMap<>();
+        for (Map.Entry<String, Map<String, TimeSeries>> workerEntry : workerThroughput.entrySet()) {
+            for (Map.Entry<String, TimeSeries> testEntry : workerEntry.getValue().entrySet()) {
+                result.computeIfAbsent(testEntry.getKey(), k -> new TreeMap<>())
+                        .put(workerEntry.getKey(), trim(testEntry.getValue(), workerEntry.getKey(), period, originSeconds));
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Map<String, TimeSeries>> dstat(List<DstatTask> dstatTasks, Period period, double originSeconds) {
+        Map<String, Map<String, TimeSeries>> result = new LinkedHashMap<>();
+        for (DstatTask task : dstatTasks) {
+            for (Map.Entry<String, TimeSeries> entry : task.join().entrySet()) {
+                TimeSeries series = entry.getValue();
+                result.computeIfAbsent(entry.getKey(), k -> new TreeMap<>())
+                        .put(series.getName(), trim(series, series.getName(), period, originSeconds));
+            }
+        }
+        return result;
+    }
+
+    private static TimeSeries trim(TimeSeries series, String name, Period period, double originSeconds) {
+        TimeSeries result = new TimeSeries(name);
+        double origin = Double.isNaN(originSeconds) && !series.isEmpty() ? series.time(0) : originSeconds;
+        for (int i = 0; i < series.size(); i++) {
+            if (period.containsSeconds(series.time(i))) {
+                result.add(series.time(i) - origin, series.value(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the HDR files per probe. The name of the HDR file is [testId]-[probeName].hdr, and the file name without the
+     * extension is used as probe name.
+     */
+    private static Map<String, Map<String, File>> hdrFilesPerProbe(List<File> workerDirs) {
+        Map<String, Map<String, File>> result = new TreeMap<>();
+        for (File workerDir : workerDirs) {
+            for (File file : listFiles(workerDir)) {
+                if (file.getName().endsWith(HDR_EXTENSION)) {
+                    result.computeIfAbsent(stripExtension(file.getName()), k -> new LinkedHashMap<>())
+                            .put(workerDir.getName(), file);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+
+import static com.hazelcast.simulator.report.ProbeResult.toMicros;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static java.lang.String.format;
+
+/**
+ * Writes the summary of every probe of every benchmark as CSV, so the results can be processed further with a spreadsheet.
+ * <p>
+ * The columns are the same as the report.csv written by {@link com.hazelcast.simulator.utils.ReportCsv}.
+ */
+@SuppressWarnings("checkstyle:magicnumber")
+final class CsvReportWriter {
+
+    static final String REPORT_FILE_NAME = "report.csv";
+
+    private static final double[] PERCENTILES = {10, 20, 50, 75, 90, 95, 99, 99.9, 99.99};
+
+    private final List<BenchmarkResult> benchmarks;
+
+    CsvReportWriter(List<BenchmarkResult> benchmarks) {
+        this.benchmarks = benchmarks;
+    }
+
+    File write(File outputDir) {
+        File file = new File(outputDir, REPORT_FILE_NAME);
+        writeText(render(), file);
+        return file;
+    }
+
+    String render() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\"session\",\"benchmark\"");
+        for (double percentile : PERCENTILES) {
+            sb.append(",\"").append(ProbeResult.percentileName(percentile).substring(1)).append("%(us)\"");
+        }
+        sb.append(",\"max(us)\",\"operations\",\"duration(ms)\",\"throughput\"\n");
+
+        for (BenchmarkResult benchmark : benchmarks) {
+            for (ProbeResult probe : benchmark.getProbes()) {
+                sb.append(benchmark.getDir().getName()).append(',').append(probe.getName());
+                for (double percentile : PERCENTILES) {
+                    sb.append(format(Locale.US, ",%.3f", toMicros(probe.getTotal().getValueAtPercentile(percentile))));
+                }
+                sb.append(format(Locale.US, ",%.3f", toMicros(probe.getTotal().getMaxValue())))
+                        .append(',').append(probe.getOperationCount())
+                        .append(',').append(probe.getDurationMillis())
+                        .append(format(Locale.US, ",%.3f", probe.getThroughputPerSecond()))
+                        .append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Utility methods to stream the csv files of a benchmark.
+ */
+final class CsvUtils {
+
+    private CsvUtils() {
+    }
+
+    /**
+     * Reads all rows of a csv file which start with a numeric value, so the header lines are skipped.
+     *
+     * @param file the csv file
+     * @return the rows, split on the comma
+     */
+    static List<String[]> readNumericRows(File file) {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] row = line.split(",");
+                if (row.length > 0 && isNumeric(row[0])) {
+                    rows.add(row);
+                }
+            }
+        } catch (IOException e) {
+            throw rethrow(e);
+        }
+        return rows;
+    }
+
+    static boolean isNumeric(String value) {
+        return parseDouble(value) != null;
+    }
+
+    /**
+     * Parses a double; empty values are allowed since e.g. the allocation column of the performance.csv can be empty.
+     *
+     * @param value the value to parse
+     * @return the parsed value or {@code null} if the value isn't a number
+     */
+    static Double parseDouble(String value) {
+        String trimmed = value.trim();
+        if (trimmed.startsWith("\"") && trimmed.endsWith("\"") && trimmed.length() > 1) {
+            trimmed = trimmed.substring(1, trimmed.length() - 1);
+        }
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(trimmed);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
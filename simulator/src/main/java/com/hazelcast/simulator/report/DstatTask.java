@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+import static com.hazelcast.simulator.report.CsvUtils.parseDouble;
+import static com.hazelcast.simulator.report.CsvUtils.readNumericRows;
+
+/**
+ * Loads the resource utilization of a single agent from its [agent]_dstat.csv file.
+ * <p>
+ * The file is written by 'dstat --epoch -m --all -l', so the first column is the epoch time followed by the memory, cpu,
+ * disk, network, paging, system and load columns. The times of the returned series are epoch seconds.
+ */
+@SuppressWarnings("checkstyle:magicnumber")
+final class DstatTask extends RecursiveTask<Map<String, TimeSeries>> {
+
+    static final String DSTAT_FILE_SUFFIX = "_dstat.csv";
+
+    private final File dstatFile;
+
+    DstatTask(File dstatFile) {
+        this.dstatFile = dstatFile;
+    }
+
+    static String agentName(File dstatFile) {
+        String name = dstatFile.getName();
+        return name.substring(0, name.length() - DSTAT_FILE_SUFFIX.length());
+    }
+
+    @Override
+    protected Map<String, TimeSeries> compute() {
+        Map<String, TimeSeries> result = new LinkedHashMap<>();
+        List<String[]> rows = readNumericRows(dstatFile);
+        add(result, rows, "CPU Total %", 5, 6);
+        add(result, rows, "CPU User %", 5);
+        add(result, rows, "CPU System %", 6);
+        add(result, rows, "CPU Wait %", 8);
+        add(result, rows, "Memory Used (MB)", 1);
+        add(result, rows, "Net Receive (MB/s)", 13);
+        add(result, rows, "Net Send (MB/s)", 14);
+        add(result, rows, "Load Average 1m", 19);
+        return result;
+    }
+
+    private void add(Map<String, TimeSeries> result, List<String[]> rows, String metric, int... columns) {
+        boolean bytes = metric.contains("MB");
+        TimeSeries series = new TimeSeries(agentName(dstatFile));
+        for (String[] row : rows) {
+            double value = 0;
+            boolean found = true;
+            for (int column : columns) {
+                Double columnValue = column < row.length ? parseDouble(row[column]) : null;
+                if (columnValue == null) {
+                    found = false;
+                    break;
+                }
+                value += columnValue;
+            }
+            if (found) {
+                series.add(parseDouble(row[0]), bytes ? value / (1024 * 1024) : value);
+            }
+        }
+        if (!series.isEmpty()) {
+            result.put(metric, series);
+        }
+    }
+}
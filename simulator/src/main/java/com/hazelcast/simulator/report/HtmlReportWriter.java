@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.simulator.report.ProbeResult.PERCENTILES;
+import static com.hazelcast.simulator.report.ProbeResult.percentileName;
+import static com.hazelcast.simulator.report.ProbeResult.toMicros;
+import static com.hazelcast.simulator.report.SvgChart.formatNumber;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static java.lang.String.format;
+
+/**
+ * Writes the loaded benchmarks as a single self-contained HTML page; the diagrams are inlined as SVG, so the report can be
+ * opened or mailed without any other files.
+ * <p>
+ * If multiple benchmarks are loaded, every diagram contains a line per benchmark and the summary shows the difference
+ * relative to the first benchmark.
+ */
+@SuppressWarnings("checkstyle:magicnumber")
+final class HtmlReportWriter {
+
+    static final String REPORT_FILE_NAME = "index.html";
+
+    private static final String[] LATENCY_METRICS = {"p50", "p99", "p99.9", "max"};
+    private static final String SECONDS_LABEL = "Time (seconds)";
+
+    private final List<BenchmarkResult> benchmarks;
+    private final boolean includeWorkers;
+    private final StringBuilder sb = new StringBuilder();
+
+    HtmlReportWriter(List<BenchmarkResult> benchmarks, boolean includeWorkers) {
+        this.benchmarks = benchmarks;
+        this.includeWorkers = includeWorkers;
+    }
+
+    File write(File outputDir) {
+        File file = new File(outputDir, REPORT_FILE_NAME);
+        writeText(render(), file);
+        return file;
+    }
+
+    String render() {
+        sb.setLength(0);
+        sb.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n<title>Benchmark Report</title>\n")
+                .append("<style>\n")
+                .append("body { font-family: sans-serif; margin: 20px; }\n")
+                .append("table { border-collapse: collapse; margin-bottom: 20px; }\n")
+                .append("th, td { border: 1px solid #ccc; padding: 4px 8px; text-align: right; }\n")
+                .append("th:first-child, td:first-child { text-align: left; }\n")
+                .append(".better { color: #2ca02c; } .worse { color: #d62728; }\n")
+                .append("svg { display: block; margin-bottom: 20px; }\n")
+                .append("</style>\n</head>\n<body>\n")
+                .append("<h1>Benchmark Report</h1>\n");
+
+        renderBenchmarks();
+        renderSummary();
+        renderThroughput();
+        renderLatency();
+        renderDstat();
+
+        sb.append("</body>\n</html>\n");
+        return sb.toString();
+    }
+
+    private void renderBenchmarks() {
+        sb.append("<h2>Benchmarks</h2>\n<table>\n")
+                .append("<tr><th>Name</th><th>Directory</th><th>Workers</th><th>Duration (s)</th></tr>\n");
+        for (BenchmarkResult benchmark : benchmarks) {
+            Period period = benchmark.getPeriod();
+            String duration = period == Period.ALL
+                    ? "-" : formatNumber((period.getEndMillis() - period.getStartMillis()) / 1000d);
+            sb.append("<tr><td>").append(escape(benchmark.getName()))
+                    .append("</td><td>").append(escape(benchmark.getDir().getAbsolutePath()))
+                    .append("</td><td>").append(benchmark.getWorkers().size())
+                    .append("</td><td>").append(duration)
+                    .append("</td></tr>\n");
+        }
+        sb.append("</table>\n");
+    }
+
+    private void renderSummary() {
+        sb.append("<h2>Summary</h2>\n");
+        for (String probeName : probeNames()) {
+            sb.append("<h3>").append(escape(probeName)).append("</h3>\n<table>\n");
+            renderSummaryHeader();
+
+            ProbeResult baseline = benchmarks.get(0).getProbe(probeName);
+            for (BenchmarkResult benchmark : benchmarks) {
+                sb.append("<tr><td>").append(escape(benchmark.getName())).append("</td>");
+                ProbeResult probe = benchmark.getProbe(probeName);
+                if (probe == null) {
+                    sb.append("<td colspan=\"").append(PERCENTILES.length + 4).append("\">-</td></tr>\n");
+                } else {
+                    renderSummaryRow(probe, baseline);
+                }
+            }
+            sb.append("</table>\n");
+        }
+    }
+
+    private void renderSummaryHeader() {
+        sb.append("<tr><th>Benchmark</th><th>Operations</th><th>Duration (s)</th><th>Throughput (ops/s)</th>");
+        for (double percentile : PERCENTILES) {
+            sb.append("<th>").append(percentileName(percentile)).append(" (&micro;s)</th>");
+        }
+        sb.append("<th>max (&micro;s)</th>");
+        if (benchmarks.size() > 1) {
+            sb.append("<th>&Delta; throughput</th><th>&Delta; p99</th>");
+        }
+        sb.append("</tr>\n");
+    }
+
+    private void renderSummaryRow(ProbeResult probe, ProbeResult baseline) {
+        sb.append("<td>").append(probe.getOperationCount()).append("</td>")
+                .append("<td>").append(formatNumber(probe.getDurationMillis() / 1000d)).append("</td>")
+                .append("<td>").append(formatNumber(probe.getThroughputPerSecond())).append("</td>");
+        for (double percentile : PERCENTILES) {
+            sb.append("<td>").append(formatNumber(p(probe, percentile))).append("</td>");
+        }
+        sb.append("<td>").append(formatNumber(toMicros(probe.getTotal().getMaxValue()))).append("</td>");
+        if (benchmarks.size() > 1) {
+            if (baseline == null) {
+                sb.append("<td>-</td><td>-</td>");
+            } else {
+                sb.append(delta(probe.getThroughputPerSecond(), baseline.getThroughputPerSecond(), true));
+                sb.append(delta(p(probe, 99), p(baseline, 99), false));
+            }
+        }
+        sb.append("</tr>\n");
+    }
+
+    private static double p(ProbeResult probe, double percentile) {
+        return toMicros(probe.getTotal().getValueAtPercentile(percentile));
+    }
+
+    private static String delta(double value, double baseline, boolean higherIsBetter) {
+        if (baseline == 0) {
+            return "<td>-</td>";
+        }
+        double delta = (value - baseline) * 100 / baseline;
+        String cssClass = delta == 0 ? "" : (delta > 0 == higherIsBetter ? " class=\"better\"" : " class=\"worse\"");
+        return format(Locale.US, "<td%s>%+.1f%%</td>", cssClass, delta);
+    }
+
+    private void renderThroughput() {
+        Set<String> testIds = new LinkedHashSet<>();
+        for (BenchmarkResult benchmark : benchmarks) {
+            testIds.addAll(benchmark.getThroughput().keySet());
+        }
+        if (testIds.isEmpty()) {
+            return;
+        }
+
+        sb.append("<h2>Throughput</h2>\n");
+        for (String testId : testIds) {
+            SvgChart chart = new SvgChart("Throughput " + testId, SECONDS_LABEL, "Operations/second");
+            for (BenchmarkResult benchmark : benchmarks) {
+                TimeSeries series = benchmark.getThroughput().get(testId);
+                if (series != null) {
+                    chart.add(series.shift(benchmark.getName(), 0));
+                }
+            }
+            appendChart(chart);
+
+            if (includeWorkers) {
+                for (BenchmarkResult benchmark : benchmarks) {
+                    Map<String, TimeSeries> perWorker = benchmark.getWorkerThroughput().get(testId);
+                    if (perWorker != null) {
+                        appendChart(workerChart("Throughput " + testId + " per worker of " + benchmark.getName(),
+                                "Operations/second", perWorker.values()));
+                    }
+                }
+            }
+        }
+    }
+
+    private void renderLatency() {
+        Set<String> probeNames = probeNames();
+        if (probeNames.isEmpty()) {
+            return;
+        }
+
+        sb.append("<h2>Latency</h2>\n");
+        for (String probeName : probeNames) {
+            sb.append("<h3>").append(escape(probeName)).append("</h3>\n");
+            SvgChart distribution = new SvgChart("Latency distribution " + probeName, "Percentile", "Latency (\u00b5s)")
+                    .logPercentileX();
+            for (BenchmarkResult benchmark : benchmarks) {
+                ProbeResult probe = benchmark.getProbe(probeName);
+                if (probe != null) {
+                    distribution.add(probe.getDistribution().shift(benchmark.getName(), 0));
+                }
+            }
+            appendChart(distribution);
+
+            for (String metric : LATENCY_METRICS) {
+                SvgChart chart = new SvgChart("Latency " + metric + " " + probeName, SECONDS_LABEL, "Latency (\u00b5s)");
+                for (BenchmarkResult benchmark : benchmarks) {
+                    ProbeResult probe = benchmark.getProbe(probeName);
+                    if (probe != null) {
+                        chart.add(probe.getIntervalSeries(metric).shift(benchmark.getName(), 0));
+                    }
+                }
+                appendChart(chart);
+            }
+
+            if (includeWorkers) {
+                renderWorkerLatency(probeName);
+            }
+        }
+    }
+
+    private void renderWorkerLatency(String probeName) {
+        for (BenchmarkResult benchmark : benchmarks) {
+            ProbeResult probe = benchmark.getProbe(probeName);
+            if (probe == null || probe.getWorkerResults().isEmpty()) {
+                continue;
+            }
+            List<TimeSeries> p99 = new ArrayList<>();
+            List<TimeSeries> throughput = new ArrayList<>();
+            for (Map.Entry<String, ProbeResult> entry : probe.getWorkerResults().entrySet()) {
+                p99.add(entry.getValue().getIntervalSeries("p99").shift(entry.getKey(), 0));
+                throughput.add(entry.getValue().getThroughput().shift(entry.getKey(), 0));
+            }
+            appendChart(workerChart("Latency p99 " + probeName + " per worker of " + benchmark.getName(),
+                    "Latency (\u00b5s)", p99));
+            appendChart(workerChart("Throughput " + probeName + " per worker of " + benchmark.getName(),
+                    "Operations/second", throughput));
+        }
+    }
+
+    private void renderDstat() {
+        Set<String> metrics = new LinkedHashSet<>();
+        for (BenchmarkResult benchmark : benchmarks) {
+            metrics.addAll(benchmark.getDstat().keySet());
+        }
+        if (metrics.isEmpty()) {
+            return;
+        }
+
+        sb.append("<h2>Resource Utilization</h2>\n");
+        for (String metric : metrics) {
+            SvgChart chart = new SvgChart(metric, SECONDS_LABEL, metric);
+            for (BenchmarkResult benchmark : benchmarks) {
+                Map<String, TimeSeries> perAgent = benchmark.getDstat().get(metric);
+                if (perAgent == null) {
+                    continue;
+                }
+                for (TimeSeries series : perAgent.values()) {
+                    String name = benchmarks.size() > 1 ? benchmark.getName() + " " + series.getName() : series.getName();
+                    chart.add(series.shift(name, 0));
+                }
+            }
+            appendChart(chart);
+        }
+    }
+
+    private static SvgChart workerChart(String title, String yLabel, Iterable<TimeSeries> seriesList) {
+        SvgChart chart = new SvgChart(title, SECONDS_LABEL, yLabel);
+        for (TimeSeries series : seriesList) {
+            chart.add(series);
+        }
+        return chart;
+    }
+
+    private void appendChart(SvgChart chart) {
+        if (!chart.isEmpty()) {
+            sb.append(chart.render());
+        }
+    }
+
+    private Set<String> probeNames() {
+        Set<String> probeNames = new LinkedHashSet<>();
+        for (BenchmarkResult benchmark : benchmarks) {
+            for (ProbeResult probe : benchmark.getProbes()) {
+                probeNames.add(probe.getName());
+            }
+        }
+        return probeNames;
+    }
+
+    static String escape(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    result.append("&lt;");
+                    break;
+                case '>':
+                    result.append("&gt;");
+                    break;
+                case '&':
+                    result.append("&amp;");
+                    break;
+                case '"':
+                    result.append("&quot;");
+                    break;
+                default:
+                    result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
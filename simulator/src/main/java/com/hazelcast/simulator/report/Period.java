@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * The part of a benchmark which is included in the report; the warmup and the cooldown are cut off.
+ */
+final class Period {
+
+    static final Period ALL = new Period(0, Long.MAX_VALUE);
+
+    private final long startMillis;
+    private final long endMillis;
+
+    Period(long startMillis, long endMillis) {
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+    }
+
+    long getStartMillis() {
+        return startMillis;
+    }
+
+    long getEndMillis() {
+        return endMillis;
+    }
+
+    boolean contains(long startMillis, long endMillis) {
+        return startMillis >= this.startMillis && endMillis <= this.endMillis;
+    }
+
+    /**
+     * Checks if a measurement is part of this period. The measurements of the performance and dstat files are taken at the
+     * end of their interval, so a measurement taken exactly at the start of the period belongs to the warmup.
+     *
+     * @param epochSeconds the time of the measurement in seconds
+     * @return true if the measurement is part of this period, false otherwise
+     */
+    boolean containsSeconds(double epochSeconds) {
+        double millis = epochSeconds * SECONDS.toMillis(1);
+        return millis > startMillis && millis <= endMillis;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * The latency results of a single probe; either of a single worker, or merged over all workers of a benchmark.
+ * <p>
+ * The latencies are recorded in nanoseconds and reported in microseconds.
+ */
+@SuppressWarnings("checkstyle:magicnumber")
+final class ProbeResult {
+
+    static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private static final int DISTRIBUTION_TICKS_PER_HALF_DISTANCE = 5;
+
+    private final String name;
+    private final Histogram total;
+    private final Map<String, TimeSeries> intervalSeries = new LinkedHashMap<>();
+    private final TimeSeries throughput = new TimeSeries("throughput");
+    private final Map<String, ProbeResult> workerResults = new LinkedHashMap<>();
+    private long startMillis = Long.MAX_VALUE;
+    private long endMillis = Long.MIN_VALUE;
+
+    ProbeResult(String name, int numberOfSignificantValueDigits) {
+        this.name = name;
+        this.total = new Histogram(numberOfSignificantValueDigits);
+        for (double percentile : PERCENTILES) {
+            intervalSeries.put(percentileName(percentile), new TimeSeries(percentileName(percentile)));
+        }
+        intervalSeries.put("max", new TimeSeries("max"));
+    }
+
+    static String percentileName(double percentile) {
+        String s = Double.toString(percentile);
+        return "p" + (s.endsWith(".0") ? s.substring(0, s.length() - 2) : s);
+    }
+
+    /**
+     * Records the (merged) histogram of an interval.
+     *
+     * @param timeSeconds         the time of the interval in seconds
+     * @param histogram           the histogram of the interval
+     * @param operationsPerSecond the throughput of the interval
+     */
+    void record(double timeSeconds, Histogram histogram, double operationsPerSecond) {
+        total.add(histogram);
+        startMillis = Math.min(startMillis, histogram.getStartTimeStamp());
+        endMillis = Math.max(endMillis, histogram.getEndTimeStamp());
+
+        for (double percentile : PERCENTILES) {
+            intervalSeries.get(percentileName(percentile)).add(timeSeconds, toMicros(histogram.getValueAtPercentile(percentile)));
+        }
+        intervalSeries.get("max").add(timeSeconds, toMicros(histogram.getMaxValue()));
+        throughput.add(timeSeconds, operationsPerSecond);
+    }
+
+    static double toMicros(double nanos) {
+        return nanos / NANOSECONDS.convert(1, MICROSECONDS);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Histogram getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the series of a metric per interval.
+     *
+     * @param metric the metric, e.g. p99 or max
+     * @return the series in microseconds
+     */
+    TimeSeries getIntervalSeries(String metric) {
+        return intervalSeries.get(metric);
+    }
+
+    Iterable<String> getIntervalMetrics() {
+        return intervalSeries.keySet();
+    }
+
+    TimeSeries getThroughput() {
+        return throughput;
+    }
+
+    Map<String, ProbeResult> getWorkerResults() {
+        return workerResults;
+    }
+
+    long getOperationCount() {
+        return total.getTotalCount();
+    }
+
+    long getDurationMillis() {
+        return endMillis > startMillis ? endMillis - startMillis : 0;
+    }
+
+    double getThroughputPerSecond() {
+        long durationMillis = getDurationMillis();
+        return durationMillis == 0 ? 0 : getOperationCount() * 1000d / durationMillis;
+    }
+
+    /**
+     * Returns the latency distribution of all intervals, with the percentile on the x-axis and the latency in microseconds
+     * on the y-axis.
+     * <p>
+     * The max is plotted a decade beyond the highest percentile below 100, since 100 can't be shown on a logarithmic axis.
+     *
+     * @return the latency distribution
+     */
+    TimeSeries getDistribution() {
+        TimeSeries distribution = new TimeSeries("distribution");
+        if (total.getTotalCount() == 0) {
+            return distribution;
+        }
+
+        double lastPercentile = 0;
+        for (HistogramIterationValue value : total.percentiles(DISTRIBUTION_TICKS_PER_HALF_DISTANCE)) {
+            double percentile = value.getPercentileLevelIteratedTo();
+            if (percentile >= 100) {
+                break;
+            }
+            distribution.add(percentile, toMicros(value.getValueIteratedTo()));
+            lastPercentile = percentile;
+        }
+        distribution.add(100 - (100 - lastPercentile) / 10, toMicros(total.getMaxValue()));
+        return distribution;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import com.hazelcast.simulator.utils.HistogramLogMerger;
+import com.hazelcast.simulator.utils.HistogramLogMerger.IntervalListener;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+
+/**
+ * Loads the HDR files of a single probe of all workers of a benchmark.
+ * <p>
+ * The interval histograms of the workers are streamed and merged by the {@link HistogramLogMerger}, so only a single
+ * histogram per worker is kept in memory. The intervals are merged into one second buckets on their start time, and the time
+ * of an interval in the result is the start of its bucket. Just like the {@link com.hazelcast.simulator.utils.HistogramTrimmer}
+ * the intervals outside the {@link Period} are skipped.
+ */
+final class ProbeTask extends RecursiveTask<ProbeResult> {
+
+    private static final long MILLIS_PER_SECOND = 1000;
+    // the precision of the probes, used when there is not a single interval to take the precision from
+    private static final int DEFAULT_SIGNIFICANT_VALUE_DIGITS = 3;
+
+    private final String probeName;
+    private final Map<String, File> hdrFiles;
+    private final Period period;
+    private final double originSeconds;
+    private final boolean includeWorkers;
+
+    /**
+     * Creates a ProbeTask.
+     *
+     * @param probeName      the name of the probe
+     * @param hdrFiles       the HDR file of the probe per worker
+     * @param period         the period to include
+     * @param originSeconds  the epoch time in seconds which is used as time 0
+     * @param includeWorkers if the results per worker should be included
+     */
+    ProbeTask(String probeName, Map<String, File> hdrFiles, Period period, double originSeconds, boolean includeWorkers) {
+        this.probeName = probeName;
+        this.hdrFiles = hdrFiles;
+        this.period = period;
+        this.originSeconds = originSeconds;
+        this.includeWorkers = includeWorkers;
+    }
+
+    @Override
+    protected ProbeResult compute() {
+        List<String> workers = new ArrayList<>(hdrFiles.keySet());
+        HistogramLogReader[] readers = new HistogramLogReader[workers.size()];
+        try {
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new HistogramLogReader(hdrFiles.get(workers.get(i)));
+            }
+            return merge(workers, readers);
+        } catch (FileNotFoundException e) {
+            throw rethrow(e);
+        } finally {
+            for (HistogramLogReader reader : readers) {
+                closeQuietly(reader);
+            }
+        }
+    }
+
+    private ProbeResult merge(List<String> workers, HistogramLogReader[] readers) {
+        ResultListener listener = new ResultListener(readers.length);
+        HistogramLogMerger.merge(readers, period.getStartMillis(), period.getEndMillis(), listener);
+
+        ProbeResult result = listener.result;
+        if (result == null) {
+            result = new ProbeResult(probeName, DEFAULT_SIGNIFICANT_VALUE_DIGITS);
+        }
+        for (int i = 0; i < listener.workerResults.length; i++) {
+            if (listener.workerResults[i] != null) {
+                result.getWorkerResults().put(workers.get(i), listener.workerResults[i]);
+            }
+        }
+        return result;
+    }
+
+    private ProbeResult recordWorker(ProbeResult workerResult, double time, Histogram histogram, double throughput) {
+        if (workerResult == null) {
+            workerResult = new ProbeResult(probeName, histogram.getNumberOfSignificantValueDigits());
+        }
+        workerResult.record(time, histogram, throughput);
+        return workerResult;
+    }
+
+    private static double throughput(Histogram histogram) {
+        long durationMillis = histogram.getEndTimeStamp() - histogram.getStartTimeStamp();
+        return durationMillis <= 0 ? 0 : histogram.getTotalCount() * (double) MILLIS_PER_SECOND / durationMillis;
+    }
+
+    private final class ResultListener implements IntervalListener {
+
+        private final ProbeResult[] workerResults;
+        private ProbeResult result;
+        private double origin;
+
+        private ResultListener(int workerCount) {
+            this.workerResults = new ProbeResult[workerCount];
+        }
+
+        @Override
+        public void onInterval(long startMillis, Histogram merged, Histogram[] histograms) {
+            double startSeconds = startMillis / (double) MILLIS_PER_SECOND;
+            if (result == null) {
+                result = new ProbeResult(probeName, merged.getNumberOfSignificantValueDigits());
+                // without a known origin, the first interval is used as time 0
+                origin = Double.isNaN(originSeconds) ? startSeconds : originSeconds;
+            }
+
+            double time = startSeconds - origin;
+            double throughput = 0;
+            for (int i = 0; i < histograms.length; i++) {
+                if (histograms[i] == null) {
+                    continue;
+                }
+                double workerThroughput = throughput(histograms[i]);
+                throughput += workerThroughput;
+                if (includeWorkers) {
+                    workerResults[i] = recordWorker(workerResults[i], time, histograms[i], workerThroughput);
+                }
+            }
+            result.record(time, merged, throughput);
+        }
+    }
+}
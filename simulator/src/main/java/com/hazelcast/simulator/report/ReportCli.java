@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import com.hazelcast.simulator.utils.CommandLineExitException;
+import joptsimple.NonOptionArgumentSpec;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.util.List;
+
+import static com.hazelcast.simulator.common.GitInfo.getBuildTime;
+import static com.hazelcast.simulator.common.GitInfo.getCommitIdAbbrev;
+import static com.hazelcast.simulator.utils.CliUtils.initOptionsWithHelp;
+import static com.hazelcast.simulator.utils.CliUtils.printHelpAndExit;
+import static com.hazelcast.simulator.utils.CommonUtils.exitWithError;
+import static com.hazelcast.simulator.utils.CommonUtils.getSimulatorVersion;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+
+final class ReportCli {
+
+    private static final Logger LOGGER = Logger.getLogger(ReportCli.class);
+
+    private static final String HELP = "Creates an HTML report from one or more benchmarks.\n"
+            + "\n"
+            + "Every benchmark directory can be followed by a name in brackets, the directory name is used otherwise.\n"
+            + "If multiple benchmarks are given, they are compared with the first benchmark.\n"
+            + "\n"
+            + "Examples:\n"
+            + "benchmark-report 2016-08-02__22_08_09\n"
+            + "benchmark-report -o compare 2016-08-02__22_08_09 [3.7] 2016-08-02__22_18_21 [3.8]";
+
+    private final OptionParser parser = new OptionParser();
+
+    private final NonOptionArgumentSpec<String> benchmarksSpec = parser
+            .nonOptions("benchmark directories").ofType(String.class);
+
+    private final OptionSpec<String> outputSpec = parser.acceptsAll(asList("o", "output"),
+            "The output directory for the report.")
+            .withRequiredArg().ofType(String.class).defaultsTo("report");
+
+    private final OptionSpec<Integer> warmupSpec = parser.acceptsAll(asList("w", "warmup"),
+            "The warmup period in seconds. The warmup removes the measurements from the start.")
+            .withRequiredArg().ofType(Integer.class).defaultsTo(0);
+
+    private final OptionSpec<Integer> cooldownSpec = parser.acceptsAll(asList("c", "cooldown"),
+            "The cooldown period in seconds. The cooldown removes the measurements from the end.")
+            .withRequiredArg().ofType(Integer.class).defaultsTo(0);
+
+    private final OptionSpec fullSpec = parser.acceptsAll(asList("f", "full"),
+            "Adds the throughput and latency diagrams of the individual workers.");
+
+    private final OptionSpec<Integer> parallelismSpec = parser.accepts("parallelism",
+            "The number of threads used to process the benchmark files.")
+            .withRequiredArg().ofType(Integer.class).defaultsTo(Runtime.getRuntime().availableProcessors());
+
+    private final OptionSet options;
+
+    ReportCli(String[] args) {
+        options = initOptionsWithHelp(parser, HELP, args);
+    }
+
+    ReportGenerator newReportGenerator() {
+        List<String> arguments = options.valuesOf(benchmarksSpec);
+        if (arguments.isEmpty()) {
+            printHelpAndExit(parser);
+        }
+
+        ReportGenerator generator = new ReportGenerator(new File(options.valueOf(outputSpec)).getAbsoluteFile())
+                .setWarmupSeconds(nonNegative(warmupSpec, "warmup"))
+                .setCooldownSeconds(nonNegative(cooldownSpec, "cooldown"))
+                .setIncludeWorkers(options.has(fullSpec))
+                .setParallelism(Math.max(1, options.valueOf(parallelismSpec)));
+
+        for (int i = 0; i < arguments.size(); i++) {
+            String argument = arguments.get(i);
+            if (isName(argument)) {
+                throw new CommandLineExitException(format("Benchmark name %s must be preceded by a benchmark directory",
+                        argument));
+            }
+
+            File dir = new File(argument).getAbsoluteFile();
+            if (!dir.isDirectory()) {
+                throw new CommandLineExitException(format("Benchmark directory '%s' does not exist!", argument));
+            }
+
+            String name = dir.getName();
+            if (i + 1 < arguments.size() && isName(arguments.get(i + 1))) {
+                i++;
+                name = arguments.get(i).substring(1, arguments.get(i).length() - 1);
+            }
+            generator.addBenchmark(name, dir);
+        }
+        return generator;
+    }
+
+    private static boolean isName(String argument) {
+        return argument.startsWith("[") && argument.endsWith("]");
+    }
+
+    private int nonNegative(OptionSpec<Integer> spec, String name) {
+        int value = options.valueOf(spec);
+        if (value < 0) {
+            throw new CommandLineExitException(format("--%s can't be negative, but was %d", name, value));
+        }
+        return value;
+    }
+
+    public static void main(String[] args) {
+        LOGGER.info("Hazelcast Simulator Benchmark Report");
+        LOGGER.info(format("Version: %s, Commit: %s, Build Time: %s",
+                getSimulatorVersion(), getCommitIdAbbrev(), getBuildTime()));
+
+        try {
+            new ReportCli(args).newReportGenerator().generate();
+        } catch (Exception e) {
+            exitWithError(LOGGER, "Could not create benchmark report", e);
+        }
+    }
+}
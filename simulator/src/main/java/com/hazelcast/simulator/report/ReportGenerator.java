@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static com.hazelcast.simulator.utils.FormatUtils.formatDouble;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Generates the report of one or more benchmarks.
+ * <p>
+ * Every benchmark is loaded by a {@link BenchmarkTask} which splits itself into a task per worker, probe and agent. All
+ * tasks run on a dedicated {@link ForkJoinPool}, so the files of a large session are processed by all cores.
+ */
+public final class ReportGenerator {
+
+    private static final Logger LOGGER = Logger.getLogger(ReportGenerator.class);
+
+    private final Map<String, File> benchmarks = new LinkedHashMap<>();
+    private final File outputDir;
+    private int warmupSeconds;
+    private int cooldownSeconds;
+    private boolean includeWorkers;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public ReportGenerator(File outputDir) {
+        this.outputDir = outputDir;
+    }
+
+    /**
+     * Adds a benchmark to the report. The first benchmark is the baseline the other benchmarks are compared with.
+     *
+     * @param name the name of the benchmark in the report
+     * @param dir  the session directory of the benchmark
+     * @return this ReportGenerator
+     */
+    public ReportGenerator addBenchmark(String name, File dir) {
+        benchmarks.put(name, dir);
+        return this;
+    }
+
+    public ReportGenerator setWarmupSeconds(int warmupSeconds) {
+        this.warmupSeconds = warmupSeconds;
+        return this;
+    }
+
+    public ReportGenerator setCooldownSeconds(int cooldownSeconds) {
+        this.cooldownSeconds = cooldownSeconds;
+        return this;
+    }
+
+    public ReportGenerator setIncludeWorkers(boolean includeWorkers) {
+        this.includeWorkers = includeWorkers;
+        return this;
+    }
+
+    public ReportGenerator setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Loads all benchmarks and writes the report.
+     *
+     * @return the HTML report file
+     */
+    public File generate() {
+        long startMillis = System.currentTimeMillis();
+        List<BenchmarkResult> results = load();
+
+        ensureExistingDirectory(outputDir);
+        File reportFile = new HtmlReportWriter(results, includeWorkers).write(outputDir);
+        new CsvReportWriter(results).write(outputDir);
+
+        LOGGER.info(format("Report %s created in %s seconds", reportFile.getAbsolutePath(),
+                formatDouble((System.currentTimeMillis() - startMillis) / (double) SECONDS.toMillis(1), 0)));
+        return reportFile;
+    }
+
+    List<BenchmarkResult> load() {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<BenchmarkTask> tasks = new ArrayList<>(benchmarks.size());
+            for (Map.Entry<String, File> entry : benchmarks.entrySet()) {
+                LOGGER.info(format("Loading benchmark %s from %s", entry.getKey(), entry.getValue().getAbsolutePath()));
+                BenchmarkTask task = new BenchmarkTask(entry.getKey(), entry.getValue(), warmupSeconds, cooldownSeconds,
+                        includeWorkers);
+                tasks.add(task);
+                pool.execute(task);
+            }
+
+            List<BenchmarkResult> results = new ArrayList<>(tasks.size());
+            for (BenchmarkTask task : tasks) {
+                results.add(task.join());
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static com.hazelcast.simulator.report.HtmlReportWriter.escape;
+import static java.lang.String.format;
+
+/**
+ * Renders one or more {@link TimeSeries} as an inline SVG line chart, so the report doesn't depend on any external tools
+ * or scripts to show the diagrams.
+ * <p>
+ * In the logarithmic percentile mode the x-axis shows percentiles, where every tick is a factor 10 closer to 100%. This is
+ * the same layout as the HdrHistogram plotter uses for latency distributions.
+ */
+@SuppressWarnings("checkstyle:magicnumber")
+final class SvgChart {
+
+    private static final String[] COLORS = {
+            "#1f77b4", "#d62728", "#2ca02c", "#ff7f0e", "#9467bd",
+            "#8c564b", "#e377c2", "#7f7f7f", "#bcbd22", "#17becf",
+    };
+
+    private static final int WIDTH = 960;
+    private static final int HEIGHT = 400;
+    private static final int MARGIN_LEFT = 80;
+    private static final int MARGIN_RIGHT = 20;
+    private static final int MARGIN_TOP = 40;
+    private static final int MARGIN_BOTTOM = 50;
+    private static final int LEGEND_LINE_HEIGHT = 16;
+    private static final int TICK_COUNT = 6;
+
+    private final String title;
+    private final String xLabel;
+    private final String yLabel;
+    private final List<TimeSeries> seriesList = new ArrayList<>();
+    private boolean logPercentileX;
+
+    SvgChart(String title, String xLabel, String yLabel) {
+        this.title = title;
+        this.xLabel = xLabel;
+        this.yLabel = yLabel;
+    }
+
+    /**
+     * Shows the x-values as percentiles on a logarithmic axis.
+     *
+     * @return this chart
+     */
+    SvgChart logPercentileX() {
+        this.logPercentileX = true;
+        return this;
+    }
+
+    SvgChart add(TimeSeries series) {
+        if (!series.isEmpty()) {
+            seriesList.add(series);
+        }
+        return this;
+    }
+
+    boolean isEmpty() {
+        return seriesList.isEmpty();
+    }
+
+    String render() {
+        double minX = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = 0;
+        for (TimeSeries series : seriesList) {
+            for (int i = 0; i < series.size(); i++) {
+                double x = x(series.time(i));
+                minX = Math.min(minX, x);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, series.value(i));
+            }
+        }
+        if (seriesList.isEmpty()) {
+            minX = 0;
+            maxX = 1;
+        }
+        if (logPercentileX) {
+            minX = 0;
+            maxX = Math.max(1, Math.ceil(maxX));
+        } else if (maxX <= minX) {
+            maxX = minX + 1;
+        }
+        double stepY = niceStep(maxY);
+        maxY = Math.max(stepY, Math.ceil(maxY / stepY) * stepY);
+
+        int plotWidth = WIDTH - MARGIN_LEFT - MARGIN_RIGHT;
+        int plotHeight = HEIGHT - MARGIN_TOP - MARGIN_BOTTOM;
+        Scale scale = new Scale(minX, maxX, maxY, plotWidth, plotHeight);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(format(Locale.US, "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" viewBox=\"0 0 %d %d\""
+                + " font-family=\"sans-serif\" font-size=\"11\">\n", WIDTH, HEIGHT, WIDTH, HEIGHT));
+        sb.append(format(Locale.US, "<text x=\"%d\" y=\"20\" font-size=\"14\" font-weight=\"bold\">%s</text>\n",
+                MARGIN_LEFT, escape(title)));
+        sb.append(format(Locale.US, "<g transform=\"translate(%d,%d)\">\n", MARGIN_LEFT, MARGIN_TOP));
+        renderYAxis(sb, scale, stepY, plotWidth, plotHeight);
+        renderXAxis(sb, scale, minX, maxX, plotHeight);
+        sb.append(format(Locale.US, "<rect width=\"%d\" height=\"%d\" fill=\"none\" stroke=\"#444\"/>\n", plotWidth, plotHeight));
+        renderSeries(sb, scale);
+        renderLegend(sb, plotWidth);
+        sb.append("</g>\n");
+        sb.append(format(Locale.US, "<text x=\"%d\" y=\"%d\" text-anchor=\"middle\">%s</text>\n",
+                MARGIN_LEFT + plotWidth / 2, HEIGHT - 8, escape(xLabel)));
+        sb.append(format(Locale.US, "<text transform=\"translate(14,%d) rotate(-90)\" text-anchor=\"middle\">%s</text>\n",
+                MARGIN_TOP + plotHeight / 2, escape(yLabel)));
+        sb.append("</svg>\n");
+        return sb.toString();
+    }
+
+    private void renderYAxis(StringBuilder sb, Scale scale, double stepY, int plotWidth, int plotHeight) {
+        for (double y = 0; y <= scale.maxY + stepY / 2; y += stepY) {
+            double py = scale.y(y);
+            sb.append(format(Locale.US, "<line x1=\"0\" y1=\"%.1f\" x2=\"%d\" y2=\"%.1f\" stroke=\"#ddd\"/>\n",
+                    py, plotWidth, py));
+            sb.append(format(Locale.US, "<text x=\"-6\" y=\"%.1f\" text-anchor=\"end\" dominant-baseline=\"middle\">%s</text>\n",
+                    py, formatNumber(y)));
+        }
+    }
+
+    private void renderXAxis(StringBuilder sb, Scale scale, double minX, double maxX, int plotHeight) {
+        double stepX = logPercentileX ? 1 : niceStep(maxX - minX);
+        double firstX = Math.ceil(minX / stepX) * stepX;
+        for (double x = firstX; x <= maxX + stepX / 1000; x += stepX) {
+            double px = scale.x(x);
+            sb.append(format(Locale.US, "<line x1=\"%.1f\" y1=\"0\" x2=\"%.1f\" y2=\"%d\" stroke=\"#ddd\"/>\n",
+                    px, px, plotHeight));
+            sb.append(format(Locale.US, "<text x=\"%.1f\" y=\"%d\" text-anchor=\"middle\">%s</text>\n",
+                    px, plotHeight + 16, logPercentileX ? percentileLabel(x) : formatNumber(x)));
+        }
+    }
+
+    private void renderSeries(StringBuilder sb, Scale scale) {
+        for (int s = 0; s < seriesList.size(); s++) {
+            TimeSeries series = seriesList.get(s);
+            sb.append(format(Locale.US, "<polyline fill=\"none\" stroke=\"%s\" stroke-width=\"1.5\" points=\"", color(s)));
+            for (int i = 0; i < series.size(); i++) {
+                if (i > 0) {
+                    sb.append(' ');
+                }
+                sb.append(format(Locale.US, "%.1f,%.1f", scale.x(x(series.time(i))), scale.y(series.value(i))));
+            }
+            sb.append("\"/>\n");
+        }
+    }
+
+    private void renderLegend(StringBuilder sb, int plotWidth) {
+        if (seriesList.size() < 2 && (seriesList.isEmpty() || seriesList.get(0).getName().isEmpty())) {
+            return;
+        }
+        int y = 12;
+        for (int s = 0; s < seriesList.size(); s++) {
+            sb.append(format(Locale.US, "<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"%s\" stroke-width=\"3\"/>\n",
+                    plotWidth - 180, y, plotWidth - 160, y, color(s)));
+            sb.append(format(Locale.US, "<text x=\"%d\" y=\"%d\" dominant-baseline=\"middle\">%s</text>\n",
+                    plotWidth - 154, y, escape(seriesList.get(s).getName())));
+            y += LEGEND_LINE_HEIGHT;
+        }
+    }
+
+    private double x(double value) {
+        if (!logPercentileX) {
+            return value;
+        }
+        // 0% -> 0, 90% -> 1, 99% -> 2, 99.9% -> 3 etc
+        return Math.log10(1 / (1 - Math.min(value, 99.9999999) / 100));
+    }
+
+    static String color(int index) {
+        return COLORS[index % COLORS.length];
+    }
+
+    static String percentileLabel(double decade) {
+        if (decade == 0) {
+            return "0%";
+        }
+        String label = format(Locale.US, "%." + Math.max(0, (int) decade - 2) + "f", 100 - 100 / Math.pow(10, decade));
+        return label + "%";
+    }
+
+    static double niceStep(double range) {
+        if (range <= 0) {
+            return 1;
+        }
+        double rough = range / TICK_COUNT;
+        double magnitude = Math.pow(10, Math.floor(Math.log10(rough)));
+        double fraction = rough / magnitude;
+        if (fraction <= 1) {
+            return magnitude;
+        } else if (fraction <= 2) {
+            return 2 * magnitude;
+        } else if (fraction <= 5) {
+            return 5 * magnitude;
+        }
+        return 10 * magnitude;
+    }
+
+    static String formatNumber(double value) {
+        double abs = Math.abs(value);
+        if (abs >= 1000000) {
+            return stripZeros(format(Locale.US, "%.2f", value / 1000000)) + "M";
+        } else if (abs >= 10000) {
+            return stripZeros(format(Locale.US, "%.2f", value / 1000)) + "K";
+        } else if (abs >= 100 || value == Math.rint(value)) {
+            return format(Locale.US, "%.0f", value);
+        }
+        return stripZeros(format(Locale.US, "%.3f", value));
+    }
+
+    private static String stripZeros(String value) {
+        if (value.indexOf('.') < 0) {
+            return value;
+        }
+        String result = value.replaceAll("0+$", "");
+        return result.endsWith(".") ? result.substring(0, result.length() - 1) : result;
+    }
+
+    private static final class Scale {
+        private final double minX;
+        private final double maxX;
+        private final double maxY;
+        private final int width;
+        private final int height;
+
+        Scale(double minX, double maxX, double maxY, int width, int height) {
+            this.minX = minX;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.width = width;
+            this.height = height;
+        }
+
+        double x(double x) {
+            return (x - minX) * width / (maxX - minX);
+        }
+
+        double y(double y) {
+            return height - y * height / maxY;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import java.util.Arrays;
+
+/**
+ * A series of (time, value) points which is plotted as a single line in a chart.
+ */
+final class TimeSeries {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final String name;
+    private double[] times = new double[INITIAL_CAPACITY];
+    private double[] values = new double[INITIAL_CAPACITY];
+    private int size;
+
+    TimeSeries(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void add(double time, double value) {
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        times[size] = time;
+        values[size] = value;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    double time(int index) {
+        return times[index];
+    }
+
+    double value(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns a copy of this series with a different name, and with the given origin subtracted from all times.
+     *
+     * @param name   the name of the copy
+     * @param origin the time which becomes 0
+     * @return the shifted copy
+     */
+    TimeSeries shift(String name, double origin) {
+        TimeSeries copy = new TimeSeries(name);
+        for (int i = 0; i < size; i++) {
+            copy.add(times[i] - origin, values[i]);
+        }
+        return copy;
+    }
+}
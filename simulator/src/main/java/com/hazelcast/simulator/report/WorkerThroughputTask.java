@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.report;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.RecursiveTask;
+
+import static com.hazelcast.simulator.report.CsvUtils.parseDouble;
+import static com.hazelcast.simulator.report.CsvUtils.readNumericRows;
+
+/**
+ * Loads the throughput of all tests of a single worker from its performance-[testId].csv files.
+ * <p>
+ * The times of the returned series are epoch seconds.
+ */
+final class WorkerThroughputTask extends RecursiveTask<Map<String, TimeSeries>> {
+
+    static final String PERFORMANCE_FILE_PREFIX = "performance";
+    private static final String CSV_EXTENSION = ".csv";
+    private static final int EPOCH_COLUMN = 0;
+    private static final int THROUGHPUT_COLUMN = 4;
+
+    private final File workerDir;
+
+    WorkerThroughputTask(File workerDir) {
+        this.workerDir = workerDir;
+    }
+
+    @Override
+    protected Map<String, TimeSeries> compute() {
+        Map<String, TimeSeries> result = new TreeMap<>();
+        File[] files = workerDir.listFiles();
+        if (files == null) {
+            return result;
+        }
+
+        for (File file : files) {
+            String testId = testId(file.getName());
+            if (testId == null) {
+                continue;
+            }
+
+            TimeSeries series = new TimeSeries(testId);
+            for (String[] row : readNumericRows(file)) {
+                if (row.length <= THROUGHPUT_COLUMN) {
+                    continue;
+                }
+                Double throughput = parseDouble(row[THROUGHPUT_COLUMN]);
+                if (throughput != null) {
+                    series.add(parseDouble(row[EPOCH_COLUMN]), throughput);
+                }
+            }
+            result.put(testId, series);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the test id of a performance file; 'performance.csv' of older Simulator versions gets the test id 'all'.
+     */
+    static String testId(String fileName) {
+        if (!fileName.startsWith(PERFORMANCE_FILE_PREFIX) || !fileName.endsWith(CSV_EXTENSION)) {
+            return null;
+        }
+        String testId = fileName.substring(PERFORMANCE_FILE_PREFIX.length(), fileName.length() - CSV_EXTENSION.length());
+        if (testId.isEmpty()) {
+            return "all";
+        }
+        return testId.startsWith("-") ? testId.substring(1) : null;
+    }
+}
@@ -80,4 +80,20 @@ public class BaseThreadState implements Serializable {
     public boolean randomBoolean() {
         return random.nextBoolean();
     }
+
+    /**
+     * Creates a {@link KeySelector} for this thread that selects keys based on the given distribution. Typically the
+     * selector is stored in a field of the ThreadState, so no allocation is needed to select a key:
+     * <pre>
+     * public class ThreadState extends BaseThreadState {
+     *     private final KeySelector keySelector = newKeySelector(keyDistribution);
+     * }
+     * </pre>
+     *
+     * @param distribution the key distribution
+     * @return the created KeySelector
+     */
+    public KeySelector newKeySelector(KeyDistribution distribution) {
+        return distribution.newSelector(random);
+    }
 }
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.test;
+
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+
+import java.util.Random;
+
+import static java.lang.String.format;
+
+/**
+ * Defines how the accesses of a test are distributed over its keys, so a test can benchmark the skewed access seen in
+ * production instead of only uniform access. The keys are identified by their index, from 0 up to the keyCount.
+ * <p>
+ * The following distributions are supported:
+ * <ol>
+ * <li>uniform                        every key is equally likely.</li>
+ * <li>zipfian:exponent               e.g. 'zipfian:0.99'. The key with index 0 is the most popular, followed by index 1,
+ * etc.</li>
+ * <li>scrambledZipfian:exponent      e.g. 'scrambledZipfian:0.99'. Zipfian, but the popular keys are scattered over the
+ * indices, so they are not clustered on the same partitions.</li>
+ * <li>latest:exponent                e.g. 'latest:0.99'. Zipfian, but the key with the highest index is the most popular,
+ * so the most recently inserted keys are the most popular when keys are inserted in the order of their index.</li>
+ * <li>hotspot:hotKeys,hotAccesses    e.g. 'hotspot:0.2,0.8'. 80% of the accesses go uniformly to the first 20% of the keys,
+ * the other accesses go uniformly to the other keys.</li>
+ * <li>sequential                     every thread accesses the keys one after the other, starting at a random index.</li>
+ * </ol>
+ * The exponent of the zipfian distributions is larger than 0; the larger the exponent, the more skewed the distribution.
+ * <p>
+ * A KeyDistribution is immutable and shared by all timestep threads; every timestep thread gets its own
+ * {@link KeySelector}, see {@link BaseThreadState#newKeySelector(KeyDistribution)}. The zipfian distributions use
+ * rejection-inversion sampling, so a key is selected in constant time without precomputing any table.
+ */
+public abstract class KeyDistribution {
+
+    private static final double DEFAULT_EXPONENT = 0.99;
+
+    final int keyCount;
+
+    KeyDistribution(int keyCount) {
+        this.keyCount = keyCount;
+    }
+
+    /**
+     * Returns the number of keys of this distribution.
+     *
+     * @return the number of keys
+     */
+    public final int keyCount() {
+        return keyCount;
+    }
+
+    /**
+     * Creates a new KeySelector for a single timestep thread.
+     *
+     * @param random the random of the timestep thread
+     * @return the created KeySelector
+     */
+    public abstract KeySelector newSelector(Random random);
+
+    /**
+     * Parses a key distribution.
+     *
+     * @param property the name of the property, used for error messages
+     * @param value    the value of the property
+     * @param keyCount the number of keys
+     * @return the parsed KeyDistribution
+     * @throws IllegalTestException if the value is not a valid key distribution
+     */
+    public static KeyDistribution parse(String property, String value, int keyCount) {
+        if (keyCount <= 0) {
+            throw new IllegalTestException(format("%s requires a keyCount larger than 0, but was %d", property, keyCount));
+        }
+
+        int index = value.indexOf(':');
+        String type = index == -1 ? value.trim() : value.substring(0, index).trim();
+        String args = index == -1 ? "" : value.substring(index + 1).trim();
+        try {
+            if ("uniform".equals(type)) {
+                return new UniformKeyDistribution(keyCount);
+            } else if ("zipfian".equals(type)) {
+                return new ZipfianKeyDistribution(keyCount, parseExponent(property, args), ZipfianKeyDistribution.ORDERED);
+            } else if ("scrambledZipfian".equals(type)) {
+                return new ZipfianKeyDistribution(keyCount, parseExponent(property, args), ZipfianKeyDistribution.SCRAMBLED);
+            } else if ("latest".equals(type)) {
+                return new ZipfianKeyDistribution(keyCount, parseExponent(property, args), ZipfianKeyDistribution.LATEST);
+            } else if ("hotspot".equals(type)) {
+                return parseHotspot(property, args, keyCount);
+            } else if ("sequential".equals(type)) {
+                return new SequentialKeyDistribution(keyCount);
+            } else {
+                throw new IllegalTestException(format("%s has an unknown key distribution [%s] in [%s], supported are"
+                        + " [uniform, zipfian, scrambledZipfian, latest, hotspot, sequential]", property, type, value));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalTestException(format("%s has an invalid value [%s]", property, value), e);
+        }
+    }
+
+    private static double parseExponent(String property, String args) {
+        if (args.isEmpty()) {
+            return DEFAULT_EXPONENT;
+        }
+
+        double exponent = Double.parseDouble(args);
+        if (exponent <= 0) {
+            throw new IllegalTestException(format("%s has an invalid exponent [%s], the exponent must be larger than 0",
+                    property, args));
+        }
+        return exponent;
+    }
+
+    private static KeyDistribution parseHotspot(String property, String args, int keyCount) {
+        String[] tokens = args.split(",");
+        if (tokens.length != 2) {
+            throw new IllegalTestException(format("%s has an invalid hotspot [%s], expected hotKeys,hotAccesses."
+                    + " For example 0.2,0.8", property, args));
+        }
+
+        double hotKeys = Double.parseDouble(tokens[0].trim());
+        double hotAccesses = Double.parseDouble(tokens[1].trim());
+        if (hotKeys <= 0 || hotKeys > 1 || hotAccesses < 0 || hotAccesses > 1) {
+            throw new IllegalTestException(format("%s has an invalid hotspot [%s], hotKeys needs to be larger than 0 and"
+                    + " hotAccesses at least 0, and both can't be larger than 1", property, args));
+        }
+        return new HotspotKeyDistribution(keyCount, hotKeys, hotAccesses);
+    }
+
+    static final class UniformKeyDistribution extends KeyDistribution {
+
+        UniformKeyDistribution(int keyCount) {
+            super(keyCount);
+        }
+
+        @Override
+        public KeySelector newSelector(final Random random) {
+            return () -> random.nextInt(keyCount);
+        }
+    }
+
+    static final class SequentialKeyDistribution extends KeyDistribution {
+
+        SequentialKeyDistribution(int keyCount) {
+            super(keyCount);
+        }
+
+        @Override
+        public KeySelector newSelector(Random random) {
+            // the threads start at a random index, so they don't access the same keys at the same time
+            final int start = random.nextInt(keyCount);
+            return new KeySelector() {
+                private int next = start;
+
+                @Override
+                public int nextIndex() {
+                    int index = next;
+                    next = index + 1 == keyCount ? 0 : index + 1;
+                    return index;
+                }
+            };
+        }
+    }
+
+    static final class HotspotKeyDistribution extends KeyDistribution {
+
+        private final int hotKeyCount;
+        private final double hotAccesses;
+
+        HotspotKeyDistribution(int keyCount, double hotKeys, double hotAccesses) {
+            super(keyCount);
+            this.hotKeyCount = (int) Math.max(1, Math.round(keyCount * hotKeys));
+            this.hotAccesses = hotAccesses;
+        }
+
+        @Override
+        public KeySelector newSelector(final Random random) {
+            final int coldKeyCount = keyCount - hotKeyCount;
+            return () -> {
+                if (coldKeyCount == 0 || random.nextDouble() < hotAccesses) {
+                    return random.nextInt(hotKeyCount);
+                }
+                return hotKeyCount + random.nextInt(coldKeyCount);
+            };
+        }
+    }
+
+    /**
+     * Zipfian distribution using the rejection-inversion method of W. Hormann and G. Derflinger, 'Rejection-inversion to
+     * generate variates from monotone discrete distributions' (1996). The expected number of iterations per sample is
+     * close to 1 for any keyCount and exponent.
+     */
+    static final class ZipfianKeyDistribution extends KeyDistribution {
+
+        static final int ORDERED = 0;
+        static final int SCRAMBLED = 1;
+        static final int LATEST = 2;
+
+        private static final long FNV_OFFSET_BASIS_64 = 0xCBF29CE484222325L;
+        private static final long FNV_PRIME_64 = 1099511628211L;
+        private static final double TAYLOR_THRESHOLD = 1e-8;
+
+        private final double exponent;
+        private final int order;
+        private final double hIntegralX1;
+        private final double hIntegralKeyCount;
+        private final double s;
+
+        ZipfianKeyDistribution(int keyCount, double exponent, int order) {
+            super(keyCount);
+            this.exponent = exponent;
+            this.order = order;
+            this.hIntegralX1 = hIntegral(1.5) - 1;
+            this.hIntegralKeyCount = hIntegral(keyCount + 0.5);
+            this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+        }
+
+        @Override
+        public KeySelector newSelector(final Random random) {
+            return () -> index(sample(random));
+        }
+
+        private int index(int rank) {
+            switch (order) {
+                case SCRAMBLED:
+                    return (int) ((fnvHash64(rank) & Long.MAX_VALUE) % keyCount);
+                case LATEST:
+                    return keyCount - rank;
+                default:
+                    return rank - 1;
+            }
+        }
+
+        /**
+         * Returns a rank from 1 up to and including the keyCount, where rank 1 is the most popular.
+         */
+        int sample(Random random) {
+            for (; ; ) {
+                double u = hIntegralKeyCount + random.nextDouble() * (hIntegralX1 - hIntegralKeyCount);
+                double x = hIntegralInverse(u);
+                int k = (int) (x + 0.5);
+                if (k < 1) {
+                    k = 1;
+                } else if (k > keyCount) {
+                    k = keyCount;
+                }
+
+                if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                    return k;
+                }
+            }
+        }
+
+        // the integral of h(x) = x^-exponent, shifted so that hIntegral(1) = 0
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return helper2((1 - exponent) * logX) * logX;
+        }
+
+        private double h(double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = x * (1 - exponent);
+            if (t < -1) {
+                // limit for rounding errors
+                t = -1;
+            }
+            return Math.exp(helper1(t) * x);
+        }
+
+        // log(1 + x) / x, which is numerically stable for x close to 0
+        private static double helper1(double x) {
+            if (Math.abs(x) > TAYLOR_THRESHOLD) {
+                return Math.log1p(x) / x;
+            }
+            return 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+        }
+
+        // (exp(x) - 1) / x, which is numerically stable for x close to 0
+        private static double helper2(double x) {
+            if (Math.abs(x) > TAYLOR_THRESHOLD) {
+                return Math.expm1(x) / x;
+            }
+            return 1 + x * 0.5 * (1 + x * 1.0 / 3 * (1 + 0.25 * x));
+        }
+
+        private static long fnvHash64(long value) {
+            long hash = FNV_OFFSET_BASIS_64;
+            for (int i = 0; i < 8; i++) {
+                hash ^= value & 0xFF;
+                hash *= FNV_PRIME_64;
+                value >>= 8;
+            }
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.test;
+
+/**
+ * Selects the index of the next key to access, based on a {@link KeyDistribution}.
+ *
+ * A KeySelector belongs to a single timestep thread, so it is not thread-safe. It doesn't allocate.
+ */
+public interface KeySelector {
+
+    /**
+     * Returns the index of the next key to access.
+     *
+     * @return the index, from 0 up to the keyCount of the {@link KeyDistribution}
+     */
+    int nextIndex();
+}
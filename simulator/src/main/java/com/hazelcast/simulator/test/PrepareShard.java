@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+
+/**
+ * The part of a partitioned {@link com.hazelcast.simulator.test.annotations.Prepare} which is executed by a single prepare
+ * thread on a single worker.
+ * <p>
+ * The items are first divided over the workers, and the part of a worker is then divided over its own prepare threads. So
+ * the workers don't need to agree on the number of prepare threads; every worker can use its own number of threads, e.g.
+ * based on its number of cores.
+ * <p>
+ * A test can either load the contiguous range [{@link #start(long)}, {@link #end(long)}) of its items, or load every item
+ * for which {@link #contains(long)} returns true.
+ * <p>
+ * Calling {@link #completed()} for every loaded item makes it possible to report the progress and the load throughput.
+ */
+public final class PrepareShard {
+
+    private final int workerIndex;
+    private final int workerCount;
+    private final int threadIndex;
+    private final int threadCount;
+    private final AtomicLong completed;
+
+    public PrepareShard(int workerIndex, int workerCount, int threadIndex, int threadCount, AtomicLong completed) {
+        if (workerIndex < 0 || workerIndex >= workerCount) {
+            throw new IllegalArgumentException(format("workerIndex %d is out of range [0, %d)", workerIndex, workerCount));
+        }
+        if (threadIndex < 0 || threadIndex >= threadCount) {
+            throw new IllegalArgumentException(format("threadIndex %d is out of range [0, %d)", threadIndex, threadCount));
+        }
+        this.workerIndex = workerIndex;
+        this.workerCount = workerCount;
+        this.threadIndex = threadIndex;
+        this.threadCount = threadCount;
+        this.completed = completed;
+    }
+
+    public int workerIndex() {
+        return workerIndex;
+    }
+
+    public int workerCount() {
+        return workerCount;
+    }
+
+    public int threadIndex() {
+        return threadIndex;
+    }
+
+    public int threadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Returns the first item of the range of this shard.
+     *
+     * @param itemCount the total number of items to prepare
+     * @return the first item (inclusive)
+     */
+    public long start(long itemCount) {
+        long workerStart = rangeBoundary(itemCount, workerIndex, workerCount);
+        long workerItemCount = rangeBoundary(itemCount, workerIndex + 1, workerCount) - workerStart;
+        return workerStart + rangeBoundary(workerItemCount, threadIndex, threadCount);
+    }
+
+    /**
+     * Returns the end of the range of this shard.
+     *
+     * @param itemCount the total number of items to prepare
+     * @return the end of the range (exclusive)
+     */
+    public long end(long itemCount) {
+        long workerStart = rangeBoundary(itemCount, workerIndex, workerCount);
+        long workerItemCount = rangeBoundary(itemCount, workerIndex + 1, workerCount) - workerStart;
+        return workerStart + rangeBoundary(workerItemCount, threadIndex + 1, threadCount);
+    }
+
+    private static long rangeBoundary(long itemCount, int part, int partCount) {
+        // the items are divided as evenly as possible; the multiplication is split to prevent an overflow
+        return (itemCount / partCount) * part + (itemCount % partCount) * part / partCount;
+    }
+
+    /**
+     * Checks if the item belongs to this shard when the items are assigned round robin.
+     * <p>
+     * The items are assigned round robin over the workers, and the items of a worker round robin over its threads.
+     *
+     * @param item the item
+     * @return {@code true} if the item belongs to this shard, {@code false} otherwise
+     */
+    public boolean contains(long item) {
+        return Math.floorMod(item, (long) workerCount) == workerIndex
+                && Math.floorMod(Math.floorDiv(item, (long) workerCount), (long) threadCount) == threadIndex;
+    }
+
+    /**
+     * Signals that a single item has been prepared.
+     */
+    public void completed() {
+        completed.incrementAndGet();
+    }
+
+    /**
+     * Signals that a number of items have been prepared.
+     *
+     * @param items the number of prepared items
+     */
+    public void completed(long items) {
+        completed.addAndGet(items);
+    }
+
+    @Override
+    public String toString() {
+        return "PrepareShard{"
+                + "workerIndex=" + workerIndex
+                + ", workerCount=" + workerCount
+                + ", threadIndex=" + threadIndex
+                + ", threadCount=" + threadCount
+                + '}';
+    }
+}
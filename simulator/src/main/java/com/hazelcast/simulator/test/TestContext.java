@@ -15,6 +15,8 @@
  */
 package com.hazelcast.simulator.test;
 
+import com.hazelcast.simulator.probes.Probe;
+
 /**
  * The TestContext is they way for a test to get access to test related information. Most importantly if a test is running.
  */
@@ -65,4 +67,16 @@ public interface TestContext {
      * @param args the arguments
      */
     void echoCoordinator(String msg, Object... args);
+
+    /**
+     * Returns the latency probe with the given name; the probe is created if it doesn't exist.
+     *
+     * The latencies of the timestep methods are recorded automatically. This probe can be used to record the latency of
+     * something else, e.g. the time to borrow a connection from a pool. The probe is not part of the total throughput and
+     * is a no-op probe if the latency isn't measured.
+     *
+     * @param name the name of the probe
+     * @return the probe
+     */
+    Probe getProbe(String name);
 }
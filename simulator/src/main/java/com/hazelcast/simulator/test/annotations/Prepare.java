@@ -28,6 +28,24 @@ import java.lang.annotation.Target;
  * semantics as provided by junit. However local {@link Prepare} always happens before global {@link Prepare}.
  *
  * The prepare method(s) is called only once per test-instance.
+ *
+ * A partitioned {@link Prepare} method splits the work over all workers and over multiple prepare threads per worker.
+ * It should have a single {@link com.hazelcast.simulator.test.PrepareShard} argument and only load the part of the data
+ * which belongs to that shard:
+ * <pre>
+ * {@code
+ * @Prepare(partitioned = true)
+ * public void prepare(PrepareShard shard) {
+ *     for (long key = shard.start(keyCount); key < shard.end(keyCount); key++) {
+ *         map.set(key, value);
+ *         shard.completed();
+ *     }
+ * }
+ * }
+ * </pre>
+ * The number of prepare threads per worker is configured using the 'prepareThreadCount' test property; the workers don't
+ * need to use the same number of prepare threads, since the items are divided over the workers first. Partitioned
+ * prepare methods are executed in the local prepare phase, after the other local {@link Prepare} methods.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
@@ -44,4 +62,14 @@ public @interface Prepare {
      * @return <tt>true</tt> if global teardown method, <tt>false</tt> otherwise
      */
     boolean global() default false;
+
+    /**
+     * Partitioned indicates that the prepare is split over all workers and all prepare threads of each worker, where
+     * every thread gets its own {@link com.hazelcast.simulator.test.PrepareShard}.
+     *
+     * A partitioned prepare can't be global.
+     *
+     * @return <tt>true</tt> if partitioned prepare method, <tt>false</tt> otherwise
+     */
+    boolean partitioned() default false;
 }
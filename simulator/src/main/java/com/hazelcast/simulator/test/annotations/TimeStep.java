@@ -195,6 +195,32 @@ import java.lang.annotation.Target;
  * Keep in mind that the current iteration (and therefor numbers like throughput) are based on completion of the timestep method,
  * but that doesn't need to mean completion of the async call.
  *
+ * <h1>Allocation per operation</h1>
+ * The number of bytes allocated per operation by the timestep threads can be measured using:
+ * <pre>
+ * {@code
+ *     class=yourtest
+ *     measureAllocation=true
+ * }
+ * </pre>
+ * The allocated bytes are read from the timestep threads once per performance interval, so measuring doesn't add any costs to
+ * the timestep loop. The generated timestep loop itself doesn't allocate, so the measured allocations are caused by the
+ * timestep methods. Allocations done by other threads, e.g. in the completion of async calls, are not included. The allocated
+ * bytes per operation are shown per execution group next to the latency and written to the performance.csv. If there are
+ * multiple execution groups, it can be configured per execution group, e.g. {@code producerMeasureAllocation=true}. It isn't
+ * supported for virtual threads.
+ *
+ * To make sure a test doesn't allocate on the hot path, a maximum can be configured:
+ * <pre>
+ * {@code
+ *     class=yourtest
+ *     maxAllocatedBytesPerOperation=0.5
+ * }
+ * </pre>
+ * This measures the allocations and fails the test as soon as the execution group allocates more bytes per operation in a
+ * performance interval. Use a small value instead of 0, since a timestep thread allocates a bit, e.g. when it starts. It can
+ * be configured per execution group as well, e.g. {@code producerMaxAllocatedBytesPerOperation=0.5}.
+ *
  * <h1>Logging</h1>
  * By default a timestep based thread will not log anything during the run/warmup period. But sometimes some logging is required,
  * e.g. when needing to do some debugging. There are 2 out of the box options for logging:
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.utils;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the number of bytes allocated by a thread.
+ *
+ * Uses the HotSpot specific {@link com.sun.management.ThreadMXBean}; on JVMs which don't provide it, or don't support
+ * measuring thread allocations, the allocation is not measured.
+ */
+public final class AllocationUtils {
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = loadThreadMXBean();
+
+    private AllocationUtils() {
+    }
+
+    private static com.sun.management.ThreadMXBean loadThreadMXBean() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+
+        com.sun.management.ThreadMXBean hotspotThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!hotspotThreadMXBean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        hotspotThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+        return hotspotThreadMXBean;
+    }
+
+    /**
+     * Checks if the JVM supports measuring the allocations of a thread.
+     *
+     * @return {@code true} if thread allocations can be measured, {@code false} otherwise
+     */
+    public static boolean isAllocationMeasurementSupported() {
+        return THREAD_MX_BEAN != null;
+    }
+
+    /**
+     * Returns the number of bytes allocated by a thread since it has been started.
+     *
+     * @param thread the thread
+     * @return the allocated bytes, or -1 if the thread is not alive or allocations can't be measured
+     */
+    public static long getAllocatedBytes(Thread thread) {
+        if (THREAD_MX_BEAN == null) {
+            return -1;
+        }
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(thread.getId());
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread since it has been started.
+     *
+     * @return the allocated bytes, or -1 if allocations can't be measured
+     */
+    public static long getCurrentThreadAllocatedBytes() {
+        return getAllocatedBytes(Thread.currentThread());
+    }
+}
@@ -52,7 +52,15 @@ public interface AnnotationFilter<A extends Annotation> {
 
         @Override
         public boolean allowed(Prepare verify) {
-            return verify.global() == isGlobal;
+            return verify.global() == isGlobal && !verify.partitioned();
+        }
+    }
+
+    class PartitionedPrepareFilter implements AnnotationFilter<Prepare> {
+
+        @Override
+        public boolean allowed(Prepare prepare) {
+            return prepare.partitioned();
         }
     }
 
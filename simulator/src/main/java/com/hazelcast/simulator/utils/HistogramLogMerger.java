@@ -27,15 +27,43 @@ import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
 import static com.hazelcast.simulator.utils.FileUtils.ensureExistingFile;
 
 /**
- * The HistogramLogMerger merges the Histograms of multiple HDR files. This will be done based under the assumption that
- * every histogram spans the same duration.
+ * The HistogramLogMerger merges the Histograms of multiple HDR files.
  *
- * It works like this; from each HistogramLogReader a Histogram is read and merged into a final Histogram and this Histogram
- * is written into the merged HDR. Once round is complete, the next Histogram is retrieved. The different HDR files don't need
- * to have the same length; as soon as a HDR is finished, it is ignored and this continues till all HDR files are fully processed.
+ * The {@link #main(String[])} merges the histograms by position, under the assumption that every histogram spans the same
+ * duration: from each HistogramLogReader a Histogram is read and merged into a final Histogram and this Histogram is written
+ * into the merged HDR. Once round is complete, the next Histogram is retrieved.
+ *
+ * The {@link #merge(HistogramLogReader[], long, long, IntervalListener)} merges the histograms by time, so files which
+ * started a bit later, or which have gaps, still get their histograms merged into the right interval. The files are streamed:
+ * from each HistogramLogReader only the current Histogram is kept in memory. The intervals are one second buckets which start
+ * at the first interval of all files, and a histogram goes into the bucket its interval started in; the start time is used
+ * instead of the end time, since the end of an interval depends on when the histogram was taken and is less stable than the
+ * start. A histogram never goes into the same bucket as the previous histogram of its file, so intervals which are a bit
+ * shorter than a second are not merged into a single bucket.
+ *
+ * In both cases the different HDR files don't need to have the same length; as soon as a HDR is finished, it is ignored and
+ * this continues till all HDR files are fully processed.
  */
 public final class HistogramLogMerger {
 
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    /**
+     * Receives the merged intervals of {@link #merge(HistogramLogReader[], long, long, IntervalListener)}.
+     */
+    public interface IntervalListener {
+
+        /**
+         * Is called for every merged interval, in the order of the start time of the intervals.
+         *
+         * @param startMillis the start of the interval in epoch ms
+         * @param merged      the merged histogram of the interval; it is reused for the next interval
+         * @param histograms  the histogram of the interval per reader, or {@code null} if a reader has no histogram for
+         *                    this interval; the array is reused for the next interval
+         */
+        void onInterval(long startMillis, Histogram merged, Histogram[] histograms);
+    }
+
     private HistogramLogMerger() {
     }
 
@@ -80,6 +108,113 @@ public final class HistogramLogMerger {
         }
     }
 
+    /**
+     * Merges the histograms of the readers on the start of their interval.
+     *
+     * Only the histograms whose interval lies completely within [startMillis, endMillis] are merged; a reader is no longer
+     * read once its intervals start after the endMillis.
+     *
+     * @param readers     the readers of the HDR files to merge
+     * @param startMillis the epoch time in ms of the start of the period to merge
+     * @param endMillis   the epoch time in ms of the end of the period to merge
+     * @param listener    the listener which receives the merged intervals
+     */
+    public static void merge(HistogramLogReader[] readers, long startMillis, long endMillis, IntervalListener listener) {
+        Histogram[] heads = new Histogram[readers.length];
+        long originMillis = Long.MAX_VALUE;
+        for (int i = 0; i < readers.length; i++) {
+            heads[i] = next(readers[i], startMillis, endMillis);
+            if (heads[i] != null) {
+                originMillis = Math.min(originMillis, heads[i].getStartTimeStamp());
+            }
+        }
+
+        long[] buckets = new long[readers.length];
+        for (int i = 0; i < heads.length; i++) {
+            buckets[i] = bucket(heads[i], originMillis, -1);
+        }
+
+        Histogram[] histograms = new Histogram[readers.length];
+        Histogram merged = null;
+        for (long bucket = nextBucket(buckets); bucket != Long.MAX_VALUE; bucket = nextBucket(buckets)) {
+            if (merged == null) {
+                merged = new Histogram(firstHead(heads).getNumberOfSignificantValueDigits());
+            }
+            merged.reset();
+            merged.setStartTimeStamp(Long.MAX_VALUE);
+            merged.setEndTimeStamp(0);
+
+            for (int i = 0; i < heads.length; i++) {
+                if (buckets[i] != bucket) {
+                    histograms[i] = null;
+                    continue;
+                }
+
+                Histogram head = heads[i];
+                merged.add(head);
+                mergeTimestamps(merged, head);
+                histograms[i] = head;
+                heads[i] = next(readers[i], startMillis, endMillis);
+                buckets[i] = bucket(heads[i], originMillis, bucket);
+            }
+            listener.onInterval(originMillis + bucket * MILLIS_PER_SECOND, merged, histograms);
+        }
+    }
+
+    /**
+     * Returns the bucket of a histogram: the number of whole seconds its interval started after the origin.
+     *
+     * @param histogram      the histogram, or {@code null} if the reader is completed
+     * @param originMillis   the start of the first interval of all readers
+     * @param previousBucket the bucket of the previous histogram of the same reader, or -1 if there is none
+     * @return the bucket, or {@link Long#MAX_VALUE} if there is no histogram
+     */
+    private static long bucket(Histogram histogram, long originMillis, long previousBucket) {
+        if (histogram == null) {
+            return Long.MAX_VALUE;
+        }
+        long bucket = Math.floorDiv(histogram.getStartTimeStamp() - originMillis, MILLIS_PER_SECOND);
+        return Math.max(bucket, previousBucket + 1);
+    }
+
+    private static long nextBucket(long[] buckets) {
+        long next = Long.MAX_VALUE;
+        for (long bucket : buckets) {
+            next = Math.min(next, bucket);
+        }
+        return next;
+    }
+
+    private static Histogram firstHead(Histogram[] heads) {
+        for (Histogram head : heads) {
+            if (head != null) {
+                return head;
+            }
+        }
+        throw new IllegalStateException("No histogram found");
+    }
+
+    private static void mergeTimestamps(Histogram merged, Histogram histogram) {
+        if (histogram.getStartTimeStamp() < merged.getStartTimeStamp()) {
+            merged.setStartTimeStamp(histogram.getStartTimeStamp());
+        }
+        if (histogram.getEndTimeStamp() > merged.getEndTimeStamp()) {
+            merged.setEndTimeStamp(histogram.getEndTimeStamp());
+        }
+    }
+
+    private static Histogram next(HistogramLogReader reader, long startMillis, long endMillis) {
+        for (; ; ) {
+            Histogram histogram = (Histogram) reader.nextIntervalHistogram();
+            if (histogram == null || histogram.getStartTimeStamp() > endMillis) {
+                return null;
+            }
+            if (histogram.getStartTimeStamp() >= startMillis && histogram.getEndTimeStamp() <= endMillis) {
+                return histogram;
+            }
+        }
+    }
+
     private static String getBaseName(File file) {
         String name = file.getName();
         int pos = name.lastIndexOf('.');
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.utils;
+
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+
+/**
+ * Converts {@link Histogram} instances from and to a compact String representation, so they can be send as part of an
+ * operation.
+ */
+public final class HistogramUtils {
+
+    private HistogramUtils() {
+    }
+
+    /**
+     * Encodes a histogram into the compressed HdrHistogram format and returns it as a Base64 String.
+     *
+     * @param histogram the histogram to encode
+     * @return the encoded histogram
+     */
+    public static String encodeCompressed(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    /**
+     * Decodes a histogram which was encoded by {@link #encodeCompressed(Histogram)}.
+     *
+     * The returned histogram auto resizes, so histograms with a different value range can be added to it.
+     *
+     * @param encoded the encoded histogram
+     * @return the decoded histogram
+     * @throws IllegalArgumentException if the String is not a valid encoded histogram
+     */
+    public static Histogram decodeCompressed(String encoded) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+            Histogram histogram = Histogram.decodeFromCompressedByteBuffer(buffer, 0);
+            histogram.setAutoResize(true);
+            return histogram;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Could not decode histogram", e);
+        }
+    }
+}
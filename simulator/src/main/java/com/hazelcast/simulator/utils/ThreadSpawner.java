@@ -16,8 +16,8 @@
 package com.hazelcast.simulator.utils;
 
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -25,6 +25,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
 import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
+import static com.hazelcast.simulator.utils.VirtualThreads.newVirtualThread;
 
 /**
  * Responsible for spawning and waiting for threads.
@@ -38,7 +39,7 @@ import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
  */
 public class ThreadSpawner {
 
-    private final List<Thread> threads = Collections.synchronizedList(new LinkedList<>());
+    private final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
     private final ConcurrentMap<String, AtomicInteger> idMap = new ConcurrentHashMap<>();
 
     private final String testId;
@@ -117,14 +118,48 @@ public class ThreadSpawner {
     }
 
     /**
-     * Waits for all threads to finish.
+     * Spawns a new virtual thread for the given {@link Runnable}.
+     *
+     * Exceptions are handled the same way as for the platform threads created by {@link #spawn(String, Runnable)}.
+     *
+     * @param namePrefix the name prefix for the thread
+     * @param runnable   the {@link Runnable} to execute
+     * @return the created thread
+     * @throws UnsupportedOperationException if virtual threads are not supported by this JVM
+     */
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    public Thread spawnVirtual(String namePrefix, Runnable runnable) {
+        checkNotNull(namePrefix, "namePrefix can't be null");
+        checkNotNull(runnable, "runnable can't be null");
+
+        String name = newName(namePrefix);
+        Thread thread;
+        if (throwException) {
+            thread = newVirtualThread(name, runnable);
+            thread.setUncaughtExceptionHandler(exceptionHandler);
+        } else {
+            thread = newVirtualThread(name, () -> {
+                try {
+                    runnable.run();
+                } catch (Throwable t) {
+                    ExceptionReporter.report(testId, t);
+                }
+            });
+        }
+        threads.add(thread);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Waits for all threads to finish, including the threads which are spawned while waiting.
      *
      * If {@link #throwException} is <code>true</code> this method will throw the first occurred exception of a thread.
      */
     public void awaitCompletion() {
-        for (Thread thread : threads) {
+        for (int i = 0; i < threads.size(); i++) {
             try {
-                thread.join();
+                threads.get(i).join();
             } catch (InterruptedException e) {
                 throw rethrow(e);
             }
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.utils;
+
+import java.lang.reflect.Method;
+
+import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+
+/**
+ * Creates virtual threads on JVMs that support them (Java 21+).
+ *
+ * Simulator is compiled for older Java versions, so the builder API is looked up using reflection.
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_UNSTARTED;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderUnstarted = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builderName = builderClass.getMethod("name", String.class);
+            builderUnstarted = builderClass.getMethod("unstarted", Runnable.class);
+        } catch (Exception e) {
+            // virtual threads are not supported by this JVM
+            EmptyStatement.ignore(e);
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_UNSTARTED = builderUnstarted;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Checks if the JVM supports virtual threads.
+     *
+     * @return {@code true} if virtual threads are supported, {@code false} otherwise
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Creates an unstarted virtual thread.
+     *
+     * @param name     the name of the thread
+     * @param runnable the {@link Runnable} to execute
+     * @return the created thread
+     * @throws UnsupportedOperationException if virtual threads are not supported by this JVM
+     */
+    public static Thread newVirtualThread(String name, Runnable runnable) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer, but found Java "
+                    + System.getProperty("java.version"));
+        }
+
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = BUILDER_NAME.invoke(builder, name);
+            return (Thread) BUILDER_UNSTARTED.invoke(builder, runnable);
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+}
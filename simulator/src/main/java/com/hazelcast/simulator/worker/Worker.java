@@ -19,6 +19,7 @@ import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
 import com.hazelcast.simulator.common.ProcessSuicideThread;
 import com.hazelcast.simulator.common.ShutdownThread;
 import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.protocol.Transport;
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.utils.ExceptionReporter;
 import com.hazelcast.simulator.vendors.VendorDriver;
@@ -44,6 +45,7 @@ import static com.hazelcast.simulator.utils.NativeUtils.getPID;
 import static com.hazelcast.simulator.utils.NativeUtils.writePid;
 import static com.hazelcast.simulator.utils.SimulatorUtils.localIp;
 import static com.hazelcast.simulator.vendors.VendorDriver.loadVendorDriver;
+import static com.hazelcast.simulator.worker.WorkerHeartbeat.DEFAULT_INTERVAL_SECONDS;
 import static java.lang.Integer.parseInt;
 import static java.lang.String.format;
 
@@ -60,6 +62,7 @@ public class Worker {
     private final VendorDriver vendorDriver;
     private final WorkerParameters parameters;
     private final SimulatorAddress workerAddress;
+    private final WorkerHeartbeat heartbeat;
     private ShutdownThread shutdownThread;
 
     public Worker(WorkerParameters parameters) throws Exception {
@@ -69,6 +72,7 @@ public class Worker {
         this.vendorDriver = loadVendorDriver(parameters.get("VENDOR"))
                 .setAll(parameters.asMap());
         this.server = new Server("workers")
+                .setTransport(Transport.fromString(parameters.get("TRANSPORT")))
                 .setBrokerURL(localIp(), parseInt(parameters.get("AGENT_PORT")))
                 .setSelfAddress(workerAddress);
         this.testManager = new TestManager(server, vendorDriver);
@@ -80,6 +84,7 @@ public class Worker {
 
         int interval = Integer.parseInt(parameters.get("WORKER_PERFORMANCE_MONITOR_INTERVAL_SECONDS"));
         this.performanceMonitor = new PerformanceMonitor(server, testManager, interval);
+        this.heartbeat = new WorkerHeartbeat(getUserDir(), DEFAULT_INTERVAL_SECONDS);
     }
 
     public void start() throws Exception {
@@ -94,6 +99,7 @@ public class Worker {
         // we need to signal start after everything has completed. Otherwise messages could be send on the agent topic
         // without the agent being subscribed.
         writePid(new File(getUserDir(), "worker.pid"));
+        heartbeat.start();
 
         logHeader("Successfully started Worker #" + workerAddress);
     }
@@ -178,6 +184,7 @@ public class Worker {
 
         @Override
         public void doRun() {
+            closeQuietly(heartbeat);
             closeQuietly(vendorDriver);
             closeQuietly(performanceMonitor);
         }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker;
+
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
+import static com.hazelcast.simulator.utils.EmptyStatement.ignore;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Signals the agent that the worker is alive by recreating the {@link #HEARTBEAT_FILE} in the worker home.
+ *
+ * The agent watches the worker home for created files, so every heartbeat results in a single file event. A worker that
+ * doesn't create the file anymore (e.g. because it is stuck in a long GC) is detected by the timeout detection of the agent.
+ */
+public final class WorkerHeartbeat extends Thread implements Closeable {
+
+    public static final String HEARTBEAT_FILE = "worker.heartbeat";
+
+    static final int DEFAULT_INTERVAL_SECONDS = 5;
+
+    private static final Logger LOGGER = Logger.getLogger(WorkerHeartbeat.class);
+
+    private final Path heartbeatFile;
+    private final int intervalSeconds;
+
+    private volatile boolean running = true;
+
+    public WorkerHeartbeat(File workerHome, int intervalSeconds) {
+        super("WorkerHeartbeat");
+        setDaemon(true);
+        this.heartbeatFile = new File(workerHome, HEARTBEAT_FILE).toPath();
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                beat();
+                SECONDS.sleep(intervalSeconds);
+            }
+        } catch (InterruptedException e) {
+            ignore(e);
+        }
+    }
+
+    void beat() {
+        try {
+            // a modification of the file isn't reported as file creation, so the file is deleted first
+            Files.deleteIfExists(heartbeatFile);
+            Files.createFile(heartbeatFile);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write heartbeat file " + heartbeatFile, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        interrupt();
+        joinThread(this);
+    }
+}
@@ -26,6 +26,8 @@ import com.hazelcast.simulator.worker.operations.ExecuteScriptOperation;
 import com.hazelcast.simulator.worker.operations.StartPhaseOperation;
 import com.hazelcast.simulator.worker.operations.StopRunOperation;
 import com.hazelcast.simulator.worker.operations.TerminateWorkerOperation;
+import com.hazelcast.simulator.worker.operations.UpdateRateOperation;
+import com.hazelcast.simulator.worker.operations.UpdateThreadCountOperation;
 import com.hazelcast.simulator.worker.testcontainer.TestManager;
 
 public class WorkerOperationProcessor implements OperationProcessor {
@@ -56,6 +58,12 @@ public class WorkerOperationProcessor implements OperationProcessor {
             } else if (op instanceof StopRunOperation) {
                 testManager.stopRun((StopRunOperation) op);
                 promise.answer("ok");
+            } else if (op instanceof UpdateRateOperation) {
+                testManager.updateRate((UpdateRateOperation) op);
+                promise.answer("ok");
+            } else if (op instanceof UpdateThreadCountOperation) {
+                testManager.updateThreadCount((UpdateThreadCountOperation) op);
+                promise.answer("ok");
             } else {
                 throw new ProcessException("Unknown operation:" + op);
             }
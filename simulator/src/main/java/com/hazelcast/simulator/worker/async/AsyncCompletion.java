@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.async;
+
+import com.hazelcast.simulator.probes.Probe;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * The completion of an async timestep call; records the latency of the call and returns its in flight permit.
+ * <p>
+ * An {@link AsyncResultAdapter} calls {@link #complete()} exactly once, when the result of the call has completed. The
+ * completion is a {@link Runnable} and a {@link BiConsumer}, so it can directly be registered as callback on most future types.
+ * If a client library has its own listener type, the adapter can return a subclass which implements that listener from
+ * {@link AsyncResultAdapter#newCompletion(Probe, long, AtomicLong)}, so no additional object is created per call.
+ * <p>
+ * When the in flight calls are capped, the completions are taken from an {@link AsyncCompletionPool} and reused once they
+ * have completed; so a completion must not keep any state of the call besides its start time.
+ */
+public class AsyncCompletion implements Runnable, BiConsumer<Object, Throwable> {
+
+    private final Probe probe;
+    private final AtomicLong completions;
+    private long startNanos;
+    private volatile boolean inFlight;
+
+    /**
+     * Creates an AsyncCompletion.
+     *
+     * @param probe       the probe to record the latency in or {@code null} if latencies are not measured
+     * @param startNanos  the start time of the call; a pooled completion gets the start time of every call it is reused for
+     * @param completions the completion counter of the timestep runner or {@code null} if the in flight calls are not capped
+     */
+    protected AsyncCompletion(Probe probe, long startNanos, AtomicLong completions) {
+        this.probe = probe;
+        this.startNanos = startNanos;
+        this.completions = completions;
+    }
+
+    public final void complete() {
+        if (probe != null) {
+            probe.recordValue(System.nanoTime() - startNanos);
+        }
+        // the completion is released before the permit is returned, so a pool always has a completion for a new call
+        inFlight = false;
+        if (completions != null) {
+            completions.incrementAndGet();
+        }
+    }
+
+    final boolean isInFlight() {
+        return inFlight;
+    }
+
+    final void start(long startNanos) {
+        this.startNanos = startNanos;
+        this.inFlight = true;
+    }
+
+    @Override
+    public final void run() {
+        complete();
+    }
+
+    @Override
+    public final void accept(Object result, Throwable throwable) {
+        complete();
+    }
+}
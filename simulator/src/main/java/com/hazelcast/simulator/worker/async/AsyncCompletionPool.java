@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.async;
+
+import com.hazelcast.simulator.probes.Probe;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link AsyncCompletion} instances of a single async timestep method of a single timestep thread, with one completion
+ * per in flight slot.
+ * <p>
+ * When the in flight calls are capped, the timestep thread only issues a call when less than maxInFlight calls are in flight,
+ * and a completion is released before its in flight permit is returned. So the pool always has a released completion for a
+ * new call, and issuing a call doesn't create a completion once every slot has been used.
+ * <p>
+ * The pool is only used by its timestep thread; the threads completing the calls only release the completions.
+ */
+public final class AsyncCompletionPool {
+
+    private final AsyncResultAdapter adapter;
+    private final Probe probe;
+    private final AtomicLong completions;
+    private final AsyncCompletion[] slots;
+    private int index;
+
+    /**
+     * Creates an AsyncCompletionPool.
+     *
+     * @param adapter     the adapter for the result type of the timestep method
+     * @param probe       the probe to record the latency in or {@code null} if latencies are not measured
+     * @param completions the completion counter of the timestep runner
+     * @param maxInFlight the maximum number of in flight calls of the timestep runner
+     */
+    public AsyncCompletionPool(AsyncResultAdapter adapter, Probe probe, AtomicLong completions, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight can't be smaller than 1, but was " + maxInFlight);
+        }
+        this.adapter = adapter;
+        this.probe = probe;
+        this.completions = completions;
+        this.slots = new AsyncCompletion[maxInFlight];
+    }
+
+    /**
+     * Registers a completion of the pool on the result of an async call. Called by the generated timestep loop, after the
+     * in flight permit of the call has been acquired.
+     *
+     * @param result     the result of the async call
+     * @param startNanos the start time of the call
+     */
+    @SuppressWarnings("unchecked")
+    public void onCompletion(Object result, long startNanos) {
+        adapter.onCompletion(result, acquire(startNanos));
+    }
+
+    AsyncCompletion acquire(long startNanos) {
+        for (; ; ) {
+            AsyncCompletion completion = slots[index];
+            if (completion == null) {
+                // the slots are only filled when they are needed, so a large maxInFlight doesn't cost memory upfront
+                completion = adapter.newCompletion(probe, startNanos, completions);
+                slots[index] = completion;
+            }
+            index = index + 1 == slots.length ? 0 : index + 1;
+
+            if (!completion.isInFlight()) {
+                completion.start(startNanos);
+                return completion;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.async;
+
+import com.hazelcast.simulator.probes.Probe;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Makes the result type of an async client API known to the timestep runner, so the latency of a timestep method returning
+ * that type is measured until the result has completed, instead of until the method has returned.
+ * <p>
+ * Adapters are registered with {@link AsyncResultAdapters#register(AsyncResultAdapter)}, normally by the
+ * {@link com.hazelcast.simulator.vendors.VendorDriver} which provides the client. The
+ * {@link java.util.concurrent.CompletionStage} is always supported. A reactive {@code Publisher} is out of scope: a reactive
+ * command is only executed once it is subscribed to, so the test subscribes itself and returns a future, e.g. using
+ * {@code Mono.toFuture()}; this way the subscribing thread is under the control of the test.
+ *
+ * @param <R> the result type
+ */
+public interface AsyncResultAdapter<R> {
+
+    /**
+     * Returns the result type this adapter supports; timestep methods returning this type or a subtype are async.
+     *
+     * @return the result type
+     */
+    Class<R> resultType();
+
+    /**
+     * Registers the completion on the result of a timestep call.
+     *
+     * @param result     the result returned by the timestep method
+     * @param completion the completion to call when the result has completed
+     */
+    void onCompletion(R result, AsyncCompletion completion);
+
+    /**
+     * Creates the completion of a timestep call. Can be overridden to return a subclass of {@link AsyncCompletion} which also
+     * implements the listener type of the client library.
+     * <p>
+     * When the in flight calls are capped, the completions are created once per in flight slot and reused for later calls;
+     * otherwise a completion is created per call.
+     *
+     * @param probe       the probe to record the latency in or {@code null} if latencies are not measured
+     * @param startNanos  the start time of the call
+     * @param completions the completion counter of the timestep runner or {@code null} if the in flight calls are not capped
+     * @return the created completion
+     */
+    default AsyncCompletion newCompletion(Probe probe, long startNanos, AtomicLong completions) {
+        return new AsyncCompletion(probe, startNanos, completions);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.async;
+
+import org.apache.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
+import static java.lang.String.format;
+
+/**
+ * The registry of the {@link AsyncResultAdapter} instances of the worker.
+ * <p>
+ * The adapters are looked up when the timestep runner of a test is generated, so they need to be registered before the test
+ * is created; e.g. in {@link com.hazelcast.simulator.vendors.VendorDriver#startVendorInstance()}.
+ */
+public final class AsyncResultAdapters {
+
+    private static final Logger LOGGER = Logger.getLogger(AsyncResultAdapters.class);
+
+    private static final List<AsyncResultAdapter> ADAPTERS = new CopyOnWriteArrayList<>();
+
+    static {
+        ADAPTERS.add(new CompletionStageAdapter());
+    }
+
+    private AsyncResultAdapters() {
+    }
+
+    /**
+     * Registers an adapter. An adapter registered later takes precedence, so a driver can replace the adapter of a more generic
+     * result type. Registering an adapter of an already registered class has no effect.
+     *
+     * @param adapter the adapter to register
+     */
+    public static synchronized void register(AsyncResultAdapter adapter) {
+        checkNotNull(adapter, "adapter can't be null");
+
+        for (AsyncResultAdapter registered : ADAPTERS) {
+            if (registered.getClass().equals(adapter.getClass())) {
+                return;
+            }
+        }
+        LOGGER.info(format("Registered async result adapter for [%s]", adapter.resultType().getName()));
+        ADAPTERS.add(0, adapter);
+    }
+
+    /**
+     * Finds the adapter for the return type of a timestep method.
+     *
+     * @param resultType the return type of the timestep method
+     * @return the found adapter or {@code null} if the result type isn't async
+     */
+    public static AsyncResultAdapter find(Class resultType) {
+        if (resultType.isPrimitive()) {
+            return null;
+        }
+
+        for (AsyncResultAdapter adapter : ADAPTERS) {
+            if (adapter.resultType().isAssignableFrom(resultType)) {
+                return adapter;
+            }
+        }
+        return null;
+    }
+
+    // for testing
+    static synchronized void unregister(Class<? extends AsyncResultAdapter> adapterClass) {
+        for (AsyncResultAdapter adapter : ADAPTERS) {
+            if (adapter.getClass().equals(adapterClass)) {
+                ADAPTERS.remove(adapter);
+            }
+        }
+    }
+}
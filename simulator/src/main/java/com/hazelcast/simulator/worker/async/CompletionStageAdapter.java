@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.async;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * The built-in {@link AsyncResultAdapter} for the {@link CompletionStage}; this includes the
+ * {@link java.util.concurrent.CompletableFuture} and the futures of client libraries which implement the CompletionStage.
+ */
+final class CompletionStageAdapter implements AsyncResultAdapter<CompletionStage> {
+
+    @Override
+    public Class<CompletionStage> resultType() {
+        return CompletionStage.class;
+    }
+
+    @Override
+    public void onCompletion(CompletionStage result, AsyncCompletion completion) {
+        result.whenCompleteAsync(completion, Runnable::run);
+    }
+}
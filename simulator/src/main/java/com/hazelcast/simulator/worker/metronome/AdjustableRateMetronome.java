@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+/**
+ * A {@link Metronome} which rate can be changed while the test is running.
+ *
+ * The rate is changed on the master metronome and is picked up by all metronomes created from that master. The rate is
+ * also changed when the number of timestep threads changes, so the combined rate of the execution group stays the same.
+ */
+public interface AdjustableRateMetronome extends Metronome {
+
+    /**
+     * Sets the interval between requests of the execution group.
+     *
+     * @param intervalNanos the interval in nanos for all timestep threads of the execution group combined.
+     * @param threadCount   the number of timestep threads of the execution group sharing this interval.
+     */
+    void setIntervalNanos(long intervalNanos, int threadCount);
+}
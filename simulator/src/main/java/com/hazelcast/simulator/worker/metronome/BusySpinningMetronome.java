@@ -33,29 +33,33 @@ import static org.apache.commons.lang3.RandomUtils.nextLong;
  *
  * The wait interval on the first {@link #waitForNext()} call is randomized.
  */
-public final class BusySpinningMetronome implements Metronome {
+public final class BusySpinningMetronome implements AdjustableRateMetronome {
 
-    private final long intervalNanos;
+    private final BusySpinningMetronome master;
     private final boolean accountForCoordinatedOmission;
+    // only used on the master; the interval of a single timestep thread
+    private volatile long intervalNanos;
     private long nextNanos;
 
     BusySpinningMetronome(long intervalNanos, boolean accountForCoordinatedOmission) {
+        this.master = this;
         this.intervalNanos = intervalNanos;
         this.accountForCoordinatedOmission = accountForCoordinatedOmission;
     }
 
     public BusySpinningMetronome(long intervalNanos, int threadCount, PropertyBinding binding, String prefix) {
-        this(intervalNanos * threadCount, binding.loadAsBoolean(toPropertyName(prefix, "accountForCoordinatedOmission"), true));
+        this(intervalNanos * threadCount,
+                binding.loadAsBoolean(toPropertyName(prefix, "accountForCoordinatedOmission"), true));
     }
 
     public BusySpinningMetronome(Metronome m) {
-        BusySpinningMetronome master = (BusySpinningMetronome) m;
-        this.intervalNanos = master.intervalNanos;
+        this.master = (BusySpinningMetronome) m;
         this.accountForCoordinatedOmission = master.accountForCoordinatedOmission;
     }
 
     @Override
     public long waitForNext() {
+        long intervalNanos = master.intervalNanos;
         // set random interval on the first run
         if (nextNanos == 0) {
             nextNanos = nanoTime() + nextLong(0, intervalNanos);
@@ -71,7 +75,12 @@ public final class BusySpinningMetronome implements Metronome {
         return accountForCoordinatedOmission ? expectedStartNanos : nanoTime();
     }
 
+    @Override
+    public void setIntervalNanos(long intervalNanos, int threadCount) {
+        master.intervalNanos = intervalNanos * threadCount;
+    }
+
     public long getIntervalNanos() {
-        return intervalNanos;
+        return master.intervalNanos;
     }
 }
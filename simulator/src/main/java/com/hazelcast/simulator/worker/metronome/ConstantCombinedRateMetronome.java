@@ -34,13 +34,16 @@ import static java.util.concurrent.locks.LockSupport.parkNanos;
  * With the ConstantCombinedRateMetronome this bubble is less likely to happen because as long as there is a thread available,
  * it will take over the work of the blocked threads. This way you get less bubbles and a more stable rate of requests.
  */
-public class ConstantCombinedRateMetronome implements Metronome {
+public class ConstantCombinedRateMetronome implements AdjustableRateMetronome {
 
-    private final long intervalNanos;
+    private final ConstantCombinedRateMetronome master;
     private final boolean accountForCoordinatedOmission;
     private final AtomicLong nextExpectedStartNanos;
+    // only used on the master
+    private volatile long intervalNanos;
 
     ConstantCombinedRateMetronome(long intervalNanos, boolean accountForCoordinatedOmission) {
+        this.master = this;
         this.intervalNanos = intervalNanos;
         this.accountForCoordinatedOmission = accountForCoordinatedOmission;
         this.nextExpectedStartNanos = new AtomicLong(nanoTime());
@@ -51,8 +54,7 @@ public class ConstantCombinedRateMetronome implements Metronome {
     }
 
     public ConstantCombinedRateMetronome(Metronome m) {
-        ConstantCombinedRateMetronome master = (ConstantCombinedRateMetronome) m;
-        this.intervalNanos = master.intervalNanos;
+        this.master = (ConstantCombinedRateMetronome) m;
         this.accountForCoordinatedOmission = master.accountForCoordinatedOmission;
         this.nextExpectedStartNanos = master.nextExpectedStartNanos;
     }
@@ -69,7 +71,7 @@ public class ConstantCombinedRateMetronome implements Metronome {
             }
 
             // if we manage to cas the item, we can execute the request, otherwise continue waiting.
-            if (nextExpectedStartNanos.compareAndSet(expectedStartNanos, expectedStartNanos + intervalNanos)) {
+            if (nextExpectedStartNanos.compareAndSet(expectedStartNanos, expectedStartNanos + master.intervalNanos)) {
                 break;
             }
         }
@@ -77,7 +79,13 @@ public class ConstantCombinedRateMetronome implements Metronome {
         return accountForCoordinatedOmission ? expectedStartNanos : nanoTime();
     }
 
+    @Override
+    public void setIntervalNanos(long intervalNanos, int threadCount) {
+        // the threads share the interval, so the number of threads doesn't matter
+        master.intervalNanos = intervalNanos;
+    }
+
     public long getIntervalNanos() {
-        return intervalNanos;
+        return master.intervalNanos;
     }
 }
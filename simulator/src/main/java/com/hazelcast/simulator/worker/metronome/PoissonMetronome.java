@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * A {@link Metronome} implementation which sleeps for an exponentially distributed interval, so the requests arrive
+ * according to a Poisson process instead of at a fixed interval.
+ * <p>
+ * The configured interval is the mean interval. Fixed intervals hide the queueing effects of bursts of requests; with
+ * exponential inter-arrival times the requests sometimes cluster together, like they do in production.
+ * <p>
+ * The combined arrivals of the independent timestep threads are a Poisson process with the configured rate as well.
+ */
+public final class PoissonMetronome implements AdjustableRateMetronome {
+
+    private final PoissonMetronome master;
+    private final boolean accountForCoordinatedOmission;
+    // only used on the master; the mean interval of a single timestep thread
+    private volatile long meanIntervalNanos;
+    private long nextNanos;
+
+    PoissonMetronome(long meanIntervalNanos, boolean accountForCoordinatedOmission) {
+        this.master = this;
+        this.meanIntervalNanos = meanIntervalNanos;
+        this.accountForCoordinatedOmission = accountForCoordinatedOmission;
+    }
+
+    public PoissonMetronome(long intervalNanos, int threadCount, PropertyBinding binding, String prefix) {
+        this(intervalNanos * threadCount,
+                binding.loadAsBoolean(toPropertyName(prefix, "accountForCoordinatedOmission"), true));
+    }
+
+    public PoissonMetronome(Metronome m) {
+        this.master = (PoissonMetronome) m;
+        this.accountForCoordinatedOmission = master.accountForCoordinatedOmission;
+    }
+
+    @Override
+    public long waitForNext() {
+        if (nextNanos == 0) {
+            nextNanos = nanoTime() + nextIntervalNanos();
+        }
+
+        long now;
+        while ((now = nanoTime()) < nextNanos) {
+            parkNanos(nextNanos - now);
+        }
+
+        long expectedStartNanos = nextNanos;
+        nextNanos += nextIntervalNanos();
+        return accountForCoordinatedOmission ? expectedStartNanos : nanoTime();
+    }
+
+    private long nextIntervalNanos() {
+        return exponentialIntervalNanos(master.meanIntervalNanos);
+    }
+
+    static long exponentialIntervalNanos(double meanIntervalNanos) {
+        // 1 - nextDouble() is in (0, 1], so the log is always defined
+        return Math.round(-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos);
+    }
+
+    @Override
+    public void setIntervalNanos(long intervalNanos, int threadCount) {
+        master.meanIntervalNanos = intervalNanos * threadCount;
+    }
+
+    public long getIntervalNanos() {
+        return master.meanIntervalNanos;
+    }
+}
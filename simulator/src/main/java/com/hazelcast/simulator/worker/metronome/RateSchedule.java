@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.worker.testcontainer.MetronomeConstructor.parseInterval;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Defines the request rate of a test over time. Used by the {@link ScheduledRateMetronome}.
+ * <p>
+ * The following schedules are supported:
+ * <ol>
+ * <li>step:rate@time,rate@time,...   e.g. 'step:1000@0s,5000@1m,2000@5m'. The rate changes at the given times.</li>
+ * <li>ramp:fromRate,toRate,duration   e.g. 'ramp:1000,10000,5m'. The rate increases linearly and stays at the toRate.</li>
+ * <li>sine:meanRate,amplitude,period  e.g. 'sine:5000,2000,1m'. The rate follows a sine wave around the mean.</li>
+ * <li>csv:file  A file with a 'seconds,rate' line for every change of the rate. Empty lines and lines starting with '#' are
+ * ignored.</li>
+ * </ol>
+ * All rates are the number of requests per second for all timestep threads of the execution group combined.
+ */
+public abstract class RateSchedule {
+
+    /**
+     * Returns the request rate at the given moment.
+     *
+     * @param elapsedNanos the time since the start of the run in nanos
+     * @return the number of requests per second, 0 if no requests should be made
+     */
+    public abstract double ratePerSecond(long elapsedNanos);
+
+    /**
+     * Returns the highest request rate of this schedule.
+     *
+     * @return the highest number of requests per second
+     */
+    public abstract double maxRatePerSecond();
+
+    /**
+     * Parses a rate schedule.
+     *
+     * @param property the name of the property, used for error messages
+     * @param value    the value of the property
+     * @return the parsed RateSchedule
+     * @throws IllegalTestException if the value is not a valid rate schedule
+     */
+    public static RateSchedule parse(String property, String value) {
+        int index = value.indexOf(':');
+        if (index == -1) {
+            throw new IllegalTestException(format("%s has an invalid value [%s], the value should start with one of"
+                    + " [step:, ramp:, sine:, csv:]", property, value));
+        }
+
+        String type = value.substring(0, index).trim();
+        String args = value.substring(index + 1).trim();
+        RateSchedule schedule;
+        try {
+            if ("step".equals(type)) {
+                schedule = parseStep(property, args);
+            } else if ("ramp".equals(type)) {
+                schedule = parseRamp(property, args);
+            } else if ("sine".equals(type)) {
+                schedule = parseSine(property, args);
+            } else if ("csv".equals(type)) {
+                schedule = parseCsv(property, args);
+            } else {
+                throw new IllegalTestException(format("%s has an unknown rate schedule [%s] in [%s], supported are"
+                        + " [step, ramp, sine, csv]", property, type, value));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalTestException(format("%s has an invalid value [%s]", property, value), e);
+        }
+
+        if (schedule.maxRatePerSecond() <= 0) {
+            throw new IllegalTestException(format("%s has an invalid value [%s], the rate must be larger than 0",
+                    property, value));
+        }
+        return schedule;
+    }
+
+    private static RateSchedule parseStep(String property, String args) {
+        List<Long> startNanos = new ArrayList<>();
+        List<Double> rates = new ArrayList<>();
+        for (String step : args.split(",")) {
+            String[] tokens = step.split("@");
+            if (tokens.length != 2) {
+                throw new IllegalTestException(format("%s has an invalid step [%s], expected rate@time. For example 1000@30s",
+                        property, step));
+            }
+            rates.add(parseRate(property, tokens[0]));
+            startNanos.add(parseInterval(property, tokens[1].trim()));
+        }
+        return newStepRateSchedule(property, startNanos, rates);
+    }
+
+    private static RateSchedule parseRamp(String property, String args) {
+        String[] tokens = args.split(",");
+        if (tokens.length != 3) {
+            throw new IllegalTestException(format("%s has an invalid ramp [%s], expected fromRate,toRate,duration."
+                    + " For example 1000,10000,5m", property, args));
+        }
+        return new RampRateSchedule(
+                parseRate(property, tokens[0]), parseRate(property, tokens[1]), parseInterval(property, tokens[2].trim()));
+    }
+
+    private static RateSchedule parseSine(String property, String args) {
+        String[] tokens = args.split(",");
+        if (tokens.length != 3) {
+            throw new IllegalTestException(format("%s has an invalid sine [%s], expected meanRate,amplitude,period."
+                    + " For example 5000,2000,1m", property, args));
+        }
+        double meanRate = parseRate(property, tokens[0]);
+        double amplitude = parseRate(property, tokens[1]);
+        if (amplitude > meanRate) {
+            throw new IllegalTestException(format("%s has an invalid sine [%s], the amplitude can't be larger than the"
+                    + " meanRate", property, args));
+        }
+        long periodNanos = parseInterval(property, tokens[2].trim());
+        if (periodNanos == 0) {
+            throw new IllegalTestException(format("%s has an invalid sine [%s], the period must be larger than 0",
+                    property, args));
+        }
+        return new SineRateSchedule(meanRate, amplitude, periodNanos);
+    }
+
+    private static RateSchedule parseCsv(String property, String fileName) {
+        File file = new File(fileName);
+        if (!file.isFile()) {
+            throw new IllegalTestException(format("%s points to a non existing file [%s]", property, file.getAbsolutePath()));
+        }
+
+        List<Long> startNanos = new ArrayList<>();
+        List<Double> rates = new ArrayList<>();
+        for (String line : fileAsText(file).split("\n")) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] tokens = line.split(",");
+            if (tokens.length != 2) {
+                throw new IllegalTestException(format("%s file [%s] has an invalid line [%s], expected seconds,rate",
+                        property, fileName, line));
+            }
+            startNanos.add(Math.round(Double.parseDouble(tokens[0].trim()) * SECONDS.toNanos(1)));
+            rates.add(parseRate(property, tokens[1]));
+        }
+
+        if (startNanos.isEmpty()) {
+            throw new IllegalTestException(format("%s file [%s] doesn't contain any rates", property, fileName));
+        }
+
+        return newStepRateSchedule(property, startNanos, rates);
+    }
+
+    private static RateSchedule newStepRateSchedule(String property, List<Long> startNanos, List<Double> rates) {
+        long[] stepStartNanos = new long[startNanos.size()];
+        double[] stepRates = new double[rates.size()];
+        for (int i = 0; i < stepStartNanos.length; i++) {
+            stepStartNanos[i] = startNanos.get(i);
+            stepRates[i] = rates.get(i);
+        }
+        return new StepRateSchedule(property, stepStartNanos, stepRates);
+    }
+
+    private static double parseRate(String property, String value) {
+        double rate = Double.parseDouble(value.trim());
+        if (rate < 0) {
+            throw new IllegalTestException(format("%s has a negative rate [%s]", property, value));
+        }
+        return rate;
+    }
+
+    /**
+     * A schedule where the rate changes at fixed moments. Before the first moment the first rate is used.
+     * <p>
+     * The schedule is shared by all timestep threads of an execution group and the time only moves forward, so the current
+     * step is remembered instead of scanning all steps on every call. The cursor is only a hint; a thread which asks for an
+     * earlier moment searches from the first step again.
+     */
+    static final class StepRateSchedule extends RateSchedule {
+
+        private final long[] startNanos;
+        private final double[] rates;
+        private volatile int cursor;
+
+        StepRateSchedule(String property, long[] startNanos, double[] rates) {
+            for (int i = 1; i < startNanos.length; i++) {
+                if (startNanos[i] <= startNanos[i - 1]) {
+                    throw new IllegalTestException(format("%s has steps which are not in ascending order of time",
+                            property));
+                }
+            }
+            if (rates[rates.length - 1] == 0) {
+                throw new IllegalTestException(format("%s needs to end with a rate larger than 0", property));
+            }
+            this.startNanos = startNanos;
+            this.rates = rates;
+        }
+
+        @Override
+        public double ratePerSecond(long elapsedNanos) {
+            int current = cursor;
+            int step = startNanos[current] <= elapsedNanos ? current : 0;
+            while (step + 1 < startNanos.length && startNanos[step + 1] <= elapsedNanos) {
+                step++;
+            }
+            if (step > current) {
+                cursor = step;
+            }
+            return rates[step];
+        }
+
+        @Override
+        public double maxRatePerSecond() {
+            double max = 0;
+            for (double rate : rates) {
+                max = Math.max(max, rate);
+            }
+            return max;
+        }
+    }
+
+    /**
+     * A schedule where the rate changes linearly from the fromRate to the toRate, and stays at the toRate after that.
+     */
+    static final class RampRateSchedule extends RateSchedule {
+
+        private final double fromRate;
+        private final double toRate;
+        private final long durationNanos;
+
+        RampRateSchedule(double fromRate, double toRate, long durationNanos) {
+            this.fromRate = fromRate;
+            this.toRate = toRate;
+            this.durationNanos = durationNanos;
+        }
+
+        @Override
+        public double ratePerSecond(long elapsedNanos) {
+            if (elapsedNanos >= durationNanos) {
+                return toRate;
+            }
+            return fromRate + (toRate - fromRate) * elapsedNanos / durationNanos;
+        }
+
+        @Override
+        public double maxRatePerSecond() {
+            // a ramp down to 0 would never make any requests again
+            return toRate == 0 ? 0 : Math.max(fromRate, toRate);
+        }
+    }
+
+    /**
+     * A schedule where the rate follows a sine wave around the mean rate.
+     */
+    static final class SineRateSchedule extends RateSchedule {
+
+        private final double meanRate;
+        private final double amplitude;
+        private final long periodNanos;
+
+        SineRateSchedule(double meanRate, double amplitude, long periodNanos) {
+            this.meanRate = meanRate;
+            this.amplitude = amplitude;
+            this.periodNanos = periodNanos;
+        }
+
+        @Override
+        public double ratePerSecond(long elapsedNanos) {
+            return meanRate + amplitude * Math.sin(2 * Math.PI * (elapsedNanos % periodNanos) / periodNanos);
+        }
+
+        @Override
+        public double maxRatePerSecond() {
+            return meanRate + amplitude;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import com.hazelcast.simulator.worker.testcontainer.PropertyBinding;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.worker.metronome.PoissonMetronome.exponentialIntervalNanos;
+import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
+import static java.lang.Math.round;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static org.apache.commons.lang3.RandomUtils.nextLong;
+
+/**
+ * A {@link Metronome} implementation which sleeps on an interval that follows a {@link RateSchedule}, e.g. a step, a linear
+ * ramp or a sine wave. The schedule is configured using the 'rateSchedule' property.
+ * <p>
+ * The schedule is shared by all timestep threads of the execution group and starts when the first thread makes its first
+ * request. Every thread takes its share of the scheduled rate. If 'poissonArrivals' is enabled, the intervals are
+ * exponentially distributed around the scheduled interval, see {@link PoissonMetronome}.
+ * <p>
+ * The expected start times are calculated from the schedule, so if accountForCoordinatedOmission is enabled, the latency is
+ * measured against the moment the request should have been made according to the schedule, also while the rate changes.
+ */
+public final class ScheduledRateMetronome implements Metronome {
+
+    // the delay between checks if the rate is 0 for a while
+    private static final long IDLE_INTERVAL_NANOS = MILLISECONDS.toNanos(1);
+
+    private final RateSchedule schedule;
+    private final int threadCount;
+    private final boolean poissonArrivals;
+    private final boolean accountForCoordinatedOmission;
+    private final AtomicLong startNanos;
+    private long nextNanos;
+
+    ScheduledRateMetronome(RateSchedule schedule, int threadCount, boolean poissonArrivals,
+                           boolean accountForCoordinatedOmission) {
+        this.schedule = schedule;
+        this.threadCount = threadCount;
+        this.poissonArrivals = poissonArrivals;
+        this.accountForCoordinatedOmission = accountForCoordinatedOmission;
+        this.startNanos = new AtomicLong();
+    }
+
+    public ScheduledRateMetronome(long intervalNanos, int threadCount, PropertyBinding binding, String prefix) {
+        this(loadRateSchedule(binding, prefix), threadCount, binding, prefix);
+    }
+
+    /**
+     * Creates a ScheduledRateMetronome for an already parsed schedule, so the 'rateSchedule' property isn't parsed again.
+     *
+     * @param schedule    the rate schedule of the execution group
+     * @param threadCount the number of timestep threads of the execution group
+     * @param binding     the PropertyBinding to load the other properties from
+     * @param prefix      the execution group
+     */
+    public ScheduledRateMetronome(RateSchedule schedule, int threadCount, PropertyBinding binding, String prefix) {
+        this(schedule,
+                threadCount,
+                binding.loadAsBoolean(toPropertyName(prefix, "poissonArrivals"), false),
+                binding.loadAsBoolean(toPropertyName(prefix, "accountForCoordinatedOmission"), true));
+    }
+
+    public ScheduledRateMetronome(Metronome m) {
+        ScheduledRateMetronome master = (ScheduledRateMetronome) m;
+        this.schedule = master.schedule;
+        this.threadCount = master.threadCount;
+        this.poissonArrivals = master.poissonArrivals;
+        this.accountForCoordinatedOmission = master.accountForCoordinatedOmission;
+        this.startNanos = master.startNanos;
+    }
+
+    private static RateSchedule loadRateSchedule(PropertyBinding binding, String prefix) {
+        String property = toPropertyName(prefix, "rateSchedule");
+        String value = binding.load(property);
+        if (value == null) {
+            throw new IllegalTestException(format("%s needs to be configured when using the %s",
+                    property, ScheduledRateMetronome.class.getSimpleName()));
+        }
+        return RateSchedule.parse(property, value);
+    }
+
+    @Override
+    public long waitForNext() {
+        if (nextNanos == 0) {
+            long now = nanoTime();
+            startNanos.compareAndSet(0, now);
+            nextNanos = nextNanos(now, true);
+        }
+
+        long now;
+        while ((now = nanoTime()) < nextNanos) {
+            parkNanos(nextNanos - now);
+        }
+
+        long expectedStartNanos = nextNanos;
+        nextNanos = nextNanos(expectedStartNanos, false);
+        return accountForCoordinatedOmission ? expectedStartNanos : nanoTime();
+    }
+
+    private long nextNanos(long fromNanos, boolean first) {
+        long start = startNanos.get();
+        long timeNanos = fromNanos;
+        for (; ; ) {
+            // the rate of a single thread
+            double ratePerSecond = schedule.ratePerSecond(timeNanos - start) / threadCount;
+            if (ratePerSecond > 0) {
+                double intervalNanos = SECONDS.toNanos(1) / ratePerSecond;
+                if (poissonArrivals) {
+                    return timeNanos + exponentialIntervalNanos(intervalNanos);
+                }
+                // randomize the first interval, so the threads don't make their requests at the same time
+                return timeNanos + (first ? nextLong(0, round(intervalNanos)) : round(intervalNanos));
+            }
+            timeNanos += IDLE_INTERVAL_NANOS;
+        }
+    }
+
+    public RateSchedule getRateSchedule() {
+        return schedule;
+    }
+}
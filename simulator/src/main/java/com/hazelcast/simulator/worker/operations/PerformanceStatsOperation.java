@@ -24,7 +24,9 @@ import java.util.Map;
 
 /**
  * Sends a {@link PerformanceStats} per running Simulator Test to the Coordinator, which contains the last snapshot of performance
- * numbers from that test.
+ * numbers from that test. Also sends the interval histograms of the latency probes, so the Coordinator can merge the
+ * histograms of all Workers and calculate the cluster wide percentiles, and the interval throughput per execution group, so the
+ * Coordinator can rebalance a clusterRatePerSecond per execution group.
  *
  * This Operation is 'mandatory' to implement. The consequence of not implementing it is no performance information is
  * available on the coordinator for logging purposes.
@@ -40,11 +42,50 @@ public class PerformanceStatsOperation implements SimulatorOperation {
     @SerializedName("performanceStatsMap")
     private final Map<String, PerformanceStats> performanceStatsMap = new HashMap<>();
 
+    /**
+     * Map of the interval histograms of the latency probes per Simulator Test.
+     *
+     * The key is the id of the test.
+     * The value is a map with the probe name as key and the compressed and Base64 encoded interval histogram as value.
+     * See {@link com.hazelcast.simulator.utils.HistogramUtils#encodeCompressed(org.HdrHistogram.Histogram)}.
+     */
+    @SerializedName("intervalHistogramMap")
+    private final Map<String, Map<String, String>> intervalHistogramMap = new HashMap<>();
+
+    /**
+     * Map of the interval throughput per execution group per Simulator Test.
+     *
+     * The key is the id of the test.
+     * The value is a map with the execution group as key and the interval throughput of that group as value.
+     */
+    @SerializedName("intervalGroupThroughputMap")
+    private final Map<String, Map<String, Double>> intervalGroupThroughputMap = new HashMap<>();
+
     public void addPerformanceStats(String testId, PerformanceStats performanceStats) {
         performanceStatsMap.put(testId, performanceStats);
     }
 
+    public void addIntervalHistograms(String testId, Map<String, String> intervalHistograms) {
+        if (!intervalHistograms.isEmpty()) {
+            intervalHistogramMap.put(testId, intervalHistograms);
+        }
+    }
+
+    public void addIntervalGroupThroughputs(String testId, Map<String, Double> intervalGroupThroughputs) {
+        if (!intervalGroupThroughputs.isEmpty()) {
+            intervalGroupThroughputMap.put(testId, intervalGroupThroughputs);
+        }
+    }
+
     public Map<String, PerformanceStats> getPerformanceStats() {
         return performanceStatsMap;
     }
+
+    public Map<String, Map<String, String>> getIntervalHistograms() {
+        return intervalHistogramMap;
+    }
+
+    public Map<String, Map<String, Double>> getIntervalGroupThroughputs() {
+        return intervalGroupThroughputMap;
+    }
 }
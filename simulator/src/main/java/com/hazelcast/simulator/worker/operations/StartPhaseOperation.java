@@ -40,9 +40,27 @@ public class StartPhaseOperation implements SimulatorOperation {
     @SerializedName("testId")
     private final String testId;
 
+    /**
+     * The index of the receiving worker within all workers of the test.
+     */
+    @SerializedName("workerIndex")
+    private final int workerIndex;
+
+    /**
+     * The number of workers which execute the phase; used to split a partitioned prepare over the workers.
+     */
+    @SerializedName("workerCount")
+    private final int workerCount;
+
     public StartPhaseOperation(TestPhase testPhase, String testId) {
+        this(testPhase, testId, 0, 1);
+    }
+
+    public StartPhaseOperation(TestPhase testPhase, String testId, int workerIndex, int workerCount) {
         this.testPhase = testPhase.name();
         this.testId = testId;
+        this.workerIndex = workerIndex;
+        this.workerCount = workerCount;
     }
 
     public TestPhase getTestPhase() {
@@ -53,8 +71,17 @@ public class StartPhaseOperation implements SimulatorOperation {
         return testId;
     }
 
+    public int getWorkerIndex() {
+        return workerIndex;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
     @Override
     public String toString() {
-        return "StartPhaseOperation{testPhase='" + testPhase + "', testId='" + testId + "'}";
+        return "StartPhaseOperation{testPhase='" + testPhase + "', testId='" + testId
+                + "', workerIndex=" + workerIndex + ", workerCount=" + workerCount + '}';
     }
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.operations;
+
+import com.google.gson.annotations.SerializedName;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
+
+/**
+ * Changes the rate of a Simulator Test which is in the {@link TestPhase#RUN} phase.
+ *
+ * The rate is the number of requests per second of the worker, just like the ratePerSecond property. The test needs to be
+ * started with a rate, so with an interval or ratePerSecond property, and use a metronome that supports changing the rate.
+ */
+public class UpdateRateOperation implements SimulatorOperation {
+
+    /**
+     * The name of the test.
+     */
+    @SerializedName("testId")
+    private final String testId;
+
+    /**
+     * The execution group to change the rate for. If null, the rate of all execution groups with a rate is changed.
+     */
+    @SerializedName("executionGroup")
+    private final String executionGroup;
+
+    /**
+     * The new number of requests per second.
+     */
+    @SerializedName("ratePerSecond")
+    private final double ratePerSecond;
+
+    public UpdateRateOperation(String testId, double ratePerSecond) {
+        this(testId, null, ratePerSecond);
+    }
+
+    public UpdateRateOperation(String testId, String executionGroup, double ratePerSecond) {
+        this.testId = testId;
+        this.executionGroup = executionGroup;
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    public String getExecutionGroup() {
+        return executionGroup;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return "UpdateRateOperation{"
+                + "testId='" + testId + '\''
+                + ", executionGroup='" + executionGroup + '\''
+                + ", ratePerSecond=" + ratePerSecond
+                + '}';
+    }
+}
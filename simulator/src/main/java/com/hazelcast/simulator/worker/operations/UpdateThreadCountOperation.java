@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.operations;
+
+import com.google.gson.annotations.SerializedName;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
+
+/**
+ * Changes the number of timestep threads of a Simulator Test which is in the {@link TestPhase#RUN} phase.
+ *
+ * The rate of the execution group stays the same; so if the test has a rate, it is spread over the new number of threads.
+ */
+public class UpdateThreadCountOperation implements SimulatorOperation {
+
+    /**
+     * The name of the test.
+     */
+    @SerializedName("testId")
+    private final String testId;
+
+    /**
+     * The execution group to change the number of threads for. If null, the number of threads of all execution groups
+     * is changed.
+     */
+    @SerializedName("executionGroup")
+    private final String executionGroup;
+
+    /**
+     * The new number of timestep threads.
+     */
+    @SerializedName("threadCount")
+    private final int threadCount;
+
+    public UpdateThreadCountOperation(String testId, String executionGroup, int threadCount) {
+        this.testId = testId;
+        this.executionGroup = executionGroup;
+        this.threadCount = threadCount;
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    public String getExecutionGroup() {
+        return executionGroup;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    @Override
+    public String toString() {
+        return "UpdateThreadCountOperation{"
+                + "testId='" + testId + '\''
+                + ", executionGroup='" + executionGroup + '\''
+                + ", threadCount=" + threadCount
+                + '}';
+    }
+}
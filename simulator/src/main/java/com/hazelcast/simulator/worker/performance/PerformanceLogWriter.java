@@ -18,7 +18,11 @@ package com.hazelcast.simulator.worker.performance;
 import java.io.File;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import static com.hazelcast.simulator.utils.FileUtils.appendText;
 import static com.hazelcast.simulator.utils.Preconditions.checkNotNull;
@@ -26,32 +30,45 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Responsible for writing to performance stats to disk in csv format.
+ *
+ * There is an allocated-bytes/operation column for every execution group which measures its allocations. The columns are
+ * determined by the first write, since the execution groups of a test don't change.
  */
 final class PerformanceLogWriter {
 
     private final StringBuffer sb = new StringBuffer();
     private final DecimalFormat format = new DecimalFormat("#.###", new DecimalFormatSymbols(Locale.ENGLISH));
     private final File file;
-    private boolean headerWritten;
+    private List<String> allocationExecutionGroups;
 
     PerformanceLogWriter(File file) {
         this.file = checkNotNull(file, "file can't be null");
     }
 
-    private void writeHeader() {
-        String columns = "epoch,timestamp,operations,operations-delta,operations/second\n";
-        appendText(columns, file);
+    private void writeHeader(Map<String, Double> allocatedBytesPerOperation) {
+        allocationExecutionGroups = new ArrayList<>(allocatedBytesPerOperation.keySet());
+        Collections.sort(allocationExecutionGroups);
+
+        StringBuilder columns = new StringBuilder("epoch,timestamp,operations,operations-delta,operations/second");
+        for (String executionGroup : allocationExecutionGroups) {
+            columns.append(",allocated-bytes/operation");
+            if (!executionGroup.isEmpty()) {
+                columns.append('[').append(executionGroup).append(']');
+            }
+        }
+        columns.append('\n');
+        appendText(columns.toString(), file);
     }
 
     void write(long timeMillis,
                String timestamp,
                long operationsTotal,
                long operationsDelta,
-               double operationsPerSecond) {
+               double operationsPerSecond,
+               Map<String, Double> allocatedBytesPerOperation) {
 
-        if (!headerWritten) {
-            writeHeader();
-            headerWritten = true;
+        if (allocationExecutionGroups == null) {
+            writeHeader(allocatedBytesPerOperation);
         }
 
         sb.setLength(0);
@@ -61,6 +78,14 @@ final class PerformanceLogWriter {
         sb.append(',').append(operationsTotal);
         sb.append(',').append(operationsDelta);
         sb.append(',').append(format.format(operationsPerSecond));
+        for (String executionGroup : allocationExecutionGroups) {
+            // the column is empty if the execution group had no operations
+            sb.append(',');
+            Double value = allocatedBytesPerOperation.get(executionGroup);
+            if (value != null && value >= 0) {
+                sb.append(format.format(value));
+            }
+        }
         sb.append('\n');
         appendText(sb.toString(), file);
     }
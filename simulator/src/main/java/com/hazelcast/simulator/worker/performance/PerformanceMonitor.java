@@ -32,9 +32,11 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static com.hazelcast.simulator.utils.CommonUtils.joinThread;
 import static com.hazelcast.simulator.utils.CommonUtils.sleepNanos;
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static com.hazelcast.simulator.worker.performance.TestPerformanceTracker.allocatedBytesPerOperation;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
 import static java.lang.System.nanoTime;
+import static java.util.Collections.singletonMap;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
@@ -144,7 +146,10 @@ public class PerformanceMonitor implements Closeable {
 
             for (TestContainer container : dirtyContainers) {
                 TestPerformanceTracker tracker = container.getTestPerformanceTracker();
-                operation.addPerformanceStats(container.getTestCase().getId(), tracker.createPerformanceStats());
+                String testId = container.getTestCase().getId();
+                operation.addPerformanceStats(testId, tracker.createPerformanceStats());
+                operation.addIntervalHistograms(testId, tracker.encodeIntervalLatencyHistograms());
+                operation.addIntervalGroupThroughputs(testId, tracker.intervalGroupThroughputs());
             }
 
             if (operation.getPerformanceStats().size() > 0) {
@@ -157,6 +162,8 @@ public class PerformanceMonitor implements Closeable {
             long globalIntervalOperationCount = 0;
             long globalOperationsCount = 0;
             double globalIntervalThroughput = 0;
+            long globalIntervalAllocatedBytes = -1;
+            long globalIntervalAllocationOperationCount = 0;
 
             for (TestContainer container : dirtyContainers) {
                 TestPerformanceTracker tracker = container.getTestPerformanceTracker();
@@ -165,6 +172,10 @@ public class PerformanceMonitor implements Closeable {
                 globalIntervalOperationCount += tracker.intervalOperationCount();
                 globalOperationsCount += tracker.totalOperationCount();
                 globalIntervalThroughput += tracker.intervalThroughput();
+                if (tracker.intervalAllocatedBytes() >= 0) {
+                    globalIntervalAllocatedBytes = Math.max(globalIntervalAllocatedBytes, 0) + tracker.intervalAllocatedBytes();
+                    globalIntervalAllocationOperationCount += tracker.intervalAllocationOperationCount();
+                }
             }
 
             // global performance stats
@@ -173,7 +184,9 @@ public class PerformanceMonitor implements Closeable {
                     dateString,
                     globalOperationsCount,
                     globalIntervalOperationCount,
-                    globalIntervalThroughput);
+                    globalIntervalThroughput,
+                    singletonMap("", allocatedBytesPerOperation(globalIntervalAllocatedBytes,
+                            globalIntervalAllocationOperationCount)));
         }
     }
 }
@@ -17,6 +17,10 @@ package com.hazelcast.simulator.worker.performance;
 
 import com.hazelcast.simulator.common.TestPhase;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import static java.lang.Math.max;
 
 /**
@@ -39,6 +43,7 @@ public class PerformanceStats {
     private double intervalLatencyAvgNanos;
     private long intervalLatencyMaxNanos;
     private long intervalLatency999PercentileNanos;
+    private Map<String, Double> intervalAllocatedBytesPerOperation = new HashMap<>();
 
     /**
      * Creates an empty {@link PerformanceStats} instance.
@@ -66,12 +71,37 @@ public class PerformanceStats {
                             double intervalLatencyAvgNanos,
                             long intervalLatency999PercentileNanos,
                             long intervalLatencyMaxNanos) {
+        this(operationCount, intervalThroughput, totalThroughput, intervalLatencyAvgNanos, intervalLatency999PercentileNanos,
+                intervalLatencyMaxNanos, Collections.<String, Double>emptyMap());
+    }
+
+    /**
+     * Creates a {@link PerformanceStats} instance with values.
+     *
+     * @param operationCount                     Operation count value.
+     * @param intervalThroughput                 Throughput value for an interval.
+     * @param totalThroughput                    Total throughput value.
+     * @param intervalLatencyAvgNanos            Average latency for an interval.
+     * @param intervalLatency999PercentileNanos  99.9 Percentile latency for an interval
+     *                                           ({@link PerformanceStats#INTERVAL_LATENCY_PERCENTILE}).
+     * @param intervalLatencyMaxNanos            Maximum latency for an interval.
+     * @param intervalAllocatedBytesPerOperation Allocated bytes per operation for an interval per execution group which
+     *                                           measures its allocations.
+     */
+    public PerformanceStats(long operationCount,
+                            double intervalThroughput,
+                            double totalThroughput,
+                            double intervalLatencyAvgNanos,
+                            long intervalLatency999PercentileNanos,
+                            long intervalLatencyMaxNanos,
+                            Map<String, Double> intervalAllocatedBytesPerOperation) {
         this.operationCount = operationCount;
         this.intervalThroughput = intervalThroughput;
         this.totalThroughput = totalThroughput;
         this.intervalLatencyAvgNanos = intervalLatencyAvgNanos;
         this.intervalLatency999PercentileNanos = intervalLatency999PercentileNanos;
         this.intervalLatencyMaxNanos = intervalLatencyMaxNanos;
+        this.intervalAllocatedBytesPerOperation = new HashMap<>(intervalAllocatedBytesPerOperation);
     }
 
     public PerformanceStats(PerformanceStats original) {
@@ -81,6 +111,7 @@ public class PerformanceStats {
         this.intervalLatencyAvgNanos = original.intervalLatencyAvgNanos;
         this.intervalLatency999PercentileNanos = original.intervalLatency999PercentileNanos;
         this.intervalLatencyMaxNanos = original.intervalLatencyMaxNanos;
+        this.intervalAllocatedBytesPerOperation = new HashMap<>(original.getIntervalAllocatedBytesPerOperation());
     }
 
     /**
@@ -102,7 +133,7 @@ public class PerformanceStats {
      * For the total performance number and the performance per Simulator Agent, the added values should be set, so we get the
      * summed up operation count and throughput values.
      * <p>
-     * The method always sets the maximum values for latency.
+     * The method always sets the maximum values for latency and allocated bytes per operation.
      *
      * @param other                          {@link PerformanceStats} which should be added to this instance
      * @param addOperationCountAndThroughput {@code true} if operation count and throughput should be added,
@@ -121,6 +152,7 @@ public class PerformanceStats {
             intervalLatencyAvgNanos = other.intervalLatencyAvgNanos;
             intervalLatency999PercentileNanos = other.intervalLatency999PercentileNanos;
             intervalLatencyMaxNanos = other.intervalLatencyMaxNanos;
+            intervalAllocatedBytesPerOperation = new HashMap<>(other.getIntervalAllocatedBytesPerOperation());
         } else {
             if (addOperationCountAndThroughput) {
                 operationCount += other.operationCount;
@@ -135,7 +167,17 @@ public class PerformanceStats {
             intervalLatencyAvgNanos = max(intervalLatencyAvgNanos, other.intervalLatencyAvgNanos);
             intervalLatency999PercentileNanos = max(intervalLatency999PercentileNanos, other.intervalLatency999PercentileNanos);
             intervalLatencyMaxNanos = max(intervalLatencyMaxNanos, other.intervalLatencyMaxNanos);
+            addAllocatedBytesPerOperation(other.getIntervalAllocatedBytesPerOperation());
+        }
+    }
+
+    private void addAllocatedBytesPerOperation(Map<String, Double> other) {
+        Map<String, Double> result = new HashMap<>(getIntervalAllocatedBytesPerOperation());
+        for (Map.Entry<String, Double> entry : other.entrySet()) {
+            Double value = result.get(entry.getKey());
+            result.put(entry.getKey(), value == null ? entry.getValue() : max(value, entry.getValue()));
         }
+        intervalAllocatedBytesPerOperation = result;
     }
 
     /**
@@ -171,6 +213,17 @@ public class PerformanceStats {
         return intervalLatencyMaxNanos;
     }
 
+    /**
+     * Returns the number of bytes allocated per operation in the interval per execution group which measures its allocations.
+     *
+     * @return map with the execution group as key and its allocated bytes per operation as value, or a negative value if it had
+     * no operations; empty if the allocations are not measured
+     */
+    public Map<String, Double> getIntervalAllocatedBytesPerOperation() {
+        return intervalAllocatedBytesPerOperation == null
+                ? Collections.<String, Double>emptyMap() : intervalAllocatedBytesPerOperation;
+    }
+
     @Override
     public String toString() {
         return "PerformanceStats{"
@@ -180,6 +233,7 @@ public class PerformanceStats {
                 + ", intervalAvgLatencyNanos=" + intervalLatencyAvgNanos
                 + ", intervalLatency999PercentileNanos=" + intervalLatency999PercentileNanos
                 + ", intervalMaxLatencyNanos=" + intervalLatencyMaxNanos
+                + ", intervalAllocatedBytesPerOperation=" + intervalAllocatedBytesPerOperation
                 + '}';
     }
 
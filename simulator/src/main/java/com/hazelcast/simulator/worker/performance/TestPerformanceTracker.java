@@ -18,6 +18,7 @@ package com.hazelcast.simulator.worker.performance;
 import com.hazelcast.simulator.probes.Probe;
 import com.hazelcast.simulator.probes.impl.HdrProbe;
 import com.hazelcast.simulator.test.TestException;
+import com.hazelcast.simulator.utils.ExceptionReporter;
 import com.hazelcast.simulator.worker.testcontainer.TestContainer;
 import org.HdrHistogram.Histogram;
 import org.HdrHistogram.HistogramLogWriter;
@@ -25,10 +26,14 @@ import org.HdrHistogram.HistogramLogWriter;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static com.hazelcast.simulator.utils.HistogramUtils.encodeCompressed;
 import static com.hazelcast.simulator.worker.performance.PerformanceStats.INTERVAL_LATENCY_PERCENTILE;
+import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -49,8 +54,11 @@ public final class TestPerformanceTracker {
     private final TestContainer testContainer;
     private final Map<String, HistogramLogWriter> histogramLogWriterMap = new HashMap<>();
     private final PerformanceLogWriter performanceLogWriter;
+    // the execution groups which have exceeded their maximum allocated bytes per operation
+    private final Set<String> exceededAllocationGroups = new HashSet<>();
     private long lastUpdateMillis;
     private Map<String, Histogram> intervalHistogramMap;
+    private Map<String, Histogram> intervalLatencyHistogramMap = new HashMap<>();
 
     private long iterationsDuringWarmup;
     private long lastIterations;
@@ -62,6 +70,12 @@ public final class TestPerformanceTracker {
     private double intervalThroughput;
     private double totalThroughput;
     private long nextUpdateMillis;
+    private Map<String, Long> lastGroupIterations = new HashMap<>();
+    private Map<String, Double> intervalGroupThroughputs = new HashMap<>();
+    private Map<String, Long> lastGroupAllocatedBytes = new HashMap<>();
+    private Map<String, Double> intervalGroupAllocatedBytesPerOperation = new HashMap<>();
+    private long intervalAllocatedBytes = -1;
+    private long intervalAllocationOperationCount;
 
     public TestPerformanceTracker(TestContainer container) {
         this.testContainer = container;
@@ -96,6 +110,8 @@ public final class TestPerformanceTracker {
         if (lastUpdateMillis == 0) {
             // first time
             iterationsDuringWarmup = testContainer.iteration();
+            lastGroupIterations = testContainer.iterationsPerExecutionGroup();
+            lastGroupAllocatedBytes = testContainer.allocatedBytesPerExecutionGroup();
             for (Probe probe : testContainer.getProbeMap().values()) {
                 probe.reset();
             }
@@ -110,6 +126,7 @@ public final class TestPerformanceTracker {
     private void makeUpdate(long updateIntervalMillis, long currentTimeMillis) {
         Map<String, Probe> probeMap = testContainer.getProbeMap();
         Map<String, Histogram> intervalHistograms = new HashMap<>(probeMap.size());
+        Map<String, Histogram> intervalLatencyHistograms = new HashMap<>(probeMap.size());
 
         long intervalPercentileLatency = -1;
         double intervalMean = -1;
@@ -126,11 +143,16 @@ public final class TestPerformanceTracker {
             }
 
             HdrProbe hdrProbe = (HdrProbe) probe;
-            Histogram intervalHistogram = hdrProbe.getRecorder().getIntervalHistogram();
+            Histogram intervalHistogram = hdrProbe.getIntervalHistogram();
             intervalHistogram.setStartTimeStamp(lastUpdateMillis);
             intervalHistogram.setEndTimeStamp(currentTimeMillis);
             intervalHistograms.put(probeName, intervalHistogram);
 
+            if (!hdrProbe.isLatencyProbe()) {
+                continue;
+            }
+            intervalLatencyHistograms.put(probeName, intervalHistogram);
+
             long percentileValue = intervalHistogram.getValueAtPercentile(INTERVAL_LATENCY_PERCENTILE);
             if (percentileValue > intervalPercentileLatency) {
                 intervalPercentileLatency = percentileValue;
@@ -152,6 +174,7 @@ public final class TestPerformanceTracker {
         }
 
         this.intervalHistogramMap = intervalHistograms;
+        this.intervalLatencyHistogramMap = intervalLatencyHistograms;
 
         this.intervalLatency999PercentileNanos = intervalPercentileLatency;
         this.intervalLatencyAvgNanos = intervalMean;
@@ -166,11 +189,80 @@ public final class TestPerformanceTracker {
         this.intervalThroughput = (intervalOperationCount * ONE_SECOND_IN_MILLIS) / (double) intervalTimeDelta;
         this.totalThroughput = (totalOperationCount * ONE_SECOND_IN_MILLIS / (double) totalTimeDelta);
 
+        Map<String, Long> groupIterations = testContainer.iterationsPerExecutionGroup();
+        updateGroupThroughputs(groupIterations, intervalTimeDelta);
+        updateAllocation(groupIterations);
+        this.lastGroupIterations = groupIterations;
+
         this.lastIterations = iterations;
         this.nextUpdateMillis += updateIntervalMillis;
         this.lastUpdateMillis = currentTimeMillis;
     }
 
+    private void updateGroupThroughputs(Map<String, Long> groupIterations, long intervalTimeDelta) {
+        Map<String, Double> groupThroughputs = new HashMap<>(groupIterations.size());
+        for (Map.Entry<String, Long> entry : groupIterations.entrySet()) {
+            long intervalIterations = entry.getValue() - getOrZero(lastGroupIterations, entry.getKey());
+            groupThroughputs.put(entry.getKey(), (intervalIterations * ONE_SECOND_IN_MILLIS) / (double) intervalTimeDelta);
+        }
+        this.intervalGroupThroughputs = groupThroughputs;
+    }
+
+    private void updateAllocation(Map<String, Long> groupIterations) {
+        Map<String, Long> groupAllocatedBytes = testContainer.allocatedBytesPerExecutionGroup();
+        if (groupAllocatedBytes.isEmpty()) {
+            return;
+        }
+
+        Map<String, Double> groupAllocatedBytesPerOperation = new HashMap<>(groupAllocatedBytes.size());
+        long allocatedBytes = 0;
+        long operationCount = 0;
+        for (Map.Entry<String, Long> entry : groupAllocatedBytes.entrySet()) {
+            String executionGroup = entry.getKey();
+            long groupBytes = entry.getValue() - getOrZero(lastGroupAllocatedBytes, executionGroup);
+            long groupOperationCount = getOrZero(groupIterations, executionGroup)
+                    - getOrZero(lastGroupIterations, executionGroup);
+            groupAllocatedBytesPerOperation.put(executionGroup, allocatedBytesPerOperation(groupBytes, groupOperationCount));
+            allocatedBytes += groupBytes;
+            operationCount += groupOperationCount;
+        }
+
+        this.intervalGroupAllocatedBytesPerOperation = groupAllocatedBytesPerOperation;
+        this.intervalAllocatedBytes = allocatedBytes;
+        this.intervalAllocationOperationCount = operationCount;
+        this.lastGroupAllocatedBytes = groupAllocatedBytes;
+        checkMaxAllocatedBytesPerOperation();
+    }
+
+    // an execution group which exceeds its maximum fails the test; it is reported once, since it will likely exceed it again
+    private void checkMaxAllocatedBytesPerOperation() {
+        for (Map.Entry<String, Double> entry : testContainer.maxAllocatedBytesPerOperation().entrySet()) {
+            String executionGroup = entry.getKey();
+            Double bytesPerOperation = intervalGroupAllocatedBytesPerOperation.get(executionGroup);
+            if (bytesPerOperation != null && bytesPerOperation > entry.getValue()
+                    && exceededAllocationGroups.add(executionGroup)) {
+                String testId = testContainer.getTestCase().getId();
+                ExceptionReporter.report(testId, new TestException(format(
+                        "executionGroup [%s] of test [%s] allocated %s bytes per operation, the maximum is %s",
+                        executionGroup, testId, bytesPerOperation, entry.getValue())));
+            }
+        }
+    }
+
+    private static long getOrZero(Map<String, Long> map, String key) {
+        Long value = map.get(key);
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * Returns the throughput of the last interval per execution group.
+     *
+     * @return map with the execution group as key and its interval throughput as value
+     */
+    Map<String, Double> intervalGroupThroughputs() {
+        return intervalGroupThroughputs;
+    }
+
     long intervalOperationCount() {
         return intervalOperationCount;
     }
@@ -183,13 +275,43 @@ public final class TestPerformanceTracker {
         return intervalThroughput;
     }
 
+    /**
+     * Returns the bytes allocated in the last interval by the execution groups which measure their allocations.
+     *
+     * @return the allocated bytes, or -1 if the allocations are not measured
+     */
+    long intervalAllocatedBytes() {
+        return intervalAllocatedBytes;
+    }
+
+    long intervalAllocationOperationCount() {
+        return intervalAllocationOperationCount;
+    }
+
+    /**
+     * Returns the allocated bytes per operation of the last interval per execution group which measures its allocations.
+     *
+     * @return map with the execution group as key and its allocated bytes per operation as value, or -1 if it had no operations
+     */
+    Map<String, Double> intervalAllocatedBytesPerOperation() {
+        return intervalGroupAllocatedBytesPerOperation;
+    }
+
+    static double allocatedBytesPerOperation(long allocatedBytes, long operationCount) {
+        if (allocatedBytes < 0 || operationCount <= 0) {
+            return -1;
+        }
+        return allocatedBytes / (double) operationCount;
+    }
+
     void persist(long currentTimeMillis, String currentTimeString) {
         performanceLogWriter.write(
                 currentTimeMillis,
                 currentTimeString,
                 totalOperationCount,
                 intervalOperationCount,
-                intervalThroughput);
+                intervalThroughput,
+                intervalAllocatedBytesPerOperation());
 
         // dumps all the Histograms that have been collected to file.
         for (Map.Entry<String, Histogram> histogramEntry : intervalHistogramMap.entrySet()) {
@@ -211,7 +333,21 @@ public final class TestPerformanceTracker {
                 totalThroughput,
                 intervalLatencyAvgNanos,
                 intervalLatency999PercentileNanos,
-                intervalLatencyMaxNanos);
+                intervalLatencyMaxNanos,
+                intervalAllocatedBytesPerOperation());
+    }
+
+    /**
+     * Returns the interval histograms of the latency probes in the compressed format, so they can be send to the coordinator.
+     *
+     * @return map with the probe name as key and the encoded interval histogram as value
+     */
+    Map<String, String> encodeIntervalLatencyHistograms() {
+        Map<String, String> result = new HashMap<>(intervalLatencyHistogramMap.size());
+        for (Map.Entry<String, Histogram> entry : intervalLatencyHistogramMap.entrySet()) {
+            result.put(entry.getKey(), encodeCompressed(entry.getValue()));
+        }
+        return result;
     }
 
     HistogramLogWriter createHistogramLogWriter(String probeName) {
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.test.TestContext;
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Reports when a virtual timestep thread pins its carrier thread.
+ *
+ * A virtual thread that blocks while pinned, e.g. inside a synchronized block of a driver, also blocks the carrier thread.
+ * This reduces the number of timestep threads that can make progress and ruins the measurement. The monitor listens to the
+ * {@code jdk.VirtualThreadPinned} JFR event; the JFR streaming API is looked up using reflection since Simulator is
+ * compiled for older Java versions.
+ *
+ * The event is recorded for every virtual thread in the JVM, so only the events of the threads registered using
+ * {@link #monitor(Thread)} are counted; otherwise the pinning of other tests running in parallel would be attributed to
+ * this test.
+ */
+final class CarrierPinningMonitor implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(CarrierPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final TestContext testContext;
+    private final AtomicLong pinnedCount = new AtomicLong();
+    private final AtomicLong pinnedTotalNanos = new AtomicLong();
+    private final AtomicLong pinnedMaxNanos = new AtomicLong();
+    private final Set<Long> threadIds = ConcurrentHashMap.newKeySet();
+    private Method getDurationMethod;
+    private Method getThreadMethod;
+    private Method getJavaThreadIdMethod;
+    private Method stopMethod;
+    private AutoCloseable recordingStream;
+
+    CarrierPinningMonitor(TestContext testContext) {
+        this.testContext = testContext;
+    }
+
+    /**
+     * Registers a thread of the test, so its pinned events are counted.
+     *
+     * @param thread the thread to monitor
+     */
+    void monitor(Thread thread) {
+        threadIds.add(thread.getId());
+    }
+
+    void start() {
+        try {
+            Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+            Class<?> settingsClass = Class.forName("jdk.jfr.EventSettings");
+            Class<?> eventClass = Class.forName("jdk.jfr.consumer.RecordedEvent");
+            getDurationMethod = eventClass.getMethod("getDuration");
+            getThreadMethod = eventClass.getMethod("getThread");
+            getJavaThreadIdMethod = Class.forName("jdk.jfr.consumer.RecordedThread").getMethod("getJavaThreadId");
+            // stop() waits till all recorded events have been consumed
+            stopMethod = streamClass.getMethod("stop");
+
+            AutoCloseable stream = (AutoCloseable) streamClass.getConstructor().newInstance();
+            Object settings = streamClass.getMethod("enable", String.class).invoke(stream, PINNED_EVENT);
+            settingsClass.getMethod("withThreshold", Duration.class).invoke(settings, Duration.ZERO);
+            Consumer<Object> consumer = this::onPinned;
+            streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(stream, PINNED_EVENT, consumer);
+            streamClass.getMethod("startAsync").invoke(stream);
+            recordingStream = stream;
+        } catch (Exception e) {
+            LOGGER.warn("Carrier thread pinning can't be monitored: " + e);
+        }
+    }
+
+    private void onPinned(Object event) {
+        long durationNanos;
+        try {
+            Object thread = getThreadMethod.invoke(event);
+            if (thread == null || !threadIds.contains((Long) getJavaThreadIdMethod.invoke(thread))) {
+                // a virtual thread of another test or of the driver
+                return;
+            }
+            durationNanos = ((Duration) getDurationMethod.invoke(event)).toNanos();
+        } catch (Exception e) {
+            LOGGER.warn("Failed to read a pinned event: " + e);
+            return;
+        }
+
+        if (pinnedCount.incrementAndGet() == 1) {
+            LOGGER.warn(format("Test %s pinned a carrier thread for the first time: %s", testContext.getTestId(), event));
+        }
+        pinnedTotalNanos.addAndGet(durationNanos);
+        for (; ; ) {
+            long max = pinnedMaxNanos.get();
+            if (durationNanos <= max || pinnedMaxNanos.compareAndSet(max, durationNanos)) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (recordingStream == null) {
+            return;
+        }
+
+        try {
+            stopMethod.invoke(recordingStream);
+            recordingStream.close();
+        } catch (Exception e) {
+            LOGGER.warn("Failed to close the JFR recording stream: " + e);
+        }
+
+        long count = pinnedCount.get();
+        if (count == 0) {
+            LOGGER.info(format("Test %s didn't pin any carrier threads", testContext.getTestId()));
+            return;
+        }
+
+        String message = format("Test %s pinned carrier threads %d times (total %d ms, max %d us);"
+                        + " the measured latency and throughput are likely distorted",
+                testContext.getTestId(), count,
+                NANOSECONDS.toMillis(pinnedTotalNanos.get()), NANOSECONDS.toMicros(pinnedMaxNanos.get()));
+        LOGGER.warn(message);
+        testContext.echoCoordinator("%s", message);
+    }
+}
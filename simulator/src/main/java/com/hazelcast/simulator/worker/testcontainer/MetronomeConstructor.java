@@ -15,11 +15,15 @@
  */
 package com.hazelcast.simulator.worker.testcontainer;
 
+import com.hazelcast.simulator.worker.metronome.AdjustableRateMetronome;
 import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
 import com.hazelcast.simulator.worker.metronome.Metronome;
+import com.hazelcast.simulator.worker.metronome.RateSchedule;
+import com.hazelcast.simulator.worker.metronome.ScheduledRateMetronome;
 import com.hazelcast.simulator.worker.metronome.SleepingMetronome;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
@@ -37,9 +41,13 @@ public class MetronomeConstructor {
 
     private final Class<? extends Metronome> metronomeClass;
     private final Metronome masterMetronome;
-    private final long intervalNanos;
+    private final String executionGroup;
+    private volatile long intervalNanos;
+    private volatile int threadCount;
 
     public MetronomeConstructor(String executionGroup, PropertyBinding binding, int threadCount) {
+        this.executionGroup = executionGroup;
+        this.threadCount = threadCount;
         String property = toPropertyName(executionGroup, "interval");
         String intervalString = binding.load(property);
 
@@ -52,30 +60,63 @@ public class MetronomeConstructor {
             intervalNanos = round(SECONDS.toNanos(1) / ratePerSecond);
         }
 
+        // a rate schedule defines the rate itself; the interval is based on the highest rate of the schedule
+        String rateScheduleProperty = toPropertyName(executionGroup, "rateSchedule");
+        String rateScheduleString = binding.load(rateScheduleProperty);
+        RateSchedule rateSchedule = null;
+        if (rateScheduleString != null) {
+            if (intervalNanos != 0) {
+                throw new IllegalTestException(format("%s can't be combined with %s or %s",
+                        rateScheduleProperty, property, toPropertyName(executionGroup, "ratePerSecond")));
+            }
+            rateSchedule = RateSchedule.parse(rateScheduleProperty, rateScheduleString);
+            intervalNanos = Math.max(1, round(SECONDS.toNanos(1) / rateSchedule.maxRatePerSecond()));
+        }
+
         // we read the metronome up front so we doing get an unused properties error if interval is 0,
         // but the user did configure a metronome.
-        Class<SleepingMetronome> configuredMetronomeClass = binding.loadAsClass(
-                toPropertyName(executionGroup, "metronomeClass"), SleepingMetronome.class);
+        String metronomeClassProperty = toPropertyName(executionGroup, "metronomeClass");
+        Class<? extends Metronome> defaultMetronomeClass = rateSchedule == null
+                ? SleepingMetronome.class : ScheduledRateMetronome.class;
+        Class<? extends Metronome> configuredMetronomeClass = binding.loadAsClass(
+                metronomeClassProperty, defaultMetronomeClass);
+        if (rateSchedule != null && configuredMetronomeClass != ScheduledRateMetronome.class) {
+            throw new IllegalTestException(format("%s requires %s=%s, but found %s", rateScheduleProperty,
+                    metronomeClassProperty, ScheduledRateMetronome.class.getName(), configuredMetronomeClass.getName()));
+        }
 
         this.intervalNanos = intervalNanos;
         if (intervalNanos == 0) {
             this.metronomeClass = EmptyMetronome.class;
             this.masterMetronome = EmptyMetronome.INSTANCE;
+        } else if (rateSchedule != null) {
+            // the schedule is already parsed, so it is passed on instead of letting the metronome parse it again
+            this.metronomeClass = ScheduledRateMetronome.class;
+            this.masterMetronome = new ScheduledRateMetronome(rateSchedule, threadCount, binding, executionGroup);
         } else {
             this.metronomeClass = configuredMetronomeClass;
+            this.masterMetronome = newMetronome(configuredMetronomeClass, intervalNanos, threadCount, binding, executionGroup);
+        }
+    }
 
-            Constructor<? extends Metronome> constructor;
-            try {
-                constructor = this.metronomeClass.getConstructor(Long.TYPE, Integer.TYPE, PropertyBinding.class, String.class);
-            } catch (NoSuchMethodException e) {
-                throw new IllegalTestException("Metronome [%s], does not have the right constructor", e);
-            }
+    private static Metronome newMetronome(Class<? extends Metronome> metronomeClass, long intervalNanos, int threadCount,
+                                          PropertyBinding binding, String executionGroup) {
+        Constructor<? extends Metronome> constructor;
+        try {
+            constructor = metronomeClass.getConstructor(Long.TYPE, Integer.TYPE, PropertyBinding.class, String.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalTestException("Metronome [%s], does not have the right constructor", e);
+        }
 
-            try {
-                masterMetronome = constructor.newInstance(intervalNanos, threadCount, binding, executionGroup);
-            } catch (Exception e) {
-                throw new IllegalTestException("Failed to create a master metronome instance", e);
+        try {
+            return constructor.newInstance(intervalNanos, threadCount, binding, executionGroup);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IllegalTestException) {
+                throw (IllegalTestException) e.getCause();
             }
+            throw new IllegalTestException("Failed to create a master metronome instance", e);
+        } catch (Exception e) {
+            throw new IllegalTestException("Failed to create a master metronome instance", e);
         }
     }
 
@@ -83,7 +124,62 @@ public class MetronomeConstructor {
         return intervalNanos;
     }
 
-    private static long parseInterval(String property, String value) {
+    /**
+     * Changes the rate of all metronomes created by this MetronomeConstructor, also if they are already in use.
+     *
+     * @param ratePerSecond the number of requests per second for all timestep threads of the execution group combined
+     * @throws IllegalArgumentException if ratePerSecond isn't larger than 0
+     * @throws IllegalStateException    if the metronome doesn't support changing the rate
+     */
+    public void setRatePerSecond(double ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException(format("ratePerSecond of executionGroup [%s] must be larger than 0, but was %s",
+                    executionGroup, ratePerSecond));
+        }
+
+        if (metronomeClass == EmptyMetronome.class) {
+            throw new IllegalStateException(format("The rate of executionGroup [%s] can't be changed because it has no"
+                    + " rate; configure an initial interval or ratePerSecond", executionGroup));
+        }
+
+        long newIntervalNanos = Math.max(1, round(SECONDS.toNanos(1) / ratePerSecond));
+        getAdjustableRateMetronome("rate").setIntervalNanos(newIntervalNanos, threadCount);
+        this.intervalNanos = newIntervalNanos;
+    }
+
+    /**
+     * Changes the number of timestep threads sharing the metronomes created by this MetronomeConstructor. The rate of the
+     * execution group stays the same, so the rate per thread changes.
+     *
+     * @param threadCount the new number of timestep threads of the execution group
+     * @throws IllegalArgumentException if threadCount is smaller than 1
+     * @throws IllegalStateException    if the metronome doesn't support changing the rate
+     */
+    void setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException(format("threadCount of executionGroup [%s] must be at least 1, but was %s",
+                    executionGroup, threadCount));
+        }
+
+        if (metronomeClass != EmptyMetronome.class) {
+            getAdjustableRateMetronome("threadCount").setIntervalNanos(intervalNanos, threadCount);
+        }
+        this.threadCount = threadCount;
+    }
+
+    int getThreadCount() {
+        return threadCount;
+    }
+
+    private AdjustableRateMetronome getAdjustableRateMetronome(String setting) {
+        if (!(masterMetronome instanceof AdjustableRateMetronome)) {
+            throw new IllegalStateException(format("The %s of executionGroup [%s] can't be changed because %s doesn't"
+                    + " support it", setting, executionGroup, metronomeClass.getSimpleName()));
+        }
+        return (AdjustableRateMetronome) masterMetronome;
+    }
+
+    public static long parseInterval(String property, String value) {
         long duration;
         try {
             if (value.endsWith("ns")) {
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2008-2016, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.test.PrepareShard;
+import org.apache.log4j.Logger;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Executes the partitioned {@link com.hazelcast.simulator.test.annotations.Prepare} methods of a test.
+ * <p>
+ * Every method is executed by the configured number of prepare threads, where each thread gets its own
+ * {@link PrepareShard}. While the threads are running, the progress and the throughput are logged.
+ */
+class PartitionedPrepareCallable implements Callable<Long> {
+
+    private static final Logger LOGGER = Logger.getLogger(PartitionedPrepareCallable.class);
+    private static final long PROGRESS_LOG_INTERVAL_MILLIS = SECONDS.toMillis(10);
+
+    private final String testId;
+    private final Object testInstance;
+    private final List<Method> methods;
+    private final int threadCount;
+    private final AtomicLong completed = new AtomicLong();
+    private volatile int workerIndex;
+    private volatile int workerCount = 1;
+
+    PartitionedPrepareCallable(String testId, Object testInstance, List<Method> methods, int threadCount) {
+        this.testId = testId;
+        this.testInstance = testInstance;
+        this.methods = methods;
+        this.threadCount = threadCount;
+    }
+
+    void setWorker(int workerIndex, int workerCount) {
+        this.workerIndex = workerIndex;
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Returns the number of items which have been prepared by this worker.
+     *
+     * @return the number of prepared items
+     */
+    long completed() {
+        return completed.get();
+    }
+
+    @Override
+    public Long call() throws Exception {
+        for (Method method : methods) {
+            invoke(method);
+        }
+        return completed.get();
+    }
+
+    private void invoke(Method method) throws Exception {
+        LOGGER.info(format("Starting partitioned prepare %s of %s with %d threads on worker %d of %d",
+                method.getName(), testId, threadCount, workerIndex + 1, workerCount));
+
+        long startNanos = System.nanoTime();
+        long startCompleted = completed.get();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[threadCount];
+        for (int threadIndex = 0; threadIndex < threadCount; threadIndex++) {
+            PrepareShard shard = new PrepareShard(workerIndex, workerCount, threadIndex, threadCount, completed);
+            MethodInvokingCallable callable = new MethodInvokingCallable(testInstance, method, shard);
+            threads[threadIndex] = new Thread(format("PartitionedPrepare-%s-%d", testId, threadIndex)) {
+                @Override
+                public void run() {
+                    try {
+                        callable.call();
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            };
+            threads[threadIndex].start();
+        }
+
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                thread.join(PROGRESS_LOG_INTERVAL_MILLIS);
+                if (thread.isAlive()) {
+                    LOGGER.info(format("Partitioned prepare %s of %s at %d items (%.0f items/s)", method.getName(), testId,
+                            completed.get() - startCompleted, throughput(completed.get() - startCompleted, startNanos)));
+                }
+            }
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        long items = completed.get() - startCompleted;
+        LOGGER.info(format("Completed partitioned prepare %s of %s: %d items in %d ms (%.0f items/s)", method.getName(),
+                testId, items, NANOSECONDS.toMillis(System.nanoTime() - startNanos), throughput(items, startNanos)));
+    }
+
+    private static double throughput(long items, long startNanos) {
+        long durationNanos = System.nanoTime() - startNanos;
+        return durationNanos == 0 ? 0 : items * (double) SECONDS.toNanos(1) / durationNanos;
+    }
+}
@@ -19,6 +19,8 @@ import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.probes.Probe;
 import com.hazelcast.simulator.probes.impl.EmptyProbe;
 import com.hazelcast.simulator.probes.impl.HdrProbe;
+import com.hazelcast.simulator.probes.impl.InFlightProbe;
+import com.hazelcast.simulator.probes.impl.SingleWriterHdrProbe;
 import com.hazelcast.simulator.test.TestContext;
 import com.hazelcast.simulator.test.annotations.InjectTestContext;
 import com.hazelcast.simulator.test.annotations.InjectVendor;
@@ -58,6 +60,9 @@ public class PropertyBinding {
     // if we want to measure latency. Normally this is always true; but in its current setting, hdr can cause contention
     // and I want a switch that turns of hdr recording. Perhaps that with some tuning this isn't needed.
     public boolean measureLatency = true;
+    // if each timestep thread records its latencies in its own histogram. This prevents contention between the timestep
+    // threads, but every timestep thread needs its own histograms. The histograms are merged at every interval.
+    public boolean perThreadLatency;
     // flag to enable jitter recording
     public boolean recordJitter;
     // configures the minimum value for the jitter sample to be recorded.
@@ -245,14 +250,46 @@ public class PropertyBinding {
         return measureLatency ? HdrProbe.class : null;
     }
 
+    /**
+     * Returns the class of the probes that are owned by a single timestep thread.
+     *
+     * @return the probe class or {@code null} if the timestep threads share their probes
+     */
+    public Class<? extends Probe> getThreadProbeClass() {
+        return probeClass != null && perThreadLatency ? SingleWriterHdrProbe.class : null;
+    }
+
+    /**
+     * Returns the probe that a single timestep thread records into.
+     *
+     * @param probe the probe that is shared by all timestep threads
+     * @return a new probe owned by the calling timestep thread if {@link #perThreadLatency} is enabled, otherwise the
+     * given probe
+     */
+    public Probe getThreadProbe(Probe probe) {
+        if (getThreadProbeClass() == null || !(probe instanceof HdrProbe)) {
+            return probe;
+        }
+        return ((HdrProbe) probe).newSingleWriterProbe();
+    }
+
     public Probe getOrCreateProbe(String probeName, boolean partOfTotalThroughput) {
         if (probeClass == null) {
             return EmptyProbe.INSTANCE;
         }
 
+        // the test context can create probes concurrently with the timestep threads
+        return probeMap.computeIfAbsent(probeName, name -> new HdrProbe(partOfTotalThroughput));
+    }
+
+    public Probe getOrCreateInFlightProbe(String probeName) {
+        if (probeClass == null) {
+            return EmptyProbe.INSTANCE;
+        }
+
         Probe probe = probeMap.get(probeName);
         if (probe == null) {
-            probe = new HdrProbe(partOfTotalThroughput);
+            probe = new InFlightProbe();
             probeMap.put(probeName, probe);
         }
         return probe;
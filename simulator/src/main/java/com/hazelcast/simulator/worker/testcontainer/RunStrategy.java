@@ -15,6 +15,8 @@
  */
 package com.hazelcast.simulator.worker.testcontainer;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 /**
@@ -41,6 +43,59 @@ abstract class RunStrategy {
         return 0;
     }
 
+    /**
+     * Returns the number of iterations per execution group.
+     *
+     * @return map with the execution group as key and its number of iterations as value; empty if it isn't tracked
+     */
+    public Map<String, Long> iterationsPerExecutionGroup() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Returns the number of bytes allocated per execution group which measures its allocations.
+     *
+     * The number of operations of an execution group is returned by {@link #iterationsPerExecutionGroup()}.
+     *
+     * @return map with the execution group as key and its allocated bytes as value; empty if the allocations are not measured
+     */
+    public Map<String, Long> allocatedBytesPerExecutionGroup() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Returns the maximum number of bytes an execution group is allowed to allocate per operation.
+     *
+     * @return map with the execution group as key and its maximum as value; empty if there are no maximums
+     */
+    public Map<String, Double> maxAllocatedBytesPerOperation() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Changes the rate of a running test.
+     *
+     * @param executionGroup the execution group to change the rate for, or {@code null} to change the rate of all execution
+     *                       groups which have a rate
+     * @param ratePerSecond  the number of requests per second
+     * @throws UnsupportedOperationException if the RunStrategy doesn't support changing the rate
+     */
+    public void setRatePerSecond(String executionGroup, double ratePerSecond) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " doesn't support changing the rate");
+    }
+
+    /**
+     * Changes the number of threads of a running test.
+     *
+     * @param executionGroup the execution group to change the number of threads for, or {@code null} to change all
+     *                       execution groups
+     * @param threadCount    the new number of threads
+     * @throws UnsupportedOperationException if the RunStrategy doesn't support changing the number of threads
+     */
+    public void setThreadCount(String executionGroup, int threadCount) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " doesn't support changing the thread count");
+    }
+
     /**
      * Checks if the run strategy is running. This is true in case of warmup and actual running.
      *
@@ -18,6 +18,7 @@ package com.hazelcast.simulator.worker.testcontainer;
 import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.common.TestPhase;
 import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.test.PrepareShard;
 import com.hazelcast.simulator.test.TestContext;
 import com.hazelcast.simulator.test.annotations.Prepare;
 import com.hazelcast.simulator.test.annotations.Run;
@@ -27,6 +28,7 @@ import com.hazelcast.simulator.test.annotations.TimeStep;
 import com.hazelcast.simulator.test.annotations.Verify;
 import com.hazelcast.simulator.utils.AnnotatedMethodRetriever;
 import com.hazelcast.simulator.utils.AnnotationFilter;
+import com.hazelcast.simulator.utils.AnnotationFilter.PartitionedPrepareFilter;
 import com.hazelcast.simulator.utils.AnnotationFilter.TeardownFilter;
 import com.hazelcast.simulator.utils.AnnotationFilter.VerifyFilter;
 import com.hazelcast.simulator.worker.performance.TestPerformanceTracker;
@@ -36,6 +38,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -70,6 +73,8 @@ import static java.util.Arrays.asList;
  */
 public class TestContainer {
 
+    static final int DEFAULT_PREPARE_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+
     private final TestContextImpl testContext;
     private final TestCase testCase;
     private final Object testInstance;
@@ -79,6 +84,7 @@ public class TestContainer {
     private final RunStrategy runStrategy;
     private final TestPerformanceTracker testPerformanceTracker;
     private final AtomicReference<TestPhase> currentPhase = new AtomicReference<>();
+    private PartitionedPrepareCallable partitionedPrepareCallable;
 
     public TestContainer(TestContextImpl targetInstance, TestCase testCase, Object vendorInstance) {
         this(targetInstance, null, testCase, vendorInstance);
@@ -94,6 +100,7 @@ public class TestContainer {
         this.propertyBinding = new PropertyBinding(testCase)
                 .setVendorInstance(vendorInstance)
                 .setTestContext(testContext);
+        testContext.setPropertyBinding(propertyBinding);
 
         propertyBinding.bind(this);
 
@@ -166,11 +173,85 @@ public class TestContainer {
         return runStrategy == null ? 0 : runStrategy.iterations();
     }
 
+    public Map<String, Long> iterationsPerExecutionGroup() {
+        return runStrategy == null ? Collections.<String, Long>emptyMap() : runStrategy.iterationsPerExecutionGroup();
+    }
+
+    public Map<String, Long> allocatedBytesPerExecutionGroup() {
+        return runStrategy == null ? Collections.<String, Long>emptyMap() : runStrategy.allocatedBytesPerExecutionGroup();
+    }
+
+    public Map<String, Double> maxAllocatedBytesPerOperation() {
+        return runStrategy == null ? Collections.<String, Double>emptyMap() : runStrategy.maxAllocatedBytesPerOperation();
+    }
+
+    /**
+     * Changes the rate of the running test.
+     *
+     * @param executionGroup the execution group, or {@code null} for all execution groups with a rate
+     * @param ratePerSecond  the number of requests per second
+     */
+    public void setRatePerSecond(String executionGroup, double ratePerSecond) {
+        if (runStrategy == null) {
+            throw new IllegalStateException(format("The rate of test [%s] can't be changed, it has no run strategy",
+                    testCase.getId()));
+        }
+        runStrategy.setRatePerSecond(executionGroup, ratePerSecond);
+    }
+
+    /**
+     * Changes the number of timestep threads of the running test.
+     *
+     * @param executionGroup the execution group, or {@code null} for all execution groups
+     * @param threadCount    the new number of threads
+     */
+    public void setThreadCount(String executionGroup, int threadCount) {
+        if (runStrategy == null) {
+            throw new IllegalStateException(format("The thread count of test [%s] can't be changed, it has no run strategy",
+                    testCase.getId()));
+        }
+        runStrategy.setThreadCount(executionGroup, threadCount);
+    }
+
     public Map<String, Probe> getProbeMap() {
         return propertyBinding.getProbeMap();
     }
 
+    /**
+     * Checks if the test has partitioned {@link Prepare} methods.
+     *
+     * @return {@code true} if the test has partitioned prepare methods, {@code false} otherwise
+     */
+    public boolean hasPartitionedPrepare() {
+        return partitionedPrepareCallable != null;
+    }
+
+    /**
+     * Returns the number of items this worker has loaded in the partitioned {@link Prepare} methods.
+     *
+     * @return the number of prepared items
+     */
+    public long getPreparedItemCount() {
+        return partitionedPrepareCallable == null ? 0 : partitionedPrepareCallable.completed();
+    }
+
     public void invoke(TestPhase testPhase) throws Exception {
+        invoke(testPhase, 0, 1);
+    }
+
+    /**
+     * Invokes a test phase.
+     *
+     * @param testPhase   the test phase to invoke
+     * @param workerIndex the index of this worker within all workers running the test
+     * @param workerCount the number of workers running the test; used to split a partitioned {@link Prepare}
+     * @throws Exception if the test phase failed
+     */
+    public void invoke(TestPhase testPhase, int workerIndex, int workerCount) throws Exception {
+        if (partitionedPrepareCallable != null) {
+            partitionedPrepareCallable.setWorker(workerIndex, workerCount);
+        }
+
         if (!currentPhase.compareAndSet(null, testPhase)) {
             throw new IllegalStateException(format("Tried to start %s for test %s, but %s is still running!", testPhase,
                     testCase.getId(), currentPhase.get()));
@@ -314,7 +395,45 @@ public class TestContainer {
                 .withFilter(new AnnotationFilter.PrepareFilter(global))
                 .findAll();
 
-        taskPerPhaseMap.put(global ? GLOBAL_PREPARE : LOCAL_PREPARE, toCallable(localPrepareMethods));
+        Callable task = toCallable(localPrepareMethods);
+        if (!global) {
+            Callable partitionedPrepareTask = loadPartitionedPrepareTask();
+            if (partitionedPrepareTask != null) {
+                task = new CompositeCallable(asList(task, partitionedPrepareTask));
+            }
+        }
+        taskPerPhaseMap.put(global ? GLOBAL_PREPARE : LOCAL_PREPARE, task);
+    }
+
+    private Callable loadPartitionedPrepareTask() {
+        List<Method> methods = new AnnotatedMethodRetriever(testClass, Prepare.class)
+                .withVoidReturnType()
+                .withPublicNonStaticModifier()
+                .withFilter(new PartitionedPrepareFilter())
+                .findAll();
+        if (methods.isEmpty()) {
+            return null;
+        }
+
+        for (Method method : methods) {
+            if (method.getAnnotation(Prepare.class).global()) {
+                throw new IllegalTestException(format("Prepare method '%s' can't be global and partitioned", method));
+            }
+
+            Class[] parameterTypes = method.getParameterTypes();
+            if (parameterTypes.length != 1 || !parameterTypes[0].equals(PrepareShard.class)) {
+                throw new IllegalTestException(format("Partitioned prepare method '%s' should have a single argument of type %s",
+                        method, PrepareShard.class.getName()));
+            }
+        }
+
+        int threadCount = propertyBinding.loadAsInt("prepareThreadCount", DEFAULT_PREPARE_THREAD_COUNT);
+        if (threadCount < 1) {
+            throw new IllegalTestException("prepareThreadCount can't be smaller than 1, found " + threadCount);
+        }
+
+        partitionedPrepareCallable = new PartitionedPrepareCallable(testCase.getId(), testInstance, methods, threadCount);
+        return partitionedPrepareCallable;
     }
 
     private Callable toCallable(List<Method> methods) {
@@ -15,6 +15,7 @@
  */
 package com.hazelcast.simulator.worker.testcontainer;
 
+import com.hazelcast.simulator.probes.Probe;
 import com.hazelcast.simulator.protocol.Server;
 import com.hazelcast.simulator.protocol.operation.LogOperation;
 import com.hazelcast.simulator.test.TestContext;
@@ -27,6 +28,7 @@ public class TestContextImpl implements TestContext {
     private final String publicIpAddress;
     private final Server server;
     private volatile boolean stopped;
+    private volatile PropertyBinding propertyBinding;
 
     public TestContextImpl(String testId,
                            String publicIpAddress,
@@ -61,4 +63,16 @@ public class TestContextImpl implements TestContext {
         String message = format(msg, args);
         server.sendCoordinator(new LogOperation(message));
     }
+
+    @Override
+    public Probe getProbe(String name) {
+        if (propertyBinding == null) {
+            throw new IllegalStateException("Probes can't be created before the test has been initialized");
+        }
+        return propertyBinding.getOrCreateProbe(name, false);
+    }
+
+    void setPropertyBinding(PropertyBinding propertyBinding) {
+        this.propertyBinding = propertyBinding;
+    }
 }
@@ -24,6 +24,8 @@ import com.hazelcast.simulator.vendors.VendorDriver;
 import com.hazelcast.simulator.worker.operations.CreateTestOperation;
 import com.hazelcast.simulator.worker.operations.StartPhaseOperation;
 import com.hazelcast.simulator.worker.operations.StopRunOperation;
+import com.hazelcast.simulator.worker.operations.UpdateRateOperation;
+import com.hazelcast.simulator.worker.operations.UpdateThreadCountOperation;
 import org.apache.log4j.Logger;
 
 import java.util.ArrayList;
@@ -31,7 +33,9 @@ import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import static com.hazelcast.simulator.common.TestPhase.LOCAL_PREPARE;
 import static com.hazelcast.simulator.common.TestPhase.getLastTestPhase;
+import static java.lang.Math.max;
 import static java.lang.String.format;
 
 /**
@@ -91,6 +95,28 @@ public class TestManager {
         testContainer.getTestContext().stop();
     }
 
+    public void updateRate(UpdateRateOperation op) {
+        String testId = op.getTestId();
+
+        TestContainer testContainer = tests.get(testId);
+        if (testContainer == null) {
+            throw new IllegalArgumentException(format("Could not update rate, test [%s] is not found.", testId));
+        }
+
+        testContainer.setRatePerSecond(op.getExecutionGroup(), op.getRatePerSecond());
+    }
+
+    public void updateThreadCount(UpdateThreadCountOperation op) {
+        String testId = op.getTestId();
+
+        TestContainer testContainer = tests.get(testId);
+        if (testContainer == null) {
+            throw new IllegalArgumentException(format("Could not update thread count, test [%s] is not found.", testId));
+        }
+
+        testContainer.setThreadCount(op.getExecutionGroup(), op.getThreadCount());
+    }
+
     public void startTestPhase(StartPhaseOperation op, Promise promise) throws Exception {
         TestPhase testPhase = op.getTestPhase();
 
@@ -100,7 +126,7 @@ public class TestManager {
             throw new IllegalArgumentException(format("Could not start phase [%s] , test [%s] is not found.", testPhase, testId));
         }
 
-        new TestPhaseThread(testContainer, testPhase, testId, promise).start();
+        new TestPhaseThread(testContainer, testPhase, testId, op.getWorkerIndex(), op.getWorkerCount(), promise).start();
     }
 
     private class TestPhaseThread extends Thread {
@@ -109,11 +135,16 @@ public class TestManager {
         private final String testId;
         private final Promise promise;
         private final TestContainer testContainer;
+        private final int workerIndex;
+        private final int workerCount;
 
-        TestPhaseThread(TestContainer testContainer, TestPhase testPhase, String testId, Promise promise) {
+        TestPhaseThread(TestContainer testContainer, TestPhase testPhase, String testId,
+                        int workerIndex, int workerCount, Promise promise) {
             this.testContainer = testContainer;
             this.testId = testId;
             this.testPhase = testPhase;
+            this.workerIndex = workerIndex;
+            this.workerCount = workerCount;
             this.promise = promise;
         }
 
@@ -122,9 +153,14 @@ public class TestManager {
         public final void run() {
             LOGGER.info(format("%s Starting %s of %s %s", DASHES, testPhase.desc(), testId, DASHES));
             try {
-                testContainer.invoke(testPhase);
+                testContainer.invoke(testPhase, workerIndex, max(1, workerCount));
                 LOGGER.info(format("%s %s of %s SUCCEEDED %s ", DASHES, testPhase.desc(), testId, DASHES));
-                promise.answer("ok");
+                if (testPhase == LOCAL_PREPARE && testContainer.hasPartitionedPrepare()) {
+                    // the coordinator sums the prepared items of all workers to report the load throughput
+                    promise.answer(testContainer.getPreparedItemCount());
+                } else {
+                    promise.answer("ok");
+                }
             } catch (Throwable t) {
                 LOGGER.error(format("%s %s of %s FAILED %s ", DASHES, testPhase.desc(), testId, DASHES), t);
                 ExceptionReporter.report(testId, t);
@@ -18,13 +18,23 @@ package com.hazelcast.simulator.worker.testcontainer;
 
 import com.hazelcast.simulator.test.TestContext;
 import com.hazelcast.simulator.utils.ThreadSpawner;
+import com.hazelcast.simulator.worker.metronome.BusySpinningMetronome;
+import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
 import org.apache.log4j.Logger;
 
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 
+import static com.hazelcast.simulator.utils.AllocationUtils.isAllocationMeasurementSupported;
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.VirtualThreads.isSupported;
 import static com.hazelcast.simulator.worker.testcontainer.PropertyBinding.toPropertyName;
 import static java.lang.String.format;
 
@@ -38,6 +48,8 @@ class TimeStepRunStrategy extends RunStrategy {
     private static final int DEFAULT_THREAD_COUNT = 10;
     private static final int DEFAULT_LOG_FREQUENCY = 0;
     private static final int DEFAULT_LOG_RATE_MS = 0;
+    private static final String THREAD_MODEL_PLATFORM = "platform";
+    private static final String THREAD_MODEL_VIRTUAL = "virtual";
 
     private static final Logger LOGGER = Logger.getLogger(TimeStepRunStrategy.class);
 
@@ -46,10 +58,16 @@ class TimeStepRunStrategy extends RunStrategy {
     private final TimeStepModel timeStepModel;
     private final PropertyBinding binding;
     private volatile TimeStepRunner[] runners;
+    private volatile ThreadSpawner spawner;
+    private volatile CarrierPinningMonitor pinningMonitor;
     private final Map<String, MetronomeConstructor> metronomeSettingsMap = new HashMap<>();
     private final Map<String, Class> runnerClassMap = new HashMap<>();
     private final Map<String, Integer> threadCountMap = new HashMap<>();
     private final Map<String, Long> runIterationMap = new HashMap<>();
+    private final Map<String, Long> maxInFlightMap = new HashMap<>();
+    private final Set<String> virtualExecutionGroups = new HashSet<>();
+    private final Set<String> allocationExecutionGroups = new HashSet<>();
+    private final Map<String, Double> maxAllocatedBytesPerOperationMap = new HashMap<>();
     private int totalThreadCount;
 
     TimeStepRunStrategy(TestContainer testContainer) {
@@ -69,26 +87,193 @@ class TimeStepRunStrategy extends RunStrategy {
             LOGGER.info(format("executionGroup [%s] using interval: %s class=%s",
                     executionGroup, metronomeConstructor.getIntervalNanos(), metronomeConstructor.getMetronomeClass().getName()));
 
+            if (loadVirtualThreadModel(executionGroup)) {
+                virtualExecutionGroups.add(executionGroup);
+                if (metronomeConstructor.getMetronomeClass() == BusySpinningMetronome.class) {
+                    LOGGER.warn(format("executionGroup [%s] uses virtual threads with a %s; busy spinning virtual threads"
+                                    + " occupy their carrier threads",
+                            executionGroup, BusySpinningMetronome.class.getSimpleName()));
+                }
+            }
+
+            if (loadMeasureAllocation(executionGroup)) {
+                allocationExecutionGroups.add(executionGroup);
+            }
+
             long logFrequency = binding.loadAsLong(toPropertyName(executionGroup, "logFrequency"), DEFAULT_LOG_FREQUENCY);
             long logRateMs = binding.loadAsLong(toPropertyName(executionGroup, "logRateMs"), DEFAULT_LOG_RATE_MS);
 
             long iterations = binding.loadAsLong(toPropertyName(executionGroup, "iterations"), 0);
             runIterationMap.put(executionGroup, iterations);
 
+            long maxInFlight = loadMaxInFlight(executionGroup);
+            maxInFlightMap.put(executionGroup, maxInFlight);
+
             Class runnerClass = new TimeStepRunnerCodeGenerator().compile(
                     testContainer.getTestCase().getId(),
                     executionGroup,
                     timeStepModel,
                     metronomeConstructor.getMetronomeClass(),
                     binding.getProbeClass(),
+                    binding.getThreadProbeClass(),
                     logFrequency,
                     logRateMs,
-                    iterations > 0);
+                    iterations > 0,
+                    maxInFlight > 0);
 
             runnerClassMap.put(executionGroup, runnerClass);
         }
     }
 
+    private boolean loadVirtualThreadModel(String executionGroup) {
+        String property = toPropertyName(executionGroup, "threadModel");
+        String threadModel = binding.load(property);
+        if (threadModel == null || THREAD_MODEL_PLATFORM.equals(threadModel)) {
+            return false;
+        }
+
+        if (!THREAD_MODEL_VIRTUAL.equals(threadModel)) {
+            throw new IllegalTestException(format("%s has an invalid value [%s], supported values are [%s, %s]",
+                    property, threadModel, THREAD_MODEL_PLATFORM, THREAD_MODEL_VIRTUAL));
+        }
+
+        if (!isSupported()) {
+            throw new IllegalTestException(format("%s=%s requires Java 21 or newer, but found Java %s",
+                    property, threadModel, System.getProperty("java.version")));
+        }
+
+        LOGGER.info(format("executionGroup [%s] runs on virtual threads", executionGroup));
+        return true;
+    }
+
+    private boolean loadMeasureAllocation(String executionGroup) {
+        String property = toPropertyName(executionGroup, "measureAllocation");
+        String maxProperty = toPropertyName(executionGroup, "maxAllocatedBytesPerOperation");
+        double maxAllocatedBytesPerOperation = binding.loadAsDouble(maxProperty, -1);
+        if (maxAllocatedBytesPerOperation >= 0) {
+            // a maximum implies that the allocations are measured
+            property = maxProperty;
+        } else if (!binding.loadAsBoolean(property, false)) {
+            return false;
+        }
+
+        if (!isAllocationMeasurementSupported()) {
+            throw new IllegalTestException(format("%s requires a JVM which supports measuring thread allocations",
+                    property));
+        }
+
+        if (virtualExecutionGroups.contains(executionGroup)) {
+            throw new IllegalTestException(format("%s isn't supported for virtual threads", property));
+        }
+
+        if (maxAllocatedBytesPerOperation >= 0) {
+            maxAllocatedBytesPerOperationMap.put(executionGroup, maxAllocatedBytesPerOperation);
+        }
+        LOGGER.info(format("executionGroup [%s] measures the allocated bytes per operation", executionGroup));
+        return true;
+    }
+
+    private long loadMaxInFlight(String executionGroup) {
+        String property = toPropertyName(executionGroup, "maxInFlight");
+        long maxInFlight = binding.loadAsLong(property, 0);
+        if (maxInFlight < 0) {
+            throw new IllegalTestException(format("%s can't be smaller than 0, but was %d", property, maxInFlight));
+        }
+
+        if (maxInFlight > 0) {
+            LOGGER.info(format("executionGroup [%s] limits the async calls per thread to maxInFlight: %d",
+                    executionGroup, maxInFlight));
+        }
+        return maxInFlight;
+    }
+
+    @Override
+    public void setRatePerSecond(String executionGroup, double ratePerSecond) {
+        if (executionGroup != null) {
+            MetronomeConstructor metronomeConstructor = metronomeSettingsMap.get(executionGroup);
+            if (metronomeConstructor == null) {
+                throw new IllegalArgumentException(format("executionGroup [%s] is not found, available groups are %s",
+                        executionGroup, metronomeSettingsMap.keySet()));
+            }
+            metronomeConstructor.setRatePerSecond(ratePerSecond);
+        } else {
+            // the rate of every execution group with a configured rate is changed
+            boolean changed = false;
+            for (MetronomeConstructor metronomeConstructor : metronomeSettingsMap.values()) {
+                if (metronomeConstructor.getMetronomeClass() != EmptyMetronome.class) {
+                    metronomeConstructor.setRatePerSecond(ratePerSecond);
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                throw new IllegalStateException(format("The rate of test [%s] can't be changed because none of its"
+                        + " execution groups has a rate; configure an initial interval or ratePerSecond",
+                        testContext.getTestId()));
+            }
+        }
+        LOGGER.info(format("Changed the rate of executionGroup [%s] to %s ops/s",
+                executionGroup == null ? "*" : executionGroup, ratePerSecond));
+    }
+
+    @Override
+    public synchronized void setThreadCount(String executionGroup, int threadCount) {
+        if (runners == null || testContext.isStopped()) {
+            throw new IllegalStateException(format("The thread count of test [%s] can't be changed because it isn't running",
+                    testContext.getTestId()));
+        }
+
+        if (executionGroup != null) {
+            if (!threadCountMap.containsKey(executionGroup)) {
+                throw new IllegalArgumentException(format("executionGroup [%s] is not found, available groups are %s",
+                        executionGroup, threadCountMap.keySet()));
+            }
+            updateThreadCount(executionGroup, threadCount);
+        } else {
+            for (String group : timeStepModel.getExecutionGroups()) {
+                updateThreadCount(group, threadCount);
+            }
+        }
+    }
+
+    private void updateThreadCount(String executionGroup, int threadCount) {
+        MetronomeConstructor metronomeConstructor = metronomeSettingsMap.get(executionGroup);
+        // also validates the threadCount, so it needs to happen before any thread is added or retired
+        metronomeConstructor.setThreadCount(threadCount);
+
+        List<TimeStepRunner> activeRunners = new ArrayList<>();
+        for (TimeStepRunner runner : runners) {
+            if (runner.executionGroup.equals(executionGroup) && !runner.isRetired()) {
+                activeRunners.add(runner);
+            }
+        }
+
+        int delta = threadCount - activeRunners.size();
+        if (delta > 0) {
+            // the retired runners are kept so their iterations are still counted
+            TimeStepRunner[] newRunners = Arrays.copyOf(runners, runners.length + delta);
+            for (int k = runners.length; k < newRunners.length; k++) {
+                try {
+                    newRunners[k] = createRunner(executionGroup);
+                } catch (Exception e) {
+                    throw new IllegalStateException(format("Failed to create a runner for executionGroup [%s]",
+                            executionGroup), e);
+                }
+            }
+            runners = newRunners;
+            for (int k = newRunners.length - delta; k < newRunners.length; k++) {
+                spawn(spawner, newRunners[k]);
+            }
+        } else {
+            for (int k = activeRunners.size() + delta; k < activeRunners.size(); k++) {
+                activeRunners.get(k).retire();
+            }
+        }
+
+        threadCountMap.put(executionGroup, threadCount);
+        LOGGER.info(format("Changed the thread count of executionGroup [%s] from %d to %d",
+                executionGroup, activeRunners.size(), threadCount));
+    }
+
     @Override
     public long iterations() {
         TimeStepRunner[] localRunners = runners;
@@ -101,6 +286,43 @@ class TimeStepRunStrategy extends RunStrategy {
         return iterations;
     }
 
+    @Override
+    public Map<String, Long> iterationsPerExecutionGroup() {
+        Map<String, Long> result = new HashMap<>();
+        TimeStepRunner[] localRunners = runners;
+        if (localRunners != null) {
+            for (TimeStepRunner runner : localRunners) {
+                Long iterations = result.get(runner.getExecutionGroup());
+                result.put(runner.getExecutionGroup(), (iterations == null ? 0 : iterations) + runner.iteration());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> allocatedBytesPerExecutionGroup() {
+        Map<String, Long> result = new HashMap<>();
+        for (String executionGroup : allocationExecutionGroups) {
+            result.put(executionGroup, 0L);
+        }
+
+        TimeStepRunner[] localRunners = runners;
+        if (localRunners != null) {
+            for (TimeStepRunner runner : localRunners) {
+                long runnerAllocatedBytes = runner.allocatedBytes();
+                if (runnerAllocatedBytes > 0) {
+                    result.put(runner.getExecutionGroup(), result.get(runner.getExecutionGroup()) + runnerAllocatedBytes);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> maxAllocatedBytesPerOperation() {
+        return maxAllocatedBytesPerOperationMap;
+    }
+
     @Override
     public Callable getRunCallable() {
         return () -> {
@@ -110,56 +332,82 @@ class TimeStepRunStrategy extends RunStrategy {
                 if (totalThreadCount <= 0) {
                     return null;
                 }
-                runners = createRunners();
-                onRunStarted();
-                ThreadSpawner spawner = spawnThreads(runners);
-                spawner.awaitCompletion();
-                return null;
+                if (!virtualExecutionGroups.isEmpty()) {
+                    pinningMonitor = new CarrierPinningMonitor(testContext);
+                    pinningMonitor.start();
+                }
+                try {
+                    onRunStarted();
+                    ThreadSpawner spawner = spawnThreads();
+                    spawner.awaitCompletion();
+                    return null;
+                } finally {
+                    closeQuietly(pinningMonitor);
+                }
             } finally {
                 onRunCompleted();
             }
         };
     }
 
-    private ThreadSpawner spawnThreads(TimeStepRunner[] runners) {
+    // synchronized with setThreadCount, so threads can't be added before all initial threads have been spawned
+    private synchronized ThreadSpawner spawnThreads() throws Exception {
         ThreadSpawner spawner = new ThreadSpawner(testContext.getTestId());
+        TimeStepRunner[] runners = createRunners();
 
         for (TimeStepRunner runner : runners) {
-            String executionGroup = runner.executionGroup;
-            String name = testContext.getTestId();
-            if (!executionGroup.equals("")) {
-                name += "-" + executionGroup;
-            }
-            name += "-timestepThread";
-            spawner.spawn(name, runner);
+            spawn(spawner, runner);
         }
 
+        this.spawner = spawner;
+        this.runners = runners;
         return spawner;
     }
 
-    @SuppressWarnings("unchecked")
+    private void spawn(ThreadSpawner spawner, TimeStepRunner runner) {
+        String executionGroup = runner.executionGroup;
+        String name = testContext.getTestId();
+        if (!executionGroup.equals("")) {
+            name += "-" + executionGroup;
+        }
+        name += "-timestepThread";
+        if (virtualExecutionGroups.contains(executionGroup)) {
+            Thread thread = spawner.spawnVirtual(name, runner);
+            if (pinningMonitor != null) {
+                pinningMonitor.monitor(thread);
+            }
+        } else {
+            spawner.spawn(name, runner);
+        }
+    }
+
     private TimeStepRunner[] createRunners() throws Exception {
         TimeStepRunner[] runners = new TimeStepRunner[totalThreadCount];
 
         int k = 0;
         for (String executionGroup : timeStepModel.getExecutionGroups()) {
-            Class runnerClass = runnerClassMap.get(executionGroup);
-            Constructor<TimeStepRunner> constructor = runnerClass
-                    .getConstructor(testInstance.getClass(), TimeStepModel.class, String.class);
-
-            MetronomeConstructor metronomeConstructor = metronomeSettingsMap.get(executionGroup);
-
             for (int thread = 0; thread < threadCountMap.get(executionGroup); thread++) {
-                TimeStepRunner runner = constructor.newInstance(testInstance, timeStepModel, executionGroup);
-                runner.testContext = binding.getTestContext();
-                runner.maxIterations = runIterationMap.get(executionGroup);
-                runner.metronome = metronomeConstructor.newInstance();
-                runner.bind(binding);
-                runners[k] = runner;
+                runners[k] = createRunner(executionGroup);
                 k++;
             }
         }
 
         return runners;
     }
+
+    @SuppressWarnings("unchecked")
+    private TimeStepRunner createRunner(String executionGroup) throws Exception {
+        Class runnerClass = runnerClassMap.get(executionGroup);
+        Constructor<TimeStepRunner> constructor = runnerClass
+                .getConstructor(testInstance.getClass(), TimeStepModel.class, String.class);
+
+        TimeStepRunner runner = constructor.newInstance(testInstance, timeStepModel, executionGroup);
+        runner.testContext = binding.getTestContext();
+        runner.maxIterations = runIterationMap.get(executionGroup);
+        runner.maxInFlight = maxInFlightMap.get(executionGroup);
+        runner.measureAllocation = allocationExecutionGroups.contains(executionGroup);
+        runner.metronome = metronomeSettingsMap.get(executionGroup).newInstance();
+        runner.bind(binding);
+        return runner;
+    }
 }
@@ -17,8 +17,12 @@ package com.hazelcast.simulator.worker.testcontainer;
 
 
 import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.SingleWriterHdrProbe;
 import com.hazelcast.simulator.test.StopException;
 import com.hazelcast.simulator.test.TestContext;
+import com.hazelcast.simulator.worker.async.AsyncCompletionPool;
+import com.hazelcast.simulator.worker.async.AsyncResultAdapter;
+import com.hazelcast.simulator.worker.async.AsyncResultAdapters;
 import com.hazelcast.simulator.worker.metronome.Metronome;
 import org.apache.log4j.Logger;
 
@@ -29,14 +33,25 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static com.hazelcast.simulator.utils.AllocationUtils.getAllocatedBytes;
+import static com.hazelcast.simulator.utils.AllocationUtils.getCurrentThreadAllocatedBytes;
 import static com.hazelcast.simulator.utils.CommonUtils.rethrow;
+import static com.hazelcast.simulator.worker.testcontainer.TimeStepRunnerCodeGenerator.hasProbeParameter;
+import static com.hazelcast.simulator.worker.testcontainer.TimeStepRunnerCodeGenerator.isAsyncResult;
 import static java.lang.String.format;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
 
 /**
  * Simulator uses a code generator to generate a subclass of this class.
  */
 public abstract class TimeStepRunner implements Runnable {
 
+    static final String IN_FLIGHT_PROBE_SUFFIX = "InFlight";
+
+    private static final int IN_FLIGHT_SPIN_COUNT = 100;
+    private static final int IN_FLIGHT_YIELD_COUNT = 200;
+    private static final long IN_FLIGHT_PARK_NANOS = 1000;
+
     protected TestContext testContext;
     protected Metronome metronome;
 
@@ -49,6 +64,15 @@ public abstract class TimeStepRunner implements Runnable {
     protected final byte[] timeStepProbabilities;
     protected final Map<String, Probe> probeMap = new HashMap<>();
     protected long maxIterations;
+    protected long maxInFlight;
+    // the number of completed async calls; the issued calls are counted by the timestep thread itself
+    protected final AtomicLong asyncCompletions = new AtomicLong();
+    // set when the number of threads of the execution group is lowered while running
+    protected volatile boolean retired;
+    // if the bytes allocated by the timestep thread are measured
+    protected boolean measureAllocation;
+    private volatile Thread thread;
+    private volatile long completedAllocatedBytes = -1;
 
     public TimeStepRunner(Object testInstance, TimeStepModel timeStepModel, String executionGroup) {
         this.testInstance = testInstance;
@@ -66,8 +90,17 @@ public abstract class TimeStepRunner implements Runnable {
         for (Method method : timeStepModel.getActiveTimeStepMethods(executionGroup)) {
             Probe probe = binding.getOrCreateProbe(method.getName(), false);
             if (probe != null) {
+                // only the latencies recorded by the generated code itself are guaranteed to be recorded by this thread
+                if (!hasProbeParameter(method) && !isAsyncResult(method.getReturnType())) {
+                    probe = binding.getThreadProbe(probe);
+                }
                 probeMap.put(method.getName(), probe);
             }
+
+            if (maxInFlight > 0 && isAsyncResult(method.getReturnType())) {
+                String probeName = method.getName() + IN_FLIGHT_PROBE_SUFFIX;
+                probeMap.put(probeName, binding.getThreadProbe(binding.getOrCreateInFlightProbe(probeName)));
+            }
         }
     }
 
@@ -75,10 +108,53 @@ public abstract class TimeStepRunner implements Runnable {
         return iterations.get();
     }
 
+    /**
+     * Returns the number of bytes allocated by the timestep thread of this runner.
+     *
+     * The allocations are measured by the thread itself, so measuring has no costs in the timestep loop. Allocations done
+     * by other threads, e.g. the completion of async calls, are not included.
+     *
+     * @return the allocated bytes, or -1 if the allocations are not measured
+     */
+    long allocatedBytes() {
+        if (!measureAllocation) {
+            return -1;
+        }
+
+        long allocatedBytes = completedAllocatedBytes;
+        if (allocatedBytes >= 0) {
+            return allocatedBytes;
+        }
+
+        Thread thread = this.thread;
+        if (thread == null) {
+            // the runner hasn't been started yet
+            return 0;
+        }
+
+        allocatedBytes = getAllocatedBytes(thread);
+        // the thread has completed after the first check
+        return allocatedBytes < 0 ? Math.max(completedAllocatedBytes, 0) : allocatedBytes;
+    }
+
+    /**
+     * Makes the timestep loop of this runner complete after the current iteration, while the test itself keeps running.
+     */
+    void retire() {
+        retired = true;
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+
     @Override
     public final void run() {
         String threadName = Thread.currentThread().getName();
         logger.info(threadName + " started");
+        if (measureAllocation) {
+            thread = Thread.currentThread();
+        }
         try {
             beforeRun();
 
@@ -97,6 +173,19 @@ public abstract class TimeStepRunner implements Runnable {
             logger.warn(threadName + " completed with exception " + e.getClass().getName()
                     + " message: " + e.getMessage());
             throw rethrow(e);
+        } finally {
+            if (measureAllocation) {
+                completedAllocatedBytes = getCurrentThreadAllocatedBytes();
+            }
+            closeThreadProbes();
+        }
+    }
+
+    private void closeThreadProbes() {
+        for (Probe probe : probeMap.values()) {
+            if (probe instanceof SingleWriterHdrProbe) {
+                ((SingleWriterHdrProbe) probe).close();
+            }
         }
     }
 
@@ -127,6 +216,77 @@ public abstract class TimeStepRunner implements Runnable {
 
     protected abstract void timeStepLoop() throws Exception;
 
+    /**
+     * Waits till an async call can be issued without exceeding {@link #maxInFlight}.
+     *
+     * This is the slow path of the permit accounting in the generated loop. Instead of a semaphore, the timestep thread
+     * compares its own issued count with the completion counter that is incremented by the completion callbacks.
+     *
+     * @param issued the number of async calls issued by this runner so far
+     * @return the number of in flight calls, or -1 if the test was stopped while waiting
+     */
+    protected final long awaitInFlightPermit(long issued) {
+        for (int idleCount = 0; ; idleCount++) {
+            long inFlight = issued - asyncCompletions.get();
+            if (inFlight < maxInFlight) {
+                return inFlight;
+            }
+
+            if (testContext.isStopped()) {
+                return -1;
+            }
+
+            if (idleCount >= IN_FLIGHT_YIELD_COUNT) {
+                parkNanos(IN_FLIGHT_PARK_NANOS);
+            } else if (idleCount >= IN_FLIGHT_SPIN_COUNT) {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Returns the adapter for the result type of an async timestep method. Called by the preamble of the generated timestep
+     * loop, so the adapter is looked up once per runner.
+     *
+     * @param methodIndex the index of the timestep method in the active timestep methods of the execution group
+     * @return the adapter
+     */
+    protected final AsyncResultAdapter asyncResultAdapter(int methodIndex) {
+        Class<?> resultType = timeStepModel.getActiveTimeStepMethods(executionGroup).get(methodIndex).getReturnType();
+        AsyncResultAdapter adapter = AsyncResultAdapters.find(resultType);
+        if (adapter == null) {
+            throw new IllegalStateException(format("No async result adapter found for [%s]", resultType.getName()));
+        }
+        return adapter;
+    }
+
+    /**
+     * Creates the pool of completions for an async timestep method. Called by the preamble of the generated timestep loop
+     * when the in flight calls are capped, so the completions are reused instead of created per call.
+     *
+     * @param methodIndex the index of the timestep method in the active timestep methods of the execution group
+     * @return the created pool
+     */
+    protected final AsyncCompletionPool asyncCompletionPool(int methodIndex) {
+        String methodName = timeStepModel.getActiveTimeStepMethods(executionGroup).get(methodIndex).getName();
+        int slots = (int) Math.min(maxInFlight, Integer.MAX_VALUE);
+        return new AsyncCompletionPool(asyncResultAdapter(methodIndex), probeMap.get(methodName), asyncCompletions, slots);
+    }
+
+    /**
+     * Records the latency of an async call once it completes. Called by the generated timestep loop when the in flight calls
+     * are not capped; without a cap the number of in flight calls is unbounded, so a completion is created per call.
+     *
+     * @param adapter    the adapter for the result type
+     * @param result     the result of the async call
+     * @param probe      the probe to record the latency in
+     * @param startNanos the start time of the call
+     */
+    @SuppressWarnings("unchecked")
+    protected static void recordOnCompletion(AsyncResultAdapter adapter, Object result, Probe probe, long startNanos) {
+        adapter.onCompletion(result, adapter.newCompletion(probe, startNanos, null));
+    }
+
     private void afterRun() throws Exception {
         for (Method afterRunMethod : timeStepModel.getAfterRunMethods(executionGroup)) {
             run(afterRunMethod);
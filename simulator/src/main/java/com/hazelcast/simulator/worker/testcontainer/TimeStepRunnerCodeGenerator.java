@@ -17,46 +17,77 @@
 package com.hazelcast.simulator.worker.testcontainer;
 
 import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.EmptyProbe;
+import com.hazelcast.simulator.test.TestContext;
+import com.hazelcast.simulator.utils.ThrottlingLogger;
+import com.hazelcast.simulator.worker.async.AsyncCompletionPool;
+import com.hazelcast.simulator.worker.async.AsyncResultAdapter;
+import com.hazelcast.simulator.worker.async.AsyncResultAdapters;
 import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
 import com.hazelcast.simulator.worker.metronome.Metronome;
-import freemarker.ext.util.WrapperTemplateModel;
-import freemarker.template.Configuration;
-import freemarker.template.SimpleNumber;
-import freemarker.template.SimpleScalar;
-import freemarker.template.Template;
-import freemarker.template.TemplateExceptionHandler;
-import freemarker.template.TemplateMethodModelEx;
-import freemarker.template.TemplateModelException;
-
-import javax.tools.Diagnostic;
-import javax.tools.DiagnosticCollector;
-import javax.tools.JavaCompiler;
-import javax.tools.JavaFileObject;
-import javax.tools.SimpleJavaFileObject;
-import javax.tools.ToolProvider;
-import java.io.File;
-import java.io.StringWriter;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
 import java.lang.reflect.Method;
-import java.net.MalformedURLException;
-import java.net.URI;
-import java.net.URL;
-import java.net.URLClassLoader;
-import java.security.PrivilegedAction;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
-import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
-import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
-import static com.hazelcast.simulator.utils.FileUtils.writeText;
-import static java.security.AccessController.doPrivileged;
-import static java.util.Arrays.asList;
-import static java.util.Collections.singletonList;
-
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.worker.testcontainer.TimeStepRunner.IN_FLIGHT_PROBE_SUFFIX;
+import static java.lang.String.format;
+import static java.lang.reflect.Modifier.isPublic;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ACONST_NULL;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARRAYLENGTH;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.BALOAD;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.IFLT;
+import static org.objectweb.asm.Opcodes.IFNE;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.LADD;
+import static org.objectweb.asm.Opcodes.LCMP;
+import static org.objectweb.asm.Opcodes.LCONST_0;
+import static org.objectweb.asm.Opcodes.LCONST_1;
+import static org.objectweb.asm.Opcodes.LLOAD;
+import static org.objectweb.asm.Opcodes.LSTORE;
+import static org.objectweb.asm.Opcodes.LSUB;
+import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Opcodes.POP;
+import static org.objectweb.asm.Opcodes.POP2;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.SWAP;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+/**
+ * Generates the {@link TimeStepRunner} subclass for an execution group of a test.
+ * <p>
+ * The bytecode is written directly, so no Java compiler is needed on the worker. The generated loop is specialized for the
+ * configuration of the execution group; e.g. if there is a single timestep method, no probability switch is generated and if no
+ * metronome is configured, no metronome call is generated.
+ */
 class TimeStepRunnerCodeGenerator {
 
-    private final JavaCompiler javaCompiler = ToolProvider.getSystemJavaCompiler();
-    private final File targetDirectory = new File(getUserDir(), "timestep-worker-classes");
+    private static final String RUNNER = Type.getInternalName(TimeStepRunner.class);
+    private static final String ATOMIC_LONG = Type.getInternalName(AtomicLong.class);
+    private static final String RANDOM = Type.getInternalName(Random.class);
+    private static final String THROTTLING_LOGGER = Type.getInternalName(ThrottlingLogger.class);
+    private static final String STRING_BUILDER = Type.getInternalName(StringBuilder.class);
 
     Class compile(
             String testCaseId,
@@ -64,11 +95,11 @@ class TimeStepRunnerCodeGenerator {
             TimeStepModel timeStepModel,
             Class<? extends Metronome> metronomeClass,
             Class<? extends Probe> probeClass,
+            Class<? extends Probe> threadProbeClass,
             long logFrequency,
             long logRateMs,
-            boolean hasIterationCap) {
-
-        ensureExistingDirectory(targetDirectory);
+            boolean hasIterationCap,
+            boolean hasInFlightCap) {
 
         String className = timeStepModel.getTestClass().getSimpleName();
         if (!"".equals(executionGroup)) {
@@ -80,224 +111,602 @@ class TimeStepRunnerCodeGenerator {
         if (!"".equals(testCaseId)) {
             className += testCaseId;
         }
-        JavaFileObject file = createJavaFileObject(
-                className, executionGroup, metronomeClass, timeStepModel, probeClass, logFrequency, logRateMs, hasIterationCap);
-        return compile(javaCompiler, file, className);
+
+        Class testClass = timeStepModel.getTestClass();
+        Class threadStateClass = timeStepModel.getThreadStateClass(executionGroup);
+        checkPublic(testClass);
+        checkPublic(threadStateClass);
+
+        byte[] bytecode;
+        try {
+            LoopWriter loopWriter = new LoopWriter(className, testClass, threadStateClass,
+                    timeStepModel.getActiveTimeStepMethods(executionGroup), timeStepModel,
+                    metronomeClass == EmptyMetronome.class ? null : metronomeClass, probeClass, threadProbeClass,
+                    logFrequency, logRateMs, hasIterationCap, hasInFlightCap);
+            bytecode = loopWriter.write();
+        } catch (RuntimeException e) {
+            throw new IllegalTestException(className + " ran into a code generation problem: " + e.getMessage(), e);
+        }
+
+        return define(className, bytecode, testClass.getClassLoader());
     }
 
-    Class compile(JavaCompiler compiler, JavaFileObject file, final String className) {
-        if (compiler == null) {
-            throw new IllegalStateException("Could not get Java compiler in TimeStepRunnerCodeGenerator."
-                    + " You need to use a JDK to run Simulator! Version found: " + System.getProperty("java.version"));
+    private static Class define(String className, byte[] bytecode, ClassLoader parent) {
+        try {
+            RunnerClassLoader classLoader = new RunnerClassLoader(parent);
+            classLoader.define(className, bytecode);
+            // initializing the class makes the JVM verify the bytecode, so a broken runner fails at test creation
+            return Class.forName(className, true, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new IllegalTestException(className + " ran into a code generation problem: " + e.getMessage(), e);
         }
+    }
 
-        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
-        JavaCompiler.CompilationTask task = compiler.getTask(
-                null,
-                null,
-                diagnostics,
-                asList("-d", targetDirectory.getAbsolutePath()),
-                null,
-                singletonList(file));
+    private static void checkPublic(Class clazz) {
+        if (clazz != null && !isPublic(clazz.getModifiers())) {
+            throw new IllegalTestException(format("Class '%s' needs to be public to be used in a timestep test",
+                    clazz.getName()));
+        }
+    }
 
-        boolean success = task.call();
-        if (!success) {
-            StringBuilder sb = new StringBuilder();
-            for (Diagnostic diagnostic : diagnostics.getDiagnostics()) {
-                sb.append("Error on line ")
-                        .append(diagnostic.getLineNumber())
-                        .append(" in ")
-                        .append(diagnostic)
-                        .append('\n');
+    static boolean hasProbeParameter(Method method) {
+        for (Class paramType : method.getParameterTypes()) {
+            if (Probe.class.isAssignableFrom(paramType)) {
+                return true;
             }
-            throw new IllegalTestException(sb.toString());
         }
+        return false;
+    }
 
-        return (Class) doPrivileged((PrivilegedAction) () -> {
-            try {
-                URLClassLoader classLoader = new URLClassLoader(new URL[]{targetDirectory.toURI().toURL()});
-                return (Class) classLoader.loadClass(className);
-            } catch (ClassNotFoundException | MalformedURLException e) {
-                throw new IllegalTestException(e.getMessage(), e);
-            }
-        });
+    /**
+     * Checks if the result of a timestep method is async; so if an {@link AsyncResultAdapter} is registered for it.
+     *
+     * @param resultType the return type of the timestep method
+     * @return true if the result is async, false otherwise
+     */
+    static boolean isAsyncResult(Class resultType) {
+        return AsyncResultAdapters.find(resultType) != null;
     }
 
-    private JavaFileObject createJavaFileObject(
-            String className,
-            String executionGroup,
-            Class<? extends Metronome> metronomeClass,
-            TimeStepModel timeStepModel,
-            Class<? extends Probe> probeClass,
-            long logFrequency,
-            long logRateMs,
-            boolean hasIterationCap) {
-        try {
-            Configuration cfg = new Configuration(Configuration.VERSION_2_3_24);
-            cfg.setClassForTemplateLoading(this.getClass(), "/");
-            cfg.setDefaultEncoding("UTF-8");
-            cfg.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
-            cfg.setLogTemplateExceptions(false);
-
-            Map<String, Object> root = new HashMap<>();
-            root.put("testInstanceClass", getClassName(timeStepModel.getTestClass()));
-            root.put("metronomeClass", getMetronomeClass(metronomeClass));
-            root.put("timeStepMethods", timeStepModel.getActiveTimeStepMethods(executionGroup));
-            root.put("probeClass", getClassName(probeClass));
-            root.put("isStartNanos", new IsStartNanos(timeStepModel));
-            root.put("isAssignableFrom", new IsAssignableFromMethod());
-            root.put("isAsyncResult", new IsAsyncResult());
-            root.put("Probe", Probe.class);
-            root.put("threadStateClass", getClassName(timeStepModel.getThreadStateClass(executionGroup)));
-            root.put("hasProbe", new HasProbeMethod());
-            root.put("className", className);
+    private static void invoke(MethodVisitor mv, Class owner, String name, String descriptor) {
+        if (owner.isInterface()) {
+            mv.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(owner), name, descriptor, true);
+        } else {
+            mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(owner), name, descriptor, false);
+        }
+    }
+
+    private static final class RunnerClassLoader extends ClassLoader {
+
+        RunnerClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        void define(String className, byte[] bytecode) {
+            defineClass(className, bytecode, 0, bytecode.length);
+        }
+    }
+
+    /**
+     * Writes the runner class; the local variables of the timestep loop are assigned while writing the loop preamble and only
+     * the ones that are needed by the configuration are created.
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
+    private static final class LoopWriter {
+
+        private static final int NO_LOCAL = -1;
+
+        private final String className;
+        private final Class testClass;
+        private final Class threadStateClass;
+        private final List<Method> timeStepMethods;
+        private final TimeStepModel timeStepModel;
+        private final Class<? extends Metronome> metronomeClass;
+        private final Class<? extends Probe> probeClass;
+        private final Class<? extends Probe> threadProbeClass;
+        private final long logFrequency;
+        private final long logRateMs;
+        private final boolean hasIterationCap;
+        private final boolean hasInFlightCap;
+
+        private final Label loopStart = new Label();
+        private final Label loopEnd = new Label();
+        private final int[] probeLocals;
+        private final Class[] probeTypes;
+        private final int[] inFlightProbeLocals;
+        private final int[] asyncResultAdapterLocals;
+        private final int[] asyncCompletionPoolLocals;
+        private MethodVisitor mv;
+        private int nextLocal = 1;
+        private int iterationsLocal;
+        private int testContextLocal;
+        private int testInstanceLocal;
+        private int metronomeLocal = NO_LOCAL;
+        private int threadStateLocal = NO_LOCAL;
+        private int logCounterLocal;
+        private int throttlingLoggerLocal;
+        private int randomLocal;
+        private int probsLocal;
+        private int maxIterationsLocal;
+        private int maxInFlightLocal;
+        private int asyncCompletionsLocal;
+        private int issuedLocal;
+        private int inFlightLocal;
+        private int iterationLocal;
+        private int startNanosLocal = NO_LOCAL;
+
+        LoopWriter(String className, Class testClass, Class threadStateClass, List<Method> timeStepMethods,
+                   TimeStepModel timeStepModel, Class<? extends Metronome> metronomeClass, Class<? extends Probe> probeClass,
+                   Class<? extends Probe> threadProbeClass, long logFrequency, long logRateMs, boolean hasIterationCap,
+                   boolean hasInFlightCap) {
+            this.className = className;
+            this.testClass = testClass;
+            this.threadStateClass = threadStateClass;
+            this.timeStepMethods = timeStepMethods;
+            this.timeStepModel = timeStepModel;
+            this.metronomeClass = metronomeClass;
+            this.probeClass = probeClass;
+            this.threadProbeClass = threadProbeClass;
+            this.logFrequency = logFrequency;
+            this.logRateMs = logRateMs;
+            this.hasIterationCap = hasIterationCap;
+            this.hasInFlightCap = hasInFlightCap;
+            this.probeLocals = new int[timeStepMethods.size()];
+            this.probeTypes = new Class[timeStepMethods.size()];
+            this.inFlightProbeLocals = new int[timeStepMethods.size()];
+            this.asyncResultAdapterLocals = new int[timeStepMethods.size()];
+            this.asyncCompletionPoolLocals = new int[timeStepMethods.size()];
+        }
+
+        byte[] write() {
+            ClassWriter cw = new RunnerClassWriter(testClass.getClassLoader());
+            cw.visit(V1_8, ACC_PUBLIC | ACC_SUPER, className, null, RUNNER, null);
+            writeConstructor(cw);
+
+            mv = cw.visitMethod(ACC_PUBLIC, "timeStepLoop", "()V", null, new String[]{"java/lang/Exception"});
+            mv.visitCode();
+            writePreamble();
+            writeLoop();
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+
+            cw.visitEnd();
+            return cw.toByteArray();
+        }
+
+        private void writeConstructor(ClassWriter cw) {
+            String descriptor = Type.getMethodDescriptor(Type.VOID_TYPE,
+                    Type.getType(testClass), Type.getType(TimeStepModel.class), Type.getType(String.class));
+            MethodVisitor constructor = cw.visitMethod(ACC_PUBLIC, "<init>", descriptor, null, null);
+            constructor.visitCode();
+            constructor.visitVarInsn(ALOAD, 0);
+            constructor.visitVarInsn(ALOAD, 1);
+            constructor.visitVarInsn(ALOAD, 2);
+            constructor.visitVarInsn(ALOAD, 3);
+            constructor.visitMethodInsn(INVOKESPECIAL, RUNNER, "<init>", Type.getMethodDescriptor(Type.VOID_TYPE,
+                    Type.getType(Object.class), Type.getType(TimeStepModel.class), Type.getType(String.class)), false);
+            constructor.visitInsn(RETURN);
+            constructor.visitMaxs(0, 0);
+            constructor.visitEnd();
+        }
+
+        private void writePreamble() {
+            iterationsLocal = storeField("iterations", AtomicLong.class, null);
+            testContextLocal = storeField("testContext", TestContext.class, TestContextImpl.class);
+            testInstanceLocal = storeField("testInstance", Object.class, testClass);
+            if (metronomeClass != null) {
+                metronomeLocal = storeField("metronome", Metronome.class, metronomeClass);
+            }
+
+            if (probeClass != null) {
+                for (int i = 0; i < timeStepMethods.size(); i++) {
+                    Method method = timeStepMethods.get(i);
+                    boolean async = isAsyncResult(method.getReturnType());
+                    probeTypes[i] = threadProbeClass != null && !hasProbeParameter(method) && !async
+                            ? threadProbeClass : probeClass;
+                    probeLocals[i] = storeProbe(method.getName(), probeTypes[i]);
+                    if (hasInFlightCap && async) {
+                        inFlightProbeLocals[i] = storeProbe(method.getName() + IN_FLIGHT_PROBE_SUFFIX, Probe.class);
+                    }
+                }
+            }
+
+            if (probeClass != null || hasInFlightCap) {
+                for (int i = 0; i < timeStepMethods.size(); i++) {
+                    if (!isAsyncResult(timeStepMethods.get(i).getReturnType())) {
+                        continue;
+                    }
+                    if (hasInFlightCap) {
+                        asyncCompletionPoolLocals[i] = storeAsyncCompletionPool(i);
+                    } else {
+                        asyncResultAdapterLocals[i] = storeAsyncResultAdapter(i);
+                    }
+                }
+            }
+
+            if (threadStateClass != null) {
+                threadStateLocal = storeField("threadState", Object.class, threadStateClass);
+            }
+
             if (logFrequency > 0) {
-                root.put("logFrequency", "" + logFrequency);
+                logCounterLocal = storeLong(0);
             }
 
             if (logRateMs > 0) {
-                root.put("logRateMs", "" + logRateMs);
+                mv.visitTypeInsn(NEW, THROTTLING_LOGGER);
+                mv.visitInsn(DUP);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, RUNNER, "logger", Type.getDescriptor(Logger.class));
+                mv.visitLdcInsn(logRateMs);
+                mv.visitMethodInsn(INVOKESPECIAL, THROTTLING_LOGGER, "<init>",
+                        Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Logger.class), Type.LONG_TYPE), false);
+                throttlingLoggerLocal = newLocal(1);
+                mv.visitVarInsn(ASTORE, throttlingLoggerLocal);
+            }
+
+            if (timeStepMethods.size() > 1) {
+                mv.visitTypeInsn(NEW, RANDOM);
+                mv.visitInsn(DUP);
+                mv.visitMethodInsn(INVOKESPECIAL, RANDOM, "<init>", "()V", false);
+                randomLocal = newLocal(1);
+                mv.visitVarInsn(ASTORE, randomLocal);
+                probsLocal = storeField("timeStepProbabilities", byte[].class, null);
             }
 
             if (hasIterationCap) {
-                root.put("hasIterationCap", "true");
+                maxIterationsLocal = storeField("maxIterations", long.class, null);
             }
 
-            Template temp = cfg.getTemplate("TimeStepRunner.ftl");
-            StringWriter out = new StringWriter();
-            temp.process(root, out);
+            if (hasInFlightCap) {
+                maxInFlightLocal = storeField("maxInFlight", long.class, null);
+                asyncCompletionsLocal = storeField("asyncCompletions", AtomicLong.class, null);
+                issuedLocal = storeLong(0);
+                inFlightLocal = storeLong(0);
+            }
 
-            String javaCode = out.toString();
-            File javaFile = new File(targetDirectory, className + ".java");
+            iterationLocal = storeLong(0);
+            if (probeClass != null || metronomeClass != null) {
+                startNanosLocal = storeLong(0);
+            }
+        }
 
-            writeText(javaCode, javaFile);
+        private void writeLoop() {
+            mv.visitLabel(loopStart);
+            mv.visitVarInsn(ALOAD, testContextLocal);
+            mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(TestContextImpl.class), "isStopped", "()Z", false);
+            mv.visitJumpInsn(IFNE, loopEnd);
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitFieldInsn(GETFIELD, RUNNER, "retired", "Z");
+            mv.visitJumpInsn(IFNE, loopEnd);
+
+            if (metronomeClass != null) {
+                mv.visitVarInsn(ALOAD, metronomeLocal);
+                invoke(mv, metronomeClass, "waitForNext", "()J");
+                mv.visitVarInsn(LSTORE, startNanosLocal);
+            } else if (probeClass != null) {
+                nanoTime();
+                mv.visitVarInsn(LSTORE, startNanosLocal);
+            }
 
-            return new JavaSourceFromString(className, javaCode);
-        } catch (Exception e) {
-            throw new IllegalTestException(className + " ran into a code generation problem: " + e.getMessage(), e);
-        }
-    }
+            if (timeStepMethods.size() == 1) {
+                writeTimeStep(0);
+            } else {
+                writeProbabilitySwitch();
+            }
 
-    private static String getClassName(Class clazz) {
-        return clazz == null ? null : clazz.getName().replace('$', '.');
-    }
+            increment(iterationLocal);
+            mv.visitVarInsn(ALOAD, iterationsLocal);
+            mv.visitVarInsn(LLOAD, iterationLocal);
+            mv.visitMethodInsn(INVOKEVIRTUAL, ATOMIC_LONG, "lazySet", "(J)V", false);
 
-    private static String getMetronomeClass(Class<? extends Metronome> metronomeClass) {
-        if (metronomeClass == EmptyMetronome.class) {
-            return null;
-        }
-        return getClassName(metronomeClass);
-    }
+            if (logFrequency > 0) {
+                writeLogFrequency();
+            }
 
-    private static class JavaSourceFromString extends SimpleJavaFileObject {
+            if (logRateMs > 0) {
+                writeLogRate();
+            }
 
-        private final String code;
+            if (hasIterationCap) {
+                mv.visitVarInsn(LLOAD, iterationLocal);
+                mv.visitVarInsn(LLOAD, maxIterationsLocal);
+                mv.visitInsn(LCMP);
+                mv.visitJumpInsn(IFEQ, loopEnd);
+            }
 
-        JavaSourceFromString(String name, String code) {
-            super(URI.create("string:///" + name.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
-            this.code = code;
+            mv.visitJumpInsn(GOTO, loopStart);
+            mv.visitLabel(loopEnd);
         }
 
-        @Override
-        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
-            return code;
+        private void writeProbabilitySwitch() {
+            Label afterSwitch = new Label();
+            Label[] cases = new Label[timeStepMethods.size()];
+            for (int i = 0; i < cases.length; i++) {
+                cases[i] = new Label();
+            }
+
+            mv.visitVarInsn(ALOAD, probsLocal);
+            mv.visitVarInsn(ALOAD, randomLocal);
+            mv.visitVarInsn(ALOAD, probsLocal);
+            mv.visitInsn(ARRAYLENGTH);
+            mv.visitMethodInsn(INVOKEVIRTUAL, RANDOM, "nextInt", "(I)I", false);
+            mv.visitInsn(BALOAD);
+            mv.visitTableSwitchInsn(0, cases.length - 1, afterSwitch, cases);
+            for (int i = 0; i < cases.length; i++) {
+                mv.visitLabel(cases[i]);
+                writeTimeStep(i);
+                mv.visitJumpInsn(GOTO, afterSwitch);
+            }
+            mv.visitLabel(afterSwitch);
         }
-    }
 
-    private static final class IsAssignableFromMethod implements TemplateMethodModelEx {
+        private void writeTimeStep(int index) {
+            Method method = timeStepMethods.get(index);
+            Class<?> returnType = method.getReturnType();
+            boolean async = isAsyncResult(returnType);
 
-        @Override
-        @SuppressWarnings("unchecked")
-        public Object exec(List list) throws TemplateModelException {
-            if (list.size() != 2) {
-                throw new TemplateModelException("Wrong number of arguments for method isAssignableFrom()."
-                        + " Method has two required parameters: [Class, Class]. Found: " + list.size());
+            if (hasInFlightCap && async) {
+                writeAcquireInFlightPermit(index);
             }
 
-            Object arg1 = ((WrapperTemplateModel) list.get(0)).getWrappedObject();
-            if (!(arg1 instanceof Class)) {
-                throw new TemplateModelException("Wrong type of the first parameter."
-                        + " It should be Class. Found: " + arg1.getClass());
+            mv.visitVarInsn(ALOAD, testInstanceLocal);
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                writeArgument(method, i, parameterTypes[i], index);
             }
-
-            Object arg2 = ((WrapperTemplateModel) list.get(1)).getWrappedObject();
-            if (!(arg2 instanceof Class)) {
-                throw new TemplateModelException("Wrong type of the second parameter."
-                        + " It should be Class. Found: " + arg2.getClass());
+            invoke(mv, testClass, method.getName(), Type.getMethodDescriptor(method));
+
+            if (async) {
+                writeAsyncCompletion(index);
+            } else if (returnType == long.class || returnType == double.class) {
+                mv.visitInsn(POP2);
+            } else if (returnType != void.class) {
+                mv.visitInsn(POP);
             }
 
-            return ((Class) arg2).isAssignableFrom((Class) arg1);
+            if (probeClass != null && !async && !hasProbeParameter(method)) {
+                mv.visitVarInsn(ALOAD, probeLocals[index]);
+                nanoTime();
+                mv.visitVarInsn(LLOAD, startNanosLocal);
+                mv.visitInsn(LSUB);
+                invoke(mv, probeTypes[index], "recordValue", "(J)V");
+            }
         }
-    }
 
-    private static final class IsAsyncResult implements TemplateMethodModelEx {
-        @Override
-        public Object exec(List list) throws TemplateModelException {
-            if (list.size() != 1) {
-                throw new TemplateModelException("Wrong number of arguments for method isAsyncResult()."
-                        + " Method has one required parameter: [String]. Found: " + list.size());
+        private void writeArgument(Method method, int parameterIndex, Class<?> parameterType, int index) {
+            if (timeStepModel.hasStartNanosAnnotation(method, parameterIndex)) {
+                if (metronomeClass != null) {
+                    mv.visitVarInsn(LLOAD, startNanosLocal);
+                } else {
+                    nanoTime();
+                }
+            } else if (Probe.class.isAssignableFrom(parameterType)) {
+                if (probeClass != null) {
+                    mv.visitVarInsn(ALOAD, probeLocals[index]);
+                } else {
+                    mv.visitFieldInsn(GETSTATIC, Type.getInternalName(EmptyProbe.class), "INSTANCE",
+                            Type.getDescriptor(EmptyProbe.class));
+                }
+            } else {
+                if (threadStateLocal == NO_LOCAL) {
+                    throw new IllegalTestException(format("TimeStep method '%s' has a thread state parameter, but no thread"
+                            + " state class was found", method));
+                }
+                mv.visitVarInsn(ALOAD, threadStateLocal);
             }
+        }
 
-            String resultTypeName = ((SimpleScalar) list.get(0)).getAsString();
-            return "java.util.concurrent.CompletableFuture".equals(resultTypeName);
+        /**
+         * Acquires a permit for an async call without a semaphore; see {@link TimeStepRunner#awaitInFlightPermit(long)}.
+         * The startNanos is determined before the permit is acquired, so waiting for a permit is included in the latency.
+         */
+        private void writeAcquireInFlightPermit(int index) {
+            Label acquired = new Label();
+            mv.visitVarInsn(LLOAD, issuedLocal);
+            mv.visitVarInsn(ALOAD, asyncCompletionsLocal);
+            mv.visitMethodInsn(INVOKEVIRTUAL, ATOMIC_LONG, "get", "()J", false);
+            mv.visitInsn(LSUB);
+            mv.visitVarInsn(LSTORE, inFlightLocal);
+            mv.visitVarInsn(LLOAD, inFlightLocal);
+            mv.visitVarInsn(LLOAD, maxInFlightLocal);
+            mv.visitInsn(LCMP);
+            mv.visitJumpInsn(IFLT, acquired);
+
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(LLOAD, issuedLocal);
+            mv.visitMethodInsn(INVOKEVIRTUAL, RUNNER, "awaitInFlightPermit", "(J)J", false);
+            mv.visitVarInsn(LSTORE, inFlightLocal);
+            mv.visitVarInsn(LLOAD, inFlightLocal);
+            mv.visitInsn(LCONST_0);
+            mv.visitInsn(LCMP);
+            mv.visitJumpInsn(IFLT, loopEnd);
+
+            mv.visitLabel(acquired);
+            increment(issuedLocal);
+            if (probeClass != null) {
+                mv.visitVarInsn(ALOAD, inFlightProbeLocals[index]);
+                mv.visitVarInsn(LLOAD, inFlightLocal);
+                invoke(mv, Probe.class, "recordValue", "(J)V");
+            }
         }
-    }
 
-    private static final class IsStartNanos implements TemplateMethodModelEx {
+        private void writeAsyncCompletion(int index) {
+            if (!hasInFlightCap && probeClass == null) {
+                mv.visitInsn(POP);
+                return;
+            }
+
+            String result = Type.getDescriptor(Object.class);
+            if (hasInFlightCap) {
+                // the pool goes below the result on the stack
+                mv.visitVarInsn(ALOAD, asyncCompletionPoolLocals[index]);
+                mv.visitInsn(SWAP);
+                if (probeClass != null) {
+                    mv.visitVarInsn(LLOAD, startNanosLocal);
+                } else {
+                    mv.visitInsn(LCONST_0);
+                }
+                mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(AsyncCompletionPool.class), "onCompletion",
+                        "(" + result + "J)V", false);
+            } else {
+                // the adapter goes below the result on the stack
+                mv.visitVarInsn(ALOAD, asyncResultAdapterLocals[index]);
+                mv.visitInsn(SWAP);
+                mv.visitVarInsn(ALOAD, probeLocals[index]);
+                mv.visitVarInsn(LLOAD, startNanosLocal);
+                mv.visitMethodInsn(INVOKESTATIC, RUNNER, "recordOnCompletion",
+                        "(" + Type.getDescriptor(AsyncResultAdapter.class) + result + Type.getDescriptor(Probe.class) + "J)V",
+                        false);
+            }
+        }
 
-        private final TimeStepModel timeStepModel;
+        private void writeLogFrequency() {
+            Label skip = new Label();
+            increment(logCounterLocal);
+            mv.visitVarInsn(LLOAD, logCounterLocal);
+            mv.visitLdcInsn(logFrequency);
+            mv.visitInsn(LCMP);
+            mv.visitJumpInsn(IFNE, skip);
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitFieldInsn(GETFIELD, RUNNER, "logger", Type.getDescriptor(Logger.class));
+            mv.visitLdcInsn("At " + logFrequency);
+            mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(Logger.class), "info", "(Ljava/lang/Object;)V", false);
+            mv.visitInsn(LCONST_0);
+            mv.visitVarInsn(LSTORE, logCounterLocal);
+            mv.visitLabel(skip);
+        }
 
-        public IsStartNanos(TimeStepModel timeStepModel) {
-            this.timeStepModel = timeStepModel;
+        private void writeLogRate() {
+            Label skip = new Label();
+            mv.visitVarInsn(ALOAD, throttlingLoggerLocal);
+            mv.visitMethodInsn(INVOKEVIRTUAL, THROTTLING_LOGGER, "requestLogSlot", "()Z", false);
+            mv.visitJumpInsn(IFEQ, skip);
+            mv.visitVarInsn(ALOAD, throttlingLoggerLocal);
+            mv.visitFieldInsn(GETSTATIC, Type.getInternalName(Level.class), "INFO", Type.getDescriptor(Level.class));
+            mv.visitTypeInsn(NEW, STRING_BUILDER);
+            mv.visitInsn(DUP);
+            mv.visitLdcInsn("At ");
+            mv.visitMethodInsn(INVOKESPECIAL, STRING_BUILDER, "<init>", "(Ljava/lang/String;)V", false);
+            mv.visitVarInsn(LLOAD, iterationLocal);
+            mv.visitMethodInsn(INVOKEVIRTUAL, STRING_BUILDER, "append", "(J)Ljava/lang/StringBuilder;", false);
+            mv.visitMethodInsn(INVOKEVIRTUAL, STRING_BUILDER, "toString", "()Ljava/lang/String;", false);
+            mv.visitMethodInsn(INVOKEVIRTUAL, THROTTLING_LOGGER, "logInSlot",
+                    Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Level.class), Type.getType(String.class)), false);
+            mv.visitLabel(skip);
         }
 
-        @Override
-        @SuppressWarnings("unchecked")
-        public Object exec(List list) throws TemplateModelException {
-            if (list.size() != 2) {
-                throw new TemplateModelException("Wrong number of arguments for method isAssignableFrom()."
-                        + " Method has two required parameters: [Class, SimpleNumber]. Found: " + list.size());
+        private int storeField(String name, Class fieldType, Class castType) {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitFieldInsn(GETFIELD, RUNNER, name, Type.getDescriptor(fieldType));
+            if (fieldType == long.class) {
+                int local = newLocal(2);
+                mv.visitVarInsn(LSTORE, local);
+                return local;
             }
 
-            Object arg1 = ((WrapperTemplateModel) list.get(0)).getWrappedObject();
-            if (!(arg1 instanceof Method)) {
-                throw new TemplateModelException("Wrong type of the first parameter."
-                        + " It should be Method. Found: " + arg1.getClass());
+            if (castType != null) {
+                mv.visitTypeInsn(CHECKCAST, Type.getInternalName(castType));
             }
+            int local = newLocal(1);
+            mv.visitVarInsn(ASTORE, local);
+            return local;
+        }
 
-            Object arg2 = list.get(1);
-            if (!(arg2 instanceof SimpleNumber)) {
-                throw new TemplateModelException("Wrong type of the second parameter."
-                        + " It should be SimpleNumber. Found: " + arg2.getClass());
-            }
+        private int storeProbe(String probeName, Class probeType) {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitFieldInsn(GETFIELD, RUNNER, "probeMap", Type.getDescriptor(Map.class));
+            mv.visitLdcInsn(probeName);
+            mv.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(Map.class), "get",
+                    "(Ljava/lang/Object;)Ljava/lang/Object;", true);
+            mv.visitTypeInsn(CHECKCAST, Type.getInternalName(probeType));
+            int local = newLocal(1);
+            mv.visitVarInsn(ASTORE, local);
+            return local;
+        }
+
+        private int storeAsyncResultAdapter(int index) {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitLdcInsn(index);
+            mv.visitMethodInsn(INVOKEVIRTUAL, RUNNER, "asyncResultAdapter",
+                    Type.getMethodDescriptor(Type.getType(AsyncResultAdapter.class), Type.INT_TYPE), false);
+            int local = newLocal(1);
+            mv.visitVarInsn(ASTORE, local);
+            return local;
+        }
+
+        private int storeAsyncCompletionPool(int index) {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitLdcInsn(index);
+            mv.visitMethodInsn(INVOKEVIRTUAL, RUNNER, "asyncCompletionPool",
+                    Type.getMethodDescriptor(Type.getType(AsyncCompletionPool.class), Type.INT_TYPE), false);
+            int local = newLocal(1);
+            mv.visitVarInsn(ASTORE, local);
+            return local;
+        }
 
-            return timeStepModel.hasStartNanosAnnotation((Method) arg1, ((SimpleNumber) arg2).getAsNumber().intValue() - 1);
+        private int storeLong(long value) {
+            mv.visitLdcInsn(value);
+            int local = newLocal(2);
+            mv.visitVarInsn(LSTORE, local);
+            return local;
+        }
+
+        private void increment(int local) {
+            mv.visitVarInsn(LLOAD, local);
+            mv.visitInsn(LCONST_1);
+            mv.visitInsn(LADD);
+            mv.visitVarInsn(LSTORE, local);
+        }
+
+        private void nanoTime() {
+            mv.visitMethodInsn(INVOKESTATIC, "java/lang/System", "nanoTime", "()J", false);
+        }
+
+        private int newLocal(int size) {
+            int local = nextLocal;
+            nextLocal += size;
+            return local;
         }
     }
 
-    private static final class HasProbeMethod implements TemplateMethodModelEx {
+    /**
+     * Resolves the common super classes, needed to compute the stack map frames, with the class loader of the test.
+     */
+    private static final class RunnerClassWriter extends ClassWriter {
+
+        private final ClassLoader classLoader;
+
+        RunnerClassWriter(ClassLoader classLoader) {
+            super(COMPUTE_FRAMES);
+            this.classLoader = classLoader;
+        }
 
         @Override
-        public Object exec(List list) throws TemplateModelException {
-            if (list.size() != 1) {
-                throw new TemplateModelException("Wrong number of arguments for method hasProbe()."
-                        + " Method has one required parameter: [Method]. Found: " + list.size());
+        protected String getCommonSuperClass(String type1, String type2) {
+            Class<?> class1 = loadClass(type1);
+            Class<?> class2 = loadClass(type2);
+            if (class1.isAssignableFrom(class2)) {
+                return type1;
             }
-
-            Object arg1 = ((WrapperTemplateModel) list.get(0)).getWrappedObject();
-            if (!(arg1 instanceof Method)) {
-                throw new TemplateModelException("Wrong type of the first parameter."
-                        + " It should be Method. Found: " + arg1.getClass());
+            if (class2.isAssignableFrom(class1)) {
+                return type2;
             }
-
-            Method method = (Method) arg1;
-            for (Class paramType : method.getParameterTypes()) {
-                if (Probe.class.isAssignableFrom(paramType)) {
-                    return true;
-                }
+            if (class1.isInterface() || class2.isInterface()) {
+                return "java/lang/Object";
             }
+            do {
+                class1 = class1.getSuperclass();
+            } while (!class1.isAssignableFrom(class2));
+            return Type.getInternalName(class1);
+        }
 
-            return false;
+        private Class<?> loadClass(String type) {
+            try {
+                return Class.forName(type.replace('/', '.'), false, classLoader);
+            } catch (ClassNotFoundException e) {
+                throw new TypeNotPresentException(type, e);
+            }
         }
     }
 }
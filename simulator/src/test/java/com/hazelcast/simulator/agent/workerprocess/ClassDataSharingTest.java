@@ -0,0 +1,220 @@
+package com.hazelcast.simulator.agent.workerprocess;
+
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeEnvironment;
+import static com.hazelcast.simulator.TestEnvironmentUtils.tearDownFakeEnvironment;
+import static com.hazelcast.simulator.agent.workerprocess.ClassDataSharing.expandClasspath;
+import static com.hazelcast.simulator.agent.workerprocess.ClassDataSharing.javaVersion;
+import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingFile;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static java.io.File.pathSeparator;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClassDataSharingTest {
+
+    private File simulatorHome;
+    private File archiveDir;
+    private ClassDataSharing classDataSharing;
+    private String classpath;
+
+    @Before
+    public void before() {
+        simulatorHome = setupFakeEnvironment();
+        archiveDir = new File(simulatorHome, "cds");
+        classDataSharing = new ClassDataSharing(archiveDir, 17);
+
+        File libDir = ensureExistingDirectory(simulatorHome, "cds-lib");
+        ensureExistingFile(libDir, "b.jar");
+        ensureExistingFile(libDir, "a.jar");
+        classpath = expandClasspath(libDir.getAbsolutePath() + "/*");
+    }
+
+    @After
+    public void after() {
+        tearDownFakeEnvironment();
+    }
+
+    @Test
+    public void testIsSupported() {
+        assertTrue(classDataSharing.isSupported());
+        assertFalse(new ClassDataSharing(archiveDir, 11).isSupported());
+    }
+
+    @Test
+    public void testJavaVersion() {
+        assertEquals(8, javaVersion("1.8"));
+        assertEquals(17, javaVersion("17"));
+        assertEquals(0, javaVersion("foo"));
+    }
+
+    @Test
+    public void testExpandClasspath() {
+        File libDir = new File(simulatorHome, "cds-lib");
+        File emptyDir = ensureExistingDirectory(simulatorHome, "empty");
+        ensureExistingFile(libDir, "readme.txt");
+
+        String expanded = expandClasspath(libDir.getAbsolutePath() + "/*"
+                + pathSeparator + emptyDir.getAbsolutePath() + "/*"
+                + pathSeparator + emptyDir.getAbsolutePath()
+                + pathSeparator + new File(simulatorHome, "notFound").getAbsolutePath()
+                + pathSeparator + new File(libDir, "a.jar").getAbsolutePath());
+
+        assertEquals(new File(libDir, "a.jar").getPath() + pathSeparator + new File(libDir, "b.jar").getPath()
+                + pathSeparator + new File(libDir, "a.jar").getAbsolutePath(), expanded);
+    }
+
+    @Test
+    public void testExpandClasspath_withClassDirectory() {
+        File classesDir = ensureExistingDirectory(simulatorHome, "classes");
+        ensureExistingFile(classesDir, "Foo.class");
+
+        assertNull(expandClasspath(classesDir.getAbsolutePath()));
+    }
+
+    @Test
+    public void testJvmOptions_trainingRun() {
+        WorkerProcess trainingRun = newWorkerProcess(null);
+
+        String options = classDataSharing.jvmOptions(classpath, trainingRun);
+
+        assertTrue(options.startsWith("-XX:ArchiveClassesAtExit="));
+        assertTrue(options.endsWith(".jsa.training"));
+    }
+
+    @Test
+    public void testJvmOptions_whenTrainingRunIsRunning() {
+        classDataSharing.jvmOptions(classpath, newWorkerProcess(null));
+
+        assertEquals("", classDataSharing.jvmOptions(classpath, newWorkerProcess(null)));
+    }
+
+    @Test
+    public void testJvmOptions_whenTrainingRunHasCompleted() {
+        WorkerProcess trainingRun = newWorkerProcess(null);
+        String options = classDataSharing.jvmOptions(classpath, trainingRun);
+        String trainingArchive = options.substring(options.indexOf('=') + 1);
+        writeText("archive", new File(trainingArchive));
+        doReturn(0).when(trainingRun.getProcess()).exitValue();
+
+        options = classDataSharing.jvmOptions(classpath, newWorkerProcess(null));
+
+        String archive = trainingArchive.substring(0, trainingArchive.length() - ".training".length());
+        assertEquals("-XX:SharedArchiveFile=" + archive, options);
+        assertTrue(new File(archive).exists());
+        assertFalse(new File(trainingArchive).exists());
+    }
+
+    @Test
+    public void testJvmOptions_whenTrainingRunFailed() {
+        WorkerProcess trainingRun = newWorkerProcess(1);
+        classDataSharing.jvmOptions(classpath, trainingRun);
+
+        String options = classDataSharing.jvmOptions(classpath, newWorkerProcess(null));
+
+        assertTrue(options.startsWith("-XX:ArchiveClassesAtExit="));
+    }
+
+    @Test
+    public void testJvmOptions_whenTrainingRunIsCancelled() {
+        WorkerProcess trainingRun = new WorkerProcess(workerAddress(1, 1), "worker", simulatorHome);
+        classDataSharing.jvmOptions(classpath, trainingRun);
+        classDataSharing.cancel(trainingRun);
+
+        String options = classDataSharing.jvmOptions(classpath, newWorkerProcess(null));
+
+        assertTrue(options.startsWith("-XX:ArchiveClassesAtExit="));
+    }
+
+    @Test
+    public void testJvmOptions_whenJarHasChanged() {
+        File jar = new File(simulatorHome, "cds-lib/a.jar");
+        String options = classDataSharing.jvmOptions(classpath, newWorkerProcess(0));
+
+        writeText("changed", jar);
+
+        assertNotEquals(options, classDataSharing.jvmOptions(classpath, newWorkerProcess(null)));
+    }
+
+    @Test
+    public void testSharedClasspath() {
+        File sessionDir = ensureExistingDirectory(simulatorHome, "workers/session1");
+        File otherSessionDir = ensureExistingDirectory(simulatorHome, "workers/session2");
+        File sessionJar = new File(ensureExistingDirectory(sessionDir, "lib"), "test.jar");
+        File otherSessionJar = new File(ensureExistingDirectory(otherSessionDir, "lib"), "test.jar");
+        writeText("test", sessionJar);
+        writeText("test", otherSessionJar);
+
+        String sharedClasspath = classDataSharing.sharedClasspath(sessionJar.getAbsolutePath() + pathSeparator + classpath,
+                sessionDir);
+
+        String sharedJar = sharedClasspath.substring(0, sharedClasspath.indexOf(pathSeparator));
+        assertTrue(sharedJar.startsWith(archiveDir.getAbsolutePath()));
+        assertEquals("test", fileAsText(sharedJar));
+        assertTrue(sharedClasspath.endsWith(pathSeparator + classpath));
+        // a jar with the same contents in another session has the same shared copy
+        assertEquals(sharedClasspath, classDataSharing.sharedClasspath(
+                otherSessionJar.getAbsolutePath() + pathSeparator + classpath, otherSessionDir));
+    }
+
+    @Test
+    public void testSharedClasspath_whenJarHasChanged() {
+        File sessionDir = ensureExistingDirectory(simulatorHome, "workers/session1");
+        File sessionJar = new File(ensureExistingDirectory(sessionDir, "lib"), "test.jar");
+        writeText("test", sessionJar);
+        String sharedClasspath = classDataSharing.sharedClasspath(sessionJar.getAbsolutePath(), sessionDir);
+
+        writeText("changed", sessionJar);
+
+        assertNotEquals(sharedClasspath, classDataSharing.sharedClasspath(sessionJar.getAbsolutePath(), sessionDir));
+    }
+
+    @Test
+    public void testCleanup() {
+        File sessionDir = ensureExistingDirectory(simulatorHome, "workers/session1");
+        File sessionJar = new File(ensureExistingDirectory(sessionDir, "lib"), "test.jar");
+        writeText("test", sessionJar);
+        String sharedJar = classDataSharing.sharedClasspath(sessionJar.getAbsolutePath(), sessionDir);
+        File usedArchive = ensureExistingFile(archiveDir, "used.jsa");
+        File unusedArchive = ensureExistingFile(archiveDir, "unused.jsa");
+        File orphanedTrainingArchive = ensureExistingFile(archiveDir, "orphaned.jsa.training");
+        long nowMillis = System.currentTimeMillis() + DAYS.toMillis(ClassDataSharing.MAX_UNUSED_DAYS + 1);
+        usedArchive.setLastModified(nowMillis);
+
+        classDataSharing.cleanup(nowMillis);
+
+        assertTrue(usedArchive.exists());
+        assertFalse(unusedArchive.exists());
+        assertFalse(orphanedTrainingArchive.exists());
+        assertFalse(new File(sharedJar).exists());
+    }
+
+    private WorkerProcess newWorkerProcess(Integer exitCode) {
+        SimulatorAddress address = workerAddress(1, 1);
+        WorkerProcess workerProcess = new WorkerProcess(address, "worker", simulatorHome);
+        Process process = mock(Process.class);
+        if (exitCode == null) {
+            when(process.exitValue()).thenThrow(new IllegalThreadStateException());
+        } else {
+            when(process.exitValue()).thenReturn(exitCode);
+        }
+        workerProcess.setProcess(process);
+        return workerProcess;
+    }
+}
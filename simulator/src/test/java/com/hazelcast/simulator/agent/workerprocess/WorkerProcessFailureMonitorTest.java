@@ -27,8 +27,10 @@ import static com.hazelcast.simulator.utils.FileUtils.ensureExistingFile;
 import static com.hazelcast.simulator.utils.FileUtils.rename;
 import static com.hazelcast.simulator.utils.FormatUtils.NEW_LINE;
 import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static com.hazelcast.simulator.worker.WorkerHeartbeat.HEARTBEAT_FILE;
 import static java.lang.System.currentTimeMillis;
 import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -184,7 +186,7 @@ public class WorkerProcessFailureMonitorTest {
         assertFailureType(failureHandler, WORKER_OOME);
     }
 
-    //@Test
+    @Test
     public void testRun_shouldDetectInactivity() {
         WorkerProcess workerProcess = addRunningWorkerProcess();
 
@@ -196,6 +198,26 @@ public class WorkerProcessFailureMonitorTest {
         assertFailureTypeAtLeastOnce(failureHandler, WORKER_TIMEOUT);
     }
 
+    @Test
+    public void testRun_shouldNotDetectInactivity_whenHeartbeatIsReceived() {
+        WorkerProcess workerProcess = addRunningWorkerProcess();
+
+        workerProcessFailureMonitor.startTimeoutDetection();
+        sleepMillis(DEFAULT_SLEEP_TIME);
+
+        final long lastSeen = currentTimeMillis() - SECONDS.toMillis(DEFAULT_LAST_SEEN_TIMEOUT_SECONDS - 1);
+        workerProcess.setLastSeen(lastSeen);
+        ensureExistingFile(workerProcess.getWorkerHome(), HEARTBEAT_FILE);
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(workerProcess.getLastSeen() > lastSeen);
+            }
+        });
+        verifyZeroInteractions(failureHandler);
+    }
+
     @Test
     public void testRun_shouldNotDetectInactivity_ifDetectionDisabled() {
         WorkerProcess workerProcess = addRunningWorkerProcess();
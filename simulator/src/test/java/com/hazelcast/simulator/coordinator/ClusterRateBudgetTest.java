@@ -0,0 +1,142 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ClusterRateBudgetTest {
+
+    private static final double DELTA = 0.001;
+
+    private final SimulatorAddress worker1 = workerAddress(1, 1);
+    private final SimulatorAddress worker2 = workerAddress(1, 2);
+    private final SimulatorAddress worker3 = workerAddress(2, 1);
+    private ClusterRateBudget budget;
+
+    @Before
+    public void before() {
+        budget = new ClusterRateBudget(3000, asList(worker1, worker2, worker3));
+        // the interval after the budget has been split is skipped
+        assertTrue(budget.rebalance(throughputs(0, 0, 0)).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_noWorkers() {
+        new ClusterRateBudget(1000, emptyList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_rateNotPositive() {
+        new ClusterRateBudget(0, asList(worker1));
+    }
+
+    @Test
+    public void testSplitEvenly() {
+        assertEquals(1000, budget.getEvenShare(), DELTA);
+        assertEquals(1000, budget.getRates().get(worker1), DELTA);
+        assertEquals(1000, budget.getRates().get(worker2), DELTA);
+        assertEquals(1000, budget.getRates().get(worker3), DELTA);
+    }
+
+    @Test
+    public void testRebalance_allAchievedRate() {
+        assertTrue(budget.rebalance(throughputs(990, 1000, 980)).isEmpty());
+    }
+
+    @Test
+    public void testRebalance_notAllWorkersReported() {
+        Map<SimulatorAddress, Double> throughputs = new HashMap<>();
+        throughputs.put(worker1, 100d);
+
+        assertTrue(budget.rebalance(throughputs).isEmpty());
+    }
+
+    @Test
+    public void testRebalance_movesBudgetToHealthyWorkers() {
+        Map<SimulatorAddress, Double> rates = budget.rebalance(throughputs(400, 1000, 1000));
+
+        assertEquals(400, rates.get(worker1), DELTA);
+        assertEquals(1300, rates.get(worker2), DELTA);
+        assertEquals(1300, rates.get(worker3), DELTA);
+        assertEquals(3000, sum(budget.getRates()), DELTA);
+    }
+
+    @Test
+    public void testRebalance_skipsIntervalAfterRebalance() {
+        budget.rebalance(throughputs(400, 1000, 1000));
+
+        assertTrue(budget.rebalance(throughputs(400, 1100, 1100)).isEmpty());
+    }
+
+    @Test
+    public void testRebalance_proportionalToRate() {
+        budget.rebalance(throughputs(400, 1000, 1000));
+        budget.rebalance(throughputs(0, 0, 0));
+
+        // worker3 lags now; its freed budget is split over worker1 and worker2 in proportion to their rates
+        Map<SimulatorAddress, Double> rates = budget.rebalance(throughputs(400, 1300, 1000));
+
+        assertEquals(400 + 300 * 400 / 1700d, rates.get(worker1), DELTA);
+        assertEquals(1300 + 300 * 1300 / 1700d, rates.get(worker2), DELTA);
+        assertEquals(1000, rates.get(worker3), DELTA);
+        assertEquals(3000, sum(budget.getRates()), DELTA);
+    }
+
+    @Test
+    public void testRebalance_keepsMinimumShare() {
+        Map<SimulatorAddress, Double> rates = budget.rebalance(throughputs(0, 1000, 1000));
+
+        assertEquals(100, rates.get(worker1), DELTA);
+        assertEquals(1450, rates.get(worker2), DELTA);
+        assertEquals(1450, rates.get(worker3), DELTA);
+    }
+
+    @Test
+    public void testRebalance_allLagging() {
+        assertTrue(budget.rebalance(throughputs(500, 500, 500)).isEmpty());
+        assertEquals(1000, budget.getRates().get(worker1), DELTA);
+    }
+
+    @Test
+    public void testSetTotalRate() {
+        budget.rebalance(throughputs(400, 1000, 1000));
+
+        Map<SimulatorAddress, Double> rates = budget.setTotalRate(6000);
+
+        assertEquals(6000, budget.getTotalRate(), DELTA);
+        assertEquals(2000, rates.get(worker1), DELTA);
+        assertEquals(2000, rates.get(worker2), DELTA);
+        assertEquals(2000, rates.get(worker3), DELTA);
+        assertTrue(budget.rebalance(throughputs(0, 0, 0)).isEmpty());
+    }
+
+    @Test
+    public void testToString() {
+        assertTrue(budget.toString().startsWith("3,000.00 ops/s ["));
+    }
+
+    private Map<SimulatorAddress, Double> throughputs(double throughput1, double throughput2, double throughput3) {
+        Map<SimulatorAddress, Double> throughputs = new HashMap<>();
+        throughputs.put(worker1, throughput1);
+        throughputs.put(worker2, throughput2);
+        throughputs.put(worker3, throughput3);
+        return throughputs;
+    }
+
+    private static double sum(Map<SimulatorAddress, Double> rates) {
+        double sum = 0;
+        for (double rate : rates.values()) {
+            sum += rate;
+        }
+        return sum;
+    }
+}
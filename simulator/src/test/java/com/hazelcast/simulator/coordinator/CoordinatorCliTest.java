@@ -154,6 +154,30 @@ public class CoordinatorCliTest {
         assertEquals(423, testSuite.getDurationSeconds());
     }
 
+    @Test
+    public void testInit_saturationSla() {
+        args.add("--saturationSla");
+        args.add("p99<2ms");
+        args.add("--saturationStep");
+        args.add("30s");
+        args.add(testSuiteFile.getAbsolutePath());
+
+        CoordinatorCli cli = createCoordinatorCli();
+
+        TestSuite testSuite = cli.testSuite;
+        assertEquals("p99<2ms", testSuite.getSaturationSla());
+        assertEquals(30, testSuite.getSaturationStepSeconds());
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testInit_saturationSla_invalid() {
+        args.add("--saturationSla");
+        args.add("p99");
+        args.add(testSuiteFile.getAbsolutePath());
+
+        createCoordinatorCli();
+    }
+
     @Test
     public void testInit_duration_withSeconds() {
         args.add("--duration");
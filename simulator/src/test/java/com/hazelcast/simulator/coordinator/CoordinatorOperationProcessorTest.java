@@ -50,7 +50,8 @@ public class CoordinatorOperationProcessorTest {
 
         processor.process(op, address, promise);
 
-        verify(performanceStatsCollector).update(address, performanceStats);
+        verify(performanceStatsCollector).update(address, performanceStats, op.getIntervalHistograms(),
+                op.getIntervalGroupThroughputs());
     }
 
     @Test(expected = ProcessException.class)
@@ -8,6 +8,7 @@ import com.hazelcast.simulator.coordinator.operations.RcStopCoordinatorOperation
 import com.hazelcast.simulator.coordinator.operations.RcTestRunOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStatusOperation;
 import com.hazelcast.simulator.coordinator.operations.RcTestStopOperation;
+import com.hazelcast.simulator.coordinator.operations.RcTestUpdateOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerKillOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerScriptOperation;
 import com.hazelcast.simulator.coordinator.operations.RcWorkerStartOperation;
@@ -111,6 +112,18 @@ public class CoordinatorRemoteImplTest {
         assertSame(expected, result);
     }
 
+    @Test
+    public void test_RcTestUpdateOperation() throws Exception {
+        RcTestUpdateOperation op = new RcTestUpdateOperation("testId", null, 1000d, 20);
+
+        String expected = "run";
+        when(coordinator.testUpdate(op)).thenReturn(expected);
+
+        String result = remote.execute(op);
+
+        assertSame(expected, result);
+    }
+
     @Test
     public void test_RcWorkerKillOperation() throws Exception {
         RcWorkerKillOperation op = new RcWorkerKillOperation("bla", mock(WorkerQuery.class));
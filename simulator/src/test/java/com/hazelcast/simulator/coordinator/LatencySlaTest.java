@@ -0,0 +1,60 @@
+package com.hazelcast.simulator.coordinator;
+
+import com.hazelcast.simulator.utils.CommandLineExitException;
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LatencySlaTest {
+
+    @Test
+    public void testParse() {
+        LatencySla sla = LatencySla.parse("p99<2ms");
+
+        assertEquals(99, sla.getPercentile(), 0);
+        assertEquals(MILLISECONDS.toNanos(2), sla.getThresholdNanos());
+        assertEquals("p99<2ms", sla.toString());
+    }
+
+    @Test
+    public void testParse_fractionalPercentile() {
+        LatencySla sla = LatencySla.parse(" p99.9 < 500us ");
+
+        assertEquals(99.9, sla.getPercentile(), 0);
+        assertEquals(MICROSECONDS.toNanos(500), sla.getThresholdNanos());
+    }
+
+    @Test
+    public void testParse_units() {
+        assertEquals(100, LatencySla.parse("p50<100ns").getThresholdNanos());
+        assertEquals(SECONDS.toNanos(1), LatencySla.parse("p50<1s").getThresholdNanos());
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testParse_missingUnit() {
+        LatencySla.parse("p99<2");
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testParse_invalidPercentile() {
+        LatencySla.parse("p101<2ms");
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testParse_garbage() {
+        LatencySla.parse("foo");
+    }
+
+    @Test
+    public void testIsMet() {
+        LatencySla sla = LatencySla.parse("p99<2ms");
+
+        assertTrue(sla.isMet(MILLISECONDS.toNanos(1)));
+        assertFalse(sla.isMet(MILLISECONDS.toNanos(2)));
+    }
+}
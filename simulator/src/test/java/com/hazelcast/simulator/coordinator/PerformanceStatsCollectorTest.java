@@ -2,6 +2,7 @@ package com.hazelcast.simulator.coordinator;
 
 import com.hazelcast.simulator.protocol.core.SimulatorAddress;
 import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.HdrHistogram.Histogram;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -9,11 +10,15 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static com.hazelcast.simulator.utils.HistogramUtils.encodeCompressed;
 import static com.hazelcast.simulator.worker.performance.PerformanceStats.aggregateAll;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 public class PerformanceStatsCollectorTest {
@@ -83,6 +88,66 @@ public class PerformanceStatsCollectorTest {
         assertFalse(performance.contains("µs"));
     }
 
+    @Test
+    public void testGetIntervalGroupThroughputs_whenReportedByAllWorkers() {
+        performanceStatsCollector.setIntervalTargets(TEST_CASE_ID_1, asList(a1w1, a2w1));
+
+        updateWithGroupThroughputs(a1w1, TEST_CASE_ID_1, 200, 10);
+        updateWithGroupThroughputs(a1w2, TEST_CASE_ID_2, 400, 40);
+        assertTrue(performanceStatsCollector.getIntervalGroupThroughputs(TEST_CASE_ID_1).isEmpty());
+        assertEquals(0, performanceStatsCollector.getCompleteIntervalCount(TEST_CASE_ID_1));
+
+        updateWithGroupThroughputs(a2w1, TEST_CASE_ID_1, 300, 30);
+
+        Map<String, Map<SimulatorAddress, Double>> throughputs
+                = performanceStatsCollector.getIntervalGroupThroughputs(TEST_CASE_ID_1);
+        assertEquals(1, performanceStatsCollector.getCompleteIntervalCount(TEST_CASE_ID_1));
+        assertEquals(2, throughputs.size());
+        assertEquals(200, throughputs.get("").get(a1w1), ASSERT_EQUALS_DELTA);
+        assertEquals(300, throughputs.get("").get(a2w1), ASSERT_EQUALS_DELTA);
+        assertEquals(10, throughputs.get("get").get(a1w1), ASSERT_EQUALS_DELTA);
+        assertEquals(30, throughputs.get("get").get(a2w1), ASSERT_EQUALS_DELTA);
+    }
+
+    @Test
+    public void testGetIntervalGroupThroughputs_alignsIntervalsOfWorkers() {
+        performanceStatsCollector.setIntervalTargets(TEST_CASE_ID_1, asList(a1w1, a2w1));
+
+        updateWithGroupThroughputs(a1w1, TEST_CASE_ID_1, 100, 0);
+        updateWithGroupThroughputs(a1w1, TEST_CASE_ID_1, 200, 0);
+        updateWithGroupThroughputs(a2w1, TEST_CASE_ID_1, 300, 0);
+
+        // the first interval of a2w1 is paired with the first interval of a1w1, not with its latest one
+        Map<SimulatorAddress, Double> throughputs = performanceStatsCollector.getIntervalGroupThroughputs(TEST_CASE_ID_1).get("");
+        assertEquals(1, performanceStatsCollector.getCompleteIntervalCount(TEST_CASE_ID_1));
+        assertEquals(100, throughputs.get(a1w1), ASSERT_EQUALS_DELTA);
+        assertEquals(300, throughputs.get(a2w1), ASSERT_EQUALS_DELTA);
+    }
+
+    @Test
+    public void testGetIntervalGroupThroughputs_intervalOfStaleWorkerIsNotPublished() {
+        performanceStatsCollector.setIntervalTargets(TEST_CASE_ID_1, asList(a1w1, a2w1));
+
+        for (int i = 0; i <= PerformanceStatsCollector.MAX_PENDING_INTERVALS; i++) {
+            updateWithGroupThroughputs(a1w1, TEST_CASE_ID_1, 100, 0);
+        }
+
+        assertEquals(0, performanceStatsCollector.getCompleteIntervalCount(TEST_CASE_ID_1));
+        assertTrue(performanceStatsCollector.getIntervalGroupThroughputs(TEST_CASE_ID_1).isEmpty());
+    }
+
+    private void updateWithGroupThroughputs(SimulatorAddress address, String testId, double defaultGroupThroughput,
+                                            double getGroupThroughput) {
+        Map<String, Double> groupThroughputs = new HashMap<String, Double>();
+        groupThroughputs.put("", defaultGroupThroughput);
+        groupThroughputs.put("get", getGroupThroughput);
+
+        Map<String, PerformanceStats> performanceStatsMap = new HashMap<String, PerformanceStats>();
+        performanceStatsMap.put(testId, new PerformanceStats(1000, (long) defaultGroupThroughput, 500, 1900.0d, 1800, 2500));
+        performanceStatsCollector.update(address, performanceStatsMap, new HashMap<String, Map<String, String>>(),
+                singletonMap(testId, groupThroughputs));
+    }
+
     private void update(SimulatorAddress address, String testId, PerformanceStats performanceStats) {
         Map<String, PerformanceStats> performanceStatsMap = new HashMap<String, PerformanceStats>();
         performanceStatsMap.put(testId, performanceStats);
@@ -192,4 +257,99 @@ public class PerformanceStatsCollectorTest {
         assertEquals(0, agentPerformanceStatsMap.size());
         assertTrue(totalPerformanceStats.isEmpty());
     }
+
+    @Test
+    public void testCompleteInterval_mergesHistogramsOfAllWorkers() {
+        // a1w1 is fast, a2w1 is slow. The merged 50th percentile needs to be in between
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, 1000, 100);
+        updateWithHistogram(a2w1, TEST_CASE_ID_1, 3000, 10000);
+
+        assertTrue(performanceStatsCollector.getIntervalHistograms(TEST_CASE_ID_1).isEmpty());
+
+        performanceStatsCollector.completeInterval(TEST_CASE_ID_1, System.currentTimeMillis());
+
+        Map<String, Histogram> histograms = performanceStatsCollector.getIntervalHistograms(TEST_CASE_ID_1);
+        Histogram histogram = histograms.get("probe");
+        assertNotNull(histogram);
+        assertEquals(4000, histogram.getTotalCount());
+        assertTrue(histogram.valuesAreEquivalent(10000, histogram.getValueAtPercentile(50)));
+        assertTrue(histogram.valuesAreEquivalent(10000, histogram.getMaxValue()));
+
+        String performance = performanceStatsCollector.formatIntervalPerformanceNumbers(TEST_CASE_ID_1);
+        assertTrue(performance.contains("(99.99th)"));
+    }
+
+    @Test
+    public void testCompleteInterval_startsNewInterval() {
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, 1000, 100);
+        performanceStatsCollector.completeInterval(TEST_CASE_ID_1, System.currentTimeMillis());
+
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, 500, 100);
+        performanceStatsCollector.completeInterval(TEST_CASE_ID_1, System.currentTimeMillis());
+
+        assertEquals(500, performanceStatsCollector.getIntervalHistograms(TEST_CASE_ID_1).get("probe").getTotalCount());
+    }
+
+    @Test
+    public void testIntervalTargets_completesIntervalWhenReportedByAllWorkers() {
+        performanceStatsCollector.setIntervalTargets(TEST_CASE_ID_1, asList(a1w1, a2w1));
+
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, 1000, 100);
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, 500, 100);
+        assertTrue(performanceStatsCollector.getIntervalHistograms(TEST_CASE_ID_1).isEmpty());
+
+        // the first interval of a2w1 is merged with the first interval of a1w1, even if a1w1 is already ahead
+        updateWithHistogram(a2w1, TEST_CASE_ID_1, 3000, 100);
+        assertEquals(4000, performanceStatsCollector.getIntervalHistograms(TEST_CASE_ID_1).get("probe").getTotalCount());
+
+        updateWithHistogram(a2w1, TEST_CASE_ID_1, 200, 100);
+        assertEquals(700, performanceStatsCollector.getIntervalHistograms(TEST_CASE_ID_1).get("probe").getTotalCount());
+    }
+
+    @Test
+    public void testIntervalTargets_staleWorkerIsLeftOut() {
+        performanceStatsCollector.setIntervalTargets(TEST_CASE_ID_1, asList(a1w1, a2w1));
+
+        for (int i = 1; i <= PerformanceStatsCollector.MAX_PENDING_INTERVALS; i++) {
+            updateWithHistogram(a1w1, TEST_CASE_ID_1, i, 100);
+        }
+        assertTrue(performanceStatsCollector.getIntervalHistograms(TEST_CASE_ID_1).isEmpty());
+
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, 1000, 100);
+        assertEquals(1, performanceStatsCollector.getIntervalHistograms(TEST_CASE_ID_1).get("probe").getTotalCount());
+    }
+
+    @Test
+    public void testIntervalTargets_completeIntervalCompletesPartialIntervals() {
+        performanceStatsCollector.setIntervalTargets(TEST_CASE_ID_1, asList(a1w1, a2w1));
+
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, 1000, 100);
+        updateWithHistogram(a1w1, TEST_CASE_ID_1, 500, 100);
+        performanceStatsCollector.completeInterval(TEST_CASE_ID_1, System.currentTimeMillis());
+
+        assertEquals(500, performanceStatsCollector.getIntervalHistograms(TEST_CASE_ID_1).get("probe").getTotalCount());
+    }
+
+    @Test
+    public void testCompleteInterval_testCaseNotFound() {
+        performanceStatsCollector.completeInterval("notFound", System.currentTimeMillis());
+
+        assertTrue(performanceStatsCollector.getIntervalHistograms("notFound").isEmpty());
+    }
+
+    private void updateWithHistogram(SimulatorAddress address, String testId, int count, long valueNanos) {
+        Histogram histogram = new Histogram(3);
+        histogram.recordValueWithCount(valueNanos, count);
+
+        Map<String, String> encodedHistograms = new HashMap<String, String>();
+        encodedHistograms.put("probe", encodeCompressed(histogram));
+
+        Map<String, Map<String, String>> intervalHistograms = new HashMap<String, Map<String, String>>();
+        intervalHistograms.put(testId, encodedHistograms);
+
+        Map<String, PerformanceStats> performanceStats = new HashMap<String, PerformanceStats>();
+        performanceStats.put(testId, new PerformanceStats(count, count, count, valueNanos, valueNanos, valueNanos));
+
+        performanceStatsCollector.update(address, performanceStats, intervalHistograms);
+    }
 }
@@ -0,0 +1,103 @@
+package com.hazelcast.simulator.coordinator;
+
+import org.HdrHistogram.Histogram;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SaturationSearchTest {
+
+    private static final long STEP_MILLIS = 1000;
+    private static final long INTERVAL_MILLIS = 100;
+
+    private final File curveFile = new File("saturation-test.csv");
+    private long timeMillis;
+
+    @After
+    public void after() {
+        deleteQuiet(curveFile);
+    }
+
+    @Test
+    public void testSearch() {
+        // the system saturates at 1500 ops/s per worker
+        final double saturationRate = 1500;
+        SaturationSearch search = new SaturationSearch(LatencySla.parse("p99<2ms"), 100, STEP_MILLIS, 2, curveFile);
+
+        run(search, saturationRate);
+
+        assertTrue(search.isCompleted());
+        double highestMetRate = search.getHighestMetRate();
+        assertTrue("highestMetRate " + highestMetRate, highestMetRate <= saturationRate);
+        assertTrue("highestMetRate " + highestMetRate, highestMetRate >= saturationRate * 0.9);
+        assertTrue(search.formatResult().contains("Saturation point for SLA p99<2ms"));
+        assertTrue(fileAsText(curveFile).startsWith("step,rate_per_worker"));
+    }
+
+    @Test
+    public void testSearch_noRateMeetsSla() {
+        SaturationSearch search = new SaturationSearch(LatencySla.parse("p99<2ms"), 100, STEP_MILLIS, 1, null);
+
+        run(search, 0);
+
+        assertTrue(search.isCompleted());
+        assertEquals(0, search.getHighestMetRate(), 0);
+        assertTrue(search.formatResult().contains("No rate met the SLA"));
+    }
+
+    @Test
+    public void testSkipsFirstIntervalOfStep() {
+        SaturationSearch search = new SaturationSearch(LatencySla.parse("p99<2ms"), 100, STEP_MILLIS, 1, null);
+        search.start(0);
+
+        Map<String, Histogram> histograms = histograms(MICROSECONDS.toNanos(100));
+        // only a single interval, which is skipped; so the step can't complete
+        assertFalse(search.onInterval(STEP_MILLIS * 2, histograms, 100));
+        // the same interval again is ignored
+        assertFalse(search.onInterval(STEP_MILLIS * 3, histograms, 100));
+    }
+
+    @Test
+    public void testRateNotAchieved() {
+        SaturationSearch search = new SaturationSearch(LatencySla.parse("p99<2ms"), 100, STEP_MILLIS, 1, null);
+        search.start(0);
+
+        search.onInterval(INTERVAL_MILLIS, histograms(MICROSECONDS.toNanos(100)), 100);
+        // low latency, but the worker didn't achieve the rate
+        assertTrue(search.onInterval(STEP_MILLIS, histograms(MICROSECONDS.toNanos(100)), 50));
+
+        assertEquals(0, search.getHighestMetRate(), 0);
+        assertEquals(50, search.getRate(), 0);
+    }
+
+    private void run(SaturationSearch search, double saturationRate) {
+        timeMillis = 0;
+        search.start(timeMillis);
+        for (int i = 0; i < 10000 && !search.isCompleted(); i++) {
+            timeMillis += INTERVAL_MILLIS;
+            double rate = search.getRate();
+            long latencyNanos = rate <= saturationRate ? MICROSECONDS.toNanos(500) : MILLISECONDS.toNanos(10);
+            search.onInterval(timeMillis, histograms(latencyNanos), rate * 2);
+        }
+    }
+
+    private static Map<String, Histogram> histograms(long latencyNanos) {
+        Histogram histogram = new Histogram(3);
+        histogram.recordValueWithCount(latencyNanos, 100);
+
+        Map<String, Histogram> histograms = new HashMap<String, Histogram>();
+        histograms.put("probe", histogram);
+        return histograms;
+    }
+}
@@ -116,4 +116,63 @@ public class HdrProbeTest {
 
         assertEquals(3, probe.getRecorder().getIntervalHistogram().getTotalCount());
     }
+
+    @Test
+    public void testGetIntervalHistogram_mergesSingleWriterProbes() {
+        Probe probe1 = probe.newSingleWriterProbe();
+        Probe probe2 = probe.newSingleWriterProbe();
+
+        long value1 = MILLISECONDS.toNanos(200);
+        long value2 = MILLISECONDS.toNanos(500);
+        long value3 = MILLISECONDS.toNanos(1000);
+
+        probe.recordValue(value1);
+        probe1.recordValue(value2);
+        probe2.recordValue(value3);
+
+        assertHistogramContent(probe.getIntervalHistogram(), value1, value2, value3);
+
+        probe1.recordValue(value1);
+        assertHistogramContent(probe.getIntervalHistogram(), value1);
+    }
+
+    @Test
+    public void testReset_resetsSingleWriterProbes() {
+        Probe singleWriterProbe = probe.newSingleWriterProbe();
+        singleWriterProbe.recordValue(MILLISECONDS.toNanos(200));
+
+        probe.reset();
+
+        assertEquals(0, probe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testGetIntervalHistogram_removesClosedSingleWriterProbes() {
+        SingleWriterHdrProbe singleWriterProbe = probe.newSingleWriterProbe();
+        long value = MILLISECONDS.toNanos(200);
+        singleWriterProbe.recordValue(value);
+        singleWriterProbe.close();
+
+        assertEquals(1, probe.singleWriterProbeCount());
+        assertHistogramContent(probe.getIntervalHistogram(), value);
+        assertEquals(0, probe.singleWriterProbeCount());
+    }
+
+    @Test
+    public void testReset_removesClosedSingleWriterProbes() {
+        SingleWriterHdrProbe singleWriterProbe = probe.newSingleWriterProbe();
+        singleWriterProbe.recordValue(MILLISECONDS.toNanos(200));
+        singleWriterProbe.close();
+
+        probe.reset();
+
+        assertEquals(0, probe.singleWriterProbeCount());
+        assertEquals(0, probe.getIntervalHistogram().getTotalCount());
+    }
+
+    @Test
+    public void testSingleWriterProbe_isPartOfTotalThroughput() {
+        assertTrue(new HdrProbe(true).newSingleWriterProbe().isPartOfTotalThroughput());
+        assertFalse(new HdrProbe(false).newSingleWriterProbe().isPartOfTotalThroughput());
+    }
 }
@@ -0,0 +1,253 @@
+package com.hazelcast.simulator.protocol;
+
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.protocol.nio.Frame;
+import com.hazelcast.simulator.protocol.nio.FrameChannel;
+import com.hazelcast.simulator.protocol.nio.Relay;
+import com.hazelcast.simulator.protocol.operation.LogOperation;
+import com.hazelcast.simulator.protocol.operation.SimulatorOperation;
+import com.hazelcast.simulator.utils.AssertTask;
+import org.apache.log4j.Level;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.simulator.common.SimulatorProperties.DEFAULT_AGENT_PORT;
+import static com.hazelcast.simulator.utils.CommonUtils.closeQuietly;
+import static com.hazelcast.simulator.utils.SimulatorUtils.localIp;
+import static com.hazelcast.simulator.utils.TestUtils.assertCompletesEventually;
+import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static java.util.Collections.newSetFromMap;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class NioMessagingTest {
+
+    private Relay relay;
+    private Server agentServer;
+    private Server workerServer;
+    private CoordinatorClient client;
+    private SimulatorAddress agentAddress = SimulatorAddress.fromString("A1");
+    private SimulatorAddress workerAddress = SimulatorAddress.fromString("A1_W1");
+
+    @Before
+    public void before() {
+        relay = new Relay(localIp(), DEFAULT_AGENT_PORT).start();
+    }
+
+    @After
+    public void after() {
+        closeQuietly(client);
+        closeQuietly(workerServer);
+        closeQuietly(agentServer);
+        closeQuietly(relay);
+    }
+
+    @Test
+    public void test() throws Exception {
+        agentServer = newServer("agents", agentAddress, new OperationProcessor() {
+            @Override
+            public void process(SimulatorOperation op, SimulatorAddress source, Promise promise) throws Exception {
+                promise.answer("OK");
+            }
+        });
+        workerServer = newServer("workers", workerAddress, new OperationProcessor() {
+            @Override
+            public void process(SimulatorOperation op, SimulatorAddress source, Promise promise) throws Exception {
+                promise.answer(((LogOperation) op).getMessage());
+            }
+        });
+        client = newClient(mock(OperationProcessor.class));
+
+        assertEquals("OK", assertCompletes(client.submit(agentAddress, new LogOperation("", Level.DEBUG))));
+        assertEquals("foo", assertCompletes(client.submit(workerAddress, new LogOperation("foo", Level.DEBUG))));
+    }
+
+    @Test
+    public void testWhenProcessingFails() throws Exception {
+        agentServer = newServer("agents", agentAddress, new OperationProcessor() {
+            @Override
+            public void process(SimulatorOperation op, SimulatorAddress source, Promise promise) throws Exception {
+                throw new IllegalStateException("expected");
+            }
+        });
+        client = newClient(mock(OperationProcessor.class));
+
+        Future<String> f = client.submit(agentAddress, new LogOperation("", Level.DEBUG));
+
+        assertCompletesEventually(f);
+        try {
+            f.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals("expected", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testWhenTargetNotConnected() throws Exception {
+        client = newClient(mock(OperationProcessor.class));
+
+        Future<String> f = client.submit(workerAddress, new LogOperation("", Level.DEBUG));
+
+        assertCompletesEventually(f);
+        try {
+            f.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().getMessage().contains("No connection for [A1_W1]"));
+        }
+    }
+
+    @Test
+    public void testWhenRelayConnectionFails() throws Exception {
+        final CountDownLatch received = new CountDownLatch(1);
+        agentServer = newServer("agents", agentAddress, new OperationProcessor() {
+            @Override
+            public void process(SimulatorOperation op, SimulatorAddress source, Promise promise) throws Exception {
+                // we don't do anything to let the future wait
+                received.countDown();
+            }
+        });
+        client = newClient(mock(OperationProcessor.class));
+
+        Future<String> f = client.submit(agentAddress, new LogOperation("", Level.DEBUG));
+
+        received.await();
+        relay.close();
+
+        assertCompletesEventually(f);
+        try {
+            f.get();
+            fail();
+        } catch (ExecutionException expected) {
+        }
+    }
+
+    @Test
+    public void sendCoordinator() throws Exception {
+        workerServer = newServer("workers", workerAddress, new AnsweringOperationProcessor());
+        final OperationProcessor clientOperationProcessor = mock(OperationProcessor.class);
+        client = newClient(clientOperationProcessor);
+        awaitCoordinatorConnected();
+
+        workerServer.sendCoordinator(new LogOperation("Foo"));
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                verify(clientOperationProcessor).process(any(LogOperation.class), eq(workerAddress), any(Promise.class));
+            }
+        });
+    }
+
+    @Test
+    public void sendCoordinator_processedByASingleThread() throws Exception {
+        workerServer = newServer("workers", workerAddress, new AnsweringOperationProcessor());
+        final Set<Thread> threads = newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        final CountDownLatch processed = new CountDownLatch(100);
+        client = newClient(new OperationProcessor() {
+            @Override
+            public void process(SimulatorOperation op, SimulatorAddress source, Promise promise) {
+                threads.add(Thread.currentThread());
+                processed.countDown();
+            }
+        });
+        awaitCoordinatorConnected();
+
+        for (int i = 0; i < 100; i++) {
+            workerServer.sendCoordinator(new LogOperation("Foo" + i));
+        }
+
+        assertTrue(processed.await(1, MINUTES));
+        assertEquals(1, threads.size());
+    }
+
+    @Test
+    public void testSlowPeerIsDisconnected() throws Exception {
+        Relay smallRelay = new Relay(localIp(), DEFAULT_AGENT_PORT + 1, 64 * 1024).start();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch connectionLost = new CountDownLatch(1);
+        FrameChannel slowChannel = new FrameChannel(workerAddress.toString(), localIp(), DEFAULT_AGENT_PORT + 1,
+                new FrameChannel.FrameHandler() {
+                    @Override
+                    public void onFrame(Frame frame) throws Exception {
+                        release.await();
+                    }
+
+                    @Override
+                    public void onConnectionLost(IOException cause) {
+                        connectionLost.countDown();
+                    }
+                }).connect(1);
+        FrameChannel sender = new FrameChannel("C", localIp(), DEFAULT_AGENT_PORT + 1, mock(FrameChannel.FrameHandler.class))
+                .connect(1);
+        try {
+            // much more than the relay queues and fits in the socket buffers of the slow peer
+            char[] chars = new char[16 * 1024];
+            Arrays.fill(chars, 'x');
+            LogOperation op = new LogOperation(new String(chars));
+            for (int i = 0; i < 2000; i++) {
+                sender.send(Frame.operation("C", workerAddress.toString(), null, op));
+            }
+            release.countDown();
+
+            assertTrue(connectionLost.await(1, MINUTES));
+        } finally {
+            release.countDown();
+            closeQuietly(sender);
+            closeQuietly(slowChannel);
+            closeQuietly(smallRelay);
+        }
+    }
+
+    private Server newServer(String topic, SimulatorAddress address, OperationProcessor processor) {
+        return new Server(topic)
+                .setTransport(Transport.NIO)
+                .setBrokerURL(relay.getURL())
+                .setSelfAddress(address)
+                .setProcessor(processor)
+                .start();
+    }
+
+    private CoordinatorClient newClient(OperationProcessor processor) throws Exception {
+        return new CoordinatorClient()
+                .setTransport(Transport.NIO)
+                .setProcessor(processor)
+                .start()
+                .connectToAgentBroker(agentAddress, localIp());
+    }
+
+    /**
+     * Makes sure the relay knows the coordinator, otherwise the operations send to the coordinator could be dropped.
+     */
+    private void awaitCoordinatorConnected() throws Exception {
+        assertEquals("OK", assertCompletes(client.submit(workerAddress, new LogOperation("", Level.DEBUG))));
+    }
+
+    private static String assertCompletes(Future<String> f) throws Exception {
+        assertCompletesEventually(f);
+        return f.get();
+    }
+
+    private static class AnsweringOperationProcessor implements OperationProcessor {
+        @Override
+        public void process(SimulatorOperation op, SimulatorAddress source, Promise promise) {
+            promise.answer("OK");
+        }
+    }
+}
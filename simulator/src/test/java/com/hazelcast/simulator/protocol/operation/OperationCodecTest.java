@@ -0,0 +1,233 @@
+package com.hazelcast.simulator.protocol.operation;
+
+import com.hazelcast.simulator.agent.operations.CreateWorkerOperation;
+import com.hazelcast.simulator.agent.workerprocess.WorkerParameters;
+import com.hazelcast.simulator.common.FailureType;
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.coordinator.operations.FailureOperation;
+import com.hazelcast.simulator.protocol.core.SimulatorAddress;
+import com.hazelcast.simulator.worker.operations.CreateTestOperation;
+import com.hazelcast.simulator.worker.operations.PerformanceStatsOperation;
+import com.hazelcast.simulator.worker.operations.StartPhaseOperation;
+import com.hazelcast.simulator.worker.operations.UpdateRateOperation;
+import com.hazelcast.simulator.worker.performance.PerformanceStats;
+import org.apache.log4j.Level;
+import org.junit.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.simulator.protocol.core.SimulatorAddress.workerAddress;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+public class OperationCodecTest {
+
+    @Test
+    public void testCreateTestOperation() {
+        TestCase testCase = new TestCase("foo")
+                .setProperty("class", "com.foo.BarTest")
+                .setProperty("threadCount", "5");
+
+        CreateTestOperation decoded = roundTrip(new CreateTestOperation(testCase));
+
+        assertEquals("foo", decoded.getTestCase().getId());
+        assertEquals(testCase.getProperties(), decoded.getTestCase().getProperties());
+    }
+
+    @Test
+    public void testPerformanceStatsOperation() {
+        PerformanceStats performanceStats = new PerformanceStats(100, 10.0, 5.0, 1000.5, 2000, 3000);
+        Map<String, String> histograms = new HashMap<>();
+        histograms.put("getLatency", "HISTFAAAAC");
+        histograms.put("putLatency", "HISTFAAAAD");
+
+        PerformanceStatsOperation op = new PerformanceStatsOperation();
+        op.addPerformanceStats("foo", performanceStats);
+        op.addPerformanceStats("bar", new PerformanceStats());
+        op.addIntervalHistograms("foo", histograms);
+
+        PerformanceStatsOperation decoded = roundTrip(op);
+
+        assertEquals(2, decoded.getPerformanceStats().size());
+        PerformanceStats decodedStats = decoded.getPerformanceStats().get("foo");
+        assertEquals(100, decodedStats.getOperationCount());
+        assertEquals(10.0, decodedStats.getIntervalThroughput(), 0);
+        assertEquals(5.0, decodedStats.getTotalThroughput(), 0);
+        assertEquals(1000.5, decodedStats.getIntervalLatencyAvgNanos(), 0);
+        assertEquals(2000, decodedStats.getIntervalLatency999PercentileNanos());
+        assertEquals(3000, decodedStats.getIntervalLatencyMaxNanos());
+        assertEquals(histograms, decoded.getIntervalHistograms().get("foo"));
+    }
+
+    @Test
+    public void testFailureOperation() {
+        SimulatorAddress worker = workerAddress(1, 2);
+        FailureOperation op = new FailureOperation("exception", FailureType.WORKER_EXCEPTION, worker, "C_A1", "worker",
+                "testId", "stacktrace ü");
+
+        FailureOperation decoded = roundTrip(op);
+
+        assertEquals(FailureType.WORKER_EXCEPTION, decoded.getType());
+        assertEquals(worker, decoded.getWorkerAddress());
+        assertEquals("testId", decoded.getTestId());
+        assertEquals("stacktrace ü", decoded.getCause());
+        assertNull(decoded.getTestCase());
+    }
+
+    @Test
+    public void testCreateWorkerOperation() {
+        WorkerParameters workerParameters = new WorkerParameters()
+                .set("WORKER_TYPE", "member")
+                .set("JVM_OPTIONS", "-Xmx1g");
+
+        CreateWorkerOperation decoded = roundTrip(new CreateWorkerOperation(workerParameters, 5));
+
+        assertEquals(5, decoded.getDelayMs());
+        assertEquals(workerParameters.asMap(), decoded.getWorkerParameters().asMap());
+    }
+
+    @Test
+    public void testLogOperation() {
+        LogOperation decoded = roundTrip(new LogOperation("message", Level.WARN));
+
+        assertEquals("message", decoded.getMessage());
+        assertEquals(Level.WARN, decoded.getLevel());
+    }
+
+    @Test
+    public void testStartPhaseOperation() {
+        StartPhaseOperation decoded = roundTrip(new StartPhaseOperation(TestPhase.RUN, "foo"));
+
+        assertEquals(TestPhase.RUN, decoded.getTestPhase());
+        assertEquals("foo", decoded.getTestId());
+    }
+
+    @Test
+    public void testUpdateRateOperation() {
+        UpdateRateOperation decoded = roundTrip(new UpdateRateOperation("foo", "group", 1234.5));
+
+        assertEquals("foo", decoded.getTestId());
+        assertEquals("group", decoded.getExecutionGroup());
+        assertEquals(1234.5, decoded.getRatePerSecond(), 0);
+    }
+
+    @Test
+    public void testAllOperationTypes_canBeCreated() {
+        for (OperationType operationType : OperationType.values()) {
+            Object op = OperationSchema.of(operationType.getClassType()).newInstance();
+            assertEquals(operationType.getClassType(), op.getClass());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromBytes_fingerprintMismatch() {
+        byte[] bytes = OperationCodec.toBytes(new UpdateRateOperation("foo", 10));
+        bytes[0]++;
+
+        OperationCodec.fromBytes(bytes, UpdateRateOperation.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromBytes_wrongClass() {
+        byte[] bytes = OperationCodec.toBytes(new UpdateRateOperation("foo", 10));
+
+        OperationCodec.fromBytes(bytes, LogOperation.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromBytes_truncated() {
+        byte[] bytes = OperationCodec.toBytes(new CreateTestOperation(new TestCase("foo")));
+
+        OperationCodec.fromBytes(Arrays.copyOf(bytes, bytes.length - 1), CreateTestOperation.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testToBytes_unsupportedFieldType() {
+        OperationCodec.toBytes(new UnsupportedOperation());
+    }
+
+    @Test
+    public void testFingerprint_whenNestedFieldChanged() throws Exception {
+        // two versions of the same operation, which only differ in a field of the nested class
+        Class<?> version1 = loadOperationWithNestedField("value");
+        Class<?> version2 = loadOperationWithNestedField("renamedValue");
+        Class<?> version1Copy = loadOperationWithNestedField("value");
+
+        assertEquals(version1.getName(), version2.getName());
+        assertEquals(OperationSchema.of(version1).fingerprint(), OperationSchema.of(version1Copy).fingerprint());
+        assertNotEquals(OperationSchema.of(version1).fingerprint(), OperationSchema.of(version2).fingerprint());
+    }
+
+    @Test
+    public void testFingerprint_whenSelfReferencingType() {
+        Node node = new Node();
+        node.value = 1;
+        node.next = new Node();
+        node.next.value = 2;
+
+        Node decoded = roundTrip(node);
+
+        assertEquals(1, decoded.value);
+        assertEquals(2, decoded.next.value);
+        assertNull(decoded.next.next);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends SimulatorOperation> E roundTrip(E op) {
+        byte[] bytes = OperationCodec.toBytes(op);
+        return (E) OperationCodec.fromBytes(bytes, op.getClass());
+    }
+
+    private static Class<?> loadOperationWithNestedField(String nestedFieldName) throws ClassNotFoundException {
+        Map<String, byte[]> classes = new HashMap<>();
+        classes.put("fingerprint.Operation", classBytes("fingerprint/Operation", "nested", "Lfingerprint/Nested;"));
+        classes.put("fingerprint.Nested", classBytes("fingerprint/Nested", nestedFieldName, "I"));
+        ClassLoader classLoader = new ClassLoader(OperationCodecTest.class.getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                byte[] bytes = classes.get(name);
+                if (bytes == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                return defineClass(name, bytes, 0, bytes.length);
+            }
+        };
+        return classLoader.loadClass("fingerprint.Operation");
+    }
+
+    private static byte[] classBytes(String internalName, String fieldName, String fieldDescriptor) {
+        ClassWriter cw = new ClassWriter(0);
+        cw.visit(V1_8, ACC_PUBLIC, internalName, null, "java/lang/Object", null);
+        cw.visitField(ACC_PRIVATE, fieldName, fieldDescriptor, null, null).visitEnd();
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(1, 1);
+        mv.visitEnd();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static class UnsupportedOperation implements SimulatorOperation {
+        private Object value = "foo";
+    }
+
+    private static class Node implements SimulatorOperation {
+        private int value;
+        private Node next;
+    }
+}
@@ -0,0 +1,85 @@
+package com.hazelcast.simulator.report;
+
+import com.hazelcast.simulator.utils.TestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.hazelcast.simulator.report.ReportTestUtils.START_MILLIS;
+import static com.hazelcast.simulator.report.ReportTestUtils.writeHdr;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProbeTaskTest {
+
+    private File dir;
+    private Map<String, File> hdrFiles = new LinkedHashMap<>();
+
+    @Before
+    public void before() throws Exception {
+        dir = TestUtils.createTmpDirectory();
+        hdrFiles.put("worker1", new File(dir, "worker1.hdr"));
+        hdrFiles.put("worker2", new File(dir, "worker2.hdr"));
+        writeHdr(hdrFiles.get("worker1"), 10, 100, 1000);
+        writeHdr(hdrFiles.get("worker2"), 10, 300, 3000);
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(dir);
+    }
+
+    @Test
+    public void testMerge() {
+        ProbeResult result = new ProbeTask("probe", hdrFiles, Period.ALL, Double.NaN, false).invoke();
+
+        assertEquals("probe", result.getName());
+        assertEquals(4000, result.getOperationCount());
+        assertEquals(10000, result.getDurationMillis());
+        assertEquals(400, result.getThroughputPerSecond(), 0.001);
+        assertEquals(3, ProbeResult.toMicros(result.getTotal().getValueAtPercentile(50)), 0.01);
+        assertEquals(1, ProbeResult.toMicros(result.getTotal().getMinValue()), 0.01);
+        assertTrue(result.getWorkerResults().isEmpty());
+
+        TimeSeries p50 = result.getIntervalSeries("p50");
+        assertEquals(10, p50.size());
+        assertEquals(0, p50.time(0), 0);
+        assertEquals(9, p50.time(9), 0);
+        assertEquals(400, result.getThroughput().value(0), 0.001);
+    }
+
+    @Test
+    public void testMerge_withPeriod() {
+        Period period = new Period(START_MILLIS + 2000, START_MILLIS + 8000);
+        ProbeResult result = new ProbeTask("probe", hdrFiles, period, (START_MILLIS + 2000) / 1000d, true).invoke();
+
+        assertEquals(6 * 400, result.getOperationCount());
+        assertEquals(6000, result.getDurationMillis());
+
+        TimeSeries max = result.getIntervalSeries("max");
+        assertEquals(6, max.size());
+        // the time of an interval is its start, so the interval starting at the origin is at time 0
+        assertEquals(0, max.time(0), 0);
+        assertEquals(3, max.value(0), 0.01);
+
+        assertEquals(2, result.getWorkerResults().size());
+        assertEquals(600, result.getWorkerResults().get("worker1").getOperationCount());
+        assertEquals(1800, result.getWorkerResults().get("worker2").getOperationCount());
+    }
+
+    @Test
+    public void testDistribution() {
+        ProbeResult result = new ProbeTask("probe", hdrFiles, Period.ALL, Double.NaN, false).invoke();
+
+        TimeSeries distribution = result.getDistribution();
+        assertTrue(distribution.size() > 2);
+        assertEquals(1, distribution.value(0), 0.01);
+        assertEquals(3, distribution.value(distribution.size() - 1), 0.01);
+        assertTrue(distribution.time(distribution.size() - 1) < 100);
+    }
+}
@@ -0,0 +1,59 @@
+package com.hazelcast.simulator.report;
+
+import com.hazelcast.simulator.utils.CommandLineExitException;
+import com.hazelcast.simulator.utils.TestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static com.hazelcast.simulator.report.ReportTestUtils.writeSession;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static org.junit.Assert.assertEquals;
+
+public class ReportCliTest {
+
+    private File dir;
+    private File session1;
+    private File session2;
+
+    @Before
+    public void before() throws Exception {
+        dir = TestUtils.createTmpDirectory();
+        session1 = writeSession(dir, "session1", 3, 1000);
+        session2 = writeSession(dir, "session2", 3, 1000);
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(dir);
+    }
+
+    @Test
+    public void testBenchmarkNames() {
+        ReportCli cli = new ReportCli(new String[]{session1.getPath(), "[3.7]", session2.getPath()});
+
+        List<BenchmarkResult> results = cli.newReportGenerator().load();
+
+        assertEquals(2, results.size());
+        assertEquals("3.7", results.get(0).getName());
+        assertEquals("session2", results.get(1).getName());
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testBenchmarkName_withoutDirectory() {
+        new ReportCli(new String[]{"[3.7]", session1.getPath()}).newReportGenerator();
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testBenchmarkDirectory_notExisting() {
+        new ReportCli(new String[]{new File(dir, "notExisting").getPath()}).newReportGenerator();
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testWarmup_negative() {
+        new ReportCli(new String[]{"--warmup", "-1", session1.getPath()}).newReportGenerator();
+    }
+}
@@ -0,0 +1,118 @@
+package com.hazelcast.simulator.report;
+
+import com.hazelcast.simulator.utils.CommandLineExitException;
+import com.hazelcast.simulator.utils.TestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static com.hazelcast.simulator.report.ReportTestUtils.writeSession;
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReportGeneratorTest {
+
+    private File dir;
+    private File outputDir;
+
+    @Before
+    public void before() {
+        dir = TestUtils.createTmpDirectory();
+        outputDir = new File(dir, "report");
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(dir);
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        File session = writeSession(dir, "session", 10, 1000, 3000);
+
+        List<BenchmarkResult> results = new ReportGenerator(outputDir)
+                .addBenchmark("benchmark", session)
+                .setWarmupSeconds(2)
+                .setCooldownSeconds(1)
+                .setIncludeWorkers(true)
+                .load();
+
+        assertEquals(1, results.size());
+        BenchmarkResult result = results.get(0);
+        assertEquals("benchmark", result.getName());
+        assertEquals(2, result.getWorkers().size());
+        assertEquals(7000, result.getPeriod().getEndMillis() - result.getPeriod().getStartMillis());
+
+        TimeSeries throughput = result.getThroughput().get("test");
+        assertEquals(7, throughput.size());
+        assertEquals(1, throughput.time(0), 0);
+        assertEquals(200, throughput.value(0), 0);
+        assertEquals(2, result.getWorkerThroughput().get("test").size());
+
+        ProbeResult probe = result.getProbe("test-getProbe");
+        assertNotNull(probe);
+        assertEquals(7 * 200, probe.getOperationCount());
+        assertEquals(2, probe.getWorkerResults().size());
+
+        TimeSeries cpu = result.getDstat().get("CPU Total %").get("A1");
+        assertEquals(7, cpu.size());
+        assertEquals(25, cpu.value(0), 0);
+    }
+
+    @Test
+    public void testGenerate() throws Exception {
+        File baseline = writeSession(dir, "baseline", 10, 1000);
+        File candidate = writeSession(dir, "candidate", 10, 2000);
+
+        File report = new ReportGenerator(outputDir)
+                .addBenchmark("baseline", baseline)
+                .addBenchmark("<candidate>", candidate)
+                .setParallelism(2)
+                .generate();
+
+        String html = fileAsText(report);
+        assertTrue(html.contains("<svg"));
+        assertTrue(html.contains("test-getProbe"));
+        assertTrue(html.contains("&lt;candidate&gt;"));
+        assertTrue(html.contains("+100.0%"));
+        assertFalse(html.contains("NaN"));
+        assertFalse(html.contains("Infinity"));
+
+        String[] csv = fileAsText(new File(outputDir, CsvReportWriter.REPORT_FILE_NAME)).split("\n");
+        assertEquals(3, csv.length);
+        assertTrue(csv[0].startsWith("\"session\",\"benchmark\",\"10%(us)\""));
+        assertTrue(csv[1].startsWith("baseline,test-getProbe,1.000,"));
+        assertTrue(csv[2].startsWith("candidate,test-getProbe,2.000,"));
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testGenerate_noWorkers() {
+        new ReportGenerator(outputDir)
+                .addBenchmark("empty", ensureExistingDirectory(dir, "empty"))
+                .generate();
+    }
+
+    @Test(expected = CommandLineExitException.class)
+    public void testGenerate_cooldownTooLong() throws Exception {
+        new ReportGenerator(outputDir)
+                .addBenchmark("benchmark", writeSession(dir, "session", 5, 1000))
+                .setCooldownSeconds(10)
+                .generate();
+    }
+
+    @Test
+    public void testWorkerThroughputTask_testId() {
+        assertEquals("all", WorkerThroughputTask.testId("performance.csv"));
+        assertEquals("MapTest", WorkerThroughputTask.testId("performance-MapTest.csv"));
+        assertEquals(null, WorkerThroughputTask.testId("performance-MapTest.txt"));
+        assertEquals(null, WorkerThroughputTask.testId("MapTest-getProbe.hdr"));
+    }
+}
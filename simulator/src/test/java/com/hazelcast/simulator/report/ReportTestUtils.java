@@ -0,0 +1,70 @@
+package com.hazelcast.simulator.report;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Locale;
+
+import static com.hazelcast.simulator.utils.FileUtils.appendText;
+import static com.hazelcast.simulator.utils.FileUtils.ensureExistingDirectory;
+import static java.lang.String.format;
+
+final class ReportTestUtils {
+
+    static final long START_MILLIS = 1500000000000L;
+
+    private ReportTestUtils() {
+    }
+
+    /**
+     * Writes a session directory with a single test, where every worker records the same latency in every interval.
+     */
+    static File writeSession(File parent, String name, int intervals, long... workerLatencyNanos) throws Exception {
+        File sessionDir = ensureExistingDirectory(parent, name);
+        for (int worker = 0; worker < workerLatencyNanos.length; worker++) {
+            File workerDir = ensureExistingDirectory(sessionDir, format("A1_W%d-127.0.0.1-member", worker + 1));
+            writeHdr(new File(workerDir, "test-getProbe.hdr"), intervals, 100, workerLatencyNanos[worker]);
+            writePerformance(new File(workerDir, "performance-test.csv"), intervals, 100);
+        }
+        writeDstat(new File(sessionDir, "A1_dstat.csv"), intervals);
+        return sessionDir;
+    }
+
+    static void writeHdr(File file, int intervals, int countPerInterval, long latencyNanos) throws FileNotFoundException {
+        HistogramLogWriter writer = new HistogramLogWriter(file);
+        writer.setBaseTime(START_MILLIS);
+        writer.outputStartTime(START_MILLIS);
+        writer.outputLogFormatVersion();
+        writer.outputLegend();
+        for (int i = 0; i < intervals; i++) {
+            Histogram histogram = new Histogram(3);
+            histogram.recordValueWithCount(latencyNanos, countPerInterval);
+            histogram.setStartTimeStamp(START_MILLIS + i * 1000L);
+            histogram.setEndTimeStamp(START_MILLIS + (i + 1) * 1000L);
+            writer.outputIntervalHistogram(histogram);
+        }
+        writer.close();
+    }
+
+    static void writePerformance(File file, int intervals, int countPerInterval) {
+        StringBuilder sb = new StringBuilder("epoch,timestamp,operations,operations-delta,operations/second,"
+                + "allocated-bytes/operation\n");
+        for (int i = 1; i <= intervals; i++) {
+            sb.append(format(Locale.US, "%.3f,01-01-2017 00:00:%02d,%d,%d,%d,%n",
+                    (START_MILLIS + i * 1000L) / 1000d, i, i * countPerInterval, countPerInterval, countPerInterval));
+        }
+        appendText(sb.toString(), file);
+    }
+
+    static void writeDstat(File file, int intervals) {
+        StringBuilder sb = new StringBuilder("\"Dstat 0.7.2 CSV output\"\n"
+                + "\"epoch\",\"memory usage\",,,,\"total cpu usage\"\n");
+        for (int i = 1; i <= intervals; i++) {
+            sb.append(format(Locale.US, "%d,%d,0,0,0,%d,%d,50,1,0,0,0,0,%d,%d,0,0,0,0,%.2f%n",
+                    START_MILLIS / 1000 + i, 1024L * 1024 * 1024, 20, 5, 1024 * 1024, 2 * 1024 * 1024, 1.5));
+        }
+        appendText(sb.toString(), file);
+    }
+}
@@ -0,0 +1,213 @@
+package com.hazelcast.simulator.test;
+
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.hazelcast.simulator.utils.AllocationUtils.getCurrentThreadAllocatedBytes;
+import static com.hazelcast.simulator.utils.AllocationUtils.isAllocationMeasurementSupported;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class KeyDistributionTest {
+
+    private static final int KEY_COUNT = 1000;
+    private static final int SAMPLES = 1000000;
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void testUniform() {
+        int[] counts = sample("uniform");
+
+        for (int count : counts) {
+            assertEquals(SAMPLES / (double) KEY_COUNT, count, 200);
+        }
+    }
+
+    @Test
+    public void testZipfian() {
+        int[] counts = sample("zipfian:0.99");
+
+        double[] expected = zipfProbabilities(KEY_COUNT, 0.99);
+        for (int rank = 0; rank < 10; rank++) {
+            assertEquals(expected[rank], counts[rank] / (double) SAMPLES, 0.005);
+        }
+        assertEquals(expected[KEY_COUNT - 1], counts[KEY_COUNT - 1] / (double) SAMPLES, 0.0005);
+    }
+
+    @Test
+    public void testZipfian_withDefaultExponent() {
+        KeyDistribution distribution = KeyDistribution.parse("keyDistribution", "zipfian", KEY_COUNT);
+
+        int[] counts = sample(distribution);
+
+        assertEquals(zipfProbabilities(KEY_COUNT, 0.99)[0], counts[0] / (double) SAMPLES, 0.005);
+    }
+
+    @Test
+    public void testZipfian_withLargeExponent() {
+        int[] counts = sample("zipfian:2");
+
+        double[] expected = zipfProbabilities(KEY_COUNT, 2);
+        assertEquals(expected[0], counts[0] / (double) SAMPLES, 0.005);
+        assertEquals(expected[1], counts[1] / (double) SAMPLES, 0.005);
+    }
+
+    @Test
+    public void testZipfian_withSingleKey() {
+        KeySelector selector = KeyDistribution.parse("keyDistribution", "zipfian:0.99", 1).newSelector(random);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, selector.nextIndex());
+        }
+    }
+
+    @Test
+    public void testScrambledZipfian() {
+        int[] counts = sample("scrambledZipfian:0.99");
+
+        int max = 0;
+        for (int count : counts) {
+            max = Math.max(max, count);
+        }
+        // the most popular key is at least as popular as the key with rank 1, but not at index 0
+        assertTrue(max >= zipfProbabilities(KEY_COUNT, 0.99)[0] * SAMPLES * 0.95);
+        assertTrue(counts[0] < max);
+    }
+
+    @Test
+    public void testLatest() {
+        int[] counts = sample("latest:0.99");
+
+        double[] expected = zipfProbabilities(KEY_COUNT, 0.99);
+        assertEquals(expected[0], counts[KEY_COUNT - 1] / (double) SAMPLES, 0.005);
+        assertEquals(expected[1], counts[KEY_COUNT - 2] / (double) SAMPLES, 0.005);
+    }
+
+    @Test
+    public void testHotspot() {
+        int[] counts = sample("hotspot:0.2,0.8");
+
+        int hotAccesses = 0;
+        for (int i = 0; i < 200; i++) {
+            hotAccesses += counts[i];
+        }
+        assertEquals(0.8, hotAccesses / (double) SAMPLES, 0.005);
+    }
+
+    @Test
+    public void testHotspot_allKeysHot() {
+        int[] counts = sample("hotspot:1,0.5");
+
+        for (int count : counts) {
+            assertEquals(SAMPLES / (double) KEY_COUNT, count, 200);
+        }
+    }
+
+    @Test
+    public void testSequential() {
+        KeySelector selector = KeyDistribution.parse("keyDistribution", "sequential", 3).newSelector(random);
+
+        int first = selector.nextIndex();
+        for (int i = 1; i < 10; i++) {
+            assertEquals((first + i) % 3, selector.nextIndex());
+        }
+    }
+
+    @Test
+    public void testNewKeySelector() {
+        BaseThreadState state = new BaseThreadState();
+        KeyDistribution distribution = KeyDistribution.parse("keyDistribution", "uniform", 10);
+
+        KeySelector selector = state.newKeySelector(distribution);
+
+        int index = selector.nextIndex();
+        assertTrue(index >= 0 && index < 10);
+        assertEquals(10, distribution.keyCount());
+    }
+
+    @Test
+    public void testSelectors_doNotAllocate() {
+        assumeTrue(isAllocationMeasurementSupported());
+
+        for (String value : new String[]{"uniform", "zipfian:0.99", "scrambledZipfian:0.99", "latest:0.5",
+                "hotspot:0.2,0.8", "sequential"}) {
+            KeySelector selector = KeyDistribution.parse("keyDistribution", value, KEY_COUNT).newSelector(random);
+            // warmup, so the allocations of the class loading are not measured
+            sample(selector, 1000);
+
+            long allocatedBytes = getCurrentThreadAllocatedBytes();
+            sample(selector, SAMPLES);
+            allocatedBytes = getCurrentThreadAllocatedBytes() - allocatedBytes;
+
+            assertTrue(value + " allocated " + allocatedBytes + " bytes", allocatedBytes < 1000);
+        }
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testUnknownDistribution() {
+        KeyDistribution.parse("keyDistribution", "foo:1", KEY_COUNT);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testZipfian_invalidExponent() {
+        KeyDistribution.parse("keyDistribution", "zipfian:0", KEY_COUNT);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testZipfian_notANumber() {
+        KeyDistribution.parse("keyDistribution", "zipfian:a", KEY_COUNT);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testHotspot_missingHotAccesses() {
+        KeyDistribution.parse("keyDistribution", "hotspot:0.2", KEY_COUNT);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testHotspot_invalidFraction() {
+        KeyDistribution.parse("keyDistribution", "hotspot:0.2,1.5", KEY_COUNT);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testNoKeys() {
+        KeyDistribution.parse("keyDistribution", "uniform", 0);
+    }
+
+    private int[] sample(String value) {
+        return sample(KeyDistribution.parse("keyDistribution", value, KEY_COUNT));
+    }
+
+    private int[] sample(KeyDistribution distribution) {
+        KeySelector selector = distribution.newSelector(random);
+        int[] counts = new int[distribution.keyCount()];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[selector.nextIndex()]++;
+        }
+        return counts;
+    }
+
+    private static int sample(KeySelector selector, int samples) {
+        int sum = 0;
+        for (int i = 0; i < samples; i++) {
+            sum += selector.nextIndex();
+        }
+        return sum;
+    }
+
+    private static double[] zipfProbabilities(int keyCount, double exponent) {
+        double[] probabilities = new double[keyCount];
+        double sum = 0;
+        for (int rank = 1; rank <= keyCount; rank++) {
+            probabilities[rank - 1] = 1 / Math.pow(rank, exponent);
+            sum += probabilities[rank - 1];
+        }
+        for (int i = 0; i < keyCount; i++) {
+            probabilities[i] /= sum;
+        }
+        return probabilities;
+    }
+}
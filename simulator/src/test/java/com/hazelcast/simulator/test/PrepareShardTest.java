@@ -0,0 +1,107 @@
+package com.hazelcast.simulator.test;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrepareShardTest {
+
+    @Test
+    public void testRanges_coverAllItems() {
+        assertRangesCoverAllItems(0, 4, 4, 4);
+        assertRangesCoverAllItems(5, 4, 4, 4);
+        assertRangesCoverAllItems(1000, 1);
+        assertRangesCoverAllItems(1001, 3, 3, 3, 3, 3, 3, 3);
+        assertRangesCoverAllItems(Long.MAX_VALUE, 8, 8, 8, 8, 8);
+    }
+
+    @Test
+    public void testRanges_coverAllItems_whenWorkersHaveDifferentThreadCounts() {
+        assertRangesCoverAllItems(0, 2, 3);
+        assertRangesCoverAllItems(5, 2, 3);
+        assertRangesCoverAllItems(1001, 2, 3);
+        assertRangesCoverAllItems(1001, 1, 16, 4);
+        assertRangesCoverAllItems(Long.MAX_VALUE, 2, 3);
+    }
+
+    private static void assertRangesCoverAllItems(long itemCount, int... threadCountPerWorker) {
+        int workerCount = threadCountPerWorker.length;
+        long expectedStart = 0;
+        for (int workerIndex = 0; workerIndex < workerCount; workerIndex++) {
+            long workerStart = expectedStart;
+            int threadCount = threadCountPerWorker[workerIndex];
+            long minSize = Long.MAX_VALUE;
+            long maxSize = 0;
+            for (int threadIndex = 0; threadIndex < threadCount; threadIndex++) {
+                PrepareShard shard = new PrepareShard(workerIndex, workerCount, threadIndex, threadCount, new AtomicLong());
+                assertEquals(expectedStart, shard.start(itemCount));
+                long size = shard.end(itemCount) - shard.start(itemCount);
+                minSize = Math.min(minSize, size);
+                maxSize = Math.max(maxSize, size);
+                expectedStart = shard.end(itemCount);
+            }
+            assertTrue(maxSize - minSize <= 1);
+            // every worker gets the same part of the items, independent of its number of threads
+            long workerSize = expectedStart - workerStart;
+            assertTrue(Math.abs(workerSize - itemCount / workerCount) <= 1);
+        }
+        assertEquals(itemCount, expectedStart);
+    }
+
+    @Test
+    public void testContains() {
+        PrepareShard shard = new PrepareShard(1, 2, 0, 2, new AtomicLong());
+
+        assertTrue(shard.contains(1));
+        assertTrue(shard.contains(5));
+        assertTrue(shard.contains(-3));
+        assertFalse(shard.contains(0));
+        assertFalse(shard.contains(2));
+        assertFalse(shard.contains(3));
+    }
+
+    @Test
+    public void testContains_whenWorkersHaveDifferentThreadCounts() {
+        int[] threadCountPerWorker = {2, 3};
+        for (long item = -100; item < 100; item++) {
+            int owners = 0;
+            for (int workerIndex = 0; workerIndex < threadCountPerWorker.length; workerIndex++) {
+                int threadCount = threadCountPerWorker[workerIndex];
+                for (int threadIndex = 0; threadIndex < threadCount; threadIndex++) {
+                    PrepareShard shard = new PrepareShard(
+                            workerIndex, threadCountPerWorker.length, threadIndex, threadCount, new AtomicLong());
+                    if (shard.contains(item)) {
+                        owners++;
+                    }
+                }
+            }
+            assertEquals("item " + item + " should belong to exactly one shard", 1, owners);
+        }
+    }
+
+    @Test
+    public void testCompleted() {
+        AtomicLong completed = new AtomicLong();
+        PrepareShard shard1 = new PrepareShard(0, 1, 0, 2, completed);
+        PrepareShard shard2 = new PrepareShard(0, 1, 1, 2, completed);
+
+        shard1.completed();
+        shard2.completed(10);
+
+        assertEquals(11, completed.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWorkerIndexOutOfRange() {
+        new PrepareShard(2, 2, 0, 1, new AtomicLong());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThreadIndexOutOfRange() {
+        new PrepareShard(0, 1, -1, 1, new AtomicLong());
+    }
+}
@@ -1,13 +1,150 @@
 package com.hazelcast.simulator.utils;
 
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.HdrHistogram.HistogramLogWriter;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
 import static com.hazelcast.simulator.utils.ReflectionUtils.invokePrivateConstructor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class HistogramLogMergerTest {
 
+    private static final long START_MILLIS = 1500000000000L;
+
+    private File dir;
+    private final List<Long> intervalStarts = new ArrayList<Long>();
+    private final List<Long> mergedCounts = new ArrayList<Long>();
+    private final List<Histogram[]> histograms = new ArrayList<Histogram[]>();
+
+    @Before
+    public void before() {
+        dir = TestUtils.createTmpDirectory();
+    }
+
+    @After
+    public void after() {
+        deleteQuiet(dir);
+    }
+
     @Test
     public void testConstructor() throws Exception {
         invokePrivateConstructor(HistogramLogMerger.class);
     }
+
+    @Test
+    public void testMerge_onIntervalStart() throws Exception {
+        File file1 = writeHdr("worker1.hdr", 0, 3, 100);
+        // starts one interval later and a bit after the first worker
+        File file2 = writeHdr("worker2.hdr", 1200, 3, 300);
+
+        merge(0, Long.MAX_VALUE, file1, file2);
+
+        assertEquals(4, intervalStarts.size());
+        for (int i = 0; i < intervalStarts.size(); i++) {
+            assertEquals(START_MILLIS + i * 1000L, (long) intervalStarts.get(i));
+        }
+        assertEquals(100, (long) mergedCounts.get(0));
+        assertEquals(400, (long) mergedCounts.get(1));
+        assertEquals(400, (long) mergedCounts.get(2));
+        assertEquals(300, (long) mergedCounts.get(3));
+        assertNull(histograms.get(0)[1]);
+        assertNull(histograms.get(3)[0]);
+    }
+
+    @Test
+    public void testMerge_withPeriod() throws Exception {
+        File file1 = writeHdr("worker1.hdr", 0, 10, 100);
+        File file2 = writeHdr("worker2.hdr", 0, 10, 300);
+
+        merge(START_MILLIS + 2000, START_MILLIS + 5000, file1, file2);
+
+        assertEquals(3, intervalStarts.size());
+        assertEquals(START_MILLIS + 2000, (long) intervalStarts.get(0));
+        for (long count : mergedCounts) {
+            assertEquals(400, count);
+        }
+    }
+
+    @Test
+    public void testMerge_whenIntervalsNotAlignedToSeconds() throws Exception {
+        // the intervals are a bit shorter than a second, so the consecutive intervals of a worker can start in the same second
+        File file1 = writeHdr("worker1.hdr", 500, 999, 5, 100);
+        File file2 = writeHdr("worker2.hdr", 700, 1000, 5, 300);
+
+        merge(0, Long.MAX_VALUE, file1, file2);
+
+        assertEquals(5, intervalStarts.size());
+        for (int i = 0; i < intervalStarts.size(); i++) {
+            // the buckets start at the first interval
+            assertEquals(START_MILLIS + 500 + i * 1000L, (long) intervalStarts.get(i));
+            assertEquals(400, (long) mergedCounts.get(i));
+            assertNotNull(histograms.get(i)[0]);
+            assertNotNull(histograms.get(i)[1]);
+        }
+    }
+
+    @Test
+    public void testMain() throws Exception {
+        File file1 = writeHdr("worker1.hdr", 0, 3, 100);
+        // the main merges by position, so the later start of the second worker is ignored
+        File file2 = writeHdr("worker2.hdr", 1200, 3, 300);
+        File output = new File(dir, "merged.hdr");
+
+        HistogramLogMerger.main(new String[]{output.getAbsolutePath(), file1.getAbsolutePath(), file2.getAbsolutePath()});
+
+        assertTrue(output.exists());
+        merge(0, Long.MAX_VALUE, output);
+        assertEquals(3, mergedCounts.size());
+        for (long count : mergedCounts) {
+            assertEquals(400, count);
+        }
+    }
+
+    private void merge(long startMillis, long endMillis, File... files) throws FileNotFoundException {
+        HistogramLogReader[] readers = new HistogramLogReader[files.length];
+        for (int i = 0; i < files.length; i++) {
+            readers[i] = new HistogramLogReader(files[i]);
+        }
+        HistogramLogMerger.merge(readers, startMillis, endMillis, (intervalStart, merged, histograms) -> {
+            intervalStarts.add(intervalStart);
+            this.mergedCounts.add(merged.getTotalCount());
+            this.histograms.add(histograms.clone());
+        });
+        for (HistogramLogReader reader : readers) {
+            reader.close();
+        }
+    }
+
+    private File writeHdr(String name, long offsetMillis, int intervals, int countPerInterval) throws FileNotFoundException {
+        return writeHdr(name, offsetMillis, 1000, intervals, countPerInterval);
+    }
+
+    private File writeHdr(String name, long offsetMillis, long intervalMillis, int intervals, int countPerInterval)
+            throws FileNotFoundException {
+        File file = new File(dir, name);
+        HistogramLogWriter writer = new HistogramLogWriter(file);
+        writer.outputLogFormatVersion();
+        writer.outputLegend();
+        for (int i = 0; i < intervals; i++) {
+            Histogram histogram = new Histogram(3);
+            histogram.recordValueWithCount(1000, countPerInterval);
+            histogram.setStartTimeStamp(START_MILLIS + offsetMillis + i * intervalMillis);
+            histogram.setEndTimeStamp(START_MILLIS + offsetMillis + (i + 1) * intervalMillis);
+            writer.outputIntervalHistogram(histogram);
+        }
+        writer.close();
+        return file;
+    }
 }
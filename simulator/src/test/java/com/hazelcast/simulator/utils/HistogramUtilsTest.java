@@ -0,0 +1,45 @@
+package com.hazelcast.simulator.utils;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+import static com.hazelcast.simulator.utils.HistogramUtils.decodeCompressed;
+import static com.hazelcast.simulator.utils.HistogramUtils.encodeCompressed;
+import static com.hazelcast.simulator.utils.ReflectionUtils.invokePrivateConstructor;
+import static org.junit.Assert.assertEquals;
+
+public class HistogramUtilsTest {
+
+    @Test
+    public void testConstructor() throws Exception {
+        invokePrivateConstructor(HistogramUtils.class);
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        Histogram histogram = new Histogram(3);
+        for (int i = 1; i <= 1000; i++) {
+            histogram.recordValue(i * 1000);
+        }
+
+        Histogram decoded = decodeCompressed(encodeCompressed(histogram));
+
+        assertEquals(histogram, decoded);
+    }
+
+    @Test
+    public void testDecode_addHistogramWithLargerRange() {
+        Histogram decoded = decodeCompressed(encodeCompressed(new Histogram(1000, 3)));
+
+        Histogram histogram = new Histogram(3);
+        histogram.recordValue(Integer.MAX_VALUE);
+        decoded.add(histogram);
+
+        assertEquals(1, decoded.getTotalCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecode_invalid() {
+        decodeCompressed("bm90IGEgaGlzdG9ncmFt");
+    }
+}
@@ -15,6 +15,8 @@ import static com.hazelcast.simulator.utils.CommonUtils.sleepSeconds;
 import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
 import static com.hazelcast.simulator.utils.TestUtils.assertEqualsStringFormat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
 
 public class ThreadSpawnerTest {
 
@@ -132,4 +134,35 @@ public class ThreadSpawnerTest {
         spawner.spawn(sleepInfiniteRunnable);
         spawner.awaitCompletion();
     }
+
+    @Test
+    public void testThreadSpawnerVirtual() {
+        assumeTrue(VirtualThreads.isSupported());
+        final AtomicInteger counter = new AtomicInteger(0);
+
+        ThreadSpawner spawner = new ThreadSpawner("AnyTestCaseId");
+        for (int i = 0; i < 1000; i++) {
+            spawner.spawnVirtual("NamePrefix", new Runnable() {
+                @Override
+                public void run() {
+                    counter.incrementAndGet();
+                }
+            });
+        }
+        spawner.awaitCompletion();
+
+        assertEqualsStringFormat("Expected counter to be %d, but as %d", 1000, counter.get());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testThreadSpawnerVirtual_whenNotSupported() {
+        assumeFalse(VirtualThreads.isSupported());
+
+        ThreadSpawner spawner = new ThreadSpawner("AnyTestCaseId");
+        spawner.spawnVirtual("NamePrefix", new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+    }
 }
@@ -0,0 +1,88 @@
+package com.hazelcast.simulator.worker.async;
+
+import com.hazelcast.simulator.probes.Probe;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class AsyncCompletionPoolTest {
+
+    private final AtomicLong completions = new AtomicLong();
+    private final CountingAdapter adapter = new CountingAdapter();
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_whenMaxInFlightZero() {
+        new AsyncCompletionPool(adapter, null, completions, 0);
+    }
+
+    @Test
+    public void testAcquire_reusesCompletedSlots() {
+        AsyncCompletionPool pool = new AsyncCompletionPool(adapter, null, completions, 2);
+
+        AsyncCompletion completion1 = pool.acquire(0);
+        AsyncCompletion completion2 = pool.acquire(0);
+        assertNotSame(completion1, completion2);
+        assertTrue(completion1.isInFlight());
+
+        completion2.complete();
+        assertFalse(completion2.isInFlight());
+        assertEquals(1, completions.get());
+        // the first slot is still in flight, so the completed second slot is reused
+        assertSame(completion2, pool.acquire(0));
+
+        completion1.complete();
+        completion2.complete();
+        for (int i = 0; i < 100; i++) {
+            pool.acquire(0).complete();
+        }
+        assertEquals(2, adapter.created);
+    }
+
+    @Test
+    public void testOnCompletion_recordsLatency() {
+        Probe probe = mock(Probe.class);
+        AsyncCompletionPool pool = new AsyncCompletionPool(adapter, probe, completions, 1);
+
+        for (int i = 0; i < 10; i++) {
+            CompletableFuture<String> future = new CompletableFuture<String>();
+            pool.onCompletion(future, System.nanoTime());
+            future.complete("value");
+        }
+
+        verify(probe, times(10)).recordValue(anyLong());
+        assertEquals(10, completions.get());
+        assertEquals(1, adapter.created);
+    }
+
+    private static final class CountingAdapter implements AsyncResultAdapter<CompletableFuture> {
+
+        private int created;
+
+        @Override
+        public Class<CompletableFuture> resultType() {
+            return CompletableFuture.class;
+        }
+
+        @Override
+        public void onCompletion(CompletableFuture result, AsyncCompletion completion) {
+            result.whenComplete(completion);
+        }
+
+        @Override
+        public AsyncCompletion newCompletion(Probe probe, long startNanos, AtomicLong completions) {
+            created++;
+            return new AsyncCompletion(probe, startNanos, completions);
+        }
+    }
+}
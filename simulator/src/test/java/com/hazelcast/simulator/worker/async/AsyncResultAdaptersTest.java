@@ -0,0 +1,81 @@
+package com.hazelcast.simulator.worker.async;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class AsyncResultAdaptersTest {
+
+    @After
+    public void after() {
+        AsyncResultAdapters.unregister(CompletableFutureAdapter.class);
+    }
+
+    @Test
+    public void testFind_completionStage() {
+        assertEquals(CompletionStageAdapter.class, AsyncResultAdapters.find(CompletionStage.class).getClass());
+        assertEquals(CompletionStageAdapter.class, AsyncResultAdapters.find(CompletableFuture.class).getClass());
+    }
+
+    @Test
+    public void testFind_notAsync() {
+        assertNull(AsyncResultAdapters.find(Object.class));
+        assertNull(AsyncResultAdapters.find(String.class));
+        assertNull(AsyncResultAdapters.find(void.class));
+        assertNull(AsyncResultAdapters.find(long.class));
+    }
+
+    @Test
+    public void testRegister_takesPrecedence() {
+        CompletableFutureAdapter adapter = new CompletableFutureAdapter();
+        AsyncResultAdapters.register(adapter);
+
+        assertSame(adapter, AsyncResultAdapters.find(CompletableFuture.class));
+        assertEquals(CompletionStageAdapter.class, AsyncResultAdapters.find(CompletionStage.class).getClass());
+    }
+
+    @Test
+    public void testRegister_sameClassTwice() {
+        CompletableFutureAdapter adapter = new CompletableFutureAdapter();
+        AsyncResultAdapters.register(adapter);
+        AsyncResultAdapters.register(new CompletableFutureAdapter());
+
+        assertSame(adapter, AsyncResultAdapters.find(CompletableFuture.class));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testRegister_null() {
+        AsyncResultAdapters.register(null);
+    }
+
+    @Test
+    public void testCompletion() {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        AtomicLong completions = new AtomicLong();
+        new CompletionStageAdapter().onCompletion(future, new AsyncCompletion(null, 0, completions));
+        assertEquals(0, completions.get());
+
+        future.complete(null);
+        assertEquals(1, completions.get());
+    }
+
+    private static final class CompletableFutureAdapter implements AsyncResultAdapter<CompletableFuture> {
+
+        @Override
+        public Class<CompletableFuture> resultType() {
+            return CompletableFuture.class;
+        }
+
+        @Override
+        public void onCompletion(CompletableFuture result, AsyncCompletion completion) {
+            result.whenComplete(completion);
+        }
+    }
+}
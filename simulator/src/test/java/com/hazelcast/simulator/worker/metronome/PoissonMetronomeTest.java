@@ -0,0 +1,56 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PoissonMetronomeTest {
+
+    @Test
+    public void test_getIntervalNanos() {
+        long intervalNanos = MILLISECONDS.toNanos(100);
+        PoissonMetronome metronome = new PoissonMetronome(intervalNanos, true);
+        assertEquals(intervalNanos, metronome.getIntervalNanos());
+    }
+
+    @Test
+    public void test_meanInterval() {
+        long intervalNanos = MICROSECONDS.toNanos(10);
+        PoissonMetronome metronome = new PoissonMetronome(new PoissonMetronome(intervalNanos, true));
+
+        int count = 10000;
+        long first = metronome.waitForNext();
+        long last = first;
+        for (int i = 0; i < count; i++) {
+            long expectedStart = metronome.waitForNext();
+            assertTrue(expectedStart >= last);
+            last = expectedStart;
+        }
+
+        double meanIntervalNanos = (last - first) / (double) count;
+        assertEquals(intervalNanos, meanIntervalNanos, intervalNanos * 0.1);
+    }
+
+    @Test
+    public void test_exponentialIntervalNanos() {
+        int count = 100000;
+        double meanNanos = 1000;
+        long sum = 0;
+        int belowMean = 0;
+        for (int i = 0; i < count; i++) {
+            long interval = PoissonMetronome.exponentialIntervalNanos(meanNanos);
+            assertTrue(interval >= 0);
+            sum += interval;
+            if (interval < meanNanos) {
+                belowMean++;
+            }
+        }
+
+        assertEquals(meanNanos, sum / (double) count, meanNanos * 0.05);
+        // for an exponential distribution 1 - 1/e (~63%) of the values is below the mean
+        assertEquals(1 - 1 / Math.E, belowMean / (double) count, 0.02);
+    }
+}
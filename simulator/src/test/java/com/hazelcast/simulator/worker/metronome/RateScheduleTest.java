@@ -0,0 +1,156 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import com.hazelcast.simulator.worker.testcontainer.IllegalTestException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+
+import static com.hazelcast.simulator.utils.FileUtils.deleteQuiet;
+import static com.hazelcast.simulator.utils.FileUtils.writeText;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+public class RateScheduleTest {
+
+    private static final double DELTA = 0.0001;
+
+    private final File csvFile = new File("rateSchedule.csv");
+
+    @After
+    public void after() {
+        deleteQuiet(csvFile);
+    }
+
+    @Test
+    public void testStep() {
+        RateSchedule schedule = RateSchedule.parse("rateSchedule", "step:1000@0s,5000@1m,2000@5m");
+
+        assertEquals(1000, schedule.ratePerSecond(0), DELTA);
+        assertEquals(1000, schedule.ratePerSecond(SECONDS.toNanos(59)), DELTA);
+        assertEquals(5000, schedule.ratePerSecond(MINUTES.toNanos(1)), DELTA);
+        assertEquals(5000, schedule.ratePerSecond(MINUTES.toNanos(4)), DELTA);
+        assertEquals(2000, schedule.ratePerSecond(MINUTES.toNanos(10)), DELTA);
+        assertEquals(5000, schedule.maxRatePerSecond(), DELTA);
+    }
+
+    @Test
+    public void testStep_earlierMomentAfterLaterMoment() {
+        RateSchedule schedule = RateSchedule.parse("rateSchedule", "step:1000@10s,5000@1m,2000@5m");
+
+        assertEquals(2000, schedule.ratePerSecond(MINUTES.toNanos(10)), DELTA);
+        // a thread which lags behind still gets the rate of its own moment
+        assertEquals(5000, schedule.ratePerSecond(MINUTES.toNanos(2)), DELTA);
+        assertEquals(1000, schedule.ratePerSecond(0), DELTA);
+        assertEquals(2000, schedule.ratePerSecond(MINUTES.toNanos(6)), DELTA);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testStep_notAscending() {
+        RateSchedule.parse("rateSchedule", "step:1000@1m,5000@0s");
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testStep_endsWithZeroRate() {
+        RateSchedule.parse("rateSchedule", "step:1000@0s,0@1m");
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testStep_missingTime() {
+        RateSchedule.parse("rateSchedule", "step:1000");
+    }
+
+    @Test
+    public void testRamp() {
+        RateSchedule schedule = RateSchedule.parse("rateSchedule", "ramp:1000,3000,10s");
+
+        assertEquals(1000, schedule.ratePerSecond(0), DELTA);
+        assertEquals(2000, schedule.ratePerSecond(SECONDS.toNanos(5)), DELTA);
+        assertEquals(3000, schedule.ratePerSecond(SECONDS.toNanos(10)), DELTA);
+        assertEquals(3000, schedule.ratePerSecond(SECONDS.toNanos(100)), DELTA);
+        assertEquals(3000, schedule.maxRatePerSecond(), DELTA);
+    }
+
+    @Test
+    public void testRamp_down() {
+        RateSchedule schedule = RateSchedule.parse("rateSchedule", "ramp:3000,1000,10s");
+
+        assertEquals(3000, schedule.ratePerSecond(0), DELTA);
+        assertEquals(1000, schedule.ratePerSecond(SECONDS.toNanos(100)), DELTA);
+        assertEquals(3000, schedule.maxRatePerSecond(), DELTA);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testRamp_downToZero() {
+        RateSchedule.parse("rateSchedule", "ramp:3000,0,10s");
+    }
+
+    @Test
+    public void testSine() {
+        RateSchedule schedule = RateSchedule.parse("rateSchedule", "sine:5000,2000,4s");
+
+        assertEquals(5000, schedule.ratePerSecond(0), DELTA);
+        assertEquals(7000, schedule.ratePerSecond(SECONDS.toNanos(1)), DELTA);
+        assertEquals(5000, schedule.ratePerSecond(SECONDS.toNanos(2)), DELTA);
+        assertEquals(3000, schedule.ratePerSecond(SECONDS.toNanos(3)), DELTA);
+        assertEquals(7000, schedule.ratePerSecond(SECONDS.toNanos(5)), DELTA);
+        assertEquals(7000, schedule.maxRatePerSecond(), DELTA);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testSine_amplitudeLargerThanMean() {
+        RateSchedule.parse("rateSchedule", "sine:1000,2000,4s");
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testSine_zeroPeriod() {
+        RateSchedule.parse("rateSchedule", "sine:1000,200,0s");
+    }
+
+    @Test
+    public void testCsv() {
+        writeText("# seconds,rate\n0,100\n\n1.5,200\n10,50\n", csvFile);
+
+        RateSchedule schedule = RateSchedule.parse("rateSchedule", "csv:" + csvFile.getAbsolutePath());
+
+        assertEquals(100, schedule.ratePerSecond(0), DELTA);
+        assertEquals(100, schedule.ratePerSecond(MILLISECONDS.toNanos(1499)), DELTA);
+        assertEquals(200, schedule.ratePerSecond(MILLISECONDS.toNanos(1500)), DELTA);
+        assertEquals(50, schedule.ratePerSecond(SECONDS.toNanos(20)), DELTA);
+        assertEquals(200, schedule.maxRatePerSecond(), DELTA);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testCsv_fileNotFound() {
+        RateSchedule.parse("rateSchedule", "csv:notFound.csv");
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testCsv_empty() {
+        writeText("# seconds,rate\n", csvFile);
+
+        RateSchedule.parse("rateSchedule", "csv:" + csvFile.getAbsolutePath());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testMissingType() {
+        RateSchedule.parse("rateSchedule", "1000");
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testUnknownType() {
+        RateSchedule.parse("rateSchedule", "square:1000,10s");
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testNotANumber() {
+        RateSchedule.parse("rateSchedule", "ramp:foo,1000,10s");
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testNegativeRate() {
+        RateSchedule.parse("rateSchedule", "ramp:-1,1000,10s");
+    }
+}
@@ -0,0 +1,60 @@
+package com.hazelcast.simulator.worker.metronome;
+
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScheduledRateMetronomeTest {
+
+    @Test
+    public void testStep_expectedStartTimesFollowSchedule() {
+        // 100 requests per second for 50ms, then 1000 requests per second
+        RateSchedule schedule = RateSchedule.parse("rateSchedule", "step:100@0ms,1000@50ms");
+        ScheduledRateMetronome metronome = new ScheduledRateMetronome(schedule, 1, false, true);
+
+        long first = metronome.waitForNext();
+        long previous = first;
+        for (int i = 0; i < 30; i++) {
+            long expectedStart = metronome.waitForNext();
+            long interval = expectedStart - previous;
+            if (previous - first >= MILLISECONDS.toNanos(60)) {
+                assertEquals(MILLISECONDS.toNanos(1), interval);
+            }
+            previous = expectedStart;
+        }
+    }
+
+    @Test
+    public void testThreadCount() {
+        RateSchedule schedule = RateSchedule.parse("rateSchedule", "step:1000@0s");
+        ScheduledRateMetronome master = new ScheduledRateMetronome(schedule, 4, false, true);
+        ScheduledRateMetronome metronome = new ScheduledRateMetronome(master);
+
+        metronome.waitForNext();
+        long expectedStart = metronome.waitForNext();
+
+        // every thread makes a quarter of the requests
+        assertEquals(MILLISECONDS.toNanos(4), metronome.waitForNext() - expectedStart);
+        assertTrue(master.getRateSchedule() == metronome.getRateSchedule());
+    }
+
+    @Test
+    public void testPoissonArrivals() {
+        RateSchedule schedule = RateSchedule.parse("rateSchedule", "step:100000@0s");
+        ScheduledRateMetronome metronome = new ScheduledRateMetronome(schedule, 1, true, true);
+
+        int count = 10000;
+        long first = metronome.waitForNext();
+        long last = first;
+        for (int i = 0; i < count; i++) {
+            last = metronome.waitForNext();
+        }
+
+        double meanIntervalNanos = (last - first) / (double) count;
+        double expectedIntervalNanos = SECONDS.toNanos(1) / 100000d;
+        assertEquals(expectedIntervalNanos, meanIntervalNanos, expectedIntervalNanos * 0.1);
+    }
+}
@@ -2,6 +2,9 @@ package com.hazelcast.simulator.worker.performance;
 
 import org.junit.Test;
 
+import java.util.Map;
+
+import static java.util.Collections.singletonMap;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -27,6 +30,31 @@ public class PerformanceStatsTest {
         assertEquals(200, addState.getIntervalLatencyMaxNanos());
     }
 
+    @Test
+    public void testAdd_allocatedBytesPerOperation() {
+        PerformanceStats addState = new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200, allocation("get", 48.0));
+
+        addState.add(new PerformanceStats(150, 6.0, 12.0, 90.0d, 80, 100, allocation("get", 64.0)));
+        assertEquals(64.0, addState.getIntervalAllocatedBytesPerOperation().get("get"), 0.00001);
+
+        addState.add(new PerformanceStats(150, 6.0, 12.0, 90.0d, 80, 100, allocation("put", 16.0)));
+        assertEquals(64.0, addState.getIntervalAllocatedBytesPerOperation().get("get"), 0.00001);
+        assertEquals(16.0, addState.getIntervalAllocatedBytesPerOperation().get("put"), 0.00001);
+
+        addState.add(new PerformanceStats(150, 6.0, 12.0, 90.0d, 80, 100));
+        assertEquals(2, addState.getIntervalAllocatedBytesPerOperation().size());
+    }
+
+    @Test
+    public void testAllocatedBytesPerOperation_notMeasured() {
+        assertTrue(new PerformanceStats().getIntervalAllocatedBytesPerOperation().isEmpty());
+        assertTrue(new PerformanceStats(100, 5.0, 10.0, 175.0d, 150, 200).getIntervalAllocatedBytesPerOperation().isEmpty());
+    }
+
+    private static Map<String, Double> allocation(String executionGroup, double bytesPerOperation) {
+        return singletonMap(executionGroup, bytesPerOperation);
+    }
+
     @Test
     public void testAdd_emptyState() {
         PerformanceStats addState = new PerformanceStats(100, 5.0, 10.0, 550.0d, 300, 800);
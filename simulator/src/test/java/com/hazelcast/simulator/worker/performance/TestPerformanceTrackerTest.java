@@ -0,0 +1,99 @@
+package com.hazelcast.simulator.worker.performance;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.utils.ExceptionReporter;
+import com.hazelcast.simulator.worker.testcontainer.TestContainer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.simulator.TestEnvironmentUtils.setupFakeUserDir;
+import static com.hazelcast.simulator.TestEnvironmentUtils.teardownFakeUserDir;
+import static com.hazelcast.simulator.utils.FileUtils.fileAsText;
+import static com.hazelcast.simulator.utils.FileUtils.getUserDir;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestPerformanceTrackerTest {
+
+    private static final long INTERVAL_MILLIS = 1000;
+
+    private TestContainer container;
+    private TestPerformanceTracker tracker;
+    private final Map<String, Long> iterations = new HashMap<String, Long>();
+    private final Map<String, Long> allocatedBytes = new HashMap<String, Long>();
+    private long nowMillis = 10000;
+
+    @Before
+    public void before() {
+        setupFakeUserDir();
+        ExceptionReporter.reset();
+
+        container = mock(TestContainer.class);
+        when(container.getTestCase()).thenReturn(new TestCase("test"));
+        when(container.isRunning()).thenReturn(true);
+        when(container.getRunStartedMillis()).thenReturn(nowMillis);
+        when(container.getProbeMap()).thenReturn(Collections.<String, Probe>emptyMap());
+        // the tracker keeps the returned maps as the values of the previous interval, so copies are returned
+        when(container.iterationsPerExecutionGroup()).thenAnswer(invocation -> new HashMap<String, Long>(iterations));
+        when(container.allocatedBytesPerExecutionGroup()).thenAnswer(invocation -> new HashMap<String, Long>(allocatedBytes));
+
+        tracker = new TestPerformanceTracker(container);
+    }
+
+    @After
+    public void after() {
+        teardownFakeUserDir();
+        ExceptionReporter.reset();
+    }
+
+    @Test
+    public void testAllocatedBytesPerOperation_perExecutionGroup() {
+        update(0, 0, 0, 0);
+        update(1000, 0, 100, 102400);
+
+        Map<String, Double> bytesPerOperation = tracker.intervalAllocatedBytesPerOperation();
+        assertEquals(0, bytesPerOperation.get(""), 0.001);
+        assertEquals(1024, bytesPerOperation.get("producer"), 0.001);
+        assertEquals(102400, tracker.intervalAllocatedBytes());
+        assertEquals(1100, tracker.intervalAllocationOperationCount());
+    }
+
+    @Test
+    public void testMaxAllocatedBytesPerOperation_whenExceeded_thenReportedOnce() {
+        when(container.maxAllocatedBytesPerOperation()).thenReturn(singletonMap("producer", 1.0));
+
+        update(0, 0, 0, 0);
+        update(1000, 0, 100, 100);
+        assertFalse(new File(getUserDir(), "1.exception").exists());
+
+        update(2000, 0, 200, 102400);
+        update(3000, 0, 300, 204800);
+
+        File exceptionFile = new File(getUserDir(), "1.exception");
+        assertTrue(exceptionFile.exists());
+        assertTrue(fileAsText(exceptionFile).contains("executionGroup [producer]"));
+        assertFalse(new File(getUserDir(), "2.exception").exists());
+    }
+
+    private void update(long defaultIterations, long defaultBytes, long producerIterations, long producerBytes) {
+        iterations.put("", defaultIterations);
+        iterations.put("producer", producerIterations);
+        allocatedBytes.put("", defaultBytes);
+        allocatedBytes.put("producer", producerBytes);
+        when(container.iteration()).thenReturn(defaultIterations + producerIterations);
+
+        tracker.update(INTERVAL_MILLIS, nowMillis);
+        nowMillis += INTERVAL_MILLIS;
+    }
+}
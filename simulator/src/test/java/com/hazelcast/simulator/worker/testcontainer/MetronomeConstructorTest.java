@@ -2,8 +2,11 @@ package com.hazelcast.simulator.worker.testcontainer;
 
 import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.worker.metronome.BusySpinningMetronome;
+import com.hazelcast.simulator.worker.metronome.ConstantCombinedRateMetronome;
 import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
 import com.hazelcast.simulator.worker.metronome.Metronome;
+import com.hazelcast.simulator.worker.metronome.PoissonMetronome;
+import com.hazelcast.simulator.worker.metronome.ScheduledRateMetronome;
 import com.hazelcast.simulator.worker.metronome.SleepingMetronome;
 import org.junit.Test;
 
@@ -93,4 +96,167 @@ public class MetronomeConstructorTest {
         Metronome m = metronomeConstructor.newInstance();
         assertEquals(EmptyMetronome.class, m.getClass());
     }
+
+    @Test
+    public void withPoissonMetronome() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("ratePerSecond", 1000)
+                        .setProperty("metronomeClass", PoissonMetronome.class));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("", propertyBinding, 10);
+
+        Metronome m = metronomeConstructor.newInstance();
+        assertEquals(PoissonMetronome.class, m.getClass());
+        PoissonMetronome metronome = (PoissonMetronome) m;
+
+        assertEquals(MILLISECONDS.toNanos(10), metronome.getIntervalNanos());
+    }
+
+    @Test
+    public void withRateSchedule() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("rateSchedule", "ramp:100,1000,1m")
+                        .setProperty("poissonArrivals", true));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("", propertyBinding, 10);
+
+        assertEquals(MILLISECONDS.toNanos(1), metronomeConstructor.getIntervalNanos());
+        Metronome m = metronomeConstructor.newInstance();
+        assertEquals(ScheduledRateMetronome.class, m.getClass());
+        propertyBinding.ensureNoUnusedProperties();
+    }
+
+    @Test
+    public void withRateSchedule_andExecutionGroup() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("groupRateSchedule", "step:100@0s,1000@10s"));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("group", propertyBinding, 10);
+
+        assertEquals(ScheduledRateMetronome.class, metronomeConstructor.getMetronomeClass());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void withRateSchedule_andRatePerSecond() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("ratePerSecond", 1000)
+                        .setProperty("rateSchedule", "ramp:100,1000,1m"));
+        new MetronomeConstructor("", propertyBinding, 1);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void withRateSchedule_andOtherMetronome() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("rateSchedule", "ramp:100,1000,1m")
+                        .setProperty("metronomeClass", SleepingMetronome.class));
+        new MetronomeConstructor("", propertyBinding, 1);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void withScheduledRateMetronome_withoutRateSchedule() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("ratePerSecond", 1000)
+                        .setProperty("metronomeClass", ScheduledRateMetronome.class));
+        new MetronomeConstructor("", propertyBinding, 1);
+    }
+
+    @Test
+    public void testSetRatePerSecond() {
+        PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo").setProperty("ratePerSecond", 100));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("", propertyBinding, 10);
+        SleepingMetronome metronome = (SleepingMetronome) metronomeConstructor.newInstance();
+
+        metronomeConstructor.setRatePerSecond(1000);
+
+        assertEquals(MILLISECONDS.toNanos(1), metronomeConstructor.getIntervalNanos());
+        // the already created metronome picks up the new rate; every thread does a 10th of the requests
+        assertEquals(MILLISECONDS.toNanos(10), metronome.getIntervalNanos());
+    }
+
+    @Test
+    public void testSetRatePerSecond_constantCombinedRateMetronome() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo")
+                        .setProperty("ratePerSecond", 100)
+                        .setProperty("metronomeClass", ConstantCombinedRateMetronome.class));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("", propertyBinding, 10);
+        ConstantCombinedRateMetronome metronome = (ConstantCombinedRateMetronome) metronomeConstructor.newInstance();
+
+        metronomeConstructor.setRatePerSecond(1000);
+
+        assertEquals(MILLISECONDS.toNanos(1), metronome.getIntervalNanos());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSetRatePerSecond_withoutRate() {
+        PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo"));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("", propertyBinding, 10);
+
+        metronomeConstructor.setRatePerSecond(1000);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSetRatePerSecond_withRateSchedule() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo").setProperty("rateSchedule", "ramp:100,1000,1m"));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("", propertyBinding, 10);
+
+        metronomeConstructor.setRatePerSecond(1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetRatePerSecond_zero() {
+        PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo").setProperty("ratePerSecond", 100));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("", propertyBinding, 10);
+
+        metronomeConstructor.setRatePerSecond(0);
+    }
+
+    @Test
+    public void testSetThreadCount() {
+        PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo").setProperty("ratePerSecond", 100));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("", propertyBinding, 10);
+        SleepingMetronome metronome = (SleepingMetronome) metronomeConstructor.newInstance();
+
+        metronomeConstructor.setThreadCount(20);
+
+        // the rate of the execution group stays the same, so every thread does a 20th of the requests
+        assertEquals(20, metronomeConstructor.getThreadCount());
+        assertEquals(MILLISECONDS.toNanos(10), metronomeConstructor.getIntervalNanos());
+        assertEquals(MILLISECONDS.toNanos(200), metronome.getIntervalNanos());
+
+        metronomeConstructor.setRatePerSecond(1000);
+
+        assertEquals(MILLISECONDS.toNanos(20), metronome.getIntervalNanos());
+    }
+
+    @Test
+    public void testSetThreadCount_withoutRate() {
+        PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo"));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("", propertyBinding, 10);
+
+        metronomeConstructor.setThreadCount(20);
+
+        assertEquals(20, metronomeConstructor.getThreadCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSetThreadCount_withRateSchedule() {
+        PropertyBinding propertyBinding = new PropertyBinding(
+                new TestCase("foo").setProperty("rateSchedule", "ramp:100,1000,1m"));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("", propertyBinding, 10);
+
+        metronomeConstructor.setThreadCount(20);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetThreadCount_zero() {
+        PropertyBinding propertyBinding = new PropertyBinding(new TestCase("foo").setProperty("ratePerSecond", 100));
+        MetronomeConstructor metronomeConstructor = new MetronomeConstructor("", propertyBinding, 10);
+
+        metronomeConstructor.setThreadCount(0);
+    }
 }
@@ -1,9 +1,16 @@
 package com.hazelcast.simulator.worker.testcontainer;
 
+import com.hazelcast.simulator.common.TestCase;
 import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.test.PrepareShard;
 import com.hazelcast.simulator.test.annotations.Prepare;
+import com.hazelcast.simulator.utils.BindException;
 import org.junit.Test;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -29,6 +36,59 @@ public class TestContainer_PrepareTest extends TestContainer_AbstractTest {
         assertTrue(test.globalPrepareCalled);
     }
 
+    @Test
+    public void testPartitionedPrepare() throws Exception {
+        PartitionedPrepareTest test = new PartitionedPrepareTest();
+        testContainer = createTestContainer(test, new TestCase("foo").setProperty("prepareThreadCount", "3"));
+        testContainer.invoke(TestPhase.LOCAL_PREPARE, 1, 2);
+
+        assertTrue(test.localPrepareCalled);
+        assertEquals(3, test.shards.size());
+        assertTrue(testContainer.hasPartitionedPrepare());
+        // worker 1 of 2 owns the second half of the keys
+        assertEquals(50, testContainer.getPreparedItemCount());
+        assertEquals(50, test.keys.size());
+        for (int key = 50; key < 100; key++) {
+            assertTrue(test.keys.contains(key));
+        }
+    }
+
+    @Test
+    public void testPartitionedPrepare_notInGlobalPrepare() throws Exception {
+        PartitionedPrepareTest test = new PartitionedPrepareTest();
+        testContainer = createTestContainer(test);
+        testContainer.invoke(TestPhase.GLOBAL_PREPARE);
+
+        assertTrue(test.shards.isEmpty());
+        assertEquals(0, testContainer.getPreparedItemCount());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testPartitionedPrepare_whenGlobal() {
+        createTestContainer(new GlobalPartitionedPrepareTest());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testPartitionedPrepare_whenNoShardArgument() {
+        createTestContainer(new NoShardPartitionedPrepareTest());
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testPartitionedPrepare_whenInvalidThreadCount() {
+        createTestContainer(new PartitionedPrepareTest(), new TestCase("foo").setProperty("prepareThreadCount", "0"));
+    }
+
+    @Test(expected = BindException.class)
+    public void testPrepareThreadCount_whenNoPartitionedPrepare() {
+        createTestContainer(new PrepareTest(), new TestCase("foo").setProperty("prepareThreadCount", "3"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPartitionedPrepare_whenException() throws Exception {
+        testContainer = createTestContainer(new FailingPartitionedPrepareTest());
+        testContainer.invoke(TestPhase.LOCAL_PREPARE);
+    }
+
     private static class PrepareTest extends BaseTest {
 
         private boolean localPrepareCalled;
@@ -44,4 +104,47 @@ public class TestContainer_PrepareTest extends TestContainer_AbstractTest {
             globalPrepareCalled = true;
         }
     }
+
+    private static class PartitionedPrepareTest extends BaseTest {
+
+        private final Set<PrepareShard> shards = ConcurrentHashMap.newKeySet();
+        private final Set<Integer> keys = ConcurrentHashMap.newKeySet();
+        private boolean localPrepareCalled;
+
+        @Prepare
+        public void localPrepare() {
+            localPrepareCalled = true;
+        }
+
+        @Prepare(partitioned = true)
+        public void partitionedPrepare(PrepareShard shard) {
+            shards.add(shard);
+            for (long key = shard.start(100); key < shard.end(100); key++) {
+                keys.add((int) key);
+                shard.completed();
+            }
+        }
+    }
+
+    private static class GlobalPartitionedPrepareTest extends BaseTest {
+
+        @Prepare(global = true, partitioned = true)
+        public void prepare(PrepareShard shard) {
+        }
+    }
+
+    private static class NoShardPartitionedPrepareTest extends BaseTest {
+
+        @Prepare(partitioned = true)
+        public void prepare() {
+        }
+    }
+
+    private static class FailingPartitionedPrepareTest extends BaseTest {
+
+        @Prepare(partitioned = true)
+        public void prepare(PrepareShard shard) {
+            throw new IllegalStateException("expected");
+        }
+    }
 }
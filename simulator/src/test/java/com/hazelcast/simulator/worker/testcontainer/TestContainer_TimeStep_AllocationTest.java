@@ -0,0 +1,164 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.test.BaseThreadState;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import org.junit.Test;
+
+import static com.hazelcast.simulator.utils.TestUtils.assertNoExceptions;
+import static java.lang.String.format;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies that the generated timestep loop doesn't allocate, so the allocations measured with measureAllocation are caused
+ * by the test itself and not by the harness.
+ */
+public class TestContainer_TimeStep_AllocationTest extends TestContainer_AbstractTest {
+
+    private static final int ITERATIONS = 2000000;
+    // the runner allocates a bit when it starts and completes, e.g. for logging
+    private static final double MAX_HARNESS_BYTES_PER_OPERATION = 1;
+
+    @Test
+    public void testHarness_doesNotAllocate() throws Exception {
+        TestContainer container = run(new EmptyTest(), new TestCase("allocation")
+                .setProperty("class", EmptyTest.class)
+                .setProperty("measureAllocation", true));
+
+        assertAllocatedBytesPerOperation(container, 0, MAX_HARNESS_BYTES_PER_OPERATION);
+    }
+
+    @Test
+    public void testHarness_doesNotAllocate_withProbabilitiesAndThreadState() throws Exception {
+        TestContainer container = run(new ProbabilityTest(), new TestCase("allocation")
+                .setProperty("class", ProbabilityTest.class)
+                .setProperty("readProb", 0.5)
+                .setProperty("writeProb", 0.5)
+                .setProperty("measureAllocation", true));
+
+        assertAllocatedBytesPerOperation(container, 0, MAX_HARNESS_BYTES_PER_OPERATION);
+    }
+
+    @Test
+    public void testAllocationOfTest_isMeasured() throws Exception {
+        TestContainer container = run(new AllocatingTest(), new TestCase("allocation")
+                .setProperty("class", AllocatingTest.class)
+                .setProperty("iterations", 10000)
+                .setProperty("measureAllocation", true));
+
+        assertAllocatedBytesPerOperation(container, 1024, 1024 + MAX_HARNESS_BYTES_PER_OPERATION + 100);
+    }
+
+    @Test
+    public void testAllocation_notMeasured() throws Exception {
+        TestContainer container = run(new EmptyTest(), new TestCase("allocation")
+                .setProperty("class", EmptyTest.class));
+
+        assertTrue(container.allocatedBytesPerExecutionGroup().isEmpty());
+    }
+
+    @Test
+    public void testAllocation_measuredPerExecutionGroup() throws Exception {
+        TestContainer container = run(new AllocatingGroupTest(), new TestCase("allocation")
+                .setProperty("class", AllocatingGroupTest.class)
+                .setProperty("iterations", 10000)
+                .setProperty("producerThreadCount", 1)
+                .setProperty("producerIterations", 10000)
+                .setProperty("measureAllocation", true)
+                .setProperty("producerMeasureAllocation", true));
+
+        assertAllocatedBytesPerOperation(container, "", 0, MAX_HARNESS_BYTES_PER_OPERATION + 10);
+        assertAllocatedBytesPerOperation(container, "producer", 1024, 1024 + MAX_HARNESS_BYTES_PER_OPERATION + 100);
+    }
+
+    @Test
+    public void testMaxAllocatedBytesPerOperation_measuresAllocation() throws Exception {
+        TestContainer container = run(new AllocatingTest(), new TestCase("allocation")
+                .setProperty("class", AllocatingTest.class)
+                .setProperty("iterations", 10000)
+                .setProperty("maxAllocatedBytesPerOperation", 1));
+
+        assertEquals(singletonMap("", 1.0), container.maxAllocatedBytesPerOperation());
+        assertAllocatedBytesPerOperation(container, 1024, 1024 + MAX_HARNESS_BYTES_PER_OPERATION + 100);
+    }
+
+    private TestContainer run(Object testInstance, TestCase testCase) throws Exception {
+        if (testCase.getProperty("iterations") == null) {
+            testCase.setProperty("iterations", ITERATIONS);
+        }
+        testCase.setProperty("threadCount", 1);
+
+        TestContainer container = createTestContainer(testInstance, testCase);
+        for (TestPhase phase : TestPhase.values()) {
+            container.invoke(phase);
+        }
+        assertNoExceptions();
+        return container;
+    }
+
+    private static void assertAllocatedBytesPerOperation(TestContainer container, double min, double max) {
+        assertAllocatedBytesPerOperation(container, "", min, max);
+    }
+
+    private static void assertAllocatedBytesPerOperation(TestContainer container, String executionGroup, double min,
+                                                         double max) {
+        long iterations = container.iterationsPerExecutionGroup().get(executionGroup);
+        assertTrue(iterations > 0);
+
+        double bytesPerOperation = container.allocatedBytesPerExecutionGroup().get(executionGroup) / (double) iterations;
+        assertTrue(format("expected between %s and %s allocated bytes per operation, but was %s", min, max, bytesPerOperation),
+                bytesPerOperation >= min && bytesPerOperation <= max);
+    }
+
+    public static class EmptyTest {
+
+        @TimeStep
+        public void timeStep() {
+        }
+    }
+
+    public static class ProbabilityTest {
+
+        @TimeStep
+        public void read(ThreadState state) {
+            state.reads++;
+        }
+
+        @TimeStep
+        public void write(ThreadState state) {
+            state.writes++;
+        }
+
+        public static class ThreadState extends BaseThreadState {
+            long reads;
+            long writes;
+        }
+    }
+
+    public static class AllocatingGroupTest {
+
+        private volatile Object sink;
+
+        @TimeStep
+        public void timeStep() {
+        }
+
+        @TimeStep(executionGroup = "producer")
+        public void produce() {
+            sink = new byte[1024 - 16];
+        }
+    }
+
+    public static class AllocatingTest {
+
+        private volatile Object sink;
+
+        @TimeStep
+        public void timeStep() {
+            sink = new byte[1024 - 16];
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package com.hazelcast.simulator.worker.testcontainer;
 
 import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.HdrProbe;
 import com.hazelcast.simulator.protocol.Server;
 import com.hazelcast.simulator.test.annotations.TimeStep;
 import com.hazelcast.simulator.utils.AssertTask;
+import com.hazelcast.simulator.worker.async.AsyncCompletion;
+import com.hazelcast.simulator.worker.async.AsyncResultAdapter;
+import com.hazelcast.simulator.worker.async.AsyncResultAdapters;
+import org.HdrHistogram.Histogram;
 import org.junit.Test;
 
 import java.util.concurrent.Callable;
@@ -12,6 +18,8 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.hazelcast.simulator.TestSupport.spawn;
 import static com.hazelcast.simulator.common.TestPhase.RUN;
@@ -19,6 +27,7 @@ import static com.hazelcast.simulator.common.TestPhase.SETUP;
 import static com.hazelcast.simulator.utils.TestUtils.assertCompletesEventually;
 import static com.hazelcast.simulator.utils.TestUtils.assertNoExceptions;
 import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -48,6 +57,65 @@ public class TestContainer_TimeStep_AsyncSupportTest extends TestContainer_Abstr
         assertTrueEventually(() -> assertEquals(100, testInstance.asyncCount));
     }
 
+    @Test
+    public void testMaxInFlight() throws Exception {
+        BoundedAsyncTest testInstance = new BoundedAsyncTest();
+        TestCase testCase = new TestCase("stopRun")
+                .setProperty("iterations", 1000)
+                .setProperty("threadCount", 1)
+                .setProperty("maxInFlight", 10)
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        final TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+
+        Future f = spawn((Callable) () -> {
+            container.invoke(RUN);
+            return null;
+        });
+
+        assertCompletesEventually(f);
+        assertNoExceptions();
+        assertTrueEventually(() -> assertEquals(1000, testInstance.completed.get()));
+        assertTrue(testInstance.maxInFlight <= 10);
+        assertTrue(container.getProbeMap().containsKey("asyncTimeStepInFlight"));
+    }
+
+    @Test
+    public void testCustomAsyncResult() throws Exception {
+        AsyncResultAdapters.register(new CustomFutureAdapter());
+
+        CustomAsyncTest testInstance = new CustomAsyncTest();
+        TestCase testCase = new TestCase("stopRun")
+                .setProperty("iterations", 100)
+                .setProperty("threadCount", 1)
+                .setProperty("maxInFlight", 10)
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        final TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+
+        Future f = spawn((Callable) () -> {
+            container.invoke(RUN);
+            return null;
+        });
+
+        assertCompletesEventually(f);
+        assertNoExceptions();
+        assertTrueEventually(() -> assertEquals(100, testInstance.completed.get()));
+        assertTrue(testInstance.maxInFlight <= 10);
+        testInstance.scheduler.shutdown();
+        assertTrue(testInstance.scheduler.awaitTermination(1, TimeUnit.MINUTES));
+
+        // the latency is measured until the completion, not until the future was returned
+        Histogram histogram = ((HdrProbe) container.getProbeMap().get("asyncTimeStep")).getIntervalHistogram();
+        assertEquals(100, histogram.getTotalCount());
+        assertTrue(histogram.getMinValue() >= MILLISECONDS.toNanos(CustomAsyncTest.DELAY_MILLIS));
+    }
 
     public static class AsyncTest {
         public ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
@@ -63,4 +131,111 @@ public class TestContainer_TimeStep_AsyncSupportTest extends TestContainer_Abstr
             return completableFuture;
         }
     }
+
+    public static class BoundedAsyncTest {
+        public ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+        public final AtomicInteger issued = new AtomicInteger();
+        public final AtomicInteger completed = new AtomicInteger();
+        public volatile int maxInFlight;
+
+        @TimeStep
+        public CompletableFuture<Object> asyncTimeStep() {
+            int inFlight = issued.incrementAndGet() - completed.get();
+            if (inFlight > maxInFlight) {
+                maxInFlight = inFlight;
+            }
+
+            CompletableFuture completableFuture = new CompletableFuture();
+            scheduler.schedule(() -> {
+                completed.incrementAndGet();
+                completableFuture.complete("1");
+            }, 1, TimeUnit.MILLISECONDS);
+            return completableFuture;
+        }
+    }
+
+    public static class CustomAsyncTest {
+        static final int DELAY_MILLIS = 5;
+
+        public ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+        public final AtomicInteger issued = new AtomicInteger();
+        public final AtomicInteger completed = new AtomicInteger();
+        public volatile int maxInFlight;
+
+        @TimeStep
+        public CustomFuture asyncTimeStep() {
+            int inFlight = issued.incrementAndGet() - completed.get();
+            if (inFlight > maxInFlight) {
+                maxInFlight = inFlight;
+            }
+
+            CustomFuture future = new CustomFuture();
+            scheduler.schedule(() -> {
+                completed.incrementAndGet();
+                future.complete();
+            }, DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            return future;
+        }
+    }
+
+    public interface CustomListener {
+        void onDone(CustomFuture future);
+    }
+
+    public static class CustomFuture {
+        private CustomListener listener;
+        private boolean done;
+
+        public void setListener(CustomListener listener) {
+            boolean notify;
+            synchronized (this) {
+                this.listener = listener;
+                notify = done;
+            }
+            if (notify) {
+                listener.onDone(this);
+            }
+        }
+
+        void complete() {
+            CustomListener notify;
+            synchronized (this) {
+                done = true;
+                notify = listener;
+            }
+            if (notify != null) {
+                notify.onDone(this);
+            }
+        }
+    }
+
+    public static class CustomFutureAdapter implements AsyncResultAdapter<CustomFuture> {
+
+        @Override
+        public Class<CustomFuture> resultType() {
+            return CustomFuture.class;
+        }
+
+        @Override
+        public void onCompletion(CustomFuture result, AsyncCompletion completion) {
+            result.setListener((CustomCompletion) completion);
+        }
+
+        @Override
+        public AsyncCompletion newCompletion(Probe probe, long startNanos, AtomicLong completions) {
+            return new CustomCompletion(probe, startNanos, completions);
+        }
+    }
+
+    static final class CustomCompletion extends AsyncCompletion implements CustomListener {
+
+        CustomCompletion(Probe probe, long startNanos, AtomicLong completions) {
+            super(probe, startNanos, completions);
+        }
+
+        @Override
+        public void onDone(CustomFuture future) {
+            complete();
+        }
+    }
 }
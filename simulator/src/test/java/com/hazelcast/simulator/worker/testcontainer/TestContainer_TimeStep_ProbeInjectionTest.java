@@ -6,6 +6,8 @@ import com.hazelcast.simulator.probes.impl.EmptyProbe;
 import com.hazelcast.simulator.probes.impl.HdrProbe;
 import com.hazelcast.simulator.protocol.Server;
 import com.hazelcast.simulator.test.StopException;
+import com.hazelcast.simulator.test.TestContext;
+import com.hazelcast.simulator.test.annotations.InjectTestContext;
 import com.hazelcast.simulator.test.annotations.StartNanos;
 import com.hazelcast.simulator.test.annotations.TimeStep;
 import org.junit.Test;
@@ -18,6 +20,8 @@ import static com.hazelcast.simulator.TestSupport.spawn;
 import static com.hazelcast.simulator.common.TestPhase.RUN;
 import static com.hazelcast.simulator.common.TestPhase.SETUP;
 import static com.hazelcast.simulator.utils.TestUtils.assertCompletesEventually;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
 
 /**
@@ -75,6 +79,45 @@ public class TestContainer_TimeStep_ProbeInjectionTest extends TestContainer_Abs
         assertInstanceOf(EmptyProbe.class, testInstance.probe);
     }
 
+    @Test
+    public void testProbeFromTestContext() throws Exception {
+        TestContextProbeTestClass testInstance = new TestContextProbeTestClass();
+        TestCase testCase = new TestCase("exceptionTest")
+                .setProperty("threadCount", 1)
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(
+                testCase.getId(), "localhost", mock(Server.class));
+        final TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+
+        Future f = spawn(new Callable() {
+            @Override
+            public Object call() throws Exception {
+                container.invoke(RUN);
+                return null;
+            }
+        });
+
+        assertCompletesEventually(f);
+        assertSame(testInstance.probe, container.getProbeMap().get("borrow"));
+        assertSame(testInstance.probe, testContext.getProbe("borrow"));
+        assertEquals(1, ((HdrProbe) testInstance.probe).getIntervalHistogram().getTotalCount());
+    }
+
+    public static class TestContextProbeTestClass {
+        @InjectTestContext
+        TestContext testContext;
+        volatile Probe probe;
+
+        @TimeStep
+        public void test() {
+            probe = testContext.getProbe("borrow");
+            probe.recordValue(100);
+            throw new StopException();
+        }
+    }
+
     public static class TestClass {
         volatile Probe probe;
 
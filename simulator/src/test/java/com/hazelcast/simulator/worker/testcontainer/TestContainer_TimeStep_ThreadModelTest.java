@@ -0,0 +1,143 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.common.TestPhase;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.utils.VirtualThreads;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.hazelcast.simulator.utils.TestUtils.assertNoExceptions;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+public class TestContainer_TimeStep_ThreadModelTest extends TestContainer_AbstractTest {
+
+    @Test
+    public void testThreadModel_default() throws Exception {
+        ThreadModelTest testInstance = new ThreadModelTest();
+
+        run(testInstance, new TestCase("threadModel")
+                .setProperty("class", ThreadModelTest.class));
+
+        assertEquals(singleton(false), testInstance.virtual);
+    }
+
+    @Test
+    public void testThreadModel_platform() throws Exception {
+        ThreadModelTest testInstance = new ThreadModelTest();
+
+        run(testInstance, new TestCase("threadModel")
+                .setProperty("class", ThreadModelTest.class)
+                .setProperty("threadModel", "platform"));
+
+        assertEquals(singleton(false), testInstance.virtual);
+    }
+
+    @Test
+    public void testThreadModel_virtual() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+        ThreadModelTest testInstance = new ThreadModelTest();
+
+        run(testInstance, new TestCase("threadModel")
+                .setProperty("class", ThreadModelTest.class)
+                .setProperty("threadModel", "virtual"));
+
+        assertEquals(singleton(true), testInstance.virtual);
+    }
+
+    @Test
+    public void testThreadModel_virtualPerExecutionGroup() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+        ExecutionGroupTest testInstance = new ExecutionGroupTest();
+
+        run(testInstance, new TestCase("threadModel")
+                .setProperty("class", ExecutionGroupTest.class)
+                .setProperty("producerThreadCount", 2)
+                .setProperty("producerIterations", 100)
+                .setProperty("producerThreadModel", "virtual"));
+
+        assertEquals(singleton(false), testInstance.virtual);
+        assertEquals(singleton(true), testInstance.producerVirtual);
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testThreadModel_virtual_whenNotSupported() {
+        assumeFalse(VirtualThreads.isSupported());
+
+        createTestContainer(new ThreadModelTest(), new TestCase("threadModel")
+                .setProperty("class", ThreadModelTest.class)
+                .setProperty("threadModel", "virtual"));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testThreadModel_invalid() {
+        createTestContainer(new ThreadModelTest(), new TestCase("threadModel")
+                .setProperty("class", ThreadModelTest.class)
+                .setProperty("threadModel", "green"));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testThreadModel_virtualWithMeasureAllocation() {
+        assumeTrue(VirtualThreads.isSupported());
+
+        createTestContainer(new ThreadModelTest(), new TestCase("threadModel")
+                .setProperty("class", ThreadModelTest.class)
+                .setProperty("threadModel", "virtual")
+                .setProperty("measureAllocation", true));
+    }
+
+    private void run(Object testInstance, TestCase testCase) throws Exception {
+        testCase.setProperty("threadCount", 2)
+                .setProperty("iterations", 100);
+
+        TestContainer container = createTestContainer(testInstance, testCase);
+        for (TestPhase phase : TestPhase.values()) {
+            container.invoke(phase);
+        }
+        assertNoExceptions();
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        try {
+            Method isVirtual = Thread.class.getMethod("isVirtual");
+            return (Boolean) isVirtual.invoke(thread);
+        } catch (NoSuchMethodException e) {
+            // the JVM doesn't support virtual threads
+            return false;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class ThreadModelTest {
+
+        final Set<Boolean> virtual = ConcurrentHashMap.newKeySet();
+
+        @TimeStep
+        public void timeStep() {
+            virtual.add(isVirtual(Thread.currentThread()));
+        }
+    }
+
+    public static class ExecutionGroupTest {
+
+        final Set<Boolean> virtual = ConcurrentHashMap.newKeySet();
+        final Set<Boolean> producerVirtual = ConcurrentHashMap.newKeySet();
+
+        @TimeStep
+        public void timeStep() {
+            virtual.add(isVirtual(Thread.currentThread()));
+        }
+
+        @TimeStep(executionGroup = "producer")
+        public void produce() {
+            producerVirtual.add(isVirtual(Thread.currentThread()));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.hazelcast.simulator.worker.testcontainer;
+
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.protocol.Server;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.simulator.TestSupport.spawn;
+import static com.hazelcast.simulator.common.TestPhase.RUN;
+import static com.hazelcast.simulator.common.TestPhase.SETUP;
+import static com.hazelcast.simulator.utils.TestUtils.assertCompletesEventually;
+import static com.hazelcast.simulator.utils.TestUtils.assertNoExceptions;
+import static com.hazelcast.simulator.utils.TestUtils.assertTrueEventually;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests changing the thread count and rate of a running test.
+ */
+public class TestContainer_TimeStep_UpdateTest extends TestContainer_AbstractTest {
+
+    @Test
+    public void testThreadCount() throws Exception {
+        final UpdateTest testInstance = new UpdateTest();
+        TestCase testCase = new TestCase("updateThreadCount")
+                .setProperty("threadCount", 2)
+                .setProperty("ratePerSecond", 1000)
+                .setProperty("class", testInstance.getClass());
+
+        final TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        final TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+
+        Future f = spawn(() -> {
+            container.invoke(RUN);
+            return null;
+        });
+
+        assertTrueEventually(() -> assertEquals(2, testInstance.aliveThreads()));
+
+        container.setThreadCount(null, 4);
+        assertTrueEventually(() -> assertEquals(4, testInstance.aliveThreads()));
+        assertEquals(4, testInstance.iterationsPerThread.size());
+
+        container.setThreadCount(null, 1);
+        assertTrueEventually(() -> assertEquals(1, testInstance.aliveThreads()));
+
+        // the iterations of the retired threads are still counted
+        final long iterations = container.iteration();
+        assertTrue(iterations > 0);
+        assertTrueEventually(() -> assertTrue(container.iteration() > iterations));
+
+        testContext.stop();
+        assertCompletesEventually(f);
+        assertNoExceptions();
+    }
+
+    @Test
+    public void testRatePerSecond() throws Exception {
+        final UpdateTest testInstance = new UpdateTest();
+        TestCase testCase = new TestCase("updateRate")
+                .setProperty("threadCount", 2)
+                .setProperty("ratePerSecond", 10)
+                .setProperty("class", testInstance.getClass());
+
+        final TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        final TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+
+        Future f = spawn(() -> {
+            container.invoke(RUN);
+            return null;
+        });
+
+        assertTrueEventually(() -> assertEquals(2, testInstance.aliveThreads()));
+        // with 10 requests per second it would take 100 seconds to do 1000 iterations
+        container.setRatePerSecond(null, 10000);
+        assertTrueEventually(() -> assertTrue(container.iteration() > 1000));
+
+        testContext.stop();
+        assertCompletesEventually(f);
+        assertNoExceptions();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThreadCount_unknownExecutionGroup() throws Exception {
+        final UpdateTest testInstance = new UpdateTest();
+        TestCase testCase = new TestCase("updateUnknownGroup")
+                .setProperty("class", testInstance.getClass());
+
+        final TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        final TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+
+        Future f = spawn(() -> {
+            container.invoke(RUN);
+            return null;
+        });
+
+        try {
+            assertTrueEventually(() -> assertEquals(10, testInstance.aliveThreads()));
+            container.setThreadCount("unknown", 4);
+        } finally {
+            testContext.stop();
+            assertCompletesEventually(f);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testThreadCount_notRunning() throws Exception {
+        UpdateTest testInstance = new UpdateTest();
+        TestCase testCase = new TestCase("updateNotRunning")
+                .setProperty("class", testInstance.getClass());
+
+        TestContextImpl testContext = new TestContextImpl(testCase.getId(), "localhost", mock(Server.class));
+        TestContainer container = new TestContainer(testContext, testInstance, testCase);
+        container.invoke(SETUP);
+
+        container.setThreadCount(null, 4);
+    }
+
+    public static class UpdateTest {
+
+        private final Map<Thread, AtomicLong> iterationsPerThread = new ConcurrentHashMap<>();
+
+        @TimeStep
+        public void timeStep() {
+            AtomicLong iterations = iterationsPerThread.get(Thread.currentThread());
+            if (iterations == null) {
+                iterations = new AtomicLong();
+                iterationsPerThread.put(Thread.currentThread(), iterations);
+            }
+            iterations.incrementAndGet();
+        }
+
+        int aliveThreads() {
+            int alive = 0;
+            for (Thread thread : iterationsPerThread.keySet()) {
+                if (thread.isAlive()) {
+                    alive++;
+                }
+            }
+            return alive;
+        }
+    }
+}
@@ -1,19 +1,80 @@
 package com.hazelcast.simulator.worker.testcontainer;
 
+import com.hazelcast.simulator.common.TestCase;
+import com.hazelcast.simulator.probes.Probe;
+import com.hazelcast.simulator.probes.impl.HdrProbe;
+import com.hazelcast.simulator.test.annotations.StartNanos;
+import com.hazelcast.simulator.test.annotations.TimeStep;
+import com.hazelcast.simulator.worker.metronome.EmptyMetronome;
+import com.hazelcast.simulator.worker.metronome.SleepingMetronome;
 import org.junit.Test;
 
-import javax.tools.JavaFileObject;
+import java.util.concurrent.CompletableFuture;
 
-import static org.mockito.Mockito.mock;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class TimeStepRunnerCodeGeneratorTest {
 
     private TimeStepRunnerCodeGenerator codeGenerator = new TimeStepRunnerCodeGenerator();
 
-    @Test(expected = IllegalStateException.class)
-    public void testCompile_whenCompilerIsNull_thenThrowIllegalStateException() {
-        JavaFileObject javaFileObject = mock(JavaFileObject.class);
+    @Test
+    public void testCompile() throws Exception {
+        TimeStepModel model = new TimeStepModel(GeneratedTest.class, new PropertyBinding(new TestCase("id")));
 
-        codeGenerator.compile(null, javaFileObject, "className");
+        Class runnerClass = codeGenerator.compile("id", "", model, SleepingMetronome.class, HdrProbe.class, null,
+                10, 100, true, false);
+
+        assertEquals("GeneratedTestRunnerid", runnerClass.getName());
+        assertTrue(TimeStepRunner.class.isAssignableFrom(runnerClass));
+        assertSame(GeneratedTest.class.getClassLoader(), runnerClass.getClassLoader().getParent());
+        runnerClass.getConstructor(GeneratedTest.class, TimeStepModel.class, String.class);
+    }
+
+    @Test
+    public void testCompile_withInFlightCap() {
+        TimeStepModel model = new TimeStepModel(AsyncTest.class, new PropertyBinding(new TestCase("id")));
+
+        Class runnerClass = codeGenerator.compile("id", "", model, EmptyMetronome.class, HdrProbe.class, null, 0, 0, false, true);
+
+        assertTrue(TimeStepRunner.class.isAssignableFrom(runnerClass));
+    }
+
+    @Test(expected = IllegalTestException.class)
+    public void testCompile_whenTestClassNotPublic_thenThrowIllegalTestException() {
+        TimeStepModel model = new TimeStepModel(NonPublicTest.class, new PropertyBinding(new TestCase("id")));
+
+        codeGenerator.compile("id", "", model, EmptyMetronome.class, HdrProbe.class, null, 0, 0, false, false);
+    }
+
+    public static class GeneratedTest {
+
+        @TimeStep(prob = 0.5)
+        public long timeStep(ThreadState state, @StartNanos long startNanos) {
+            return startNanos;
+        }
+
+        @TimeStep(prob = 0.5)
+        public void timeStepWithProbe(Probe probe) {
+        }
+
+        public static class ThreadState {
+        }
+    }
+
+    public static class AsyncTest {
+
+        @TimeStep
+        public CompletableFuture<Void> timeStep() {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    static class NonPublicTest {
+
+        @TimeStep
+        public void timeStep() {
+        }
     }
 }